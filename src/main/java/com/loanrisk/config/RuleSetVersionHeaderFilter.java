@@ -0,0 +1,53 @@
+package com.loanrisk.config;
+
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Adds the cluster-wide rule set version this instance currently scores with to the responses of the
+ * loan and scoring rule endpoints, so that operators can confirm that every instance serves the same
+ * rules after a change. It is read before the request is handled, so it is not necessarily the version
+ * that scored a loan application in the response; that one is sent as X-Rule-Set-Version by the
+ * loan application endpoints.
+ */
+@Component
+public class RuleSetVersionHeaderFilter extends OncePerRequestFilter {
+
+    public static final String RULE_SET_VERSION_HEADER = "X-Rule-Set-Version";
+    public static final String CURRENT_RULE_SET_VERSION_HEADER = "X-Current-Rule-Set-Version";
+
+    private final ObjectProvider<RuleSetProvider> ruleSetProvider;
+
+    public RuleSetVersionHeaderFilter(ObjectProvider<RuleSetProvider> ruleSetProvider) {
+        this.ruleSetProvider = ruleSetProvider;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/loan") && !path.startsWith("/rules");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // Set before the request is handled, since headers can't be added once the body is written.
+        // The provider is absent in slices that don't load the engine, e.g. @WebMvcTest
+        ruleSetProvider.ifAvailable(provider -> {
+            long ruleSetVersion = provider.getSnapshot().getRuleSetVersion();
+            // 0 means no version store has confirmed the snapshot's rules
+            if (ruleSetVersion > 0) {
+                response.setHeader(CURRENT_RULE_SET_VERSION_HEADER, Long.toString(ruleSetVersion));
+            }
+        });
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,12 @@
+package com.loanrisk.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs, such as the scoring rule refresh
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
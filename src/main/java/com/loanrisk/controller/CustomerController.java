@@ -1,7 +1,11 @@
 package com.loanrisk.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loanrisk.model.dto.CustomerImportRowResultDto;
+import com.loanrisk.model.dto.CustomerImportSummaryDto;
 import com.loanrisk.model.dto.CustomerRequestDto;
 import com.loanrisk.model.dto.CustomerResponseDto;
+import com.loanrisk.service.CustomerImportService;
 import com.loanrisk.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,22 +15,43 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
 @RestController
 @RequestMapping("/customers")
 @Tag(name = "Customer", description = "Customer management APIs")
 public class CustomerController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerImportService customerImportService,
+                              ObjectMapper objectMapper) {
         this.customerService = customerService;
+        this.customerImportService = customerImportService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -171,4 +196,87 @@ public class CustomerController {
         CustomerResponseDto customer = customerService.getCustomerById(id);
         return ResponseEntity.ok(customer);
     }
-}
\ No newline at end of file
+
+    /**
+     * Import customers in bulk. The body is read and the report written one batch at a time,
+     * so neither is held in memory.
+     *
+     * @param request the request, whose body holds one customer per line
+     * @param response the response, which receives one result per line and then the summary
+     * @throws IOException if the body cannot be read or the report cannot be written
+     */
+    @Operation(
+        summary = "Import customers in bulk",
+        description = "Streams customers from an NDJSON body (one customer request per line) or a CSV body "
+                + "(a header naming the customer request fields, then one customer per line). Every line is "
+                + "validated like a single customer request, and the valid ones are saved in batches, each "
+                + "committed on its own. The response is NDJSON: the result of every line in order, written "
+                + "as each batch is saved, then a summary line."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import report",
+            content = @Content(
+                mediaType = NDJSON,
+                examples = @ExampleObject(
+                    value = """
+                    {"line":1,"status":"CREATED","customerId":51}
+                    {"line":2,"status":"INVALID","errors":["age: Age must be at least 18"]}
+                    {"rowCount":2,"createdCount":1,"invalidCount":1,"failedCount":0,"durationMs":12}
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "The CSV header is missing a customer field",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "timestamp": "2025-04-18T11:05:00",
+                      "status": 400,
+                      "error": "Bad Request",
+                      "message": "The CSV header has no column for creditscore",
+                      "path": "/customers/import"
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(responseCode = "415", description = "The body is neither NDJSON nor CSV")
+    })
+    @PostMapping(value = "/import", consumes = {NDJSON, CSV})
+    public void importCustomers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        CustomerImportService.Format format = MediaType.parseMediaType(CSV).includes(contentType)
+                ? CustomerImportService.Format.CSV
+                : CustomerImportService.Format.NDJSON;
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), charset));
+        
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        // Nothing is sent before the first batch, so an import rejected before it still gets an error response
+        Writer report = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        CustomerImportSummaryDto summary = customerImportService.importCustomers(reader, format, results -> {
+            try {
+                for (CustomerImportRowResultDto result : results) {
+                    writeLine(report, result);
+                }
+                report.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writeLine(report, summary);
+        report.flush();
+    }
+
+    private void writeLine(Writer writer, Object value) throws IOException {
+        writer.write(objectMapper.writeValueAsString(value));
+        writer.write('\n');
+    }
+}
@@ -1,7 +1,9 @@
 package com.loanrisk.controller;
 
+import com.loanrisk.config.RuleSetVersionHeaderFilter;
 import com.loanrisk.model.dto.LoanApplicationRequestDto;
 import com.loanrisk.model.dto.LoanApplicationResponseDto;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
 import com.loanrisk.service.LoanApplicationService;
 import com.loanrisk.service.LoanEvaluationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -66,10 +68,11 @@ public class LoanApplicationController {
                       "loanAmount": 25000.00,
                       "loanPurpose": "HOME_IMPROVEMENT",
                       "requestedTermMonths": 36,
-                      "riskScore": 65,
-                      "riskLevel": "MEDIUM",
-                      "decision": "APPROVED",
+                      "riskScore": 20,
+                      "riskLevel": "LOW",
+                      "decision": "APPROVE",
                       "explanation": "Loan approved with standard interest rate",
+                      "ruleSetVersion": 3,
                       "createdAt": "2025-04-18T11:05:00",
                       "updatedAt": "2025-04-18T11:05:00"
                     }
@@ -112,6 +115,24 @@ public class LoanApplicationController {
                     """
                 )
             )
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Too many loan applications are waiting to be saved",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "timestamp": "2025-04-18T11:05:00",
+                      "status": 503,
+                      "error": "Service Unavailable",
+                      "message": "Too many loan applications are waiting to be saved, try again later",
+                      "path": "/loan/apply"
+                    }
+                    """
+                )
+            )
         )
     })
     @PostMapping("/apply")
@@ -138,13 +159,10 @@ public class LoanApplicationController {
             )
             LoanApplicationRequestDto loanApplicationRequestDto) {
         
-        // Create the loan application
-        LoanApplicationResponseDto createdApplication = loanApplicationService.createLoanApplication(loanApplicationRequestDto);
+        // Create and evaluate the loan application in one transaction
+        LoanApplicationResponseDto evaluatedApplication = loanApplicationService.applyForLoan(loanApplicationRequestDto);
         
-        // Evaluate the loan application
-        LoanApplicationResponseDto evaluatedApplication = loanApplicationService.evaluateLoanApplication(createdApplication.getId());
-        
-        return new ResponseEntity<>(evaluatedApplication, HttpStatus.CREATED);
+        return withRuleSetVersion(ResponseEntity.status(HttpStatus.CREATED), evaluatedApplication);
     }
 
     /**
@@ -183,10 +201,11 @@ public class LoanApplicationController {
                       "loanAmount": 25000.00,
                       "loanPurpose": "HOME_IMPROVEMENT",
                       "requestedTermMonths": 36,
-                      "riskScore": 65,
-                      "riskLevel": "MEDIUM",
-                      "decision": "APPROVED",
+                      "riskScore": 20,
+                      "riskLevel": "LOW",
+                      "decision": "APPROVE",
                       "explanation": "Loan approved with standard interest rate",
+                      "ruleSetVersion": 3,
                       "createdAt": "2025-04-18T11:05:00",
                       "updatedAt": "2025-04-18T11:05:00"
                     }
@@ -218,6 +237,58 @@ public class LoanApplicationController {
             @Parameter(description = "Loan application ID", required = true, example = "1")
             @PathVariable Long id) {
         LoanApplicationResponseDto loanApplication = loanApplicationService.getLoanApplicationById(id);
-        return ResponseEntity.ok(loanApplication);
+        return withRuleSetVersion(ResponseEntity.ok(), loanApplication);
+    }
+
+    /**
+     * Get the loan application writer statistics
+     *
+     * @return The queue depth and batch sizes of the loan application inserts
+     */
+    @Operation(
+        summary = "Get loan application insert statistics",
+        description = "Returns the depth of the group commit queue and the number and sizes of the insert batches written so far"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Statistics retrieved",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = LoanApplicationWriterStatsDto.class),
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "groupCommit": true,
+                      "queueDepth": 12,
+                      "queueCapacity": 1000,
+                      "batchCount": 2048,
+                      "rowCount": 51200,
+                      "averageBatchSize": 25.0,
+                      "lastBatchSize": 31,
+                      "maxBatchSize": 100,
+                      "rejectedCount": 0
+                    }
+                    """
+                )
+            )
+        )
+    })
+    @GetMapping("/apply/stats")
+    public ResponseEntity<LoanApplicationWriterStatsDto> getLoanApplicationWriterStats() {
+        return ResponseEntity.ok(loanApplicationService.getWriterStats());
+    }
+
+    /**
+     * Set the X-Rule-Set-Version header to the rule set version that scored the loan application.
+     * It is left out when the application has no stored version, e.g. when it was scored before
+     * the version was confirmed by the version store.
+     */
+    private static ResponseEntity<LoanApplicationResponseDto> withRuleSetVersion(ResponseEntity.BodyBuilder response,
+                                                                                 LoanApplicationResponseDto loanApplication) {
+        if (loanApplication.getRuleSetVersion() != null) {
+            response.header(RuleSetVersionHeaderFilter.RULE_SET_VERSION_HEADER, loanApplication.getRuleSetVersion().toString());
+        }
+        return response.body(loanApplication);
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,11 @@
 package com.loanrisk.controller;
 
+import com.loanrisk.model.dto.RescoringJobDto;
 import com.loanrisk.model.dto.ScoringRuleResponseDto;
+import com.loanrisk.service.LoanRescoringService;
 import com.loanrisk.service.ScoringRuleService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,8 +15,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 
@@ -23,10 +29,12 @@ import java.util.List;
 public class ScoringRuleController {
 
     private final ScoringRuleService scoringRuleService;
+    private final LoanRescoringService loanRescoringService;
 
     @Autowired
-    public ScoringRuleController(ScoringRuleService scoringRuleService) {
+    public ScoringRuleController(ScoringRuleService scoringRuleService, LoanRescoringService loanRescoringService) {
         this.scoringRuleService = scoringRuleService;
+        this.loanRescoringService = loanRescoringService;
     }
 
     /**
@@ -83,4 +91,101 @@ public class ScoringRuleController {
         List<ScoringRuleResponseDto> activeRules = scoringRuleService.findEnabledRules();
         return ResponseEntity.ok(activeRules);
     }
-}
\ No newline at end of file
+
+    /**
+     * Start re-scoring stored loan application evaluations with the current risk points and thresholds
+     *
+     * @return The started job, or the one already running
+     */
+    @Operation(
+        summary = "Re-score stored evaluations",
+        description = "Starts a background job that recomputes the risk score, risk level and decision of stored loan applications "
+                + "from their triggered rules and the current risk points, without evaluating the rules again. Applications scored "
+                + "by a rule set whose rule conditions have since changed are skipped. Only one job runs at a time; while one is "
+                + "running, it is returned instead."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Re-scoring job started or already running; its status is at the Location header",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = RescoringJobDto.class),
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "jobId": 3,
+                      "status": "RUNNING",
+                      "ruleSetVersion": 5,
+                      "rescoredRuleSetVersions": 0,
+                      "rescoredApplications": 0,
+                      "skippedRuleSetVersions": 0,
+                      "skippedApplications": 0,
+                      "startedAt": "2025-04-18T11:05:00",
+                      "durationMs": 0
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "422",
+            description = "The current rule set has no version yet"
+        )
+    })
+    @PostMapping("/rescore")
+    public ResponseEntity<RescoringJobDto> startRescoring() {
+        RescoringJobDto job = loanRescoringService.startRescoring();
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").buildAndExpand(job.getJobId()).toUri())
+                .body(job);
+    }
+
+    /**
+     * Get the progress or result of a re-scoring job
+     *
+     * @param jobId The job ID
+     * @return The job
+     */
+    @Operation(
+        summary = "Get a re-scoring job",
+        description = "Returns the status of a re-scoring job started on this instance, with the number of re-scored and "
+                + "skipped loan applications so far. Finished jobs are kept for the last 20 jobs."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Re-scoring job found",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = RescoringJobDto.class),
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "jobId": 3,
+                      "status": "COMPLETED",
+                      "ruleSetVersion": 5,
+                      "rescoredRuleSetVersions": 2,
+                      "rescoredApplications": 18250,
+                      "skippedRuleSetVersions": 1,
+                      "skippedApplications": 1200,
+                      "startedAt": "2025-04-18T11:05:00",
+                      "finishedAt": "2025-04-18T11:05:01",
+                      "durationMs": 840
+                    }
+                    """
+                )
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No such job on this instance"
+        )
+    })
+    @GetMapping("/rescore/{jobId}")
+    public ResponseEntity<RescoringJobDto> getRescoringJob(
+            @Parameter(description = "Re-scoring job ID", required = true, example = "3")
+            @PathVariable Long jobId) {
+        return ResponseEntity.ok(loanRescoringService.getRescoringJob(jobId));
+    }
+}
@@ -0,0 +1,19 @@
+package com.loanrisk.engine;
+
+/**
+ * How much of the rule set an evaluation evaluates
+ */
+public enum EvaluationMode {
+
+    /**
+     * Evaluate every rule, giving the full risk score and every triggered rule
+     */
+    FULL,
+
+    /**
+     * Evaluate the rules with the most risk points first, and stop as soon as the remaining rules can no
+     * longer change the decision. Meant for pre-screening and bulk jobs that only need the decision; the
+     * risk score and triggered rules of a result that stopped early are partial.
+     */
+    DECISION_ONLY
+}
@@ -0,0 +1,155 @@
+package com.loanrisk.engine;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The outcome of evaluating one loan application: the indexes of the triggered rules within the
+ * rule set snapshot they were evaluated against, the risk score, the risk level and the decision.
+ * <p>
+ * The triggered rules are only turned into a list, and the explanation is only rendered, when a
+ * caller asks for them, so that bulk evaluations that only need the score and decision do not
+ * pay for either.
+ * <p>
+ * A result is partial when the evaluation stopped once the decision was fixed
+ * ({@link EvaluationMode#DECISION_ONLY}): the decision is final, but rules that were not evaluated
+ * are missing from the triggered rules and risk score.
+ */
+public final class EvaluationResult {
+
+    /**
+     * Included in the explanation of a partial result
+     */
+    public static final String PARTIAL_EXPLANATION_NOTE =
+            "Partial evaluation: rules were skipped once the decision was fixed, so further risk factors may apply.";
+
+    private final RuleSetSnapshot snapshot;
+    private final BitSet triggeredRuleIndexes;
+    private final int riskScore;
+    private final String riskLevel;
+    private final String decision;
+    private final boolean partial;
+    private final Function<EvaluationResult, String> explanationRenderer;
+    // Rendered on the first call to getExplanation()
+    private String explanation;
+
+    /**
+     * @param snapshot the snapshot the rules were evaluated against
+     * @param triggeredRuleIndexes the indexes of the triggered rules; the result takes ownership of the bitset
+     * @param riskScore the sum of the risk points of the triggered rules
+     * @param riskLevel the risk level determined from the score
+     * @param decision the decision determined from the risk level
+     * @param partial whether the evaluation stopped before every rule was evaluated
+     * @param explanationRenderer renders the explanation of this result when it is first asked for
+     */
+    public EvaluationResult(RuleSetSnapshot snapshot, BitSet triggeredRuleIndexes, int riskScore, String riskLevel,
+                            String decision, boolean partial, Function<EvaluationResult, String> explanationRenderer) {
+        this.snapshot = snapshot;
+        this.triggeredRuleIndexes = triggeredRuleIndexes;
+        this.riskScore = riskScore;
+        this.riskLevel = riskLevel;
+        this.decision = decision;
+        this.partial = partial;
+        this.explanationRenderer = explanationRenderer;
+    }
+
+    /**
+     * Get the snapshot the rules were evaluated against
+     */
+    public RuleSetSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the cluster-wide rule set version of the snapshot the rules were evaluated against
+     */
+    public long getRuleSetVersion() {
+        return snapshot.getRuleSetVersion();
+    }
+
+    /**
+     * Get the indexes of the triggered rules within the snapshot's compiled rules
+     *
+     * @return a copy of the triggered rule indexes
+     */
+    public BitSet getTriggeredRuleIndexes() {
+        return (BitSet) triggeredRuleIndexes.clone();
+    }
+
+    /**
+     * Whether a rule triggered
+     *
+     * @param ruleIndex the index of the rule within the snapshot
+     */
+    public boolean isTriggered(int ruleIndex) {
+        return triggeredRuleIndexes.get(ruleIndex);
+    }
+
+    public int getTriggeredRuleCount() {
+        return triggeredRuleIndexes.cardinality();
+    }
+
+    /**
+     * Get the triggered rules in priority order
+     *
+     * @return a new list of the triggered rules
+     */
+    public List<ScoringRule> getTriggeredRules() {
+        List<CompiledRule> compiledRules = snapshot.getCompiledRules();
+        List<ScoringRule> triggeredRules = new ArrayList<>(triggeredRuleIndexes.cardinality());
+        for (int i = triggeredRuleIndexes.nextSetBit(0); i >= 0; i = triggeredRuleIndexes.nextSetBit(i + 1)) {
+            triggeredRules.add(compiledRules.get(i).getRule());
+        }
+        return triggeredRules;
+    }
+
+    public int getRiskScore() {
+        return riskScore;
+    }
+
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
+    public String getDecision() {
+        return decision;
+    }
+
+    /**
+     * Whether the evaluation stopped once the decision was fixed, leaving rules unevaluated; the
+     * triggered rules, risk score and explanation of a partial result are incomplete
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Get the explanation of this result, rendering it if it has not been asked for before
+     */
+    public String getExplanation() {
+        String rendered = explanation;
+        if (rendered == null) {
+            // Rendering is repeatable, so a result shared between threads may at worst render it twice
+            rendered = explanationRenderer.apply(this);
+            explanation = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Get a result with the same triggered rules, score and decision but another explanation
+     *
+     * @param explanationRenderer renders the explanation of the new result when it is first asked for
+     * @return the new result, sharing this result's triggered rule indexes
+     */
+    public EvaluationResult withExplanation(Function<EvaluationResult, String> explanationRenderer) {
+        return new EvaluationResult(snapshot, triggeredRuleIndexes, riskScore, riskLevel, decision, partial,
+                explanationRenderer);
+    }
+}
@@ -1,11 +1,13 @@
 package com.loanrisk.engine;
 
+import com.loanrisk.engine.context.EvaluationContext;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 /**
  * Interface for the rule engine that evaluates loan applications against scoring rules
@@ -22,6 +24,74 @@ public interface RuleEngine {
      */
     List<ScoringRule> evaluateRules(LoanApplication loanApplication, Customer customer, Map<String, Object> derivedFields);
     
+    /**
+     * Evaluate a loan application against all enabled rules, reading its field values from an evaluation context
+     * 
+     * @param context the populated evaluation context of the loan application
+     * @return list of rules that were triggered
+     */
+    List<ScoringRule> evaluateRules(EvaluationContext context);
+    
+    /**
+     * Evaluate a loan application against all enabled rules and determine its risk score, risk level and decision.
+     * The explanation is only rendered if the result's {@link EvaluationResult#getExplanation()} is called.
+     * 
+     * @param context the populated evaluation context of the loan application
+     * @return the evaluation result
+     */
+    EvaluationResult evaluate(EvaluationContext context);
+    
+    /**
+     * Evaluate a loan application, like {@link #evaluate(EvaluationContext)}, evaluating as much of the rule set as a mode requires
+     * 
+     * @param context the populated evaluation context of the loan application
+     * @param mode whether to evaluate every rule or to stop once the decision is fixed
+     * @return the evaluation result, which is partial if the evaluation stopped early
+     */
+    EvaluationResult evaluate(EvaluationContext context, EvaluationMode mode);
+    
+    /**
+     * Evaluate many loan applications against the same rule set snapshot, like {@link #evaluate(EvaluationContext)}
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @return the evaluation result of each loan application, in input order
+     */
+    List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel);
+    
+    /**
+     * Evaluate many loan applications against the same rule set snapshot, like {@link #evaluate(EvaluationContext, EvaluationMode)}
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @param mode whether to evaluate every rule or to stop once the decision is fixed
+     * @return the evaluation result of each loan application, in input order
+     */
+    List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel, EvaluationMode mode);
+    
+    /**
+     * Evaluate many loan applications, each with its own customer, against the same rule set snapshot.
+     * Every evaluating thread reuses one evaluation context for all the applications it evaluates.
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @return the rules triggered for each loan application, in input order
+     */
+    List<List<ScoringRule>> evaluateRules(List<LoanApplication> loanApplications, boolean parallel);
+    
+    /**
+     * Evaluate many loan applications against the same rule set snapshot, turning each evaluation
+     * into a result while the application's evaluation context is still valid
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @param resultFunction receives the evaluation context and evaluation result of each loan application;
+     *                       it is called from several threads at once when the batch is parallel
+     * @return the result for each loan application, in input order
+     */
+    <T> List<T> evaluateRules(List<LoanApplication> loanApplications, boolean parallel,
+                              BiFunction<EvaluationContext, EvaluationResult, T> resultFunction);
+    
     /**
      * Calculate the total risk score based on triggered rules
      * 
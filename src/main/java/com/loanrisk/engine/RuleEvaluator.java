@@ -14,10 +14,29 @@ public interface RuleEvaluator {
      */
     boolean evaluate(Object fieldValue, String ruleValue);
     
+    /**
+     * Parse a rule value once into the operand used by {@link #matches(Object, Object)}
+     * 
+     * @param fieldType the type of the field the rule is evaluated against
+     * @param ruleValue the rule value as stored on the scoring rule
+     * @return the parsed operand
+     * @throws IllegalArgumentException if the value cannot be parsed or the operator does not support the field type
+     */
+    Object parseOperand(Class<?> fieldType, String ruleValue);
+    
+    /**
+     * Evaluate a field value against an operand previously returned by {@link #parseOperand(Class, String)}
+     * 
+     * @param fieldValue the value of the field to evaluate, never null
+     * @param operand the parsed operand
+     * @return true if the rule is triggered, false otherwise
+     */
+    boolean matches(Object fieldValue, Object operand);
+    
     /**
      * Get the operator type this evaluator handles
      * 
      * @return the operator type
      */
     String getOperatorType();
-}
\ No newline at end of file
+}
@@ -1,8 +1,10 @@
 package com.loanrisk.engine.calculator;
 
+import com.loanrisk.engine.context.EvaluationContext;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -19,6 +21,26 @@ public interface DerivedFieldCalculator {
      */
     Map<String, Object> calculateDerivedFields(Customer customer, LoanApplication loanApplication);
     
+    /**
+     * Calculate one derived field and store it directly in its slot of an evaluation context.
+     * The derived fields it depends on are read from the context, which calculates them first if needed.
+     * 
+     * @param index the position of the field in {@link #getDerivedFieldNames()}
+     * @param customer the customer data
+     * @param loanApplication the loan application data
+     * @param context the context receiving the value
+     */
+    void calculateDerivedField(int index, Customer customer, LoanApplication loanApplication, EvaluationContext context);
+    
+    /**
+     * Get the fields a derived field is calculated from: entity fields and other derived fields.
+     * Together the dependencies of all derived fields must form an acyclic graph.
+     * 
+     * @param derivedFieldName the name of the derived field
+     * @return the names of the fields it depends on
+     */
+    List<String> getDependencies(String derivedFieldName);
+    
     /**
      * Get the names of all derived fields that this calculator can compute
      * 
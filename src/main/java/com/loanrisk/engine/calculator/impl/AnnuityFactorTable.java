@@ -0,0 +1,122 @@
+package com.loanrisk.engine.calculator.impl;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Annuity factors for one annual interest rate, precomputed for every term in a range so that a
+ * monthly payment does not have to raise (1 + r) to the power of the term.
+ * <p>
+ * The payment is P * r * (1 + r)^n / ((1 + r)^n - 1), rounded HALF_UP to two decimal places,
+ * with the same monthly rate r as {@link DefaultDerivedFieldCalculator}. The table keeps the exact
+ * numerator factor r * (1 + r)^n and denominator (1 + r)^n - 1 of every term, so the BigDecimal
+ * payment is identical to the one calculated with {@code pow}. For amounts in cents it also keeps
+ * the factor truncated to 64 fractional bits, which gives the same rounded payment with two long
+ * multiplications except in the rare case where the truncation error could change the rounding.
+ * <p>
+ * A table only holds factors for the rate it was built with; a new table is needed if the rate changes.
+ */
+final class AnnuityFactorTable {
+
+    /**
+     * Returned by {@link #monthlyPayment(long, int)} when the payment cannot be decided with longs
+     */
+    static final long UNDECIDED = -1;
+
+    private static final BigDecimal TWO_TO_THE_64 = new BigDecimal(BigInteger.ONE.shiftLeft(64));
+
+    private final BigDecimal annualInterestRate;
+    private final int minTerm;
+    private final int maxTerm;
+    // Indexed by term - minTerm
+    private final BigDecimal[] rateTimesFactor;
+    private final BigDecimal[] factorMinusOne;
+    // Payment per unit of principal as an unsigned fraction of 2^64, or 0 if it is not below 1
+    private final long[] paymentFactorBits;
+
+    /**
+     * Build the table for terms minTerm..maxTerm months
+     *
+     * @param annualInterestRate the annual interest rate (e.g., 0.055 for 5.5%)
+     */
+    AnnuityFactorTable(BigDecimal annualInterestRate, int minTerm, int maxTerm) {
+        this.annualInterestRate = annualInterestRate;
+        this.minTerm = minTerm;
+        this.maxTerm = maxTerm;
+        this.rateTimesFactor = new BigDecimal[maxTerm - minTerm + 1];
+        this.factorMinusOne = new BigDecimal[maxTerm - minTerm + 1];
+        this.paymentFactorBits = new long[maxTerm - minTerm + 1];
+
+        BigDecimal monthlyRate = monthlyRate(annualInterestRate);
+        BigDecimal onePlusRate = BigDecimal.ONE.add(monthlyRate);
+        BigDecimal compoundFactor = onePlusRate.pow(minTerm);
+        for (int i = 0; i < rateTimesFactor.length; i++) {
+            if (i > 0) {
+                compoundFactor = compoundFactor.multiply(onePlusRate);
+            }
+            rateTimesFactor[i] = monthlyRate.multiply(compoundFactor);
+            factorMinusOne[i] = compoundFactor.subtract(BigDecimal.ONE);
+
+            if (factorMinusOne[i].signum() > 0) {
+                BigInteger bits = rateTimesFactor[i].multiply(TWO_TO_THE_64)
+                        .divide(factorMinusOne[i], 0, RoundingMode.FLOOR)
+                        .toBigIntegerExact();
+                paymentFactorBits[i] = bits.bitLength() <= 64 ? bits.longValue() : 0;
+            }
+        }
+    }
+
+    /**
+     * Monthly rate used by the payment calculation: the annual rate / 12, rounded HALF_UP to eight decimal places
+     */
+    static BigDecimal monthlyRate(BigDecimal annualInterestRate) {
+        return annualInterestRate.divide(new BigDecimal("12"), 8, RoundingMode.HALF_UP);
+    }
+
+    BigDecimal getAnnualInterestRate() {
+        return annualInterestRate;
+    }
+
+    /**
+     * Check whether the table holds the factors of a term
+     */
+    boolean covers(int termMonths) {
+        return termMonths >= minTerm && termMonths <= maxTerm;
+    }
+
+    /**
+     * Calculate the monthly payment of a covered term
+     *
+     * @throws ArithmeticException if the interest rate is zero, as the formula divides by zero then
+     */
+    BigDecimal monthlyPayment(BigDecimal principal, int termMonths) {
+        int i = termMonths - minTerm;
+        return principal.multiply(rateTimesFactor[i]).divide(factorMinusOne[i], 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculate the monthly payment of a covered term in cents from a positive principal in cents
+     *
+     * @return the payment in cents, or {@link #UNDECIDED} if the BigDecimal calculation is needed
+     */
+    long monthlyPayment(long principal, int termMonths) {
+        long factor = paymentFactorBits[termMonths - minTerm];
+        if (principal <= 0 || factor == 0) {
+            return UNDECIDED;
+        }
+
+        // principal * factor is the payment in cents times 2^64: whole cents in the high word, the fraction in the low word
+        long cents = Math.unsignedMultiplyHigh(principal, factor);
+        long fraction = principal * factor;
+        if (fraction < 0) {
+            // The fraction is at least one half; the exact payment is at most principal / 2^64 larger, so it still rounds up
+            return cents + 1;
+        }
+        // The exact fraction lies in [fraction, fraction + principal), and rounds up if that reaches one half
+        if (fraction + principal - 1 < 0) {
+            return UNDECIDED;
+        }
+        return cents;
+    }
+}
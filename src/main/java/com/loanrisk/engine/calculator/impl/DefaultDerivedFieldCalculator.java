@@ -1,6 +1,8 @@
 package com.loanrisk.engine.calculator.impl;
 
 import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.FixedPoint;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import org.springframework.stereotype.Component;
@@ -8,7 +10,9 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * Default implementation of the DerivedFieldCalculator interface
@@ -34,56 +38,167 @@ public class DefaultDerivedFieldCalculator implements DerivedFieldCalculator {
             AGE_TO_TERM_RATIO
     };
 
+    // Position of each derived field in DERIVED_FIELD_NAMES, used to store values in an evaluation context
+    private static final int DEBT_TO_INCOME_RATIO_INDEX = 0;
+    private static final int LOAN_TO_INCOME_RATIO_INDEX = 1;
+    private static final int MONTHLY_LOAN_PAYMENT_INDEX = 2;
+    private static final int TOTAL_DEBT_RATIO_INDEX = 3;
+    private static final int LOAN_AMOUNT_PER_TERM_INDEX = 4;
+    private static final int AGE_TO_TERM_RATIO_INDEX = 5;
+
+    // Fields each derived field is calculated from; no field depends on a field listed after it
+    private static final Map<String, List<String>> DEPENDENCIES = Map.of(
+            DEBT_TO_INCOME_RATIO, List.of("existingDebt", "annualIncome"),
+            LOAN_TO_INCOME_RATIO, List.of("loanAmount", "annualIncome"),
+            MONTHLY_LOAN_PAYMENT, List.of("loanAmount", "requestedTermMonths"),
+            TOTAL_DEBT_RATIO, List.of("existingDebt", "annualIncome", MONTHLY_LOAN_PAYMENT),
+            LOAN_AMOUNT_PER_TERM, List.of("loanAmount", "requestedTermMonths"),
+            AGE_TO_TERM_RATIO, List.of("age", "requestedTermMonths"));
+
     // Annual interest rate used for monthly payment calculation (5.5%)
     private static final BigDecimal ANNUAL_INTEREST_RATE = new BigDecimal("0.055");
+
+    // Range of loan terms accepted by loan applications
+    private static final int MIN_TERM_MONTHS = 6;
+    private static final int MAX_TERM_MONTHS = 360;
+
+    // Annuity factors for ANNUAL_INTEREST_RATE; rebuilt by calculateMonthlyPayment if it is given another rate
+    private volatile AnnuityFactorTable annuityFactors =
+            new AnnuityFactorTable(ANNUAL_INTEREST_RATE, MIN_TERM_MONTHS, MAX_TERM_MONTHS);
     
     @Override
     public Map<String, Object> calculateDerivedFields(Customer customer, LoanApplication loanApplication) {
+        // DERIVED_FIELD_NAMES lists every field after the derived fields it depends on
+        BigDecimal[] values = new BigDecimal[DERIVED_FIELD_NAMES.length];
         Map<String, Object> derivedFields = new HashMap<>();
-        
-        // Calculate monthly income (annual income / 12)
-        BigDecimal monthlyIncome = customer.getAnnualIncome().divide(new BigDecimal("12"), 2, RoundingMode.HALF_UP);
-        
-        // Calculate debt to income ratio (existing debt / monthly income)
-        BigDecimal debtToIncomeRatio = customer.getExistingDebt().divide(monthlyIncome, 2, RoundingMode.HALF_UP);
-        derivedFields.put(DEBT_TO_INCOME_RATIO, debtToIncomeRatio);
-        
-        // Calculate loan to income ratio (loan amount / annual income)
-        BigDecimal loanToIncomeRatio = loanApplication.getLoanAmount().divide(customer.getAnnualIncome(), 2, RoundingMode.HALF_UP);
-        derivedFields.put(LOAN_TO_INCOME_RATIO, loanToIncomeRatio);
-        
-        // Calculate monthly loan payment
-        BigDecimal monthlyLoanPayment = calculateMonthlyPayment(
-                loanApplication.getLoanAmount(), 
-                ANNUAL_INTEREST_RATE, 
-                loanApplication.getRequestedTermMonths());
-        derivedFields.put(MONTHLY_LOAN_PAYMENT, monthlyLoanPayment);
-        
-        // Calculate total debt ratio ((existing debt + monthly loan payment) / monthly income)
-        BigDecimal totalDebtRatio = customer.getExistingDebt().add(monthlyLoanPayment)
-                .divide(monthlyIncome, 2, RoundingMode.HALF_UP);
-        derivedFields.put(TOTAL_DEBT_RATIO, totalDebtRatio);
-        
-        // Calculate loan amount per term (loan amount / term months)
-        BigDecimal loanAmountPerTerm = loanApplication.getLoanAmount()
-                .divide(new BigDecimal(loanApplication.getRequestedTermMonths()), 2, RoundingMode.HALF_UP);
-        derivedFields.put(LOAN_AMOUNT_PER_TERM, loanAmountPerTerm);
-        
-        // Calculate age to term ratio (customer age / term in years)
-        BigDecimal termInYears = new BigDecimal(loanApplication.getRequestedTermMonths()).divide(new BigDecimal("12"), 2, RoundingMode.HALF_UP);
-        BigDecimal ageToTermRatio = new BigDecimal(customer.getAge()).divide(termInYears, 2, RoundingMode.HALF_UP);
-        derivedFields.put(AGE_TO_TERM_RATIO, ageToTermRatio);
-        
+        for (int index = 0; index < values.length; index++) {
+            values[index] = calculate(index, customer, loanApplication, dependency -> values[dependency]);
+            derivedFields.put(DERIVED_FIELD_NAMES[index], values[index]);
+        }
         return derivedFields;
     }
 
+    @Override
+    public void calculateDerivedField(int index, Customer customer, LoanApplication loanApplication, EvaluationContext context) {
+        long value;
+        try {
+            value = calculateFixedPoint(index, customer, loanApplication, context);
+        } catch (ArithmeticException e) {
+            // Amounts with more than two decimal places, or too large for a long, are calculated with BigDecimals,
+            // which also report any division by zero
+            context.setDerivedValue(index, calculate(index, customer, loanApplication,
+                    dependency -> (BigDecimal) context.getDerivedValue(dependency)));
+            return;
+        }
+        context.setDerivedFixedPointValue(index, value);
+    }
+
+    @Override
+    public List<String> getDependencies(String derivedFieldName) {
+        List<String> dependencies = DEPENDENCIES.get(derivedFieldName);
+        if (dependencies == null) {
+            throw new IllegalArgumentException("Unknown derived field: " + derivedFieldName);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Calculate a derived field with fixed-point longs. Every division rounds HALF_UP to two
+     * decimal places exactly like the BigDecimal calculation, so the values are identical.
+     *
+     * @throws ArithmeticException if an amount or a dependency has no fixed-point form, or a result overflows
+     */
+    private long calculateFixedPoint(int index, Customer customer, LoanApplication loanApplication, EvaluationContext context) {
+        return switch (index) {
+            case DEBT_TO_INCOME_RATIO_INDEX -> FixedPoint.divideHalfUp(
+                    Math.multiplyExact(FixedPoint.toFixedPoint(customer.getExistingDebt()), FixedPoint.ONE),
+                    fixedPointMonthlyIncome(customer));
+            case LOAN_TO_INCOME_RATIO_INDEX -> FixedPoint.divideHalfUp(
+                    Math.multiplyExact(FixedPoint.toFixedPoint(loanApplication.getLoanAmount()), FixedPoint.ONE),
+                    FixedPoint.toFixedPoint(customer.getAnnualIncome()));
+            case MONTHLY_LOAN_PAYMENT_INDEX -> fixedPointMonthlyPayment(loanApplication);
+            case TOTAL_DEBT_RATIO_INDEX -> {
+                if (!context.hasDerivedFixedPointValue(MONTHLY_LOAN_PAYMENT_INDEX)) {
+                    throw new ArithmeticException("Monthly loan payment has no fixed-point value");
+                }
+                long debt = Math.addExact(FixedPoint.toFixedPoint(customer.getExistingDebt()),
+                        context.getDerivedFixedPointValue(MONTHLY_LOAN_PAYMENT_INDEX));
+                yield FixedPoint.divideHalfUp(Math.multiplyExact(debt, FixedPoint.ONE), fixedPointMonthlyIncome(customer));
+            }
+            case LOAN_AMOUNT_PER_TERM_INDEX -> FixedPoint.divideHalfUp(
+                    FixedPoint.toFixedPoint(loanApplication.getLoanAmount()), loanApplication.getRequestedTermMonths());
+            case AGE_TO_TERM_RATIO_INDEX -> {
+                // age / (term in years), where the term in years is itself rounded to two decimal places
+                long termInYears = FixedPoint.divideHalfUp(loanApplication.getRequestedTermMonths() * FixedPoint.ONE, 12);
+                yield FixedPoint.divideHalfUp(customer.getAge() * FixedPoint.ONE * FixedPoint.ONE, termInYears);
+            }
+            default -> throw new IllegalArgumentException("Unknown derived field index: " + index);
+        };
+    }
+
+    private static long fixedPointMonthlyIncome(Customer customer) {
+        return FixedPoint.divideHalfUp(FixedPoint.toFixedPoint(customer.getAnnualIncome()), 12);
+    }
+
+    private long fixedPointMonthlyPayment(LoanApplication loanApplication) {
+        long loanAmount = FixedPoint.toFixedPoint(loanApplication.getLoanAmount());
+        int termMonths = loanApplication.getRequestedTermMonths();
+        AnnuityFactorTable table = getAnnuityFactors(ANNUAL_INTEREST_RATE);
+        long payment = table.covers(termMonths)
+                ? table.monthlyPayment(loanAmount, termMonths)
+                : AnnuityFactorTable.UNDECIDED;
+        if (payment == AnnuityFactorTable.UNDECIDED) {
+            payment = FixedPoint.toFixedPoint(
+                    calculateMonthlyPayment(loanApplication.getLoanAmount(), ANNUAL_INTEREST_RATE, termMonths));
+        }
+        return payment;
+    }
+
+    /**
+     * Calculate a derived field with BigDecimals
+     *
+     * @param derivedValues supplies the value of a derived field this one depends on, by its position in DERIVED_FIELD_NAMES
+     */
+    private BigDecimal calculate(int index, Customer customer, LoanApplication loanApplication, IntFunction<BigDecimal> derivedValues) {
+        return switch (index) {
+            // Debt to income ratio (existing debt / monthly income)
+            case DEBT_TO_INCOME_RATIO_INDEX -> customer.getExistingDebt().divide(monthlyIncome(customer), 2, RoundingMode.HALF_UP);
+            // Loan to income ratio (loan amount / annual income)
+            case LOAN_TO_INCOME_RATIO_INDEX -> loanApplication.getLoanAmount().divide(customer.getAnnualIncome(), 2, RoundingMode.HALF_UP);
+            case MONTHLY_LOAN_PAYMENT_INDEX -> calculateMonthlyPayment(
+                    loanApplication.getLoanAmount(),
+                    ANNUAL_INTEREST_RATE,
+                    loanApplication.getRequestedTermMonths());
+            // Total debt ratio ((existing debt + monthly loan payment) / monthly income)
+            case TOTAL_DEBT_RATIO_INDEX -> customer.getExistingDebt().add(derivedValues.apply(MONTHLY_LOAN_PAYMENT_INDEX))
+                    .divide(monthlyIncome(customer), 2, RoundingMode.HALF_UP);
+            // Loan amount per term (loan amount / term months)
+            case LOAN_AMOUNT_PER_TERM_INDEX -> loanApplication.getLoanAmount()
+                    .divide(new BigDecimal(loanApplication.getRequestedTermMonths()), 2, RoundingMode.HALF_UP);
+            // Age to term ratio (customer age / term in years)
+            case AGE_TO_TERM_RATIO_INDEX -> {
+                BigDecimal termInYears = new BigDecimal(loanApplication.getRequestedTermMonths()).divide(new BigDecimal("12"), 2, RoundingMode.HALF_UP);
+                yield new BigDecimal(customer.getAge()).divide(termInYears, 2, RoundingMode.HALF_UP);
+            }
+            default -> throw new IllegalArgumentException("Unknown derived field index: " + index);
+        };
+    }
+
+    /**
+     * Monthly income (annual income / 12)
+     */
+    private static BigDecimal monthlyIncome(Customer customer) {
+        return customer.getAnnualIncome().divide(new BigDecimal("12"), 2, RoundingMode.HALF_UP);
+    }
+
     @Override
     public String[] getDerivedFieldNames() {
         return DERIVED_FIELD_NAMES;
     }
     
     /**
-     * Calculate the monthly payment for a loan
+     * Calculate the monthly payment for a loan. Terms within the accepted range use the precomputed
+     * annuity factors, which give exactly the same result as the formula below.
      * 
      * @param principal the loan amount
      * @param annualInterestRate the annual interest rate (e.g., 0.055 for 5.5%)
@@ -91,8 +206,13 @@ public class DefaultDerivedFieldCalculator implements DerivedFieldCalculator {
      * @return the monthly payment amount
      */
     private BigDecimal calculateMonthlyPayment(BigDecimal principal, BigDecimal annualInterestRate, int termMonths) {
+        AnnuityFactorTable table = getAnnuityFactors(annualInterestRate);
+        if (table.covers(termMonths)) {
+            return table.monthlyPayment(principal, termMonths);
+        }
+        
         // Monthly interest rate = annual rate / 12
-        BigDecimal monthlyRate = annualInterestRate.divide(new BigDecimal("12"), 8, RoundingMode.HALF_UP);
+        BigDecimal monthlyRate = AnnuityFactorTable.monthlyRate(annualInterestRate);
         
         // Calculate (1 + r)^n
         BigDecimal onePlusRate = BigDecimal.ONE.add(monthlyRate);
@@ -104,4 +224,16 @@ public class DefaultDerivedFieldCalculator implements DerivedFieldCalculator {
         
         return numerator.divide(denominator, 2, RoundingMode.HALF_UP);
     }
+
+    /**
+     * Get the annuity factors for an interest rate, building a new table when the rate differs from the current one
+     */
+    private AnnuityFactorTable getAnnuityFactors(BigDecimal annualInterestRate) {
+        AnnuityFactorTable table = annuityFactors;
+        if (table.getAnnualInterestRate().compareTo(annualInterestRate) != 0) {
+            table = new AnnuityFactorTable(annualInterestRate, MIN_TERM_MONTHS, MAX_TERM_MONTHS);
+            annuityFactors = table;
+        }
+        return table;
+    }
 }
\ No newline at end of file
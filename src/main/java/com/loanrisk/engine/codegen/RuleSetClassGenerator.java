@@ -0,0 +1,18 @@
+package com.loanrisk.engine.codegen;
+
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+
+/**
+ * Interface for generating a specialized matcher class for a rule set snapshot
+ */
+public interface RuleSetClassGenerator {
+
+    /**
+     * Generate and load a matcher for the compiled rules of a snapshot
+     *
+     * @param snapshot the rule set snapshot to generate the matcher for
+     * @return a matcher that evaluates exactly the rules of the snapshot
+     * @throws IllegalStateException if the generated class cannot be defined
+     */
+    RuleSetMatcher generate(RuleSetSnapshot snapshot);
+}
@@ -0,0 +1,20 @@
+package com.loanrisk.engine.codegen;
+
+import com.loanrisk.engine.context.EvaluationContext;
+
+import java.util.BitSet;
+
+/**
+ * Matches a loan application against every rule of one rule set snapshot in a single call.
+ * Implementations are generated per snapshot by a {@link RuleSetClassGenerator}.
+ */
+public interface RuleSetMatcher {
+
+    /**
+     * Evaluate all rules of the snapshot this matcher was generated for
+     *
+     * @param context the populated evaluation context of the loan application
+     * @return the indexes of the triggered rules within the snapshot's compiled rules
+     */
+    BitSet match(EvaluationContext context);
+}
@@ -0,0 +1,387 @@
+package com.loanrisk.engine.codegen.impl;
+
+import com.loanrisk.engine.codegen.RuleSetClassGenerator;
+import com.loanrisk.engine.codegen.RuleSetMatcher;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.FixedPointComparison;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * RuleSetClassGenerator that writes the bytecode of a RuleSetMatcher with ASM and defines it
+ * as a hidden class, so it can be unloaded together with the snapshot it was generated for.
+ * <p>
+ * Field values are read from their evaluation context slots once per method. Integer fields are
+ * compared as primitive ints, BigDecimal fields as fixed-point longs where the context holds them
+ * in that form, and otherwise BigDecimal and String fields are compared directly against their
+ * parsed rule values. Any rule the generator has no specialized code for falls back to
+ * {@link CompiledRule#matches}.
+ */
+@Component
+public class AsmRuleSetClassGenerator implements RuleSetClassGenerator, Opcodes {
+
+    // Rules are spread over several methods so that each one stays below the JIT's huge method limit
+    // of 8000 bytes; a BigDecimal rule with its fixed-point test takes up to about 90 bytes
+    static final int RULES_PER_METHOD = 64;
+
+    private static final String CLASS_NAME = Type.getInternalName(AsmRuleSetClassGenerator.class)
+            .replace("AsmRuleSetClassGenerator", "GeneratedRuleSetMatcher");
+
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String BIT_SET = Type.getInternalName(BitSet.class);
+    private static final String BIG_DECIMAL = Type.getInternalName(BigDecimal.class);
+    private static final String STRING = Type.getInternalName(String.class);
+    private static final String INTEGER = Type.getInternalName(Integer.class);
+    private static final String EVALUATION_CONTEXT = Type.getInternalName(EvaluationContext.class);
+    private static final String COMPILED_RULE = Type.getInternalName(CompiledRule.class);
+    private static final String CONSTANTS_DESCRIPTOR = "[Ljava/lang/Object;";
+    private static final String RULES_METHOD_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE,
+            Type.getType(EvaluationContext.class), Type.getType(BitSet.class));
+
+    private static final Set<String> COMPARISON_OPERATORS = Set.of(
+            "EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL");
+
+    // Local variable slots of the generated rule methods
+    private static final int THIS = 0;
+    private static final int CONTEXT = 1;
+    private static final int TRIGGERED = 2;
+    private static final int FIRST_FIELD_SLOT = 3;
+
+    @Override
+    public RuleSetMatcher generate(RuleSetSnapshot snapshot) {
+        List<Object> constants = new ArrayList<>();
+        byte[] classBytes = writeClass(snapshot.getCompiledRules(), constants);
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, Object[].class));
+            return (RuleSetMatcher) constructor.invoke(constants.toArray());
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define matcher class for rule set version " + snapshot.getVersion(), e);
+        }
+    }
+
+    private byte[] writeClass(List<CompiledRule> rules, List<Object> constants) {
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+        classWriter.visit(V17, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, null, OBJECT,
+                new String[] {Type.getInternalName(RuleSetMatcher.class)});
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL, "constants", CONSTANTS_DESCRIPTOR, null, null).visitEnd();
+
+        writeConstructor(classWriter);
+
+        int methodCount = (rules.size() + RULES_PER_METHOD - 1) / RULES_PER_METHOD;
+        writeMatchMethod(classWriter, rules.size(), methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            List<CompiledRule> chunk = rules.subList(i * RULES_PER_METHOD, Math.min(rules.size(), (i + 1) * RULES_PER_METHOD));
+            writeRulesMethod(classWriter, "matchRules" + i, chunk, constants);
+        }
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private void writeConstructor(ClassWriter classWriter) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", "(" + CONSTANTS_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, THIS);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitVarInsn(ALOAD, THIS);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, CLASS_NAME, "constants", CONSTANTS_DESCRIPTOR);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(2, 2);
+        mv.visitEnd();
+    }
+
+    /**
+     * Write the RuleSetMatcher.match method, which creates the triggered set and passes it to each rules method
+     */
+    private void writeMatchMethod(ClassWriter classWriter, int ruleCount, int methodCount) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "match", Type.getMethodDescriptor(Type.getType(BitSet.class),
+                Type.getType(EvaluationContext.class)), null, null);
+        mv.visitCode();
+        mv.visitTypeInsn(NEW, BIT_SET);
+        mv.visitInsn(DUP);
+        pushInt(mv, Math.max(ruleCount, 1));
+        mv.visitMethodInsn(INVOKESPECIAL, BIT_SET, "<init>", "(I)V", false);
+        mv.visitVarInsn(ASTORE, TRIGGERED);
+
+        for (int i = 0; i < methodCount; i++) {
+            mv.visitVarInsn(ALOAD, THIS);
+            mv.visitVarInsn(ALOAD, CONTEXT);
+            mv.visitVarInsn(ALOAD, TRIGGERED);
+            mv.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, "matchRules" + i, RULES_METHOD_DESCRIPTOR, false);
+        }
+
+        mv.visitVarInsn(ALOAD, TRIGGERED);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(3, 3);
+        mv.visitEnd();
+    }
+
+    /**
+     * Write a method that reads every field its rules need once, then tests the rules in order.
+     * BigDecimal fields are read in fixed-point form; their value object is only read for a rule
+     * when the context holds no fixed-point value or the rule cannot be tested on one.
+     */
+    private void writeRulesMethod(ClassWriter classWriter, String name, List<CompiledRule> rules, List<Object> constants) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PRIVATE, name, RULES_METHOD_DESCRIPTOR, null, null);
+        mv.visitCode();
+
+        // Local variables holding each field's value object, and for BigDecimal fields the
+        // fixed-point flag followed by the fixed-point value
+        Map<String, Integer> fieldSlots = new LinkedHashMap<>();
+        Map<String, Integer> fixedPointSlots = new HashMap<>();
+        int nextSlot = FIRST_FIELD_SLOT;
+        for (CompiledRule rule : rules) {
+            FieldDefinition field = rule.getField();
+            if (fieldSlots.containsKey(field.getName())) {
+                continue;
+            }
+            
+            fieldSlots.put(field.getName(), nextSlot++);
+            if (field.getType() == BigDecimal.class) {
+                readFixedPointField(mv, field, nextSlot);
+                fixedPointSlots.put(field.getName(), nextSlot);
+                nextSlot += 3;
+            } else {
+                readField(mv, field);
+                mv.visitVarInsn(ASTORE, fieldSlots.get(field.getName()));
+            }
+        }
+
+        for (CompiledRule rule : rules) {
+            FieldDefinition field = rule.getField();
+            int slot = fieldSlots.get(field.getName());
+            Integer fixedPointSlot = fixedPointSlots.get(field.getName());
+            Label notTriggered = new Label();
+            Label triggered = new Label();
+
+            if (fixedPointSlot != null) {
+                Label objectValue = new Label();
+                if (rule.getFixedPointComparison() != null) {
+                    mv.visitVarInsn(ILOAD, fixedPointSlot);
+                    mv.visitJumpInsn(IFEQ, objectValue);
+                    writeFixedPointTest(mv, rule.getFixedPointComparison(), fixedPointSlot + 1, notTriggered);
+                    mv.visitJumpInsn(GOTO, triggered);
+                }
+                mv.visitLabel(objectValue);
+                readField(mv, field);
+                mv.visitVarInsn(ASTORE, slot);
+            }
+
+            if (!writeSpecializedTest(mv, rule, slot, notTriggered, constants)) {
+                writeFallbackTest(mv, rule, notTriggered, constants);
+            }
+
+            mv.visitLabel(triggered);
+            mv.visitVarInsn(ALOAD, TRIGGERED);
+            pushInt(mv, rule.getIndex());
+            mv.visitMethodInsn(INVOKEVIRTUAL, BIT_SET, "set", "(I)V", false);
+            mv.visitLabel(notTriggered);
+        }
+
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * Write the test of a rule against the field value held in the given local variable slot,
+     * jumping to notTriggered when the rule does not match
+     *
+     * @return false if there is no specialized code for the rule's field type and operator
+     */
+    private boolean writeSpecializedTest(MethodVisitor mv, CompiledRule rule, int slot, Label notTriggered,
+                                         List<Object> constants) {
+        FieldDefinition field = rule.getField();
+        String operator = rule.getOperator();
+        Object operand = rule.getOperand();
+
+        String textMethod = switch (operator) {
+            case "CONTAINS", "NOT_CONTAINS" -> "contains";
+            case "STARTS_WITH" -> "startsWith";
+            case "ENDS_WITH" -> "endsWith";
+            default -> null;
+        };
+        String valueType;
+        if (operand instanceof Integer && field.getType() == Integer.class && COMPARISON_OPERATORS.contains(operator)) {
+            valueType = INTEGER;
+        } else if (operand instanceof BigDecimal && field.getType() == BigDecimal.class && COMPARISON_OPERATORS.contains(operator)) {
+            valueType = BIG_DECIMAL;
+        } else if (operand instanceof String && field.getType() == String.class
+                && (textMethod != null || COMPARISON_OPERATORS.contains(operator))) {
+            valueType = STRING;
+        } else {
+            return false;
+        }
+
+        Label compare = new Label();
+        Label triggered = new Label();
+        mv.visitVarInsn(ALOAD, slot);
+        mv.visitJumpInsn(IFNULL, notTriggered);
+
+        // The context holds plain objects, so a value of an unexpected type is left to the interpreted rule
+        mv.visitVarInsn(ALOAD, slot);
+        mv.visitTypeInsn(INSTANCEOF, valueType);
+        mv.visitJumpInsn(IFNE, compare);
+        writeFallbackTest(mv, rule, notTriggered, constants);
+        mv.visitJumpInsn(GOTO, triggered);
+
+        mv.visitLabel(compare);
+        mv.visitVarInsn(ALOAD, slot);
+        mv.visitTypeInsn(CHECKCAST, valueType);
+        if (valueType.equals(INTEGER)) {
+            mv.visitMethodInsn(INVOKEVIRTUAL, INTEGER, "intValue", "()I", false);
+            pushInt(mv, (Integer) operand);
+            mv.visitJumpInsn(intComparisonFailure(operator), notTriggered);
+        } else if (valueType.equals(BIG_DECIMAL)) {
+            loadConstant(mv, operand, BIG_DECIMAL, constants);
+            mv.visitMethodInsn(INVOKEVIRTUAL, BIG_DECIMAL, "compareTo", "(L" + BIG_DECIMAL + ";)I", false);
+            mv.visitJumpInsn(comparisonFailure(operator), notTriggered);
+        } else if (textMethod == null) {
+            loadConstant(mv, operand, STRING, constants);
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRING, "compareTo", "(L" + STRING + ";)I", false);
+            mv.visitJumpInsn(comparisonFailure(operator), notTriggered);
+        } else {
+            loadConstant(mv, operand, STRING, constants);
+            String parameter = textMethod.equals("contains") ? "Ljava/lang/CharSequence;" : "L" + STRING + ";";
+            mv.visitMethodInsn(INVOKEVIRTUAL, STRING, textMethod, "(" + parameter + ")Z", false);
+            mv.visitJumpInsn(operator.equals("NOT_CONTAINS") ? IFNE : IFEQ, notTriggered);
+        }
+        mv.visitLabel(triggered);
+        return true;
+    }
+
+    /**
+     * Write a call to the interpreted {@link CompiledRule#matches}, jumping to notTriggered when it returns false
+     */
+    private void writeFallbackTest(MethodVisitor mv, CompiledRule rule, Label notTriggered, List<Object> constants) {
+        loadConstant(mv, rule, COMPILED_RULE, constants);
+        mv.visitVarInsn(ALOAD, CONTEXT);
+        mv.visitMethodInsn(INVOKEVIRTUAL, COMPILED_RULE, "matches", Type.getMethodDescriptor(Type.BOOLEAN_TYPE,
+                Type.getType(EvaluationContext.class)), false);
+        mv.visitJumpInsn(IFEQ, notTriggered);
+    }
+
+    /**
+     * Store whether a field's context slot holds a fixed-point value in the int local at flagSlot,
+     * and the fixed-point value in the long local after it
+     */
+    private void readFixedPointField(MethodVisitor mv, FieldDefinition field, int flagSlot) {
+        mv.visitVarInsn(ALOAD, CONTEXT);
+        pushInt(mv, field.getSlot());
+        mv.visitMethodInsn(INVOKEVIRTUAL, EVALUATION_CONTEXT, "hasFixedPointValue", "(I)Z", false);
+        mv.visitVarInsn(ISTORE, flagSlot);
+        mv.visitVarInsn(ALOAD, CONTEXT);
+        pushInt(mv, field.getSlot());
+        mv.visitMethodInsn(INVOKEVIRTUAL, EVALUATION_CONTEXT, "getFixedPointValue", "(I)J", false);
+        mv.visitVarInsn(LSTORE, flagSlot + 1);
+    }
+
+    /**
+     * Write the comparison of the fixed-point value in a long local with a rule value, jumping to
+     * notTriggered when it does not hold
+     */
+    private void writeFixedPointTest(MethodVisitor mv, FixedPointComparison comparison, int valueSlot, Label notTriggered) {
+        String operator = comparison.getOperator();
+        boolean integral = comparison.getFloor() == comparison.getCeiling();
+        if (!integral && operator.equals("EQUALS")) {
+            mv.visitJumpInsn(GOTO, notTriggered);
+            return;
+        }
+        if (!integral && operator.equals("NOT_EQUALS")) {
+            return;
+        }
+        
+        // Against a rule value between two fixed-point values: value > r <=> value > floor, value >= r <=> value >= ceiling
+        boolean useCeiling = operator.equals("GREATER_THAN_OR_EQUAL") || operator.equals("LESS_THAN");
+        mv.visitVarInsn(LLOAD, valueSlot);
+        mv.visitLdcInsn(useCeiling ? comparison.getCeiling() : comparison.getFloor());
+        mv.visitInsn(LCMP);
+        mv.visitJumpInsn(comparisonFailure(operator), notTriggered);
+    }
+
+    /**
+     * Push the value held in a field's context slot onto the stack
+     */
+    private void readField(MethodVisitor mv, FieldDefinition field) {
+        mv.visitVarInsn(ALOAD, CONTEXT);
+        pushInt(mv, field.getSlot());
+        mv.visitMethodInsn(INVOKEVIRTUAL, EVALUATION_CONTEXT, "getValue", "(I)Ljava/lang/Object;", false);
+    }
+
+    /**
+     * Push a constant of the generated class onto the stack, cast to the given type
+     */
+    private void loadConstant(MethodVisitor mv, Object constant, String type, List<Object> constants) {
+        mv.visitVarInsn(ALOAD, THIS);
+        mv.visitFieldInsn(GETFIELD, CLASS_NAME, "constants", CONSTANTS_DESCRIPTOR);
+        pushInt(mv, constants.size());
+        mv.visitInsn(AALOAD);
+        mv.visitTypeInsn(CHECKCAST, type);
+        constants.add(constant);
+    }
+
+    private void pushInt(MethodVisitor mv, int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    /**
+     * Get the jump taken when "a operator b" does not hold for two ints on the stack
+     */
+    private int intComparisonFailure(String operator) {
+        return switch (operator) {
+            case "EQUALS" -> IF_ICMPNE;
+            case "NOT_EQUALS" -> IF_ICMPEQ;
+            case "GREATER_THAN" -> IF_ICMPLE;
+            case "GREATER_THAN_OR_EQUAL" -> IF_ICMPLT;
+            case "LESS_THAN" -> IF_ICMPGE;
+            case "LESS_THAN_OR_EQUAL" -> IF_ICMPGT;
+            default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+        };
+    }
+
+    /**
+     * Get the jump taken when "compareTo result operator 0" does not hold
+     */
+    private int comparisonFailure(String operator) {
+        return switch (operator) {
+            case "EQUALS" -> IFNE;
+            case "NOT_EQUALS" -> IFEQ;
+            case "GREATER_THAN" -> IFLE;
+            case "GREATER_THAN_OR_EQUAL" -> IFLT;
+            case "LESS_THAN" -> IFGE;
+            case "LESS_THAN_OR_EQUAL" -> IFGT;
+            default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+        };
+    }
+}
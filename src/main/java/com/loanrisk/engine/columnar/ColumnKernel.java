@@ -0,0 +1,51 @@
+package com.loanrisk.engine.columnar;
+
+/**
+ * Applies a comparison to a whole column of field values at once, and sums risk points over the
+ * rows a rule triggered for. Columns and bit masks hold one block of rows: bit {@code i % 64} of
+ * word {@code i / 64} stands for row i.
+ * <p>
+ * Every length passed to a kernel is a multiple of 64, and the arrays are at least that long.
+ */
+public interface ColumnKernel {
+
+    /**
+     * Comparison of a field value with a rule's threshold
+     */
+    enum Comparison {
+        EQUALS, NOT_EQUALS, GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN, LESS_THAN_OR_EQUAL
+    }
+
+    /**
+     * Set the bit of every row whose value holds "value comparison threshold", and clear all other bits
+     *
+     * @param column the int values of one field
+     * @param length the number of rows to compare
+     * @param bits receives the result, length / 64 words
+     */
+    void compare(int[] column, int length, Comparison comparison, int threshold, long[] bits);
+
+    /**
+     * Set the bit of every row whose value holds "value comparison threshold", and clear all other bits
+     *
+     * @param column the fixed-point values of one field
+     * @param length the number of rows to compare
+     * @param bits receives the result, length / 64 words
+     */
+    void compare(long[] column, int length, Comparison comparison, long threshold, long[] bits);
+
+    /**
+     * Add a rule's risk points to the score of every row whose bit is set
+     *
+     * @param bits the rows the rule triggered for
+     * @param points the rule's risk points
+     * @param scores the risk score of each row
+     * @param length the number of rows
+     */
+    void addPoints(long[] bits, int points, int[] scores, int length);
+
+    /**
+     * Get a short description of the kernel for logging, such as its vector width
+     */
+    String getName();
+}
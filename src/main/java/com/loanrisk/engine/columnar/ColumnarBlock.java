@@ -0,0 +1,71 @@
+package com.loanrisk.engine.columnar;
+
+import java.util.BitSet;
+
+/**
+ * The outcome of evaluating one block of consecutive loan applications: a bit mask of the rows
+ * each rule triggered for, and the risk score of each row
+ */
+public final class ColumnarBlock {
+
+    private final int size;
+    private final long[][] ruleMasks;
+    private final int[] riskScores;
+
+    ColumnarBlock(int size, long[][] ruleMasks, int[] riskScores) {
+        this.size = size;
+        this.ruleMasks = ruleMasks;
+        this.riskScores = riskScores;
+    }
+
+    /**
+     * Get the number of loan applications in the block
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether a rule triggered for a row of the block
+     *
+     * @param row the position of the loan application within the block
+     * @param ruleIndex the index of the rule within its snapshot
+     */
+    public boolean isTriggered(int row, int ruleIndex) {
+        return (ruleMasks[ruleIndex][row >>> 6] & 1L << row) != 0;
+    }
+
+    /**
+     * Get the indexes of the rules that triggered for a row of the block
+     *
+     * @param row the position of the loan application within the block
+     * @return a new bitset of rule indexes within the snapshot
+     */
+    public BitSet getTriggeredRuleIndexes(int row) {
+        BitSet triggered = new BitSet(ruleMasks.length);
+        for (int ruleIndex = 0; ruleIndex < ruleMasks.length; ruleIndex++) {
+            if (isTriggered(row, ruleIndex)) {
+                triggered.set(ruleIndex);
+            }
+        }
+        return triggered;
+    }
+
+    /**
+     * Get the number of rows of the block a rule triggered for
+     */
+    public int getTriggeredCount(int ruleIndex) {
+        int count = 0;
+        for (long word : ruleMasks[ruleIndex]) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Get the sum of the risk points of the rules that triggered for a row of the block
+     */
+    public int getRiskScore(int row) {
+        return riskScores[row];
+    }
+}
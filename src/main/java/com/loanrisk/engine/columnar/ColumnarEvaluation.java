@@ -0,0 +1,80 @@
+package com.loanrisk.engine.columnar;
+
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.util.List;
+
+/**
+ * The outcome of evaluating a batch of loan applications column by column, held as one
+ * {@link ColumnarBlock} per block of rows rather than as a list of triggered rules per application
+ */
+public final class ColumnarEvaluation {
+
+    private final ColumnarRuleSet ruleSet;
+    private final List<ColumnarBlock> blocks;
+    private final int blockSize;
+    private final int size;
+
+    /**
+     * @param ruleSet the rule set the batch was evaluated with
+     * @param blocks the evaluated blocks in batch order; every block but the last holds blockSize rows
+     * @param blockSize the number of rows per block
+     */
+    public ColumnarEvaluation(ColumnarRuleSet ruleSet, List<ColumnarBlock> blocks, int blockSize) {
+        this.ruleSet = ruleSet;
+        this.blocks = List.copyOf(blocks);
+        this.blockSize = blockSize;
+        this.size = blocks.stream().mapToInt(ColumnarBlock::size).sum();
+    }
+
+    /**
+     * Get the number of loan applications evaluated
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the cluster-wide rule set version of the snapshot the batch was evaluated against
+     */
+    public long getRuleSetVersion() {
+        return ruleSet.getSnapshot().getRuleSetVersion();
+    }
+
+    /**
+     * Get the risk score of a loan application
+     *
+     * @param index the position of the loan application in the batch
+     */
+    public int getRiskScore(int index) {
+        return blocks.get(index / blockSize).getRiskScore(index % blockSize);
+    }
+
+    /**
+     * Whether a rule triggered for a loan application
+     *
+     * @param index the position of the loan application in the batch
+     * @param ruleIndex the index of the rule within the snapshot
+     */
+    public boolean isTriggered(int index, int ruleIndex) {
+        return blocks.get(index / blockSize).isTriggered(index % blockSize, ruleIndex);
+    }
+
+    /**
+     * Get the rules that triggered for a loan application, in priority order
+     *
+     * @param index the position of the loan application in the batch
+     */
+    public List<ScoringRule> getTriggeredRules(int index) {
+        return ruleSet.getTriggeredRules(blocks.get(index / blockSize), index % blockSize);
+    }
+
+    /**
+     * Get the number of loan applications in the batch a rule triggered for
+     *
+     * @param ruleIndex the index of the rule within the snapshot
+     */
+    public int getTriggeredCount(int ruleIndex) {
+        return blocks.stream().mapToInt(block -> block.getTriggeredCount(ruleIndex)).sum();
+    }
+}
@@ -0,0 +1,286 @@
+package com.loanrisk.engine.columnar;
+
+import com.loanrisk.engine.columnar.ColumnKernel.Comparison;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.FixedPointComparison;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.index.RuleIndex;
+import com.loanrisk.engine.index.TextPatternIndex;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules of one snapshot arranged for evaluating blocks of loan applications column by column.
+ * <p>
+ * Comparison rules on Integer fields and on BigDecimal fields with a {@link FixedPointComparison}
+ * become column rules: the field's values for the whole block are loaded into an int or long
+ * array, and the rule is applied to the array by a {@link ColumnKernel}. Text pattern rules are
+ * matched by the snapshot's {@link TextPatternIndex}, and any other rule is evaluated row by row
+ * while the columns are loaded.
+ * <p>
+ * A row with a value that a column cannot hold, such as an amount with more than two decimal
+ * places, has all of its rules evaluated row by row instead.
+ */
+public final class ColumnarRuleSet {
+
+    private final RuleSetSnapshot snapshot;
+    private final FieldDefinition[] columnFields;
+    private final boolean[] intColumns;
+    private final ColumnRule[] columnRules;
+    private final List<RuleIndex> rowIndexes;
+    private final List<CompiledRule> rowRules;
+    private final int[] riskPoints;
+
+    private ColumnarRuleSet(RuleSetSnapshot snapshot, FieldDefinition[] columnFields, ColumnRule[] columnRules,
+                            List<RuleIndex> rowIndexes, List<CompiledRule> rowRules) {
+        this.snapshot = snapshot;
+        this.columnFields = columnFields;
+        this.intColumns = new boolean[columnFields.length];
+        for (int i = 0; i < columnFields.length; i++) {
+            intColumns[i] = columnFields[i].getType() == Integer.class;
+        }
+        this.columnRules = columnRules;
+        this.rowIndexes = rowIndexes;
+        this.rowRules = rowRules;
+        this.riskPoints = snapshot.getCompiledRules().stream().mapToInt(CompiledRule::getRiskPoints).toArray();
+    }
+
+    /**
+     * Arrange the rules of a snapshot into column rules and row rules
+     */
+    public static ColumnarRuleSet build(RuleSetSnapshot snapshot) {
+        Map<FieldDefinition, Integer> columns = new LinkedHashMap<>();
+        List<ColumnRule> columnRules = new ArrayList<>();
+        BitSet columnar = new BitSet(snapshot.size());
+
+        for (CompiledRule rule : snapshot.getCompiledRules()) {
+            Comparison comparison = comparison(rule.getOperator());
+            if (comparison == null) {
+                continue;
+            }
+
+            FieldDefinition field = rule.getField();
+            ColumnRule columnRule;
+            if (field.getType() == Integer.class && rule.getOperand() instanceof Integer threshold) {
+                columnRule = new ColumnRule(rule.getIndex(), 0, comparison, threshold, false);
+            } else if (rule.getFixedPointComparison() != null) {
+                columnRule = fixedPointRule(rule.getIndex(), comparison, rule.getFixedPointComparison());
+            } else {
+                continue;
+            }
+
+            columnar.set(rule.getIndex());
+            int column = columns.computeIfAbsent(field, key -> columns.size());
+            columnRules.add(new ColumnRule(columnRule.ruleIndex, column, columnRule.comparison, columnRule.threshold,
+                    columnRule.holds));
+        }
+
+        List<RuleIndex> rowIndexes = new ArrayList<>();
+        BitSet covered = (BitSet) columnar.clone();
+        for (RuleIndex index : snapshot.getIndexes()) {
+            if (index instanceof TextPatternIndex) {
+                rowIndexes.add(index);
+                covered.or(index.getIndexedRules());
+            }
+        }
+        List<CompiledRule> rowRules = snapshot.getCompiledRules().stream()
+                .filter(rule -> !covered.get(rule.getIndex()))
+                .toList();
+
+        return new ColumnarRuleSet(snapshot, columns.keySet().toArray(new FieldDefinition[0]),
+                columnRules.toArray(new ColumnRule[0]), List.copyOf(rowIndexes), rowRules);
+    }
+
+    /**
+     * Evaluate a block of consecutive loan applications
+     *
+     * @param loanApplications the loan applications, each with its customer
+     * @param from the index of the first loan application of the block
+     * @param to the index after the last loan application of the block
+     * @param evaluationContextFactory provides the evaluation context the field values are read from
+     * @param kernel applies the column rules
+     * @return the triggered rules and risk score of each row of the block
+     */
+    public ColumnarBlock evaluate(List<LoanApplication> loanApplications, int from, int to,
+                                  EvaluationContextFactory evaluationContextFactory, ColumnKernel kernel) {
+        int size = to - from;
+        int length = (size + 63) & ~63;
+        int words = length >>> 6;
+
+        int[][] intValues = new int[columnFields.length][];
+        long[][] longValues = new long[columnFields.length][];
+        long[][] present = new long[columnFields.length][words];
+        for (int column = 0; column < columnFields.length; column++) {
+            if (intColumns[column]) {
+                intValues[column] = new int[length];
+            } else {
+                longValues[column] = new long[length];
+            }
+        }
+        long[][] ruleMasks = new long[snapshot.size()][words];
+
+        BitSet rowTriggered = new BitSet(snapshot.size());
+        for (int row = 0; row < size; row++) {
+            LoanApplication loanApplication = loanApplications.get(from + row);
+            EvaluationContext context = evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer());
+
+            rowTriggered.clear();
+            if (!loadColumns(context, row, intValues, longValues, present)) {
+                for (ColumnRule columnRule : columnRules) {
+                    if (snapshot.getCompiledRules().get(columnRule.ruleIndex).matches(context)) {
+                        rowTriggered.set(columnRule.ruleIndex);
+                    }
+                }
+            }
+            for (RuleIndex index : rowIndexes) {
+                index.match(context, rowTriggered);
+            }
+            for (CompiledRule rule : rowRules) {
+                if (rule.matches(context)) {
+                    rowTriggered.set(rule.getIndex());
+                }
+            }
+
+            for (int i = rowTriggered.nextSetBit(0); i >= 0; i = rowTriggered.nextSetBit(i + 1)) {
+                ruleMasks[i][row >>> 6] |= 1L << row;
+            }
+        }
+
+        long[] bits = new long[words];
+        for (ColumnRule columnRule : columnRules) {
+            long[] mask = ruleMasks[columnRule.ruleIndex];
+            long[] columnPresent = present[columnRule.column];
+            if (columnRule.comparison == null) {
+                if (columnRule.holds) {
+                    for (int word = 0; word < words; word++) {
+                        mask[word] |= columnPresent[word];
+                    }
+                }
+                continue;
+            }
+
+            if (intColumns[columnRule.column]) {
+                kernel.compare(intValues[columnRule.column], length, columnRule.comparison, (int) columnRule.threshold, bits);
+            } else {
+                kernel.compare(longValues[columnRule.column], length, columnRule.comparison, columnRule.threshold, bits);
+            }
+            // Rows without a value in the column never trigger a rule on it
+            for (int word = 0; word < words; word++) {
+                mask[word] |= bits[word] & columnPresent[word];
+            }
+        }
+
+        int[] riskScores = new int[length];
+        for (int i = 0; i < ruleMasks.length; i++) {
+            if (riskPoints[i] != 0) {
+                kernel.addPoints(ruleMasks[i], riskPoints[i], riskScores, length);
+            }
+        }
+
+        return new ColumnarBlock(size, ruleMasks, riskScores);
+    }
+
+    /**
+     * Get the rules of the snapshot that triggered for a row of a block, in priority order
+     */
+    public List<ScoringRule> getTriggeredRules(ColumnarBlock block, int row) {
+        List<CompiledRule> compiledRules = snapshot.getCompiledRules();
+        List<ScoringRule> triggeredRules = new ArrayList<>();
+        for (int i = 0; i < compiledRules.size(); i++) {
+            if (block.isTriggered(row, i)) {
+                triggeredRules.add(compiledRules.get(i).getRule());
+            }
+        }
+        return triggeredRules;
+    }
+
+    public RuleSetSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the number of rules applied column by column
+     */
+    public int getColumnRuleCount() {
+        return columnRules.length;
+    }
+
+    /**
+     * Load a row's values into the columns
+     *
+     * @return false if a column cannot hold one of the row's values, in which case none of them are marked present
+     */
+    private boolean loadColumns(EvaluationContext context, int row, int[][] intValues, long[][] longValues, long[][] present) {
+        long bit = 1L << row;
+        int word = row >>> 6;
+        for (int column = 0; column < columnFields.length; column++) {
+            int slot = columnFields[column].getSlot();
+            if (intColumns[column]) {
+                Object value = context.getValue(slot);
+                if (value instanceof Integer intValue) {
+                    intValues[column][row] = intValue;
+                    present[column][word] |= bit;
+                } else if (value != null) {
+                    clearRow(present, column, word, bit);
+                    return false;
+                }
+            } else if (context.hasFixedPointValue(slot)) {
+                longValues[column][row] = context.getFixedPointValue(slot);
+                present[column][word] |= bit;
+            } else if (context.getValue(slot) != null) {
+                clearRow(present, column, word, bit);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void clearRow(long[][] present, int columns, int word, long bit) {
+        for (int column = 0; column < columns; column++) {
+            present[column][word] &= ~bit;
+        }
+    }
+
+    /**
+     * Turn a fixed-point comparison into a column rule: a rule value between two fixed-point values
+     * compares like the floor or the ceiling, and equality with it never holds
+     */
+    private static ColumnRule fixedPointRule(int ruleIndex, Comparison comparison, FixedPointComparison fixedPoint) {
+        if (fixedPoint.getFloor() != fixedPoint.getCeiling()
+                && (comparison == Comparison.EQUALS || comparison == Comparison.NOT_EQUALS)) {
+            return new ColumnRule(ruleIndex, 0, null, 0, comparison == Comparison.NOT_EQUALS);
+        }
+        long threshold = comparison == Comparison.GREATER_THAN_OR_EQUAL || comparison == Comparison.LESS_THAN
+                ? fixedPoint.getCeiling()
+                : fixedPoint.getFloor();
+        return new ColumnRule(ruleIndex, 0, comparison, threshold, false);
+    }
+
+    private static Comparison comparison(String operator) {
+        return switch (operator) {
+            case "EQUALS" -> Comparison.EQUALS;
+            case "NOT_EQUALS" -> Comparison.NOT_EQUALS;
+            case "GREATER_THAN" -> Comparison.GREATER_THAN;
+            case "GREATER_THAN_OR_EQUAL" -> Comparison.GREATER_THAN_OR_EQUAL;
+            case "LESS_THAN" -> Comparison.LESS_THAN;
+            case "LESS_THAN_OR_EQUAL" -> Comparison.LESS_THAN_OR_EQUAL;
+            default -> null;
+        };
+    }
+
+    /**
+     * A rule applied to a column. Without a comparison the rule's result is the same for every
+     * value in the column: holds tells whether it triggers.
+     */
+    private record ColumnRule(int ruleIndex, int column, Comparison comparison, long threshold, boolean holds) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.loanrisk.engine.columnar.impl;
+
+import com.loanrisk.engine.columnar.ColumnKernel;
+
+import java.util.Arrays;
+
+/**
+ * ColumnKernel that compares one value at a time, used where the Vector API module is not available
+ */
+public class ScalarColumnKernel implements ColumnKernel {
+
+    @Override
+    public void compare(int[] column, int length, Comparison comparison, int threshold, long[] bits) {
+        // Like the vectorized kernel, every comparison is reduced to lt or eq: value <= t is value < t + 1,
+        // and the other comparisons are their negations
+        switch (comparison) {
+            case EQUALS -> equal(column, length, threshold, 0, bits);
+            case NOT_EQUALS -> equal(column, length, threshold, -1L, bits);
+            case LESS_THAN -> lessThan(column, length, threshold, 0, bits);
+            case GREATER_THAN_OR_EQUAL -> lessThan(column, length, threshold, -1L, bits);
+            case LESS_THAN_OR_EQUAL -> {
+                if (threshold == Integer.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, -1L);
+                } else {
+                    lessThan(column, length, threshold + 1, 0, bits);
+                }
+            }
+            case GREATER_THAN -> {
+                if (threshold == Integer.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, 0L);
+                } else {
+                    lessThan(column, length, threshold + 1, -1L, bits);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void compare(long[] column, int length, Comparison comparison, long threshold, long[] bits) {
+        switch (comparison) {
+            case EQUALS -> equal(column, length, threshold, 0, bits);
+            case NOT_EQUALS -> equal(column, length, threshold, -1L, bits);
+            case LESS_THAN -> lessThan(column, length, threshold, 0, bits);
+            case GREATER_THAN_OR_EQUAL -> lessThan(column, length, threshold, -1L, bits);
+            case LESS_THAN_OR_EQUAL -> {
+                if (threshold == Long.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, -1L);
+                } else {
+                    lessThan(column, length, threshold + 1, 0, bits);
+                }
+            }
+            case GREATER_THAN -> {
+                if (threshold == Long.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, 0L);
+                } else {
+                    lessThan(column, length, threshold + 1, -1L, bits);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addPoints(long[] bits, int points, int[] scores, int length) {
+        for (int word = 0; word < length >>> 6; word++) {
+            int offset = word << 6;
+            for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                scores[offset + Long.numberOfTrailingZeros(remaining)] += points;
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    private static void lessThan(int[] column, int length, int threshold, long flip, long[] bits) {
+        for (int word = 0; word < length >>> 6; word++) {
+            long result = 0;
+            int offset = word << 6;
+            for (int bit = 0; bit < 64; bit++) {
+                result |= (column[offset + bit] < threshold ? 1L : 0L) << bit;
+            }
+            bits[word] = result ^ flip;
+        }
+    }
+
+    private static void equal(int[] column, int length, int threshold, long flip, long[] bits) {
+        for (int word = 0; word < length >>> 6; word++) {
+            long result = 0;
+            int offset = word << 6;
+            for (int bit = 0; bit < 64; bit++) {
+                result |= (column[offset + bit] == threshold ? 1L : 0L) << bit;
+            }
+            bits[word] = result ^ flip;
+        }
+    }
+
+    private static void lessThan(long[] column, int length, long threshold, long flip, long[] bits) {
+        for (int word = 0; word < length >>> 6; word++) {
+            long result = 0;
+            int offset = word << 6;
+            for (int bit = 0; bit < 64; bit++) {
+                result |= (column[offset + bit] < threshold ? 1L : 0L) << bit;
+            }
+            bits[word] = result ^ flip;
+        }
+    }
+
+    private static void equal(long[] column, int length, long threshold, long flip, long[] bits) {
+        for (int word = 0; word < length >>> 6; word++) {
+            long result = 0;
+            int offset = word << 6;
+            for (int bit = 0; bit < 64; bit++) {
+                result |= (column[offset + bit] == threshold ? 1L : 0L) << bit;
+            }
+            bits[word] = result ^ flip;
+        }
+    }
+}
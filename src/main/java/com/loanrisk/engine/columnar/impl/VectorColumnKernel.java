@@ -0,0 +1,138 @@
+package com.loanrisk.engine.columnar.impl;
+
+import com.loanrisk.engine.columnar.ColumnKernel;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * ColumnKernel built on the incubating Vector API, which compares as many values per instruction
+ * as the CPU's preferred vector width holds: 8 ints and 4 longs with AVX2, twice that with AVX-512.
+ * <p>
+ * The {@code jdk.incubator.vector} module must be added to the JVM with
+ * {@code --add-modules jdk.incubator.vector}; without it this class cannot be loaded.
+ */
+public class VectorColumnKernel implements ColumnKernel {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void compare(int[] column, int length, Comparison comparison, int threshold, long[] bits) {
+        // Only lt and eq are used, as a comparison is only compiled to vector instructions when its
+        // operator is a constant: value <= t is value < t + 1, and the other comparisons are their negations
+        switch (comparison) {
+            case EQUALS -> equal(column, length, threshold, false, bits);
+            case NOT_EQUALS -> equal(column, length, threshold, true, bits);
+            case LESS_THAN -> lessThan(column, length, threshold, false, bits);
+            case GREATER_THAN_OR_EQUAL -> lessThan(column, length, threshold, true, bits);
+            case LESS_THAN_OR_EQUAL -> {
+                if (threshold == Integer.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, -1L);
+                } else {
+                    lessThan(column, length, threshold + 1, false, bits);
+                }
+            }
+            case GREATER_THAN -> {
+                if (threshold == Integer.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, 0L);
+                } else {
+                    lessThan(column, length, threshold + 1, true, bits);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void compare(long[] column, int length, Comparison comparison, long threshold, long[] bits) {
+        switch (comparison) {
+            case EQUALS -> equal(column, length, threshold, false, bits);
+            case NOT_EQUALS -> equal(column, length, threshold, true, bits);
+            case LESS_THAN -> lessThan(column, length, threshold, false, bits);
+            case GREATER_THAN_OR_EQUAL -> lessThan(column, length, threshold, true, bits);
+            case LESS_THAN_OR_EQUAL -> {
+                if (threshold == Long.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, -1L);
+                } else {
+                    lessThan(column, length, threshold + 1, false, bits);
+                }
+            }
+            case GREATER_THAN -> {
+                if (threshold == Long.MAX_VALUE) {
+                    Arrays.fill(bits, 0, length >>> 6, 0L);
+                } else {
+                    lessThan(column, length, threshold + 1, true, bits);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void addPoints(long[] bits, int points, int[] scores, int length) {
+        int lanes = INTS.length();
+        for (int word = 0; word < length >>> 6; word++) {
+            long triggered = bits[word];
+            if (triggered == 0) {
+                continue;
+            }
+            int offset = word << 6;
+            for (int bit = 0; bit < 64; bit += lanes) {
+                VectorMask<Integer> mask = VectorMask.fromLong(INTS, triggered >>> bit);
+                IntVector.fromArray(INTS, scores, offset + bit).add(points, mask).intoArray(scores, offset + bit);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "vector (" + INTS.vectorBitSize() + "-bit)";
+    }
+
+    private static void lessThan(int[] column, int length, int threshold, boolean negate, long[] bits) {
+        int lanes = INTS.length();
+        long flip = negate ? laneBits(lanes) : 0;
+        for (int i = 0; i < length; i += lanes) {
+            setLanes(bits, i, IntVector.fromArray(INTS, column, i).lt(threshold).toLong() ^ flip);
+        }
+    }
+
+    private static void equal(int[] column, int length, int threshold, boolean negate, long[] bits) {
+        int lanes = INTS.length();
+        long flip = negate ? laneBits(lanes) : 0;
+        for (int i = 0; i < length; i += lanes) {
+            setLanes(bits, i, IntVector.fromArray(INTS, column, i).eq(threshold).toLong() ^ flip);
+        }
+    }
+
+    private static void lessThan(long[] column, int length, long threshold, boolean negate, long[] bits) {
+        int lanes = LONGS.length();
+        long flip = negate ? laneBits(lanes) : 0;
+        for (int i = 0; i < length; i += lanes) {
+            setLanes(bits, i, LongVector.fromArray(LONGS, column, i).lt(threshold).toLong() ^ flip);
+        }
+    }
+
+    private static void equal(long[] column, int length, long threshold, boolean negate, long[] bits) {
+        int lanes = LONGS.length();
+        long flip = negate ? laneBits(lanes) : 0;
+        for (int i = 0; i < length; i += lanes) {
+            setLanes(bits, i, LongVector.fromArray(LONGS, column, i).eq(threshold).toLong() ^ flip);
+        }
+    }
+
+    /**
+     * Store the comparison results of the vector starting at row i; a vector never spans two words,
+     * as the lane count divides 64
+     */
+    private static void setLanes(long[] bits, int i, long lanes) {
+        int bit = i & 63;
+        bits[i >>> 6] = bit == 0 ? lanes : bits[i >>> 6] | lanes << bit;
+    }
+
+    private static long laneBits(int lanes) {
+        return lanes == 64 ? -1L : (1L << lanes) - 1;
+    }
+}
@@ -0,0 +1,138 @@
+package com.loanrisk.engine.compiler;
+
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.math.BigDecimal;
+
+/**
+ * A scoring rule bound to its field, its evaluator and its parsed operand, ready to be
+ * evaluated without any per-request lookups or parsing
+ */
+public final class CompiledRule {
+
+    private final ScoringRule rule;
+    private final int index;
+    private final FieldDefinition field;
+    private final String operator;
+    private final RuleEvaluator evaluator;
+    private final Object operand;
+    private final int riskPoints;
+    private final FixedPointComparison fixedPointComparison;
+
+    public CompiledRule(ScoringRule rule, int index, FieldDefinition field, String operator,
+                        RuleEvaluator evaluator, Object operand) {
+        this.rule = rule;
+        this.index = index;
+        this.field = field;
+        this.operator = operator;
+        this.evaluator = evaluator;
+        this.operand = operand;
+        this.riskPoints = rule.getRiskPoints();
+        this.fixedPointComparison = field.getType() == BigDecimal.class && operand instanceof BigDecimal
+                ? FixedPointComparison.of(operator, (BigDecimal) operand)
+                : null;
+    }
+
+    private CompiledRule(CompiledRule compiledRule, int index) {
+        this.rule = compiledRule.rule;
+        this.index = index;
+        this.field = compiledRule.field;
+        this.operator = compiledRule.operator;
+        this.evaluator = compiledRule.evaluator;
+        this.operand = compiledRule.operand;
+        this.riskPoints = compiledRule.riskPoints;
+        this.fixedPointComparison = compiledRule.fixedPointComparison;
+    }
+
+    /**
+     * Get this rule at another position of a rule set, without compiling it again
+     *
+     * @param index the position of the rule in the new rule set
+     * @return the compiled rule at that position
+     */
+    public CompiledRule withIndex(int index) {
+        return index == this.index ? this : new CompiledRule(this, index);
+    }
+
+    /**
+     * Evaluate this rule against a loan application
+     *
+     * @param context the populated evaluation context of the loan application
+     * @return true if the rule is triggered
+     */
+    public boolean matches(EvaluationContext context) {
+        // Compare money and ratio values as longs when the context holds them in fixed-point form
+        if (fixedPointComparison != null && context.hasFixedPointValue(field.getSlot())) {
+            return fixedPointComparison.test(context.getFixedPointValue(field.getSlot()));
+        }
+        
+        Object fieldValue = field.read(context);
+        if (fieldValue == null) {
+            return false;
+        }
+        
+        // Values supplied with an unexpected type fall back to parsing the rule value
+        if (!field.getType().isInstance(fieldValue)) {
+            return evaluator.evaluate(fieldValue, rule.getRuleValue());
+        }
+        
+        return evaluator.matches(fieldValue, operand);
+    }
+
+    /**
+     * Get the source scoring rule
+     */
+    public ScoringRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Get the position of this rule within its rule set, in priority order
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public FieldDefinition getField() {
+        return field;
+    }
+
+    /**
+     * Get the canonical operator type, with aliases such as "&lt;" already resolved
+     */
+    public String getOperator() {
+        return operator;
+    }
+
+    public RuleEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Get the rule value parsed into the field's type
+     */
+    public Object getOperand() {
+        return operand;
+    }
+
+    public int getRiskPoints() {
+        return riskPoints;
+    }
+
+    /**
+     * Get the comparison of a fixed-point field value against the rule value
+     *
+     * @return the comparison, or null if the rule cannot be evaluated on fixed-point values
+     */
+    public FixedPointComparison getFixedPointComparison() {
+        return fixedPointComparison;
+    }
+
+    @Override
+    public String toString() {
+        return rule.getName() + " [" + field.getName() + " " + operator + " " + operand + "]";
+    }
+}
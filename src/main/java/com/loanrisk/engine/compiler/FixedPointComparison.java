@@ -0,0 +1,97 @@
+package com.loanrisk.engine.compiler;
+
+import com.loanrisk.engine.context.FixedPoint;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A comparison of a {@link FixedPoint} field value against a BigDecimal rule value, reduced to a
+ * comparison of longs. The rule value is scaled like the field value; if that leaves a fractional
+ * part, the field value is compared with the floor or the ceiling, which gives the same result as
+ * comparing the exact values.
+ */
+public final class FixedPointComparison {
+
+    private static final int EQUALS = 0;
+    private static final int NOT_EQUALS = 1;
+    private static final int GREATER_THAN = 2;
+    private static final int GREATER_THAN_OR_EQUAL = 3;
+    private static final int LESS_THAN = 4;
+    private static final int LESS_THAN_OR_EQUAL = 5;
+
+    private final String operator;
+    private final int comparison;
+    private final long floor;
+    private final long ceiling;
+
+    private FixedPointComparison(String operator, int comparison, long floor, long ceiling) {
+        this.operator = operator;
+        this.comparison = comparison;
+        this.floor = floor;
+        this.ceiling = ceiling;
+    }
+
+    /**
+     * Create the comparison for a canonical operator and a rule value
+     *
+     * @return the comparison, or null if the operator is not a comparison or the scaled rule value does not fit in a long
+     */
+    public static FixedPointComparison of(String operator, BigDecimal operand) {
+        int comparison = switch (operator) {
+            case "EQUALS" -> EQUALS;
+            case "NOT_EQUALS" -> NOT_EQUALS;
+            case "GREATER_THAN" -> GREATER_THAN;
+            case "GREATER_THAN_OR_EQUAL" -> GREATER_THAN_OR_EQUAL;
+            case "LESS_THAN" -> LESS_THAN;
+            case "LESS_THAN_OR_EQUAL" -> LESS_THAN_OR_EQUAL;
+            default -> -1;
+        };
+        if (comparison < 0) {
+            return null;
+        }
+        
+        BigDecimal scaled = operand.movePointRight(FixedPoint.SCALE);
+        try {
+            return new FixedPointComparison(operator, comparison,
+                    scaled.setScale(0, RoundingMode.FLOOR).longValueExact(),
+                    scaled.setScale(0, RoundingMode.CEILING).longValueExact());
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compare a fixed-point value with the rule value
+     *
+     * @return true if "value operator ruleValue" holds
+     */
+    public boolean test(long value) {
+        return switch (comparison) {
+            case EQUALS -> floor == ceiling && value == floor;
+            case NOT_EQUALS -> floor != ceiling || value != floor;
+            case GREATER_THAN -> value > floor;
+            case GREATER_THAN_OR_EQUAL -> value >= ceiling;
+            case LESS_THAN -> value < ceiling;
+            default -> value <= floor;
+        };
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * Get the largest fixed-point value not above the rule value
+     */
+    public long getFloor() {
+        return floor;
+    }
+
+    /**
+     * Get the smallest fixed-point value not below the rule value
+     */
+    public long getCeiling() {
+        return ceiling;
+    }
+}
@@ -0,0 +1,20 @@
+package com.loanrisk.engine.compiler;
+
+import com.loanrisk.exception.RuleCompilationException;
+import com.loanrisk.model.entity.ScoringRule;
+
+/**
+ * Interface for compiling scoring rules into a form that can be evaluated repeatedly
+ */
+public interface RuleCompiler {
+
+    /**
+     * Compile a scoring rule, resolving its field, operator and rule value
+     *
+     * @param rule the scoring rule to compile
+     * @param index the position of the rule within its rule set
+     * @return the compiled rule
+     * @throws RuleCompilationException if the field or operator is unknown or the rule value is invalid for the field
+     */
+    CompiledRule compile(ScoringRule rule, int index);
+}
@@ -0,0 +1,61 @@
+package com.loanrisk.engine.compiler.impl;
+
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.factory.RuleEvaluatorFactory;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.field.FieldRegistry;
+import com.loanrisk.exception.RuleCompilationException;
+import com.loanrisk.model.entity.ScoringRule;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default implementation of the RuleCompiler interface
+ */
+@Component
+public class DefaultRuleCompiler implements RuleCompiler {
+
+    private final RuleEvaluatorFactory ruleEvaluatorFactory;
+    private final FieldRegistry fieldRegistry;
+
+    @Autowired
+    public DefaultRuleCompiler(RuleEvaluatorFactory ruleEvaluatorFactory, FieldRegistry fieldRegistry) {
+        this.ruleEvaluatorFactory = ruleEvaluatorFactory;
+        this.fieldRegistry = fieldRegistry;
+    }
+
+    @Override
+    public CompiledRule compile(ScoringRule rule, int index) {
+        FieldDefinition field = fieldRegistry.getField(rule.getField());
+        if (field == null) {
+            throw new RuleCompilationException(rule.getName(), "unknown field '" + rule.getField() + "'");
+        }
+        
+        String operator = ruleEvaluatorFactory.normalizeOperator(rule.getOperator());
+        if (operator == null) {
+            throw new RuleCompilationException(rule.getName(), "unknown operator '" + rule.getOperator() + "'");
+        }
+        
+        if (rule.getRuleValue() == null) {
+            throw new RuleCompilationException(rule.getName(), "missing rule value");
+        }
+        
+        if (rule.getRiskPoints() == null) {
+            throw new RuleCompilationException(rule.getName(), "missing risk points");
+        }
+        
+        RuleEvaluator evaluator = ruleEvaluatorFactory.getEvaluator(operator);
+        
+        Object operand;
+        try {
+            operand = evaluator.parseOperand(field.getType(), rule.getRuleValue());
+        } catch (IllegalArgumentException e) {
+            throw new RuleCompilationException(rule.getName(),
+                    "invalid value '" + rule.getRuleValue() + "' for " + field, e);
+        }
+        
+        return new CompiledRule(rule, index, field, operator, evaluator, operand);
+    }
+}
@@ -0,0 +1,16 @@
+package com.loanrisk.engine.context;
+
+/**
+ * Calculates the derived fields of an evaluation context when they are first read
+ */
+@FunctionalInterface
+public interface DerivedFieldResolver {
+
+    /**
+     * Calculate a derived field and store it in the context
+     *
+     * @param context the context being read
+     * @param index the position of the field in DerivedFieldCalculator.getDerivedFieldNames()
+     */
+    void resolve(EvaluationContext context, int index);
+}
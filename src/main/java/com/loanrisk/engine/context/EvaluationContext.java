@@ -0,0 +1,219 @@
+package com.loanrisk.engine.context;
+
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * The field values of one loan application, held in an array indexed by the slots the
+ * FieldRegistry assigned to the fields. A context can be reset and reused for any number of
+ * evaluations, but only by one thread at a time.
+ * <p>
+ * A BigDecimal field can also hold its value as a {@link FixedPoint} long. Derived fields are
+ * calculated in that form, and their BigDecimal is only created when something reads it.
+ * <p>
+ * A context created with a {@link DerivedFieldResolver} calculates derived fields on demand: after
+ * a reset every derived field is pending, and it is calculated the first time its slot is read.
+ */
+public final class EvaluationContext {
+
+    private final FieldDefinition[] fields;
+    private final int[] derivedFieldSlots;
+    private final Object[] values;
+    private final long[] fixedPointValues;
+    private final boolean[] hasFixedPointValue;
+    private final DerivedFieldResolver derivedFieldResolver;
+    // Derived field index of each slot, or -1
+    private final int[] derivedFieldIndexes;
+    private final boolean[] pending;
+    private LoanApplication loanApplication;
+    private Customer customer;
+
+    /**
+     * @param fields all registered fields
+     * @param slotCount the number of slots the fields occupy
+     * @param derivedFieldSlots the slot of each derived field, in the order of DerivedFieldCalculator.getDerivedFieldNames()
+     */
+    public EvaluationContext(FieldDefinition[] fields, int slotCount, int[] derivedFieldSlots) {
+        this(fields, slotCount, derivedFieldSlots, null);
+    }
+
+    /**
+     * @param fields all registered fields
+     * @param slotCount the number of slots the fields occupy
+     * @param derivedFieldSlots the slot of each derived field, in the order of DerivedFieldCalculator.getDerivedFieldNames()
+     * @param derivedFieldResolver calculates pending derived fields when they are read, or null to store them explicitly
+     */
+    public EvaluationContext(FieldDefinition[] fields, int slotCount, int[] derivedFieldSlots,
+                             DerivedFieldResolver derivedFieldResolver) {
+        this.fields = fields;
+        this.derivedFieldSlots = derivedFieldSlots;
+        this.values = new Object[slotCount];
+        this.fixedPointValues = new long[slotCount];
+        this.hasFixedPointValue = new boolean[slotCount];
+        this.derivedFieldResolver = derivedFieldResolver;
+        this.derivedFieldIndexes = new int[slotCount];
+        this.pending = new boolean[slotCount];
+        Arrays.fill(derivedFieldIndexes, -1);
+        for (int i = 0; i < derivedFieldSlots.length; i++) {
+            derivedFieldIndexes[derivedFieldSlots[i]] = i;
+        }
+    }
+
+    /**
+     * Clear all values and associate the context with another loan application
+     */
+    public void reset(LoanApplication loanApplication, Customer customer) {
+        this.loanApplication = loanApplication;
+        this.customer = customer;
+        Arrays.fill(values, null);
+        Arrays.fill(hasFixedPointValue, false);
+        if (derivedFieldResolver != null) {
+            for (int slot : derivedFieldSlots) {
+                pending[slot] = true;
+            }
+        }
+    }
+
+    public LoanApplication getLoanApplication() {
+        return loanApplication;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    /**
+     * Get the value held in a slot
+     *
+     * @param slot the slot of the field
+     * @return the value, or null if the field has no value
+     */
+    public Object getValue(int slot) {
+        if (pending[slot]) {
+            calculate(slot);
+        }
+        Object value = values[slot];
+        if (value == null && hasFixedPointValue[slot]) {
+            value = FixedPoint.toBigDecimal(fixedPointValues[slot]);
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    public void setValue(int slot, Object value) {
+        values[slot] = value;
+        hasFixedPointValue[slot] = false;
+        pending[slot] = false;
+    }
+
+    /**
+     * Whether a slot holds a fixed-point value
+     */
+    public boolean hasFixedPointValue(int slot) {
+        if (pending[slot]) {
+            calculate(slot);
+        }
+        return hasFixedPointValue[slot];
+    }
+
+    /**
+     * Get the fixed-point value held in a slot; only meaningful if {@link #hasFixedPointValue(int)} is true
+     */
+    public long getFixedPointValue(int slot) {
+        return fixedPointValues[slot];
+    }
+
+    /**
+     * Store a fixed-point value in a slot, replacing any value it held
+     */
+    public void setFixedPointValue(int slot, long value) {
+        values[slot] = null;
+        fixedPointValues[slot] = value;
+        hasFixedPointValue[slot] = true;
+        pending[slot] = false;
+    }
+
+    /**
+     * Store a BigDecimal value together with its fixed-point form
+     */
+    public void setValue(int slot, BigDecimal value, long fixedPointValue) {
+        values[slot] = value;
+        fixedPointValues[slot] = fixedPointValue;
+        hasFixedPointValue[slot] = true;
+        pending[slot] = false;
+    }
+
+    /**
+     * Calculate a derived field now if it is still pending
+     */
+    public void calculate(int slot) {
+        if (pending[slot]) {
+            // Cleared first, so that a field depending on itself reads null instead of recursing
+            pending[slot] = false;
+            derivedFieldResolver.resolve(this, derivedFieldIndexes[slot]);
+        }
+    }
+
+    /**
+     * Whether a derived field is still waiting to be calculated
+     */
+    public boolean isPending(int slot) {
+        return pending[slot];
+    }
+
+    /**
+     * Get the value of a derived field, calculating it if it is pending
+     *
+     * @param index the position of the field in DerivedFieldCalculator.getDerivedFieldNames()
+     */
+    public Object getDerivedValue(int index) {
+        return getValue(derivedFieldSlots[index]);
+    }
+
+    /**
+     * Whether a derived field holds a fixed-point value, calculating it if it is pending
+     *
+     * @param index the position of the field in DerivedFieldCalculator.getDerivedFieldNames()
+     */
+    public boolean hasDerivedFixedPointValue(int index) {
+        return hasFixedPointValue(derivedFieldSlots[index]);
+    }
+
+    /**
+     * Get the fixed-point value of a derived field; only meaningful if {@link #hasDerivedFixedPointValue(int)} is true
+     */
+    public long getDerivedFixedPointValue(int index) {
+        return fixedPointValues[derivedFieldSlots[index]];
+    }
+
+    /**
+     * Store the value of a derived field
+     *
+     * @param index the position of the field in DerivedFieldCalculator.getDerivedFieldNames()
+     * @param value the calculated value
+     */
+    public void setDerivedValue(int index, Object value) {
+        setValue(derivedFieldSlots[index], value);
+    }
+
+    /**
+     * Store the fixed-point value of a derived field
+     *
+     * @param index the position of the field in DerivedFieldCalculator.getDerivedFieldNames()
+     * @param value the calculated value, scaled by 10^{@link FixedPoint#SCALE}
+     */
+    public void setDerivedFixedPointValue(int index, long value) {
+        setFixedPointValue(derivedFieldSlots[index], value);
+    }
+
+    /**
+     * Get all registered fields, ordered by slot
+     */
+    public FieldDefinition[] getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,49 @@
+package com.loanrisk.engine.context;
+
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+
+import java.util.Map;
+
+/**
+ * Interface for creating and populating evaluation contexts
+ */
+public interface EvaluationContextFactory {
+
+    /**
+     * Create an empty context with a slot for every registered field
+     *
+     * @return a new evaluation context
+     */
+    EvaluationContext createContext();
+
+    /**
+     * Create a context for a loan application whose derived fields were already calculated
+     *
+     * @param loanApplication the loan application
+     * @param customer the customer associated with the loan application
+     * @param derivedFields map of derived field names to their values
+     * @return a new, populated evaluation context
+     */
+    EvaluationContext createContext(LoanApplication loanApplication, Customer customer, Map<String, Object> derivedFields);
+
+    /**
+     * Reset a context and load the field values of a loan application into it. Derived fields are
+     * calculated when they are first read from the context.
+     *
+     * @param context the context to populate
+     * @param loanApplication the loan application
+     * @param customer the customer associated with the loan application
+     */
+    void populate(EvaluationContext context, LoanApplication loanApplication, Customer customer);
+
+    /**
+     * Get the calling thread's reusable context, populated for a loan application. The context
+     * is only valid until the next call to this method on the same thread.
+     *
+     * @param loanApplication the loan application
+     * @param customer the customer associated with the loan application
+     * @return the populated evaluation context
+     */
+    EvaluationContext getContext(LoanApplication loanApplication, Customer customer);
+}
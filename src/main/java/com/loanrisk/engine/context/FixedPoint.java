@@ -0,0 +1,70 @@
+package com.loanrisk.engine.context;
+
+import java.math.BigDecimal;
+
+/**
+ * Arithmetic on fixed-point values: longs holding a decimal value multiplied by 10^{@link #SCALE}.
+ * Money amounts are held in cents and ratios in hundredths, the scale the derived fields are
+ * rounded to, so evaluation can run without allocating BigDecimals.
+ */
+public final class FixedPoint {
+
+    /**
+     * The number of decimal places held by a fixed-point value
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The fixed-point value of one
+     */
+    public static final long ONE = 100;
+
+    // 10^18 is the largest power of ten below Long.MAX_VALUE
+    private static final int MAX_INTEGER_DIGITS = 18 - SCALE;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Whether a BigDecimal can be converted to a fixed-point value without rounding or overflow.
+     * Values with more than SCALE decimal places are never representable, even if the extra digits are zeros.
+     */
+    public static boolean isRepresentable(BigDecimal value) {
+        return value.scale() <= SCALE && value.precision() - value.scale() <= MAX_INTEGER_DIGITS;
+    }
+
+    /**
+     * Convert a representable BigDecimal to a fixed-point value
+     *
+     * @throws ArithmeticException if the value is not representable
+     */
+    public static long toFixedPoint(BigDecimal value) {
+        if (!isRepresentable(value)) {
+            throw new ArithmeticException("Not representable at scale " + SCALE + ": " + value);
+        }
+        return value.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Convert a fixed-point value back to a BigDecimal with SCALE decimal places
+     */
+    public static BigDecimal toBigDecimal(long value) {
+        return BigDecimal.valueOf(value, SCALE);
+    }
+
+    /**
+     * Divide two longs and round the quotient to the nearest long, rounding ties away from zero.
+     * For fixed-point operands this gives the same digits as
+     * {@code BigDecimal.divide(divisor, scale, RoundingMode.HALF_UP)}.
+     *
+     * @throws ArithmeticException if the divisor is zero or the quotient overflows
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = Math.divideExact(dividend, divisor);
+        long remainder = Math.absExact(dividend % divisor);
+        if (remainder >= Math.absExact(divisor) - remainder) {
+            quotient = (dividend < 0) == (divisor < 0) ? Math.addExact(quotient, 1) : Math.subtractExact(quotient, 1);
+        }
+        return quotient;
+    }
+}
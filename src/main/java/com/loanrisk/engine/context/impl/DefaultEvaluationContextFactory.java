@@ -0,0 +1,153 @@
+package com.loanrisk.engine.context.impl;
+
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.FixedPoint;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.field.FieldRegistry;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default implementation of the EvaluationContextFactory interface. Populated contexts only hold
+ * the entity fields; each derived field is calculated when it is first read, after the derived
+ * fields it depends on.
+ */
+@Component
+public class DefaultEvaluationContextFactory implements EvaluationContextFactory {
+
+    private final DerivedFieldCalculator derivedFieldCalculator;
+    private final FieldDefinition[] fields;
+    private final int slotCount;
+    private final FieldDefinition[] entityFields;
+    private final FieldDefinition[] derivedFields;
+    private final int[] derivedFieldSlots;
+    // Positions of the derived fields each derived field depends on
+    private final int[][] derivedFieldDependencies;
+    private final ThreadLocal<EvaluationContext> threadContext = ThreadLocal.withInitial(this::createContext);
+
+    @Autowired
+    public DefaultEvaluationContextFactory(FieldRegistry fieldRegistry, DerivedFieldCalculator derivedFieldCalculator) {
+        this.derivedFieldCalculator = derivedFieldCalculator;
+        this.fields = fieldRegistry.getFields().toArray(new FieldDefinition[0]);
+        this.slotCount = fieldRegistry.getSlotCount();
+        this.entityFields = fieldRegistry.getFields().stream()
+                .filter(field -> !field.isDerived())
+                .toArray(FieldDefinition[]::new);
+        
+        String[] derivedFieldNames = derivedFieldCalculator.getDerivedFieldNames();
+        this.derivedFields = new FieldDefinition[derivedFieldNames.length];
+        this.derivedFieldSlots = new int[derivedFieldNames.length];
+        for (int i = 0; i < derivedFieldNames.length; i++) {
+            derivedFields[i] = fieldRegistry.getField(derivedFieldNames[i]);
+            derivedFieldSlots[i] = derivedFields[i].getSlot();
+        }
+        
+        List<String> derivedFieldList = Arrays.asList(derivedFieldNames);
+        this.derivedFieldDependencies = new int[derivedFieldNames.length][];
+        for (int i = 0; i < derivedFieldNames.length; i++) {
+            List<String> dependencies = derivedFieldCalculator.getDependencies(derivedFieldNames[i]);
+            for (String dependency : dependencies) {
+                if (fieldRegistry.getField(dependency) == null) {
+                    throw new IllegalStateException("Derived field " + derivedFieldNames[i] + " depends on unknown field " + dependency);
+                }
+            }
+            derivedFieldDependencies[i] = dependencies.stream()
+                    .mapToInt(derivedFieldList::indexOf)
+                    .filter(index -> index >= 0)
+                    .toArray();
+        }
+        checkAcyclic(derivedFieldNames);
+    }
+
+    @Override
+    public EvaluationContext createContext() {
+        return new EvaluationContext(fields, slotCount, derivedFieldSlots, this::calculateDerivedField);
+    }
+
+    @Override
+    public EvaluationContext createContext(LoanApplication loanApplication, Customer customer, Map<String, Object> derivedFieldValues) {
+        EvaluationContext context = createContext();
+        loadEntityFields(context, loanApplication, customer);
+        
+        for (FieldDefinition field : derivedFields) {
+            setValue(context, field, derivedFieldValues.get(field.getName()));
+        }
+        
+        return context;
+    }
+
+    @Override
+    public void populate(EvaluationContext context, LoanApplication loanApplication, Customer customer) {
+        // Resetting the context leaves the derived fields pending until they are read
+        loadEntityFields(context, loanApplication, customer);
+    }
+
+    @Override
+    public EvaluationContext getContext(LoanApplication loanApplication, Customer customer) {
+        EvaluationContext context = threadContext.get();
+        populate(context, loanApplication, customer);
+        return context;
+    }
+
+    private void loadEntityFields(EvaluationContext context, LoanApplication loanApplication, Customer customer) {
+        context.reset(loanApplication, customer);
+        for (FieldDefinition field : entityFields) {
+            setValue(context, field, field.getAccessor().read(loanApplication, customer));
+        }
+    }
+
+    /**
+     * Calculate a pending derived field of a context, calculating the derived fields it depends on first
+     */
+    private void calculateDerivedField(EvaluationContext context, int index) {
+        for (int dependency : derivedFieldDependencies[index]) {
+            context.calculate(derivedFieldSlots[dependency]);
+        }
+        derivedFieldCalculator.calculateDerivedField(index, context.getCustomer(), context.getLoanApplication(), context);
+    }
+
+    /**
+     * Check that no derived field depends on itself, directly or through other derived fields
+     */
+    private void checkAcyclic(String[] derivedFieldNames) {
+        // 0 = not visited, 1 = on the current path, 2 = done
+        int[] state = new int[derivedFieldNames.length];
+        for (int i = 0; i < derivedFieldNames.length; i++) {
+            checkAcyclic(i, state, derivedFieldNames);
+        }
+    }
+
+    private void checkAcyclic(int index, int[] state, String[] derivedFieldNames) {
+        if (state[index] == 2) {
+            return;
+        }
+        if (state[index] == 1) {
+            throw new IllegalStateException("Derived field " + derivedFieldNames[index] + " depends on itself");
+        }
+        state[index] = 1;
+        for (int dependency : derivedFieldDependencies[index]) {
+            checkAcyclic(dependency, state, derivedFieldNames);
+        }
+        state[index] = 2;
+    }
+
+    /**
+     * Store a value, together with its fixed-point form if it is a BigDecimal that has one
+     */
+    private void setValue(EvaluationContext context, FieldDefinition field, Object value) {
+        if (value instanceof BigDecimal && FixedPoint.isRepresentable((BigDecimal) value)) {
+            context.setValue(field.getSlot(), (BigDecimal) value, FixedPoint.toFixedPoint((BigDecimal) value));
+        } else {
+            context.setValue(field.getSlot(), value);
+        }
+    }
+}
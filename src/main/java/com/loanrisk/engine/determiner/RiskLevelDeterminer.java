@@ -67,4 +67,15 @@ public class RiskLevelDeterminer {
         String riskLevel = determineRiskLevel(riskScore);
         return determineDecision(riskLevel);
     }
+    
+    /**
+     * Whether every risk score within a range leads to the same decision
+     * 
+     * @param minimumRiskScore the lowest possible risk score
+     * @param maximumRiskScore the highest possible risk score
+     * @return true if the decision no longer depends on where in the range the score ends up
+     */
+    public boolean isDecisionFixed(int minimumRiskScore, int maximumRiskScore) {
+        return determineDecisionFromScore(minimumRiskScore).equals(determineDecisionFromScore(maximumRiskScore));
+    }
 }
\ No newline at end of file
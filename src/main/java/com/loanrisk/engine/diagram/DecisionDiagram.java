@@ -0,0 +1,168 @@
+package com.loanrisk.engine.diagram;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.index.ScaledThresholds;
+import com.loanrisk.engine.index.TextPatternIndex;
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A rule set snapshot compiled into an ordered decision diagram over field threshold intervals.
+ * Each level holds the comparison rules on one numeric field (see {@link FieldLevel}); the levels
+ * are ordered by how far they can move the risk score, and the score after each level, together
+ * with the bounds of the levels below it, decides whether the decision is already fixed. Rules
+ * the levels cannot hold, such as those on text fields, are evaluated after the last level.
+ * <p>
+ * A diagram is immutable once built and can be shared across threads.
+ */
+public final class DecisionDiagram {
+
+    private static final Set<String> OPERATORS = Set.of("EQUALS", "NOT_EQUALS", "GREATER_THAN",
+            "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL");
+
+    private final RuleSetSnapshot snapshot;
+    private final List<FieldLevel> levels;
+    // The lowest and highest score the levels from i on, then the residual rules, can still add
+    private final int[] lowestRemainingPoints;
+    private final int[] highestRemainingPoints;
+    private final TextPatternIndex residualIndex;
+    private final List<CompiledRule> residualUnindexedRules;
+    private final RuleOrder residualOrder;
+
+    private DecisionDiagram(RuleSetSnapshot snapshot, List<FieldLevel> levels, List<CompiledRule> residualRules) {
+        this.snapshot = snapshot;
+        this.levels = List.copyOf(levels);
+        this.residualIndex = TextPatternIndex.build(residualRules);
+        this.residualOrder = RuleOrder.byRiskPoints(residualRules);
+        
+        BitSet indexedRules = residualIndex.getIndexedRules();
+        List<CompiledRule> unindexedRules = new ArrayList<>();
+        for (CompiledRule rule : residualRules) {
+            if (!indexedRules.get(rule.getIndex())) {
+                unindexedRules.add(rule);
+            }
+        }
+        this.residualUnindexedRules = List.copyOf(unindexedRules);
+        
+        lowestRemainingPoints = new int[levels.size() + 1];
+        highestRemainingPoints = new int[levels.size() + 1];
+        lowestRemainingPoints[levels.size()] = residualOrder.getLowestRemainingPoints(0);
+        highestRemainingPoints[levels.size()] = residualOrder.getHighestRemainingPoints(0);
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            lowestRemainingPoints[i] = lowestRemainingPoints[i + 1] + levels.get(i).getLowestPoints();
+            highestRemainingPoints[i] = highestRemainingPoints[i + 1] + levels.get(i).getHighestPoints();
+        }
+    }
+
+    /**
+     * Build the decision diagram of a rule set snapshot
+     *
+     * @param snapshot the snapshot
+     * @return the decision diagram
+     */
+    public static DecisionDiagram build(RuleSetSnapshot snapshot) {
+        Map<FieldDefinition, List<CompiledRule>> comparisonRules = new LinkedHashMap<>();
+        List<CompiledRule> residualRules = new ArrayList<>();
+        
+        for (CompiledRule rule : snapshot.getCompiledRules()) {
+            if (isComparisonRule(rule)) {
+                comparisonRules.computeIfAbsent(rule.getField(), field -> new ArrayList<>()).add(rule);
+            } else {
+                residualRules.add(rule);
+            }
+        }
+        
+        List<FieldLevel> levels = new ArrayList<>();
+        for (Map.Entry<FieldDefinition, List<CompiledRule>> entry : comparisonRules.entrySet()) {
+            ScaledThresholds scaledThresholds = ScaledThresholds.build(entry.getKey(), entry.getValue(), residualRules);
+            if (scaledThresholds != null) {
+                levels.add(new FieldLevel(scaledThresholds));
+            }
+        }
+        
+        // Levels that can move the score furthest come first, so a decision is fixed after as few levels as possible
+        levels.sort(Comparator.comparingLong((FieldLevel level) ->
+                (long) level.getHighestPoints() - level.getLowestPoints()).reversed());
+        residualRules.sort(Comparator.comparingInt(CompiledRule::getIndex));
+        return new DecisionDiagram(snapshot, levels, residualRules);
+    }
+
+    private static boolean isComparisonRule(CompiledRule rule) {
+        Class<?> type = rule.getField().getType();
+        return OPERATORS.contains(rule.getOperator())
+                && (type == Integer.class && rule.getOperand() instanceof Integer
+                    || type == BigDecimal.class && rule.getOperand() instanceof BigDecimal);
+    }
+
+    /**
+     * Mark the residual rules triggered by a loan application
+     *
+     * @return the summed risk points of the triggered residual rules
+     */
+    public int matchResidualRules(EvaluationContext context, BitSet triggered) {
+        int riskScore = 0;
+        for (CompiledRule rule : residualUnindexedRules) {
+            if (rule.matches(context)) {
+                triggered.set(rule.getIndex());
+                riskScore += rule.getRiskPoints();
+            }
+        }
+        
+        if (residualIndex.getIndexedRules().isEmpty()) {
+            return riskScore;
+        }
+        
+        // The text index only marks rules, so it fills a bitset of its own to sum
+        BitSet matched = new BitSet(snapshot.size());
+        residualIndex.match(context, matched);
+        List<CompiledRule> compiledRules = snapshot.getCompiledRules();
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            riskScore += compiledRules.get(i).getRiskPoints();
+        }
+        triggered.or(matched);
+        return riskScore;
+    }
+
+    public RuleSetSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the levels in evaluation order
+     */
+    public List<FieldLevel> getLevels() {
+        return levels;
+    }
+
+    /**
+     * Get the lowest score the levels from a position on, and the residual rules, can still add
+     */
+    public int getLowestRemainingPoints(int level) {
+        return lowestRemainingPoints[level];
+    }
+
+    /**
+     * Get the highest score the levels from a position on, and the residual rules, can still add
+     */
+    public int getHighestRemainingPoints(int level) {
+        return highestRemainingPoints[level];
+    }
+
+    /**
+     * Get the rules not held by any level, ordered by risk points for decision-only evaluation
+     */
+    public RuleOrder getResidualOrder() {
+        return residualOrder;
+    }
+}
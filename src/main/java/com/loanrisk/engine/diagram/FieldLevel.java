@@ -0,0 +1,220 @@
+package com.loanrisk.engine.diagram;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.index.ScaledThresholds;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One level of a {@link DecisionDiagram}: the comparison rules on one numeric field. The thresholds
+ * of the rules split the values of the field into cells (see {@link ScaledThresholds}), and every
+ * value in a cell triggers the same rules.
+ * <p>
+ * The triggered rules of neighbouring cells differ only by the rules whose threshold lies between
+ * them, so each cell keeps just those rules, and every {@value #CHECKPOINT_INTERVAL}th cell keeps
+ * all of its triggered rules as words of a bitset over the snapshot's rules.
+ */
+public final class FieldLevel {
+
+    /** Returned by {@link #cell} when the field has no value */
+    public static final int NO_VALUE = ScaledThresholds.NO_VALUE;
+    /** Returned by {@link #cell} when the value is not of the field's type */
+    public static final int UNEXPECTED_TYPE = ScaledThresholds.UNEXPECTED_TYPE;
+
+    private static final int CHECKPOINT_INTERVAL = 32;
+
+    private final ScaledThresholds scaledThresholds;
+    private final CompiledRule[] rules;
+    // Summed risk points of the rules triggered in each cell
+    private final int[] riskPoints;
+    // Indexes of the rules that start or stop triggering at each cell, compared with the cell below it
+    private final int[] flipStarts;
+    private final int[] flips;
+    // Triggered rules of every CHECKPOINT_INTERVAL-th cell, over the words firstWord to firstWord + wordCount
+    private final long[] checkpoints;
+    private final int firstWord;
+    private final int wordCount;
+    private final int lowestPoints;
+    private final int highestPoints;
+
+    /**
+     * @param scaledThresholds the rules on the field, with their thresholds scaled to longs
+     */
+    FieldLevel(ScaledThresholds scaledThresholds) {
+        this.scaledThresholds = scaledThresholds;
+        this.rules = scaledThresholds.getRules().toArray(new CompiledRule[0]);
+        
+        int cells = scaledThresholds.getCellCount();
+        int[] flipCounts = new int[cells + 1];
+        // Cell range [from, to) in which each rule triggers, two ranges for NOT_EQUALS
+        int[][] ranges = new int[this.rules.length][];
+        int lowest = 0;
+        int highest = 0;
+        int minIndex = Integer.MAX_VALUE;
+        int maxIndex = 0;
+        for (int r = 0; r < this.rules.length; r++) {
+            CompiledRule rule = this.rules[r];
+            if (rule.getRiskPoints() < 0) {
+                lowest += rule.getRiskPoints();
+            } else {
+                highest += rule.getRiskPoints();
+            }
+            minIndex = Math.min(minIndex, rule.getIndex());
+            maxIndex = Math.max(maxIndex, rule.getIndex());
+            
+            // Cells below the threshold's own cell hold smaller values, cells above it larger ones
+            int at = scaledThresholds.getThresholdCell(r);
+            ranges[r] = switch (rule.getOperator()) {
+                case "GREATER_THAN" -> new int[] {at + 1, cells};
+                case "GREATER_THAN_OR_EQUAL" -> new int[] {at, cells};
+                case "LESS_THAN" -> new int[] {0, at};
+                case "LESS_THAN_OR_EQUAL" -> new int[] {0, at + 1};
+                case "EQUALS" -> new int[] {at, at + 1};
+                case "NOT_EQUALS" -> new int[] {0, at, at + 1, cells};
+                default -> throw new IllegalArgumentException("Unsupported operator: " + rule.getOperator());
+            };
+            for (int bound : ranges[r]) {
+                // Triggering from cell 0 or up to the last cell needs no flip
+                if (bound > 0 && bound < cells) {
+                    flipCounts[bound + 1]++;
+                }
+            }
+        }
+        
+        // A value of an unexpected type can trigger any subset of the rules, so the bounds cover every subset
+        this.lowestPoints = lowest;
+        this.highestPoints = highest;
+        this.firstWord = minIndex >>> 6;
+        this.wordCount = (maxIndex >>> 6) - firstWord + 1;
+        
+        this.flipStarts = new int[cells + 1];
+        for (int cell = 1; cell <= cells; cell++) {
+            flipStarts[cell] = flipStarts[cell - 1] + flipCounts[cell];
+        }
+        this.flips = new int[flipStarts[cells]];
+        int[] nextFlip = Arrays.copyOf(flipStarts, cells);
+        this.riskPoints = new int[cells];
+        long[] words = new long[wordCount];
+        for (int r = 0; r < this.rules.length; r++) {
+            int[] range = ranges[r];
+            for (int i = 0; i < range.length; i += 2) {
+                riskPoints[range[i]] += this.rules[r].getRiskPoints();
+                if (range[i + 1] < cells) {
+                    riskPoints[range[i + 1]] -= this.rules[r].getRiskPoints();
+                }
+            }
+            for (int bound : range) {
+                if (bound > 0 && bound < cells) {
+                    flips[nextFlip[bound]++] = this.rules[r].getIndex();
+                }
+            }
+            if (range[0] == 0) {
+                flipBit(words, this.rules[r].getIndex());
+            }
+        }
+        
+        this.checkpoints = new long[((cells - 1) / CHECKPOINT_INTERVAL + 1) * wordCount];
+        for (int cell = 0; cell < cells; cell++) {
+            if (cell > 0) {
+                riskPoints[cell] += riskPoints[cell - 1];
+                for (int i = flipStarts[cell]; i < flipStarts[cell + 1]; i++) {
+                    flipBit(words, flips[i]);
+                }
+            }
+            if (cell % CHECKPOINT_INTERVAL == 0) {
+                System.arraycopy(words, 0, checkpoints, cell / CHECKPOINT_INTERVAL * wordCount, wordCount);
+            }
+        }
+    }
+
+    /**
+     * Flip the bit of a rule index in words starting at firstWord
+     */
+    private void flipBit(long[] words, int ruleIndex) {
+        words[(ruleIndex >>> 6) - firstWord] ^= 1L << ruleIndex;
+    }
+
+    /**
+     * Find the cell holding a loan application's value of the field
+     *
+     * @return the cell, {@link #NO_VALUE} or {@link #UNEXPECTED_TYPE}
+     */
+    public int cell(EvaluationContext context) {
+        return scaledThresholds.cell(context);
+    }
+
+    /**
+     * Mark the rules of this level triggered by a loan application
+     *
+     * @param triggered the words of a bitset over the snapshot's rules, holding none of this level's rules yet
+     * @return the summed risk points of the triggered rules
+     */
+    public int match(EvaluationContext context, long[] triggered) {
+        int cell = cell(context);
+        if (cell >= 0) {
+            // The level's rules are not set yet, so flipping their bits sets them
+            int checkpoint = cell / CHECKPOINT_INTERVAL;
+            int offset = checkpoint * wordCount;
+            for (int word = 0; word < wordCount; word++) {
+                triggered[firstWord + word] ^= checkpoints[offset + word];
+            }
+            for (int i = flipStarts[checkpoint * CHECKPOINT_INTERVAL + 1]; i < flipStarts[cell + 1]; i++) {
+                triggered[flips[i] >>> 6] ^= 1L << flips[i];
+            }
+            return riskPoints[cell];
+        }
+        
+        if (cell == NO_VALUE) {
+            return 0;
+        }
+        
+        // Values of an unexpected type are left to the rules' own fallback
+        int riskScore = 0;
+        for (CompiledRule rule : rules) {
+            if (rule.matches(context)) {
+                triggered[rule.getIndex() >>> 6] |= 1L << rule.getIndex();
+                riskScore += rule.getRiskPoints();
+            }
+        }
+        return riskScore;
+    }
+
+    public FieldDefinition getField() {
+        return scaledThresholds.getField();
+    }
+
+    /**
+     * Get the number of cells the values of the field are split into
+     */
+    public int getCellCount() {
+        return riskPoints.length;
+    }
+
+    /**
+     * Get the summed risk points of the rules triggered by the values of a cell
+     */
+    public int getRiskPoints(int cell) {
+        return riskPoints[cell];
+    }
+
+    /**
+     * Get the lowest score the rules of this level can add
+     */
+    public int getLowestPoints() {
+        return lowestPoints;
+    }
+
+    /**
+     * Get the highest score the rules of this level can add
+     */
+    public int getHighestPoints() {
+        return highestPoints;
+    }
+
+    public int size() {
+        return rules.length;
+    }
+}
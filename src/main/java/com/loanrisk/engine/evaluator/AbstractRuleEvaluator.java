@@ -9,6 +9,35 @@ import java.math.BigDecimal;
  */
 public abstract class AbstractRuleEvaluator implements RuleEvaluator {
 
+    @Override
+    public boolean evaluate(Object fieldValue, String ruleValue) {
+        if (fieldValue == null) {
+            return false;
+        }
+        
+        Object convertedValue = convertFieldValue(fieldValue, ruleValue);
+        if (convertedValue == null) {
+            return false;
+        }
+        
+        return matches(fieldValue, convertedValue);
+    }
+
+    @Override
+    public Object parseOperand(Class<?> fieldType, String ruleValue) {
+        if (fieldType == Integer.class) {
+            return Integer.parseInt(ruleValue);
+        } else if (fieldType == BigDecimal.class) {
+            return new BigDecimal(ruleValue);
+        } else if (fieldType == String.class) {
+            return ruleValue;
+        } else if (fieldType == Boolean.class) {
+            return Boolean.parseBoolean(ruleValue);
+        }
+        
+        throw new IllegalArgumentException("Unsupported field type: " + fieldType.getSimpleName());
+    }
+
     /**
      * Convert field value to appropriate type for comparison
      */
@@ -52,4 +81,4 @@ public abstract class AbstractRuleEvaluator implements RuleEvaluator {
         
         throw new IllegalArgumentException("Cannot compare values of different types");
     }
-}
\ No newline at end of file
+}
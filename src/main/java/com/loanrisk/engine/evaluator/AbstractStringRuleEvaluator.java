@@ -0,0 +1,35 @@
+package com.loanrisk.engine.evaluator;
+
+/**
+ * Abstract base class for evaluators that only apply to text fields
+ */
+public abstract class AbstractStringRuleEvaluator extends AbstractRuleEvaluator {
+
+    @Override
+    public boolean evaluate(Object fieldValue, String ruleValue) {
+        if (fieldValue == null || !(fieldValue instanceof String)) {
+            return false;
+        }
+        
+        return test((String) fieldValue, ruleValue);
+    }
+
+    @Override
+    public Object parseOperand(Class<?> fieldType, String ruleValue) {
+        if (fieldType != String.class) {
+            throw new IllegalArgumentException("Operator " + getOperatorType() + " requires a text field");
+        }
+        
+        return ruleValue;
+    }
+
+    @Override
+    public boolean matches(Object fieldValue, Object operand) {
+        return fieldValue instanceof String && test((String) fieldValue, (String) operand);
+    }
+
+    /**
+     * Test a text field value against the rule value
+     */
+    protected abstract boolean test(String value, String ruleValue);
+}
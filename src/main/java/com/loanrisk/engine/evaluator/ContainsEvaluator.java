@@ -6,16 +6,11 @@ import org.springframework.stereotype.Component;
  * Evaluator for the CONTAINS operator
  */
 @Component
-public class ContainsEvaluator extends AbstractRuleEvaluator {
+public class ContainsEvaluator extends AbstractStringRuleEvaluator {
 
     @Override
-    public boolean evaluate(Object fieldValue, String ruleValue) {
-        if (fieldValue == null || !(fieldValue instanceof String)) {
-            return false;
-        }
-        
-        String stringValue = (String) fieldValue;
-        return stringValue.contains(ruleValue);
+    protected boolean test(String value, String ruleValue) {
+        return value.contains(ruleValue);
     }
 
     @Override
@@ -6,16 +6,11 @@ import org.springframework.stereotype.Component;
  * Evaluator for the ENDS_WITH operator
  */
 @Component
-public class EndsWithEvaluator extends AbstractRuleEvaluator {
+public class EndsWithEvaluator extends AbstractStringRuleEvaluator {
 
     @Override
-    public boolean evaluate(Object fieldValue, String ruleValue) {
-        if (fieldValue == null || !(fieldValue instanceof String)) {
-            return false;
-        }
-        
-        String stringValue = (String) fieldValue;
-        return stringValue.endsWith(ruleValue);
+    protected boolean test(String value, String ruleValue) {
+        return value.endsWith(ruleValue);
     }
 
     @Override
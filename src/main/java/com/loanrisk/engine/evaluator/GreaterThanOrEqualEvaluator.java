@@ -9,17 +9,8 @@ import org.springframework.stereotype.Component;
 public class GreaterThanOrEqualEvaluator extends AbstractRuleEvaluator {
 
     @Override
-    public boolean evaluate(Object fieldValue, String ruleValue) {
-        if (fieldValue == null) {
-            return false;
-        }
-        
-        Object convertedValue = convertFieldValue(fieldValue, ruleValue);
-        if (convertedValue == null) {
-            return false;
-        }
-        
-        return compare(fieldValue, convertedValue) >= 0;
+    public boolean matches(Object fieldValue, Object operand) {
+        return compare(fieldValue, operand) >= 0;
     }
 
     @Override
@@ -6,16 +6,11 @@ import org.springframework.stereotype.Component;
  * Evaluator for the NOT_CONTAINS operator
  */
 @Component
-public class NotContainsEvaluator extends AbstractRuleEvaluator {
+public class NotContainsEvaluator extends AbstractStringRuleEvaluator {
 
     @Override
-    public boolean evaluate(Object fieldValue, String ruleValue) {
-        if (fieldValue == null || !(fieldValue instanceof String)) {
-            return false;
-        }
-        
-        String stringValue = (String) fieldValue;
-        return !stringValue.contains(ruleValue);
+    protected boolean test(String value, String ruleValue) {
+        return !value.contains(ruleValue);
     }
 
     @Override
@@ -6,16 +6,11 @@ import org.springframework.stereotype.Component;
  * Evaluator for the STARTS_WITH operator
  */
 @Component
-public class StartsWithEvaluator extends AbstractRuleEvaluator {
+public class StartsWithEvaluator extends AbstractStringRuleEvaluator {
 
     @Override
-    public boolean evaluate(Object fieldValue, String ruleValue) {
-        if (fieldValue == null || !(fieldValue instanceof String)) {
-            return false;
-        }
-        
-        String stringValue = (String) fieldValue;
-        return stringValue.startsWith(ruleValue);
+    protected boolean test(String value, String ruleValue) {
+        return value.startsWith(ruleValue);
     }
 
     @Override
@@ -10,8 +10,16 @@ public interface RuleEvaluatorFactory {
     /**
      * Get the appropriate rule evaluator for the given operator
      * 
-     * @param operator the operator type
+     * @param operator the operator type or one of its aliases (e.g. "&lt;" for LESS_THAN)
      * @return the rule evaluator for the operator, or null if no evaluator is found
      */
     RuleEvaluator getEvaluator(String operator);
-}
\ No newline at end of file
+    
+    /**
+     * Resolve an operator or operator alias to its canonical operator type
+     * 
+     * @param operator the operator as stored on a scoring rule
+     * @return the canonical operator type, or null if the operator is unknown
+     */
+    String normalizeOperator(String operator);
+}
@@ -15,6 +15,18 @@ import java.util.Map;
 @Component
 public class RuleEvaluatorFactoryImpl implements RuleEvaluatorFactory {
 
+    // Symbolic operators accepted in scoring rules, mapped to their operator type
+    private static final Map<String, String> OPERATOR_ALIASES = Map.of(
+            "=", "EQUALS",
+            "==", "EQUALS",
+            "!=", "NOT_EQUALS",
+            "<>", "NOT_EQUALS",
+            ">", "GREATER_THAN",
+            ">=", "GREATER_THAN_OR_EQUAL",
+            "<", "LESS_THAN",
+            "<=", "LESS_THAN_OR_EQUAL"
+    );
+
     private final Map<String, RuleEvaluator> evaluators = new HashMap<>();
 
     @Autowired
@@ -27,6 +39,18 @@ public class RuleEvaluatorFactoryImpl implements RuleEvaluatorFactory {
 
     @Override
     public RuleEvaluator getEvaluator(String operator) {
-        return evaluators.get(operator);
+        String operatorType = normalizeOperator(operator);
+        return operatorType != null ? evaluators.get(operatorType) : null;
+    }
+
+    @Override
+    public String normalizeOperator(String operator) {
+        if (operator == null) {
+            return null;
+        }
+        
+        String trimmed = operator.trim();
+        String operatorType = OPERATOR_ALIASES.getOrDefault(trimmed, trimmed);
+        return evaluators.containsKey(operatorType) ? operatorType : null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.loanrisk.engine.field;
+
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+
+/**
+ * Reads the value of a single entity field from a loan application or its customer
+ */
+@FunctionalInterface
+public interface FieldAccessor {
+
+    /**
+     * Read the field value
+     *
+     * @param loanApplication the loan application being evaluated
+     * @param customer the customer associated with the loan application
+     * @return the field value, or null if it is not available
+     */
+    Object read(LoanApplication loanApplication, Customer customer);
+}
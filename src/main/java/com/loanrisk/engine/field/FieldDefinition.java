@@ -0,0 +1,125 @@
+package com.loanrisk.engine.field;
+
+import com.loanrisk.engine.context.EvaluationContext;
+
+/**
+ * Describes a field that scoring rules can reference: its name, its value type, how to read it
+ * and the slot that holds its value in an {@link EvaluationContext}
+ */
+public final class FieldDefinition {
+
+    private final String name;
+    private final Class<?> type;
+    private final Class<?> source;
+    private final FieldAccessor accessor;
+    private final int slot;
+    private final Integer minValue;
+    private final Integer maxValue;
+
+    /**
+     * @param name the field name used by scoring rules
+     * @param type the type of the field's values
+     * @param source the entity the field is a property of, or null for a derived field
+     * @param accessor reads the field's value from the entities, or null for a derived field
+     * @param slot the position of the field's value in an evaluation context
+     */
+    public FieldDefinition(String name, Class<?> type, Class<?> source, FieldAccessor accessor, int slot) {
+        this(name, type, source, accessor, slot, null, null);
+    }
+
+    /**
+     * @param name the field name used by scoring rules
+     * @param type the type of the field's values
+     * @param source the entity the field is a property of, or null for a derived field
+     * @param accessor reads the field's value from the entities, or null for a derived field
+     * @param slot the position of the field's value in an evaluation context
+     * @param minValue the smallest valid value of an Integer field, or null if unbounded
+     * @param maxValue the largest valid value of an Integer field, or null if unbounded
+     */
+    public FieldDefinition(String name, Class<?> type, Class<?> source, FieldAccessor accessor, int slot,
+                           Integer minValue, Integer maxValue) {
+        this.name = name;
+        this.type = type;
+        this.source = source;
+        this.accessor = accessor;
+        this.slot = slot;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Whether the field is calculated by the DerivedFieldCalculator rather than read from an entity
+     */
+    public boolean isDerived() {
+        return source == null;
+    }
+
+    /**
+     * Get the entity class, Customer or LoanApplication, that declares this field as a property
+     *
+     * @return the entity class, or null for a derived field
+     */
+    public Class<?> getSource() {
+        return source;
+    }
+
+    /**
+     * Get the accessor that reads the field from the entities
+     *
+     * @return the accessor, or null for a derived field
+     */
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Whether the field is an Integer field whose valid values lie between a known minimum and maximum
+     */
+    public boolean isBounded() {
+        return minValue != null && maxValue != null;
+    }
+
+    /**
+     * Get the smallest valid value of a bounded field
+     *
+     * @return the minimum, or null if the field is unbounded
+     */
+    public Integer getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * Get the largest valid value of a bounded field
+     *
+     * @return the maximum, or null if the field is unbounded
+     */
+    public Integer getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Read the field's value from a populated evaluation context
+     *
+     * @return the value, or null if it is not available
+     */
+    public Object read(EvaluationContext context) {
+        return context.getValue(slot);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type.getSimpleName() + ")";
+    }
+}
@@ -0,0 +1,32 @@
+package com.loanrisk.engine.field;
+
+import java.util.Collection;
+
+/**
+ * Registry of all fields that scoring rules can reference, both entity fields and derived fields
+ */
+public interface FieldRegistry {
+
+    /**
+     * Look up a field by name
+     *
+     * @param name the field name used in scoring rules
+     * @return the field definition, or null if the field is unknown
+     */
+    FieldDefinition getField(String name);
+
+    /**
+     * Get all known fields
+     *
+     * @return the field definitions, ordered by slot
+     */
+    Collection<FieldDefinition> getFields();
+
+    /**
+     * Get the number of slots an evaluation context needs to hold every field;
+     * each field's slot is below this count
+     *
+     * @return the slot count
+     */
+    int getSlotCount();
+}
@@ -0,0 +1,71 @@
+package com.loanrisk.engine.field.impl;
+
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.field.FieldAccessor;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.field.FieldRegistry;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Default implementation of the FieldRegistry interface covering the customer and
+ * loan application fields plus every field produced by the DerivedFieldCalculator
+ */
+@Component
+public class DefaultFieldRegistry implements FieldRegistry {
+
+    private final Map<String, FieldDefinition> fields = new LinkedHashMap<>();
+    private int slotCount;
+
+    @Autowired
+    public DefaultFieldRegistry(DerivedFieldCalculator derivedFieldCalculator) {
+        // Customer fields, bounded as validated by CustomerRequestDto
+        register("creditScore", Integer.class, Customer.class, (loanApplication, customer) -> customer.getCreditScore(), 300, 850);
+        register("age", Integer.class, Customer.class, (loanApplication, customer) -> customer.getAge(), 18, 120);
+        register("annualIncome", BigDecimal.class, Customer.class, (loanApplication, customer) -> customer.getAnnualIncome());
+        register("existingDebt", BigDecimal.class, Customer.class, (loanApplication, customer) -> customer.getExistingDebt());
+        register("employmentStatus", String.class, Customer.class, (loanApplication, customer) -> customer.getEmploymentStatus());
+
+        // Loan application fields, bounded as validated by LoanApplicationRequestDto
+        register("loanAmount", BigDecimal.class, LoanApplication.class, (loanApplication, customer) -> loanApplication.getLoanAmount());
+        register("loanPurpose", String.class, LoanApplication.class, (loanApplication, customer) -> loanApplication.getLoanPurpose());
+        register("requestedTermMonths", Integer.class, LoanApplication.class, (loanApplication, customer) -> loanApplication.getRequestedTermMonths(), 6, 360);
+
+        // Derived fields take precedence over entity fields with the same name
+        for (String derivedFieldName : derivedFieldCalculator.getDerivedFieldNames()) {
+            fields.remove(derivedFieldName);
+            register(derivedFieldName, BigDecimal.class, null, null);
+        }
+    }
+
+    @Override
+    public FieldDefinition getField(String name) {
+        return fields.get(name);
+    }
+
+    @Override
+    public Collection<FieldDefinition> getFields() {
+        return Collections.unmodifiableCollection(fields.values());
+    }
+
+    @Override
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    private void register(String name, Class<?> type, Class<?> source, FieldAccessor accessor) {
+        register(name, type, source, accessor, null, null);
+    }
+
+    private void register(String name, Class<?> type, Class<?> source, FieldAccessor accessor, Integer minValue, Integer maxValue) {
+        fields.put(name, new FieldDefinition(name, type, source, accessor, slotCount++, minValue, maxValue));
+    }
+}
@@ -0,0 +1,167 @@
+package com.loanrisk.engine.impl;
+
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.columnar.ColumnKernel;
+import com.loanrisk.engine.columnar.ColumnarBlock;
+import com.loanrisk.engine.columnar.ColumnarEvaluation;
+import com.loanrisk.engine.columnar.ColumnarRuleSet;
+import com.loanrisk.engine.columnar.impl.ScalarColumnKernel;
+import com.loanrisk.engine.columnar.impl.VectorColumnKernel;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.ordering.impl.RiskPointsRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.LoanApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * RuleEngine for bulk work such as backtests and portfolio re-scoring, which evaluates batches
+ * of loan applications column by column. Enabled with {@code loanrisk.engine.mode=columnar}.
+ * <p>
+ * A batch is split into blocks of {@link #BLOCK_SIZE} applications. The field values of a block
+ * are loaded into one array per field, each comparison rule is applied to its field's array as a
+ * whole, producing a bit mask of the applications it triggered for, and the risk points of the
+ * triggered rules are added up per application (see {@link ColumnarRuleSet}). The columns are
+ * compared with the Vector API when the JVM was started with {@code --add-modules jdk.incubator.vector},
+ * and one value at a time otherwise.
+ * <p>
+ * Single loan applications are evaluated by the interpreted engine.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.engine.mode", havingValue = "columnar")
+public class ColumnarRuleEngine extends RuleEngineImpl {
+
+    /**
+     * The number of loan applications per block; a multiple of 64, small enough for a block's columns to stay in cache
+     */
+    public static final int BLOCK_SIZE = 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarRuleEngine.class);
+
+    private final ColumnKernel columnKernel;
+
+    // The columnar rule set for the most recently evaluated snapshot
+    private volatile ColumnarRuleSet current;
+
+    @Autowired
+    public ColumnarRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                              RiskLevelDeterminer riskLevelDeterminer, RuleOrdering ruleOrdering) {
+        this(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, ruleOrdering, createColumnKernel());
+    }
+
+    public ColumnarRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                              RiskLevelDeterminer riskLevelDeterminer, ColumnKernel columnKernel) {
+        this(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, new RiskPointsRuleOrdering(), columnKernel);
+    }
+
+    public ColumnarRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                              RiskLevelDeterminer riskLevelDeterminer, RuleOrdering ruleOrdering, ColumnKernel columnKernel) {
+        super(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, ruleOrdering);
+        this.columnKernel = columnKernel;
+        logger.info("Columnar rule engine using the {} column kernel", columnKernel.getName());
+    }
+
+    /**
+     * Evaluate a batch of loan applications, each with its own customer, against the current
+     * snapshot, keeping the triggered rules as bit masks
+     *
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the blocks across the common ForkJoin pool
+     * @return the triggered rules and risk score of each loan application
+     */
+    public ColumnarEvaluation evaluateColumns(List<LoanApplication> loanApplications, boolean parallel) {
+        ColumnarRuleSet ruleSet = getColumnarRuleSet(ruleSetProvider.getSnapshot());
+        List<ColumnarBlock> blocks = blocks(loanApplications.size(), parallel)
+                .mapToObj(block -> evaluateBlock(ruleSet, loanApplications, block))
+                .toList();
+        return new ColumnarEvaluation(ruleSet, blocks, BLOCK_SIZE);
+    }
+
+    @Override
+    public <T> List<T> evaluateRules(List<LoanApplication> loanApplications, boolean parallel,
+                                     BiFunction<EvaluationContext, EvaluationResult, T> resultFunction) {
+        RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+        ColumnarRuleSet ruleSet = getColumnarRuleSet(snapshot);
+        return blocks(loanApplications.size(), parallel)
+                .mapToObj(block -> {
+                    ColumnarBlock evaluated = evaluateBlock(ruleSet, loanApplications, block);
+                    int from = block * BLOCK_SIZE;
+                    List<T> results = new ArrayList<>(evaluated.size());
+                    for (int row = 0; row < evaluated.size(); row++) {
+                        LoanApplication loanApplication = loanApplications.get(from + row);
+                        EvaluationContext context = evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer());
+                        EvaluationResult result = createResult(snapshot, evaluated.getTriggeredRuleIndexes(row),
+                                evaluated.getRiskScore(row), false);
+                        results.add(resultFunction.apply(context, result));
+                    }
+                    return results;
+                })
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * Batches are scored in full whatever the mode, as each rule is compared for a whole block at once
+     * and cannot stop for single applications
+     */
+    @Override
+    public List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel, EvaluationMode mode) {
+        return evaluate(loanApplications, parallel);
+    }
+
+    /**
+     * Get the columnar rule set of a snapshot, building it if the snapshot has not been seen before
+     */
+    ColumnarRuleSet getColumnarRuleSet(RuleSetSnapshot snapshot) {
+        ColumnarRuleSet ruleSet = current;
+        if (ruleSet != null && ruleSet.getSnapshot() == snapshot) {
+            return ruleSet;
+        }
+
+        ruleSet = ColumnarRuleSet.build(snapshot);
+        // Evaluations still holding an older snapshot do not replace the newer rule set
+        if (current == null || current.getSnapshot().getVersion() <= snapshot.getVersion()) {
+            current = ruleSet;
+        }
+        return ruleSet;
+    }
+
+    private ColumnarBlock evaluateBlock(ColumnarRuleSet ruleSet, List<LoanApplication> loanApplications, int block) {
+        int from = block * BLOCK_SIZE;
+        int to = Math.min(from + BLOCK_SIZE, loanApplications.size());
+        return ruleSet.evaluate(loanApplications, from, to, evaluationContextFactory, columnKernel);
+    }
+
+    private static IntStream blocks(int size, boolean parallel) {
+        // Parallel streams run on the common ForkJoin pool, and toList() keeps the block order
+        IntStream blocks = IntStream.range(0, (size + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        return parallel ? blocks.parallel() : blocks;
+    }
+
+    /**
+     * Create the vectorized kernel if the Vector API module is available, and the scalar kernel otherwise
+     */
+    static ColumnKernel createColumnKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorColumnKernel();
+            } catch (LinkageError e) {
+                logger.warn("Falling back to the scalar column kernel", e);
+            }
+        }
+        return new ScalarColumnKernel();
+    }
+}
@@ -0,0 +1,159 @@
+package com.loanrisk.engine.impl;
+
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.diagram.DecisionDiagram;
+import com.loanrisk.engine.diagram.FieldLevel;
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * RuleEngine that evaluates each rule set snapshot with a {@link DecisionDiagram} compiled for it.
+ * Enabled with {@code loanrisk.engine.mode=diagram}.
+ * <p>
+ * The diagram is built the first time a new snapshot is evaluated and then shared by every thread.
+ * Decision-only evaluations walk its levels, one binary search per field, and stop as soon as the
+ * levels and rules left can no longer change the decision.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.engine.mode", havingValue = "diagram")
+public class DecisionDiagramRuleEngine extends RuleEngineImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecisionDiagramRuleEngine.class);
+
+    // The diagram of the most recently evaluated snapshot
+    private volatile DecisionDiagram current;
+
+    public DecisionDiagramRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                                     RiskLevelDeterminer riskLevelDeterminer) {
+        super(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer);
+    }
+
+    @Override
+    protected BitSet matchRules(RuleSetSnapshot snapshot, EvaluationContext context) {
+        DecisionDiagram diagram = getDiagram(snapshot);
+        if (diagram == null) {
+            return super.matchRules(snapshot, context);
+        }
+        
+        long[] words = new long[wordCount(snapshot)];
+        matchLevels(diagram, context, words);
+        BitSet triggered = BitSet.valueOf(words);
+        diagram.matchResidualRules(context, triggered);
+        return triggered;
+    }
+
+    @Override
+    protected EvaluationResult evaluateFull(RuleSetSnapshot snapshot, EvaluationContext context) {
+        DecisionDiagram diagram = getDiagram(snapshot);
+        if (diagram == null) {
+            return super.evaluateFull(snapshot, context);
+        }
+        
+        long[] words = new long[wordCount(snapshot)];
+        int riskScore = matchLevels(diagram, context, words);
+        BitSet triggered = BitSet.valueOf(words);
+        riskScore += diagram.matchResidualRules(context, triggered);
+        return createResult(snapshot, triggered, riskScore, false);
+    }
+
+    /**
+     * Walk the levels of the snapshot's diagram, then the residual rules by risk points, stopping as soon
+     * as the score reached and the bounds of what is left fix the decision
+     */
+    @Override
+    protected EvaluationResult evaluateDecision(RuleSetSnapshot snapshot, EvaluationContext context) {
+        DecisionDiagram diagram = getDiagram(snapshot);
+        if (diagram == null) {
+            return super.evaluateDecision(snapshot, context);
+        }
+        
+        long[] words = new long[wordCount(snapshot)];
+        int riskScore = 0;
+        List<FieldLevel> levels = diagram.getLevels();
+        for (int i = 0; i < levels.size(); i++) {
+            if (riskLevelDeterminer.isDecisionFixed(riskScore + diagram.getLowestRemainingPoints(i),
+                    riskScore + diagram.getHighestRemainingPoints(i))) {
+                return createResult(snapshot, BitSet.valueOf(words), riskScore, true);
+            }
+            riskScore += levels.get(i).match(context, words);
+        }
+        
+        BitSet triggered = BitSet.valueOf(words);
+        RuleOrder order = diagram.getResidualOrder();
+        List<CompiledRule> rules = order.getRules();
+        for (int i = 0; i < rules.size(); i++) {
+            if (riskLevelDeterminer.isDecisionFixed(riskScore + order.getLowestRemainingPoints(i),
+                    riskScore + order.getHighestRemainingPoints(i))) {
+                return createResult(snapshot, triggered, riskScore, true);
+            }
+            
+            CompiledRule rule = rules.get(i);
+            if (rule.matches(context)) {
+                triggered.set(rule.getIndex());
+                riskScore += rule.getRiskPoints();
+            }
+        }
+        
+        return createResult(snapshot, triggered, riskScore, false);
+    }
+
+    /**
+     * Mark the rules of every level triggered by a loan application in the words of a bitset
+     *
+     * @return the summed risk points of the triggered rules
+     */
+    private static int matchLevels(DecisionDiagram diagram, EvaluationContext context, long[] words) {
+        int riskScore = 0;
+        for (FieldLevel level : diagram.getLevels()) {
+            riskScore += level.match(context, words);
+        }
+        return riskScore;
+    }
+
+    private static int wordCount(RuleSetSnapshot snapshot) {
+        return (snapshot.size() + 63) >>> 6;
+    }
+
+    /**
+     * Get the decision diagram for a snapshot, building it if the snapshot has not been seen before
+     *
+     * @return the diagram, or null if the snapshot must be interpreted
+     */
+    DecisionDiagram getDiagram(RuleSetSnapshot snapshot) {
+        DecisionDiagram diagram = current;
+        if (diagram != null && diagram.getSnapshot() == snapshot) {
+            return diagram;
+        }
+        
+        synchronized (this) {
+            diagram = current;
+            if (diagram != null && diagram.getSnapshot() == snapshot) {
+                return diagram;
+            }
+            
+            // Evaluations still holding an older snapshot interpret it rather than rebuilding its diagram
+            if (diagram != null && snapshot.getVersion() < diagram.getSnapshot().getVersion()) {
+                return null;
+            }
+            
+            long start = System.nanoTime();
+            diagram = DecisionDiagram.build(snapshot);
+            logger.debug("Built decision diagram for rule set version {} with {} rules and {} levels in {} µs",
+                    snapshot.getVersion(), snapshot.size(), diagram.getLevels().size(), (System.nanoTime() - start) / 1000);
+            current = diagram;
+            return diagram;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.loanrisk.engine.impl;
+
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.codegen.RuleSetClassGenerator;
+import com.loanrisk.engine.codegen.RuleSetMatcher;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.ordering.impl.RiskPointsRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+
+/**
+ * RuleEngine that evaluates each rule set snapshot with a class generated specifically for it.
+ * Enabled with {@code loanrisk.engine.mode=generated}.
+ * <p>
+ * The class is generated the first time a new snapshot is evaluated. If it cannot be generated
+ * the snapshot is evaluated by the interpreted engine instead.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.engine.mode", havingValue = "generated")
+public class GeneratedRuleEngine extends RuleEngineImpl {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneratedRuleEngine.class);
+
+    private final RuleSetClassGenerator ruleSetClassGenerator;
+
+    // The matcher for the most recently evaluated snapshot
+    private volatile GeneratedRuleSet current;
+
+    public GeneratedRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                               RiskLevelDeterminer riskLevelDeterminer, RuleSetClassGenerator ruleSetClassGenerator) {
+        this(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, new RiskPointsRuleOrdering(), ruleSetClassGenerator);
+    }
+
+    @Autowired
+    public GeneratedRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                               RiskLevelDeterminer riskLevelDeterminer, RuleOrdering ruleOrdering,
+                               RuleSetClassGenerator ruleSetClassGenerator) {
+        super(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, ruleOrdering);
+        this.ruleSetClassGenerator = ruleSetClassGenerator;
+    }
+
+    @Override
+    protected BitSet matchRules(RuleSetSnapshot snapshot, EvaluationContext context) {
+        RuleSetMatcher matcher = getMatcher(snapshot);
+        if (matcher == null) {
+            return super.matchRules(snapshot, context);
+        }
+        
+        return matcher.match(context);
+    }
+
+    @Override
+    protected EvaluationResult evaluateFull(RuleSetSnapshot snapshot, EvaluationContext context) {
+        // The generated matcher covers every rule, including those of the lookup tables
+        return createResult(snapshot, matchRules(snapshot, context));
+    }
+
+    /**
+     * Get the generated matcher for a snapshot, generating it if the snapshot has not been seen before
+     *
+     * @return the matcher, or null if the snapshot must be interpreted
+     */
+    RuleSetMatcher getMatcher(RuleSetSnapshot snapshot) {
+        GeneratedRuleSet generated = current;
+        if (generated != null && generated.snapshot == snapshot) {
+            return generated.matcher;
+        }
+        
+        synchronized (this) {
+            generated = current;
+            if (generated != null && generated.snapshot == snapshot) {
+                return generated.matcher;
+            }
+            
+            // Evaluations still holding an older snapshot interpret it rather than regenerating it
+            if (generated != null && snapshot.getVersion() < generated.snapshot.getVersion()) {
+                return null;
+            }
+            
+            RuleSetMatcher matcher = null;
+            try {
+                long start = System.nanoTime();
+                matcher = ruleSetClassGenerator.generate(snapshot);
+                logger.debug("Generated matcher for rule set version {} with {} rules in {} µs",
+                        snapshot.getVersion(), snapshot.size(), (System.nanoTime() - start) / 1000);
+            } catch (RuntimeException | LinkageError e) {
+                logger.warn("Falling back to the interpreted engine for rule set version {}", snapshot.getVersion(), e);
+            }
+            
+            current = new GeneratedRuleSet(snapshot, matcher);
+            return matcher;
+        }
+    }
+
+    private static final class GeneratedRuleSet {
+
+        private final RuleSetSnapshot snapshot;
+        private final RuleSetMatcher matcher;
+
+        private GeneratedRuleSet(RuleSetSnapshot snapshot, RuleSetMatcher matcher) {
+            this.snapshot = snapshot;
+            this.matcher = matcher;
+        }
+    }
+}
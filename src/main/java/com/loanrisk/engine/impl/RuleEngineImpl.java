@@ -1,64 +1,278 @@
 package com.loanrisk.engine.impl;
 
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
 import com.loanrisk.engine.RuleEngine;
-import com.loanrisk.engine.RuleEvaluator;
-import com.loanrisk.engine.factory.RuleEvaluatorFactory;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.index.LookupTableIndex;
+import com.loanrisk.engine.index.RuleIndex;
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.ordering.impl.RiskPointsRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
-import com.loanrisk.repository.ScoringRuleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
- * Implementation of the RuleEngine interface
+ * Implementation of the RuleEngine interface that interprets the compiled rules one by one.
+ * This is the default engine mode ({@code loanrisk.engine.mode=interpreted}).
  */
 @Component
+@ConditionalOnProperty(name = "loanrisk.engine.mode", havingValue = "interpreted", matchIfMissing = true)
 public class RuleEngineImpl implements RuleEngine {
 
-    private final ScoringRuleRepository scoringRuleRepository;
-    private final RuleEvaluatorFactory ruleEvaluatorFactory;
+    protected final RuleSetProvider ruleSetProvider;
+    protected final EvaluationContextFactory evaluationContextFactory;
+    protected final RiskLevelDeterminer riskLevelDeterminer;
+    protected final RuleOrdering ruleOrdering;
+    // Shared by all results, so that a result does not allocate a renderer of its own
+    private final Function<EvaluationResult, String> explanationRenderer = result -> result.isPartial()
+            ? generateExplanation(result.getTriggeredRules()) + "\n" + EvaluationResult.PARTIAL_EXPLANATION_NOTE
+            : generateExplanation(result.getTriggeredRules());
+
+    public RuleEngineImpl(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                          RiskLevelDeterminer riskLevelDeterminer) {
+        this(ruleSetProvider, evaluationContextFactory, riskLevelDeterminer, new RiskPointsRuleOrdering());
+    }
 
     @Autowired
-    public RuleEngineImpl(ScoringRuleRepository scoringRuleRepository, RuleEvaluatorFactory ruleEvaluatorFactory) {
-        this.scoringRuleRepository = scoringRuleRepository;
-        this.ruleEvaluatorFactory = ruleEvaluatorFactory;
+    public RuleEngineImpl(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory,
+                          RiskLevelDeterminer riskLevelDeterminer, RuleOrdering ruleOrdering) {
+        this.ruleSetProvider = ruleSetProvider;
+        this.evaluationContextFactory = evaluationContextFactory;
+        this.riskLevelDeterminer = riskLevelDeterminer;
+        this.ruleOrdering = ruleOrdering;
     }
 
     @Override
     public List<ScoringRule> evaluateRules(LoanApplication loanApplication, Customer customer, Map<String, Object> derivedFields) {
-        // Get all enabled rules ordered by priority
-        List<ScoringRule> enabledRules = scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc();
-        List<ScoringRule> triggeredRules = new ArrayList<>();
+        // Each derived field is looked up in the map once, not once per rule
+        return evaluateRules(evaluationContextFactory.createContext(loanApplication, customer, derivedFields));
+    }
+
+    @Override
+    public List<ScoringRule> evaluateRules(EvaluationContext context) {
+        RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+        return getTriggeredRules(snapshot, matchRules(snapshot, context));
+    }
+
+    @Override
+    public EvaluationResult evaluate(EvaluationContext context) {
+        return evaluateFull(ruleSetProvider.getSnapshot(), context);
+    }
+
+    @Override
+    public EvaluationResult evaluate(EvaluationContext context, EvaluationMode mode) {
+        if (mode == EvaluationMode.FULL) {
+            return evaluate(context);
+        }
+        return evaluateDecision(ruleSetProvider.getSnapshot(), context);
+    }
+
+    @Override
+    public List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel) {
+        return evaluateRules(loanApplications, parallel, (context, result) -> result);
+    }
+
+    @Override
+    public List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel, EvaluationMode mode) {
+        if (mode == EvaluationMode.FULL) {
+            return evaluate(loanApplications, parallel);
+        }
         
-        for (ScoringRule rule : enabledRules) {
-            // Get the appropriate evaluator for this rule's operator
-            RuleEvaluator evaluator = ruleEvaluatorFactory.getEvaluator(rule.getOperator());
-            
-            if (evaluator == null) {
-                continue; // Skip rules with unknown operators
+        RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+        return map(loanApplications, parallel, loanApplication -> evaluateDecision(snapshot,
+                evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer())));
+    }
+
+    @Override
+    public List<List<ScoringRule>> evaluateRules(List<LoanApplication> loanApplications, boolean parallel) {
+        return evaluateRules(loanApplications, parallel, (context, result) -> result.getTriggeredRules());
+    }
+
+    @Override
+    public <T> List<T> evaluateRules(List<LoanApplication> loanApplications, boolean parallel,
+                                     BiFunction<EvaluationContext, EvaluationResult, T> resultFunction) {
+        // The whole batch is evaluated against one snapshot, even if the rules are changed meanwhile
+        RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+        return map(loanApplications, parallel, loanApplication -> evaluateRules(snapshot, loanApplication, resultFunction));
+    }
+
+    private static <T> List<T> map(List<LoanApplication> loanApplications, boolean parallel,
+                                   Function<LoanApplication, T> evaluation) {
+        if (parallel) {
+            // Parallel streams run on the common ForkJoin pool, and toList() keeps the input order
+            return loanApplications.parallelStream().map(evaluation).toList();
+        }
+        
+        List<T> results = new ArrayList<>(loanApplications.size());
+        for (LoanApplication loanApplication : loanApplications) {
+            results.add(evaluation.apply(loanApplication));
+        }
+        return results;
+    }
+
+    private <T> T evaluateRules(RuleSetSnapshot snapshot, LoanApplication loanApplication,
+                                BiFunction<EvaluationContext, EvaluationResult, T> resultFunction) {
+        EvaluationContext context = evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer());
+        return resultFunction.apply(context, evaluateFull(snapshot, context));
+    }
+
+    /**
+     * Evaluate a loan application against the rules of a specific snapshot. Rules covered by the
+     * snapshot's indexes are looked up there; the remaining compiled rules are interpreted one by one.
+     * 
+     * @return the indexes of the triggered rules within the snapshot's compiled rules
+     */
+    protected BitSet matchRules(RuleSetSnapshot snapshot, EvaluationContext context) {
+        BitSet triggered = new BitSet(snapshot.size());
+        snapshot.getLookupTableIndex().match(context, triggered);
+        matchRemainingRules(snapshot, context, triggered);
+        return triggered;
+    }
+
+    /**
+     * Evaluate a loan application against every rule of a specific snapshot. The risk points of the
+     * rules on bounded fields come already summed from the lookup tables; only the other triggered
+     * rules are added up.
+     */
+    protected EvaluationResult evaluateFull(RuleSetSnapshot snapshot, EvaluationContext context) {
+        BitSet triggered = new BitSet(snapshot.size());
+        matchRemainingRules(snapshot, context, triggered);
+        
+        List<CompiledRule> compiledRules = snapshot.getCompiledRules();
+        int riskScore = 0;
+        for (int i = triggered.nextSetBit(0); i >= 0; i = triggered.nextSetBit(i + 1)) {
+            riskScore += compiledRules.get(i).getRiskPoints();
+        }
+        riskScore += snapshot.getLookupTableIndex().matchAndScore(context, triggered);
+        return createResult(snapshot, triggered, riskScore, false);
+    }
+
+    /**
+     * Mark the triggered rules of a snapshot other than those of its lookup tables
+     */
+    private void matchRemainingRules(RuleSetSnapshot snapshot, EvaluationContext context, BitSet triggered) {
+        LookupTableIndex lookupTableIndex = snapshot.getLookupTableIndex();
+        for (RuleIndex index : snapshot.getIndexes()) {
+            if (index != lookupTableIndex) {
+                index.match(context, triggered);
             }
-            
-            // Get the field value to evaluate
-            Object fieldValue = getFieldValue(rule.getField(), loanApplication, customer, derivedFields);
-            
-            if (fieldValue == null) {
-                continue; // Skip rules with unknown fields
+        }
+        
+        for (CompiledRule rule : snapshot.getUnindexedRules()) {
+            // Field, evaluator and rule value were resolved when the rules were compiled
+            if (rule.matches(context)) {
+                triggered.set(rule.getIndex());
+            }
+        }
+    }
+
+    /**
+     * Evaluate a loan application against the rules of a snapshot's lookup tables, then against the
+     * other rules in the order chosen by the rule ordering, stopping as soon as the rules left can no
+     * longer change the decision. The other rules are evaluated one by one rather than through the
+     * indexes, so that the evaluation can stop between any two of them.
+     */
+    protected EvaluationResult evaluateDecision(RuleSetSnapshot snapshot, EvaluationContext context) {
+        if (ruleOrdering.shouldSample(snapshot)) {
+            return evaluateDecisionSample(snapshot, context);
+        }
+        
+        RuleOrder order = ruleOrdering.getOrder(snapshot);
+        List<CompiledRule> rules = order.getRules();
+        BitSet triggered = new BitSet(snapshot.size());
+        // Rules on bounded fields cost one table lookup per field, so they are always scored up front
+        int riskScore = snapshot.getLookupTableIndex().matchAndScore(context, triggered);
+        
+        for (int i = 0; i < rules.size(); i++) {
+            // Points can be negative, so the score can still move both ways
+            if (riskLevelDeterminer.isDecisionFixed(riskScore + order.getLowestRemainingPoints(i),
+                    riskScore + order.getHighestRemainingPoints(i))) {
+                return createResult(snapshot, triggered, riskScore, true);
             }
             
-            // Evaluate the rule
-            boolean ruleTriggered = evaluator.evaluate(fieldValue, rule.getRuleValue());
-            
-            if (ruleTriggered) {
-                triggeredRules.add(rule);
+            CompiledRule rule = rules.get(i);
+            if (rule.matches(context)) {
+                triggered.set(rule.getIndex());
+                riskScore += rule.getRiskPoints();
+            }
+        }
+        
+        return createResult(snapshot, triggered, riskScore, false);
+    }
+
+    /**
+     * Evaluate and time every rule of a snapshot, so that the rule ordering also learns about the
+     * rules a decision-only evaluation would have skipped
+     */
+    private EvaluationResult evaluateDecisionSample(RuleSetSnapshot snapshot, EvaluationContext context) {
+        BitSet triggered = new BitSet(snapshot.size());
+        long[] ruleNanos = new long[snapshot.size()];
+        int riskScore = snapshot.getLookupTableIndex().matchAndScore(context, triggered);
+        
+        for (CompiledRule rule : ruleOrdering.getOrder(snapshot).getRules()) {
+            long start = System.nanoTime();
+            boolean matches = rule.matches(context);
+            ruleNanos[rule.getIndex()] = System.nanoTime() - start;
+            if (matches) {
+                triggered.set(rule.getIndex());
+                riskScore += rule.getRiskPoints();
             }
         }
         
+        EvaluationResult result = createResult(snapshot, triggered, riskScore, false);
+        ruleOrdering.recordSample(snapshot, triggered, ruleNanos, result.getDecision());
+        return result;
+    }
+
+    /**
+     * Create the evaluation result of the rules of a snapshot whose indexes are set
+     */
+    protected EvaluationResult createResult(RuleSetSnapshot snapshot, BitSet triggered) {
+        List<CompiledRule> enabledRules = snapshot.getCompiledRules();
+        int riskScore = 0;
+        for (int i = triggered.nextSetBit(0); i >= 0; i = triggered.nextSetBit(i + 1)) {
+            riskScore += enabledRules.get(i).getRiskPoints();
+        }
+        return createResult(snapshot, triggered, riskScore, false);
+    }
+
+    /**
+     * Create the evaluation result of the rules of a snapshot whose indexes are set, whose risk score is already summed
+     */
+    protected EvaluationResult createResult(RuleSetSnapshot snapshot, BitSet triggered, int riskScore, boolean partial) {
+        String riskLevel = riskLevelDeterminer.determineRiskLevel(riskScore);
+        return new EvaluationResult(snapshot, triggered, riskScore, riskLevel,
+                riskLevelDeterminer.determineDecision(riskLevel), partial, explanationRenderer);
+    }
+
+    /**
+     * Get the rules of a snapshot whose indexes are set, in priority order
+     */
+    protected List<ScoringRule> getTriggeredRules(RuleSetSnapshot snapshot, BitSet triggered) {
+        List<CompiledRule> enabledRules = snapshot.getCompiledRules();
+        List<ScoringRule> triggeredRules = new ArrayList<>(triggered.cardinality());
+        
+        for (int i = triggered.nextSetBit(0); i >= 0; i = triggered.nextSetBit(i + 1)) {
+            triggeredRules.add(enabledRules.get(i).getRule());
+        }
+        
         return triggeredRules;
     }
 
@@ -90,40 +304,4 @@ public class RuleEngineImpl implements RuleEngine {
         
         return explanation.toString();
     }
-
-    /**
-     * Get the value of a field from the loan application, customer, or derived fields
-     */
-    private Object getFieldValue(String fieldName, LoanApplication loanApplication, Customer customer, Map<String, Object> derivedFields) {
-        // First check derived fields
-        if (derivedFields.containsKey(fieldName)) {
-            return derivedFields.get(fieldName);
-        }
-        
-        // Then check customer fields
-        switch (fieldName) {
-            case "creditScore":
-                return customer.getCreditScore();
-            case "age":
-                return customer.getAge();
-            case "annualIncome":
-                return customer.getAnnualIncome();
-            case "existingDebt":
-                return customer.getExistingDebt();
-            case "employmentStatus":
-                return customer.getEmploymentStatus();
-        }
-        
-        // Then check loan application fields
-        switch (fieldName) {
-            case "loanAmount":
-                return loanApplication.getLoanAmount();
-            case "loanPurpose":
-                return loanApplication.getLoanPurpose();
-            case "requestedTermMonths":
-                return loanApplication.getRequestedTermMonths();
-        }
-        
-        return null; // Field not found
-    }
 }
\ No newline at end of file
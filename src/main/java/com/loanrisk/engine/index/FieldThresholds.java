@@ -0,0 +1,154 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The threshold rules on one numeric field, grouped by operator. Each group is kept sorted by
+ * the cell of its thresholds (see {@link ScaledThresholds}), so the rules triggered by a value
+ * are always a contiguous range of each group.
+ */
+final class FieldThresholds {
+
+    private final ScaledThresholds scaledThresholds;
+    private final Group greaterThan;
+    private final Group greaterThanOrEqual;
+    private final Group lessThan;
+    private final Group lessThanOrEqual;
+
+    FieldThresholds(ScaledThresholds scaledThresholds) {
+        this.scaledThresholds = scaledThresholds;
+        Map<String, List<IndexedRule>> rulesByOperator = new HashMap<>();
+        List<CompiledRule> rules = scaledThresholds.getRules();
+        for (int r = 0; r < rules.size(); r++) {
+            rulesByOperator.computeIfAbsent(rules.get(r).getOperator(), operator -> new ArrayList<>())
+                    .add(new IndexedRule(rules.get(r), scaledThresholds.getThresholdCell(r)));
+        }
+        this.greaterThan = new Group(rulesByOperator.get("GREATER_THAN"));
+        this.greaterThanOrEqual = new Group(rulesByOperator.get("GREATER_THAN_OR_EQUAL"));
+        this.lessThan = new Group(rulesByOperator.get("LESS_THAN"));
+        this.lessThanOrEqual = new Group(rulesByOperator.get("LESS_THAN_OR_EQUAL"));
+    }
+
+    void match(EvaluationContext context, BitSet triggered) {
+        int cell = scaledThresholds.cell(context);
+        if (cell == ScaledThresholds.NO_VALUE) {
+            return;
+        }
+        
+        if (cell == ScaledThresholds.UNEXPECTED_TYPE) {
+            // Values of an unexpected type are left to the rules' own fallback
+            greaterThan.matchEach(context, triggered);
+            greaterThanOrEqual.matchEach(context, triggered);
+            lessThan.matchEach(context, triggered);
+            lessThanOrEqual.matchEach(context, triggered);
+            return;
+        }
+        
+        // value > t  <=>  the cell of t is below the value's cell
+        greaterThan.setRange(0, greaterThan.lowerBound(cell), triggered);
+        // value >= t  <=>  the cell of t is at or below the value's cell
+        greaterThanOrEqual.setRange(0, greaterThanOrEqual.upperBound(cell), triggered);
+        // value < t  <=>  the cell of t is above the value's cell
+        lessThan.setRange(lessThan.upperBound(cell), lessThan.size(), triggered);
+        // value <= t  <=>  the cell of t is at or above the value's cell
+        lessThanOrEqual.setRange(lessThanOrEqual.lowerBound(cell), lessThanOrEqual.size(), triggered);
+    }
+
+    /**
+     * A threshold rule together with the cell of its threshold
+     */
+    private static final class IndexedRule {
+
+        final CompiledRule rule;
+        final int cell;
+        
+        IndexedRule(CompiledRule rule, int cell) {
+            this.rule = rule;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * The rules of one operator, sorted by the cell of their threshold
+     */
+    private static final class Group {
+
+        private final int[] cells;
+        private final int[] ruleIndexes;
+        private final CompiledRule[] rules;
+        
+        private Group(List<IndexedRule> indexedRules) {
+            List<IndexedRule> sorted = new ArrayList<>(indexedRules == null ? List.of() : indexedRules);
+            sorted.sort(Comparator.comparingInt(indexedRule -> indexedRule.cell));
+            
+            cells = new int[sorted.size()];
+            ruleIndexes = new int[sorted.size()];
+            rules = new CompiledRule[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                cells[i] = sorted.get(i).cell;
+                ruleIndexes[i] = sorted.get(i).rule.getIndex();
+                rules[i] = sorted.get(i).rule;
+            }
+        }
+        
+        int size() {
+            return cells.length;
+        }
+        
+        /**
+         * Get the position of the first cell that is greater than or equal to the key
+         */
+        int lowerBound(int key) {
+            int low = 0;
+            int high = cells.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cells[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        /**
+         * Get the position of the first cell that is greater than the key
+         */
+        int upperBound(int key) {
+            int low = 0;
+            int high = cells.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cells[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        void setRange(int from, int to, BitSet triggered) {
+            for (int i = from; i < to; i++) {
+                triggered.set(ruleIndexes[i]);
+            }
+        }
+        
+        void matchEach(EvaluationContext context, BitSet triggered) {
+            for (CompiledRule rule : rules) {
+                if (rule.matches(context)) {
+                    triggered.set(rule.getIndex());
+                }
+            }
+        }
+    }
+}
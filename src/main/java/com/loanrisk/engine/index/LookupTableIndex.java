@@ -0,0 +1,144 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the rules on bounded Integer fields such as creditScore, age and requestedTermMonths.
+ * For each such field, every valid value is evaluated against all the field's rules when the index
+ * is built, and the summed risk points and the triggered rules are kept in tables indexed by value,
+ * so scoring the field takes one array load however many tiered rules test it.
+ */
+public final class LookupTableIndex implements RuleIndex {
+
+    // Caps each field's tables at about 512 KB of bitmasks; rules with higher indexes are left to the other indexes
+    private static final int MAX_TABLE_WORDS = 1 << 16;
+
+    private final FieldTable[] tables;
+    private final BitSet indexedRules;
+
+    private LookupTableIndex(List<FieldTable> tables, BitSet indexedRules) {
+        this.tables = tables.toArray(new FieldTable[0]);
+        this.indexedRules = indexedRules;
+    }
+
+    /**
+     * Build the index for the compiled rules of a rule set
+     *
+     * @param rules the compiled rules, ordered by priority
+     * @return the lookup table index
+     */
+    public static LookupTableIndex build(List<CompiledRule> rules) {
+        Map<FieldDefinition, List<CompiledRule>> boundedRules = new LinkedHashMap<>();
+        for (CompiledRule rule : rules) {
+            FieldDefinition field = rule.getField();
+            if (field.isBounded() && field.getType() == Integer.class && rule.getOperand() != null
+                    && rule.getIndex() < MAX_TABLE_WORDS / valueCount(field) * Long.SIZE) {
+                boundedRules.computeIfAbsent(field, key -> new ArrayList<>()).add(rule);
+            }
+        }
+        
+        List<FieldTable> tables = new ArrayList<>();
+        BitSet indexedRules = new BitSet(rules.size());
+        for (Map.Entry<FieldDefinition, List<CompiledRule>> entry : boundedRules.entrySet()) {
+            tables.add(new FieldTable(entry.getKey(), entry.getValue()));
+            entry.getValue().forEach(rule -> indexedRules.set(rule.getIndex()));
+        }
+        return new LookupTableIndex(tables, indexedRules);
+    }
+
+    private static int valueCount(FieldDefinition field) {
+        return field.getMaxValue() - field.getMinValue() + 1;
+    }
+
+    @Override
+    public void match(EvaluationContext context, BitSet triggered) {
+        matchAndScore(context, triggered);
+    }
+
+    /**
+     * Mark the indexed rules triggered by a loan application and sum their risk points
+     *
+     * @param context the populated evaluation context of the loan application
+     * @param triggered receives the indexes of the triggered rules
+     * @return the sum of the risk points of the triggered rules
+     */
+    public int matchAndScore(EvaluationContext context, BitSet triggered) {
+        int riskScore = 0;
+        for (FieldTable table : tables) {
+            riskScore += table.matchAndScore(context, triggered);
+        }
+        return riskScore;
+    }
+
+    @Override
+    public BitSet getIndexedRules() {
+        return indexedRules;
+    }
+
+    /**
+     * The rules on one bounded field, with the summed risk points and the triggered rules for each
+     * value from the field's minimum to its maximum
+     */
+    private static final class FieldTable {
+
+        private final FieldDefinition field;
+        private final int minValue;
+        private final CompiledRule[] rules;
+        private final int[] riskPoints;
+        // Indexed by rule index like the evaluation's bitset, so that a value's rules are merged a word at a time
+        private final BitSet[] triggeredRules;
+
+        private FieldTable(FieldDefinition field, List<CompiledRule> rules) {
+            this.field = field;
+            this.minValue = field.getMinValue();
+            this.rules = rules.toArray(new CompiledRule[0]);
+            this.riskPoints = new int[valueCount(field)];
+            this.triggeredRules = new BitSet[riskPoints.length];
+            for (int offset = 0; offset < riskPoints.length; offset++) {
+                Integer value = minValue + offset;
+                BitSet triggered = new BitSet();
+                for (CompiledRule rule : this.rules) {
+                    // The same comparison CompiledRule.matches makes for an Integer value
+                    if (rule.getEvaluator().matches(value, rule.getOperand())) {
+                        riskPoints[offset] += rule.getRiskPoints();
+                        triggered.set(rule.getIndex());
+                    }
+                }
+                triggeredRules[offset] = triggered;
+            }
+        }
+
+        private int matchAndScore(EvaluationContext context, BitSet triggered) {
+            Object value = field.read(context);
+            if (value == null) {
+                return 0;
+            }
+            
+            if (value instanceof Integer) {
+                int offset = (Integer) value - minValue;
+                if (offset >= 0 && offset < riskPoints.length) {
+                    triggered.or(triggeredRules[offset]);
+                    return riskPoints[offset];
+                }
+            }
+            
+            // Values outside the validated range, or of an unexpected type, are left to the rules themselves
+            int riskScore = 0;
+            for (CompiledRule rule : rules) {
+                if (rule.matches(context)) {
+                    triggered.set(rule.getIndex());
+                    riskScore += rule.getRiskPoints();
+                }
+            }
+            return riskScore;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.loanrisk.engine.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Aho-Corasick automaton over a fixed set of patterns. A single pass over a text reports which
+ * patterns the text contains, starts with and ends with.
+ * <p>
+ * The automaton is stored as a dense transition table over the characters that occur in the
+ * patterns; every other character maps to one shared column.
+ */
+final class PatternAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    private final int patternCount;
+    private final int columns;
+    // Column of each ASCII character, and of the other pattern characters in sorted order
+    private final int[] asciiColumns = new int[128];
+    private final char[] otherCharacters;
+    // transitions[state * columns + column] is the next state
+    private final int[] transitions;
+    private final int[] depth;
+    // Pattern ending at each state, or NONE
+    private final int[] terminalPattern;
+    // Nearest proper suffix state that ends a pattern, or NONE
+    private final int[] dictionaryLink;
+    private final boolean[] emptyPattern;
+
+    /**
+     * Build the automaton for a list of distinct patterns; a pattern's position in the list is its id
+     */
+    PatternAutomaton(List<String> patterns) {
+        this.patternCount = patterns.size();
+        this.emptyPattern = new boolean[patternCount];
+
+        TreeSet<Character> others = new TreeSet<>();
+        int asciiCount = 0;
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 128) {
+                    if (asciiColumns[c] == 0) {
+                        asciiColumns[c] = ++asciiCount;
+                    }
+                } else {
+                    others.add(c);
+                }
+            }
+        }
+        otherCharacters = new char[others.size()];
+        int index = 0;
+        for (char c : others) {
+            otherCharacters[index++] = c;
+        }
+        // Column 0 is shared by all characters that occur in no pattern
+        columns = 1 + asciiCount + otherCharacters.length;
+
+        // Build the trie
+        List<int[]> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        children.add(newRow());
+        depths.add(0);
+        terminals.add(NONE);
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            if (pattern.isEmpty()) {
+                emptyPattern[id] = true;
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                int column = column(pattern.charAt(i));
+                if (children.get(state)[column] == NONE) {
+                    children.get(state)[column] = children.size();
+                    children.add(newRow());
+                    depths.add(i + 1);
+                    terminals.add(NONE);
+                }
+                state = children.get(state)[column];
+            }
+            terminals.set(state, id);
+        }
+
+        int stateCount = children.size();
+        transitions = new int[stateCount * columns];
+        depth = new int[stateCount];
+        terminalPattern = new int[stateCount];
+        dictionaryLink = new int[stateCount];
+        int[] failure = new int[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            depth[state] = depths.get(state);
+            terminalPattern[state] = terminals.get(state);
+        }
+
+        // Breadth-first, fill in failure and dictionary links and complete the transition table
+        Deque<Integer> queue = new ArrayDeque<>();
+        dictionaryLink[ROOT] = NONE;
+        for (int column = 0; column < columns; column++) {
+            int child = children.get(ROOT)[column];
+            if (child == NONE) {
+                transitions[column] = ROOT;
+            } else {
+                transitions[column] = child;
+                failure[child] = ROOT;
+                dictionaryLink[child] = NONE;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int column = 0; column < columns; column++) {
+                int child = children.get(state)[column];
+                int fallback = transitions[failure[state] * columns + column];
+                if (child == NONE) {
+                    transitions[state * columns + column] = fallback;
+                } else {
+                    transitions[state * columns + column] = child;
+                    failure[child] = fallback;
+                    dictionaryLink[child] = terminalPattern[fallback] != NONE ? fallback : dictionaryLink[fallback];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scan a text once and record every pattern it contains, starts with and ends with
+     */
+    void scan(String text, BitSet contains, BitSet startsWith, BitSet endsWith) {
+        for (int id = 0; id < patternCount; id++) {
+            if (emptyPattern[id]) {
+                contains.set(id);
+                startsWith.set(id);
+                endsWith.set(id);
+            }
+        }
+
+        int state = ROOT;
+        // The text starts with every pattern found while the automaton is still following the trie from the root
+        boolean onPrefix = true;
+        for (int i = 0; i < text.length(); i++) {
+            int next = transitions[state * columns + column(text.charAt(i))];
+            onPrefix = onPrefix && depth[next] == i + 1;
+            state = next;
+
+            if (onPrefix && terminalPattern[state] != NONE) {
+                startsWith.set(terminalPattern[state]);
+            }
+
+            // Report the patterns ending here, stopping at one already reported since its suffixes were reported with it
+            int output = terminalPattern[state] != NONE ? state : dictionaryLink[state];
+            while (output != NONE && !contains.get(terminalPattern[output])) {
+                contains.set(terminalPattern[output]);
+                output = dictionaryLink[output];
+            }
+        }
+
+        // The patterns ending at the last character are the suffixes of the text
+        int output = terminalPattern[state] != NONE ? state : dictionaryLink[state];
+        while (output != NONE) {
+            endsWith.set(terminalPattern[output]);
+            output = dictionaryLink[output];
+        }
+    }
+
+    private int column(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        int position = Arrays.binarySearch(otherCharacters, c);
+        return position < 0 ? 0 : columns - otherCharacters.length + position;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[columns];
+        Arrays.fill(row, NONE);
+        return row;
+    }
+}
@@ -0,0 +1,27 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.context.EvaluationContext;
+
+import java.util.BitSet;
+
+/**
+ * An index over part of a rule set that finds its triggered rules without evaluating them one by one.
+ * Indexes are built together with the rule set snapshot they belong to and never change afterwards.
+ */
+public interface RuleIndex {
+
+    /**
+     * Mark the indexed rules triggered by a loan application
+     *
+     * @param context the populated evaluation context of the loan application
+     * @param triggered receives the indexes of the triggered rules
+     */
+    void match(EvaluationContext context, BitSet triggered);
+
+    /**
+     * Get the indexes of the rules covered by this index
+     *
+     * @return the covered rule indexes; callers must not modify it
+     */
+    BitSet getIndexedRules();
+}
@@ -0,0 +1,202 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.FixedPoint;
+import com.loanrisk.engine.field.FieldDefinition;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The thresholds of the comparison rules on one numeric field, scaled to longs by a common power
+ * of ten. The distinct thresholds split the values of the field into cells, alternately the open
+ * interval below a threshold and the threshold itself, and a value is placed in its cell with one
+ * binary search, so the threshold index and the decision diagram compare values the same way.
+ */
+public final class ScaledThresholds {
+
+    /** Returned by {@link #cell} when the field has no value */
+    public static final int NO_VALUE = -1;
+    /** Returned by {@link #cell} when the value is not of the field's type */
+    public static final int UNEXPECTED_TYPE = -2;
+
+    // Scaling BigDecimal thresholds by more than 10^18 would overflow most of them
+    private static final int MAX_SCALE = 18;
+
+    private final FieldDefinition field;
+    private final int scale;
+    // Factor between a fixed-point value and the threshold scale
+    private final long fixedPointFactor;
+    private final List<CompiledRule> rules;
+    // Cell of each rule's threshold
+    private final int[] ruleCells;
+    private final long[] thresholds;
+
+    private ScaledThresholds(FieldDefinition field, int scale, List<CompiledRule> rules, long[] ruleThresholds) {
+        this.field = field;
+        this.scale = scale;
+        this.fixedPointFactor = pow10(Math.abs(scale - FixedPoint.SCALE));
+        this.rules = List.copyOf(rules);
+        this.thresholds = Arrays.stream(ruleThresholds).sorted().distinct().toArray();
+        this.ruleCells = new int[ruleThresholds.length];
+        for (int r = 0; r < ruleThresholds.length; r++) {
+            ruleCells[r] = 2 * Arrays.binarySearch(thresholds, ruleThresholds[r]) + 1;
+        }
+    }
+
+    /**
+     * Scale the thresholds of the comparison rules on one field to longs
+     *
+     * @param field the field of the rules
+     * @param rules the rules, each with an Integer or BigDecimal operand matching the field's type
+     * @param unscaledRules receives the rules whose threshold cannot be represented
+     * @return the scaled thresholds, or null if none of the rules could be scaled
+     */
+    public static ScaledThresholds build(FieldDefinition field, List<CompiledRule> rules, List<CompiledRule> unscaledRules) {
+        int scale = 0;
+        if (field.getType() == BigDecimal.class) {
+            for (CompiledRule rule : rules) {
+                scale = Math.max(scale, ((BigDecimal) rule.getOperand()).stripTrailingZeros().scale());
+            }
+            if (scale > MAX_SCALE) {
+                unscaledRules.addAll(rules);
+                return null;
+            }
+        }
+        
+        List<CompiledRule> scaledRules = new ArrayList<>();
+        long[] thresholds = new long[rules.size()];
+        for (CompiledRule rule : rules) {
+            long threshold;
+            try {
+                threshold = rule.getOperand() instanceof Integer
+                        ? (Integer) rule.getOperand()
+                        : ((BigDecimal) rule.getOperand()).movePointRight(scale).longValueExact();
+            } catch (ArithmeticException e) {
+                unscaledRules.add(rule);
+                continue;
+            }
+            
+            // Long.MIN_VALUE is reserved for values below every threshold
+            if (threshold == Long.MIN_VALUE) {
+                unscaledRules.add(rule);
+                continue;
+            }
+            
+            thresholds[scaledRules.size()] = threshold;
+            scaledRules.add(rule);
+        }
+        
+        if (scaledRules.isEmpty()) {
+            return null;
+        }
+        return new ScaledThresholds(field, scale, scaledRules, Arrays.copyOf(thresholds, scaledRules.size()));
+    }
+
+    /**
+     * Find the cell holding a loan application's value of the field
+     *
+     * @return the cell, {@link #NO_VALUE} or {@link #UNEXPECTED_TYPE}
+     */
+    public int cell(EvaluationContext context) {
+        long floor;
+        boolean exact;
+        if (field.getType() == BigDecimal.class && context.hasFixedPointValue(field.getSlot())) {
+            // Rescale the fixed-point value to the thresholds without creating its BigDecimal
+            long value = context.getFixedPointValue(field.getSlot());
+            if (scale >= FixedPoint.SCALE) {
+                long high = Math.multiplyHigh(value, fixedPointFactor);
+                floor = value * fixedPointFactor;
+                exact = high == (floor >> 63);
+                if (!exact) {
+                    floor = value > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+                }
+            } else {
+                floor = Math.floorDiv(value, fixedPointFactor);
+                exact = Math.floorMod(value, fixedPointFactor) == 0;
+            }
+        } else {
+            Object value = field.read(context);
+            if (value == null) {
+                return NO_VALUE;
+            }
+            
+            if (value instanceof Integer && field.getType() == Integer.class) {
+                floor = (Integer) value;
+                exact = true;
+            } else if (value instanceof BigDecimal && field.getType() == BigDecimal.class) {
+                // floor(value * 10^scale), remembering whether anything was cut off
+                BigDecimal scaled = ((BigDecimal) value).movePointRight(scale);
+                BigDecimal floored = scaled.setScale(0, RoundingMode.FLOOR);
+                exact = floored.compareTo(scaled) == 0;
+                
+                if (floored.toBigInteger().bitLength() < Long.SIZE) {
+                    floor = floored.longValue();
+                } else {
+                    // Beyond every threshold; treat as just above the largest or just below the smallest long
+                    floor = floored.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+                    exact = false;
+                }
+            } else {
+                return UNEXPECTED_TYPE;
+            }
+        }
+        
+        // count thresholds are <= floor; the value is the last of them, or lies in the interval above it
+        int count = upperBound(floor);
+        return exact && count > 0 && thresholds[count - 1] == floor ? 2 * count - 1 : 2 * count;
+    }
+
+    public FieldDefinition getField() {
+        return field;
+    }
+
+    /**
+     * Get the rules whose thresholds were scaled, in the order they were given
+     */
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the cell holding the threshold of a rule
+     *
+     * @param rule the position of the rule in {@link #getRules()}
+     */
+    public int getThresholdCell(int rule) {
+        return ruleCells[rule];
+    }
+
+    /**
+     * Get the number of cells the values of the field are split into
+     */
+    public int getCellCount() {
+        return 2 * thresholds.length + 1;
+    }
+
+    private int upperBound(long value) {
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the text matching rules (CONTAINS, NOT_CONTAINS, STARTS_WITH and ENDS_WITH) of a rule set.
+ * The rule values on each text field are compiled into one {@link PatternAutomaton}, so a field
+ * value is scanned once no matter how many rules test it.
+ */
+public final class TextPatternIndex implements RuleIndex {
+
+    private static final Set<String> TEXT_OPERATORS = Set.of("CONTAINS", "NOT_CONTAINS", "STARTS_WITH", "ENDS_WITH");
+
+    private final FieldPatterns[] fields;
+    private final BitSet indexedRules;
+
+    private TextPatternIndex(List<FieldPatterns> fields, BitSet indexedRules) {
+        this.fields = fields.toArray(new FieldPatterns[0]);
+        this.indexedRules = indexedRules;
+    }
+
+    /**
+     * Build the index for the compiled rules of a rule set
+     *
+     * @param rules the compiled rules, ordered by priority
+     * @return the text pattern index
+     */
+    public static TextPatternIndex build(List<CompiledRule> rules) {
+        Map<FieldDefinition, List<CompiledRule>> textRules = new LinkedHashMap<>();
+        BitSet indexedRules = new BitSet(rules.size());
+        
+        for (CompiledRule rule : rules) {
+            if (TEXT_OPERATORS.contains(rule.getOperator()) && rule.getOperand() instanceof String) {
+                textRules.computeIfAbsent(rule.getField(), field -> new ArrayList<>()).add(rule);
+                indexedRules.set(rule.getIndex());
+            }
+        }
+        
+        List<FieldPatterns> fields = new ArrayList<>();
+        for (Map.Entry<FieldDefinition, List<CompiledRule>> entry : textRules.entrySet()) {
+            fields.add(new FieldPatterns(entry.getKey(), entry.getValue()));
+        }
+        return new TextPatternIndex(fields, indexedRules);
+    }
+
+    @Override
+    public void match(EvaluationContext context, BitSet triggered) {
+        for (FieldPatterns field : fields) {
+            field.match(context, triggered);
+        }
+    }
+
+    @Override
+    public BitSet getIndexedRules() {
+        return indexedRules;
+    }
+
+    /**
+     * The text rules on one field and the automaton built from their distinct rule values
+     */
+    private static final class FieldPatterns {
+
+        private static final int CONTAINS = 0;
+        private static final int NOT_CONTAINS = 1;
+        private static final int STARTS_WITH = 2;
+        private static final int ENDS_WITH = 3;
+
+        private final FieldDefinition field;
+        private final PatternAutomaton automaton;
+        // For each operator, the pattern id and rule index of every rule, in parallel arrays
+        private final int[][] patternIds = new int[4][];
+        private final int[][] ruleIndexes = new int[4][];
+
+        private FieldPatterns(FieldDefinition field, List<CompiledRule> rules) {
+            this.field = field;
+            
+            Map<String, Integer> ids = new LinkedHashMap<>();
+            List<List<int[]>> byOperator = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+            for (CompiledRule rule : rules) {
+                int id = ids.computeIfAbsent((String) rule.getOperand(), pattern -> ids.size());
+                byOperator.get(operatorSlot(rule.getOperator())).add(new int[] {id, rule.getIndex()});
+            }
+            
+            this.automaton = new PatternAutomaton(new ArrayList<>(ids.keySet()));
+            for (int operator = 0; operator < 4; operator++) {
+                List<int[]> entries = byOperator.get(operator);
+                patternIds[operator] = entries.stream().mapToInt(entry -> entry[0]).toArray();
+                ruleIndexes[operator] = entries.stream().mapToInt(entry -> entry[1]).toArray();
+            }
+        }
+
+        private void match(EvaluationContext context, BitSet triggered) {
+            Object value = field.read(context);
+            if (!(value instanceof String)) {
+                return;
+            }
+            
+            BitSet contains = new BitSet();
+            BitSet startsWith = new BitSet();
+            BitSet endsWith = new BitSet();
+            automaton.scan((String) value, contains, startsWith, endsWith);
+            
+            mark(CONTAINS, contains, true, triggered);
+            mark(NOT_CONTAINS, contains, false, triggered);
+            mark(STARTS_WITH, startsWith, true, triggered);
+            mark(ENDS_WITH, endsWith, true, triggered);
+        }
+
+        /**
+         * Mark the rules of an operator whose pattern was found, or was not found when expected is false
+         */
+        private void mark(int operator, BitSet found, boolean expected, BitSet triggered) {
+            int[] ids = patternIds[operator];
+            int[] indexes = ruleIndexes[operator];
+            for (int i = 0; i < ids.length; i++) {
+                if (found.get(ids[i]) == expected) {
+                    triggered.set(indexes[i]);
+                }
+            }
+        }
+
+        private static int operatorSlot(String operator) {
+            return switch (operator) {
+                case "CONTAINS" -> CONTAINS;
+                case "NOT_CONTAINS" -> NOT_CONTAINS;
+                case "STARTS_WITH" -> STARTS_WITH;
+                case "ENDS_WITH" -> ENDS_WITH;
+                default -> throw new IllegalArgumentException("Unsupported operator: " + operator);
+            };
+        }
+    }
+}
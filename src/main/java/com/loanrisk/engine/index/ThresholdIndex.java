@@ -0,0 +1,88 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.field.FieldDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the numeric threshold rules (GREATER_THAN, GREATER_THAN_OR_EQUAL, LESS_THAN and
+ * LESS_THAN_OR_EQUAL on Integer and BigDecimal fields) of a rule set. Each field is read once
+ * and the triggered rules of each operator are found with a binary search, so the cost grows
+ * with the logarithm of the number of rules on a field plus the number of rules triggered.
+ */
+public final class ThresholdIndex implements RuleIndex {
+
+    private static final Set<String> THRESHOLD_OPERATORS = Set.of(
+            "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL");
+
+    private final FieldThresholds[] fields;
+    private final BitSet indexedRules;
+
+    private ThresholdIndex(List<FieldThresholds> fields, BitSet indexedRules) {
+        this.fields = fields.toArray(new FieldThresholds[0]);
+        this.indexedRules = indexedRules;
+    }
+
+    /**
+     * Build the index for the compiled rules of a rule set
+     *
+     * @param rules the compiled rules, ordered by priority
+     * @return the threshold index
+     */
+    public static ThresholdIndex build(List<CompiledRule> rules) {
+        Map<FieldDefinition, List<CompiledRule>> thresholdRules = new LinkedHashMap<>();
+        List<CompiledRule> unindexedRules = new ArrayList<>();
+        
+        for (CompiledRule rule : rules) {
+            if (isThresholdRule(rule)) {
+                thresholdRules.computeIfAbsent(rule.getField(), field -> new ArrayList<>()).add(rule);
+            } else {
+                unindexedRules.add(rule);
+            }
+        }
+        
+        List<FieldThresholds> fields = new ArrayList<>();
+        for (Map.Entry<FieldDefinition, List<CompiledRule>> entry : thresholdRules.entrySet()) {
+            ScaledThresholds scaledThresholds = ScaledThresholds.build(entry.getKey(), entry.getValue(), unindexedRules);
+            if (scaledThresholds != null) {
+                fields.add(new FieldThresholds(scaledThresholds));
+            }
+        }
+        
+        BitSet indexedRules = new BitSet(rules.size());
+        for (CompiledRule rule : rules) {
+            indexedRules.set(rule.getIndex());
+        }
+        for (CompiledRule rule : unindexedRules) {
+            indexedRules.clear(rule.getIndex());
+        }
+        return new ThresholdIndex(fields, indexedRules);
+    }
+
+    @Override
+    public void match(EvaluationContext context, BitSet triggered) {
+        for (FieldThresholds field : fields) {
+            field.match(context, triggered);
+        }
+    }
+
+    @Override
+    public BitSet getIndexedRules() {
+        return indexedRules;
+    }
+
+    private static boolean isThresholdRule(CompiledRule rule) {
+        Class<?> type = rule.getField().getType();
+        return THRESHOLD_OPERATORS.contains(rule.getOperator())
+                && (type == Integer.class && rule.getOperand() instanceof Integer
+                    || type == BigDecimal.class && rule.getOperand() instanceof BigDecimal);
+    }
+}
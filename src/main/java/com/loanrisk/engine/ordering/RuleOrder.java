@@ -0,0 +1,72 @@
+package com.loanrisk.engine.ordering;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An order in which to evaluate the compiled rules of a snapshot when the evaluation may stop early,
+ * covering the rules not scored by the snapshot's lookup tables, with the sums of the negative and of the positive risk points of the rules from each position on,
+ * which bound how far the risk score can still move.
+ */
+public final class RuleOrder {
+
+    private final List<CompiledRule> rules;
+    private final int[] remainingNegativePoints;
+    private final int[] remainingPositivePoints;
+
+    /**
+     * @param rules the compiled rules of a snapshot not covered by its lookup tables, in evaluation order
+     */
+    public RuleOrder(List<CompiledRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.remainingNegativePoints = new int[rules.size() + 1];
+        this.remainingPositivePoints = new int[rules.size() + 1];
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            int riskPoints = this.rules.get(i).getRiskPoints();
+            remainingNegativePoints[i] = remainingNegativePoints[i + 1] + Math.min(riskPoints, 0);
+            remainingPositivePoints[i] = remainingPositivePoints[i + 1] + Math.max(riskPoints, 0);
+        }
+    }
+
+    /**
+     * Order compiled rules by risk points descending, and by priority where the points are equal
+     *
+     * @param compiledRules the compiled rules to order, by priority
+     */
+    public static RuleOrder byRiskPoints(List<CompiledRule> compiledRules) {
+        return new RuleOrder(compiledRules.stream()
+                .sorted(Comparator.comparingInt(CompiledRule::getRiskPoints).reversed())
+                .toList());
+    }
+
+    /**
+     * Get the rules in evaluation order
+     *
+     * @return unmodifiable list of compiled rules
+     */
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the lowest sum of risk points the rules from a position on can add
+     *
+     * @param position the position in the evaluation order, up to the number of rules
+     * @return the sum of their negative risk points
+     */
+    public int getLowestRemainingPoints(int position) {
+        return remainingNegativePoints[position];
+    }
+
+    /**
+     * Get the highest sum of risk points the rules from a position on can add
+     *
+     * @param position the position in the evaluation order, up to the number of rules
+     * @return the sum of their positive risk points
+     */
+    public int getHighestRemainingPoints(int position) {
+        return remainingPositivePoints[position];
+    }
+}
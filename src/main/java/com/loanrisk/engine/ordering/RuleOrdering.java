@@ -0,0 +1,38 @@
+package com.loanrisk.engine.ordering;
+
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+
+import java.util.BitSet;
+
+/**
+ * Chooses the order in which a decision-only evaluation visits the rules of a snapshot. The order
+ * only decides how soon the evaluation can stop; triggered rules are always reported in priority order.
+ */
+public interface RuleOrdering {
+
+    /**
+     * Get the order in which to evaluate the rules of a snapshot
+     *
+     * @param snapshot the snapshot being evaluated
+     * @return the rule order, covering the same rules as {@link RuleSetSnapshot#getRuleOrderByRiskPoints()}
+     */
+    RuleOrder getOrder(RuleSetSnapshot snapshot);
+
+    /**
+     * Whether the next evaluation against a snapshot should evaluate and time every rule, and
+     * report it through {@link #recordSample}
+     *
+     * @param snapshot the snapshot being evaluated
+     */
+    boolean shouldSample(RuleSetSnapshot snapshot);
+
+    /**
+     * Record a sampled evaluation in which every rule was evaluated
+     *
+     * @param snapshot the snapshot that was evaluated
+     * @param triggeredRuleIndexes the indexes of the triggered rules
+     * @param ruleNanos the time spent evaluating each ordered rule, by rule index
+     * @param decision the decision of the evaluation
+     */
+    void recordSample(RuleSetSnapshot snapshot, BitSet triggeredRuleIndexes, long[] ruleNanos, String decision);
+}
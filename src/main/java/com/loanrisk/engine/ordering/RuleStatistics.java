@@ -0,0 +1,88 @@
+package com.loanrisk.engine.ordering;
+
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hit and cost counters of the rules of one snapshot, collected from sampled evaluations in which
+ * every rule was evaluated, together with the order currently chosen from them. Counters are updated
+ * without locking, so that concurrent evaluations only contend on the cache lines they touch.
+ */
+public final class RuleStatistics {
+
+    private final RuleSetSnapshot snapshot;
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong rejectCount = new AtomicLong();
+    private final AtomicLongArray hitCounts;
+    private final AtomicLongArray nanos;
+    private volatile RuleOrder order;
+
+    public RuleStatistics(RuleSetSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.hitCounts = new AtomicLongArray(snapshot.size());
+        this.nanos = new AtomicLongArray(snapshot.size());
+        this.order = snapshot.getRuleOrderByRiskPoints();
+    }
+
+    /**
+     * Record a sampled evaluation
+     *
+     * @param triggeredRuleIndexes the indexes of the triggered rules
+     * @param ruleNanos the time spent evaluating each rule, by rule index
+     * @param rejected whether the evaluation was rejected
+     * @return the number of samples recorded so far, including this one
+     */
+    public long record(BitSet triggeredRuleIndexes, long[] ruleNanos, boolean rejected) {
+        for (int i = triggeredRuleIndexes.nextSetBit(0); i >= 0; i = triggeredRuleIndexes.nextSetBit(i + 1)) {
+            hitCounts.incrementAndGet(i);
+        }
+        for (int i = 0; i < ruleNanos.length; i++) {
+            nanos.addAndGet(i, ruleNanos[i]);
+        }
+        if (rejected) {
+            rejectCount.incrementAndGet();
+        }
+        return sampleCount.incrementAndGet();
+    }
+
+    public RuleSetSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public long getSampleCount() {
+        return sampleCount.get();
+    }
+
+    public long getRejectCount() {
+        return rejectCount.get();
+    }
+
+    /**
+     * Get the number of sampled evaluations in which a rule triggered
+     *
+     * @param ruleIndex the index of the rule within the snapshot
+     */
+    public long getHitCount(int ruleIndex) {
+        return hitCounts.get(ruleIndex);
+    }
+
+    /**
+     * Get the time spent evaluating a rule over all sampled evaluations
+     *
+     * @param ruleIndex the index of the rule within the snapshot
+     */
+    public long getNanos(int ruleIndex) {
+        return nanos.get(ruleIndex);
+    }
+
+    public RuleOrder getOrder() {
+        return order;
+    }
+
+    public void setOrder(RuleOrder order) {
+        this.order = order;
+    }
+}
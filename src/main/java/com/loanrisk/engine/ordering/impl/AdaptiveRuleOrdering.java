@@ -0,0 +1,152 @@
+package com.loanrisk.engine.ordering.impl;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.ordering.RuleStatistics;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rule ordering that learns from a sample of evaluations how often each rule triggers and how long it
+ * takes, and periodically reorders the rules so that those that fix the decision soonest for the least
+ * time come first. Until enough samples are collected for a snapshot, the rules with the most risk
+ * points come first.
+ * <p>
+ * A rule moves the decision bounds by its risk points: a triggered rule with positive points raises
+ * the lowest reachable score, and one that does not trigger lowers the highest reachable score
+ * (the other way round for negative points). Raising the lowest score leads to a rejection and
+ * lowering the highest score to an approval, so each direction is weighted by the observed share of
+ * rejections. Rules are ordered by that expected progress divided by their average cost.
+ * <p>
+ * This is the default ordering ({@code loanrisk.engine.adaptive-ordering.enabled=true}).
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.engine.adaptive-ordering.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveRuleOrdering implements RuleOrdering {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveRuleOrdering.class);
+
+    // A sampled evaluation times every rule, which costs tens of times an evaluation that stops early
+    public static final int DEFAULT_SAMPLE_RATE = 1024;
+    public static final int DEFAULT_REORDER_INTERVAL = 64;
+
+    private final int sampleRate;
+    private final int reorderInterval;
+
+    // The statistics of the most recently sampled snapshot
+    private volatile RuleStatistics current;
+
+    /**
+     * @param sampleRate one in how many evaluations is sampled
+     * @param reorderInterval the number of samples between two reorderings
+     */
+    @Autowired
+    public AdaptiveRuleOrdering(@Value("${loanrisk.engine.adaptive-ordering.sample-rate:" + DEFAULT_SAMPLE_RATE + "}") int sampleRate,
+                                @Value("${loanrisk.engine.adaptive-ordering.reorder-interval:" + DEFAULT_REORDER_INTERVAL + "}") int reorderInterval) {
+        if (sampleRate < 1 || reorderInterval < 1) {
+            throw new IllegalArgumentException("Sample rate and reorder interval must be positive");
+        }
+        this.sampleRate = sampleRate;
+        this.reorderInterval = reorderInterval;
+    }
+
+    public AdaptiveRuleOrdering() {
+        this(DEFAULT_SAMPLE_RATE, DEFAULT_REORDER_INTERVAL);
+    }
+
+    @Override
+    public RuleOrder getOrder(RuleSetSnapshot snapshot) {
+        RuleStatistics statistics = current;
+        if (statistics != null && statistics.getSnapshot() == snapshot) {
+            return statistics.getOrder();
+        }
+        
+        return snapshot.getRuleOrderByRiskPoints();
+    }
+
+    @Override
+    public boolean shouldSample(RuleSetSnapshot snapshot) {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    @Override
+    public void recordSample(RuleSetSnapshot snapshot, BitSet triggeredRuleIndexes, long[] ruleNanos, String decision) {
+        RuleStatistics statistics = getStatistics(snapshot);
+        if (statistics == null) {
+            return;
+        }
+        
+        long sampleCount = statistics.record(triggeredRuleIndexes, ruleNanos,
+                RiskLevelDeterminer.DECISION_REJECT.equals(decision));
+        if (sampleCount % reorderInterval == 0) {
+            statistics.setOrder(rank(statistics));
+            logger.debug("Reordered {} rules of rule set version {} after {} samples",
+                    snapshot.size(), snapshot.getVersion(), sampleCount);
+        }
+    }
+
+    /**
+     * Get the statistics of a snapshot, starting them if the snapshot has not been sampled before
+     *
+     * @return the statistics, or null if the snapshot is older than the one being sampled
+     */
+    RuleStatistics getStatistics(RuleSetSnapshot snapshot) {
+        RuleStatistics statistics = current;
+        if (statistics != null && statistics.getSnapshot() == snapshot) {
+            return statistics;
+        }
+        
+        synchronized (this) {
+            statistics = current;
+            if (statistics != null && statistics.getSnapshot() == snapshot) {
+                return statistics;
+            }
+            
+            // Samples of evaluations still holding an older snapshot are dropped
+            if (statistics != null && snapshot.getVersion() < statistics.getSnapshot().getVersion()) {
+                return null;
+            }
+            
+            statistics = new RuleStatistics(snapshot);
+            current = statistics;
+            return statistics;
+        }
+    }
+
+    /**
+     * Order the rules of a snapshot by expected progress towards a fixed decision per nanosecond
+     */
+    static RuleOrder rank(RuleStatistics statistics) {
+        long sampleCount = statistics.getSampleCount();
+        // Laplace smoothing keeps rules that never or always triggered in the samples from ranking at the extremes
+        double rejectShare = (statistics.getRejectCount() + 1.0) / (sampleCount + 2.0);
+        RuleSetSnapshot snapshot = statistics.getSnapshot();
+        List<CompiledRule> rules = snapshot.getRuleOrderByRiskPoints().getRules();
+        double[] values = new double[snapshot.size()];
+        for (CompiledRule rule : rules) {
+            int index = rule.getIndex();
+            double hitRate = (statistics.getHitCount(index) + 1.0) / (sampleCount + 2.0);
+            double raisesLowest = rule.getRiskPoints() >= 0 ? hitRate : 1.0 - hitRate;
+            double progress = Math.abs(rule.getRiskPoints())
+                    * (rejectShare * raisesLowest + (1.0 - rejectShare) * (1.0 - raisesLowest));
+            double averageNanos = (statistics.getNanos(index) + 1.0) / (sampleCount + 1.0);
+            values[index] = progress / averageNanos;
+        }
+        
+        return new RuleOrder(rules.stream()
+                .sorted(Comparator.comparingDouble((CompiledRule rule) -> values[rule.getIndex()]).reversed())
+                .toList());
+    }
+}
@@ -0,0 +1,32 @@
+package com.loanrisk.engine.ordering.impl;
+
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+
+/**
+ * Rule ordering that always evaluates the rules with the most risk points first and collects no statistics.
+ * Used when adaptive ordering is disabled ({@code loanrisk.engine.adaptive-ordering.enabled=false}).
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.engine.adaptive-ordering.enabled", havingValue = "false")
+public class RiskPointsRuleOrdering implements RuleOrdering {
+
+    @Override
+    public RuleOrder getOrder(RuleSetSnapshot snapshot) {
+        return snapshot.getRuleOrderByRiskPoints();
+    }
+
+    @Override
+    public boolean shouldSample(RuleSetSnapshot snapshot) {
+        return false;
+    }
+
+    @Override
+    public void recordSample(RuleSetSnapshot snapshot, BitSet triggeredRuleIndexes, long[] ruleNanos, String decision) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.loanrisk.engine.snapshot;
+
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.util.List;
+
+/**
+ * Interface for the immutable rule sets stored under their cluster-wide rule set version, so that
+ * loan applications persisted with a version and its triggered rule indexes can be explained, and
+ * analysed per rule, after the rules have changed
+ */
+public interface RuleSetArchive {
+
+    /**
+     * Store the rules of a snapshot under its rule set version, unless the version is already stored.
+     * Snapshots without a rule set version are not stored.
+     *
+     * @param snapshot the snapshot being published
+     * @return whether the snapshot's rules are stored under its rule set version; false if the version
+     *         is stored with other rules
+     */
+    boolean store(RuleSetSnapshot snapshot);
+
+    /**
+     * Check, without querying the database, whether {@link #store(RuleSetSnapshot)} has stored a snapshot's rules
+     * under its rule set version
+     *
+     * @param snapshot the snapshot that scored a loan application
+     * @return whether the snapshot's rules are stored under its rule set version
+     */
+    boolean isStored(RuleSetSnapshot snapshot);
+
+    /**
+     * Get the rules stored under a rule set version, each at the index it had in the snapshot
+     *
+     * @param ruleSetVersion the rule set version
+     * @return unmodifiable list of rules, empty if the version is not stored
+     */
+    List<ScoringRule> getRules(long ruleSetVersion);
+}
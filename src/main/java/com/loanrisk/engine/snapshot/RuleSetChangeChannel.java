@@ -0,0 +1,15 @@
+package com.loanrisk.engine.snapshot;
+
+/**
+ * Interface for the channel that tells every instance to refresh its rule set snapshot
+ * after the scoring rules changed on any of them
+ */
+public interface RuleSetChangeChannel {
+
+    /**
+     * Announce a new rule set version to the other instances once the current transaction commits
+     *
+     * @param version the rule set version the change was recorded as
+     */
+    void publish(long version);
+}
@@ -0,0 +1,30 @@
+package com.loanrisk.engine.snapshot;
+
+/**
+ * Interface for supplying the current rule set snapshot to the rule engine
+ */
+public interface RuleSetProvider {
+
+    /**
+     * Get the current snapshot of enabled rules, loading it if necessary
+     *
+     * @return the current rule set snapshot
+     */
+    RuleSetSnapshot getSnapshot();
+
+    /**
+     * Discard the current snapshot so that the next call to {@link #getSnapshot()} reloads the rules
+     */
+    void invalidate();
+
+    /**
+     * Bring the snapshot up to date with rule changes made elsewhere, such as on other instances,
+     * and publish it as the current snapshot if anything changed
+     *
+     * @return the up-to-date snapshot
+     */
+    default RuleSetSnapshot refresh() {
+        invalidate();
+        return getSnapshot();
+    }
+}
@@ -0,0 +1,160 @@
+package com.loanrisk.engine.snapshot;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.index.LookupTableIndex;
+import com.loanrisk.engine.index.RuleIndex;
+import com.loanrisk.engine.index.TextPatternIndex;
+import com.loanrisk.engine.index.ThresholdIndex;
+import com.loanrisk.engine.ordering.RuleOrder;
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of the enabled scoring rules, compiled and ordered by priority.
+ * A new snapshot is built whenever the rule set changes; evaluations hold on to
+ * the snapshot they started with.
+ */
+public final class RuleSetSnapshot {
+
+    private final long version;
+    private final long ruleSetVersion;
+    private final List<CompiledRule> compiledRules;
+    private final List<ScoringRule> rules;
+    private final List<ScoringRule> rejectedRules;
+    private final LookupTableIndex lookupTableIndex;
+    private final List<RuleIndex> indexes;
+    private final List<CompiledRule> unindexedRules;
+    private final RuleOrder ruleOrderByRiskPoints;
+    private final LocalDateTime loadedAt;
+
+    public RuleSetSnapshot(long version, List<CompiledRule> compiledRules, List<ScoringRule> rejectedRules) {
+        this(version, 0L, compiledRules, rejectedRules);
+    }
+
+    /**
+     * @param version the local snapshot version
+     * @param ruleSetVersion the cluster-wide rule set version read before the rules were loaded
+     * @param compiledRules the compiled rules ordered by priority
+     * @param rejectedRules the enabled rules that could not be compiled
+     */
+    public RuleSetSnapshot(long version, long ruleSetVersion, List<CompiledRule> compiledRules,
+                           List<ScoringRule> rejectedRules) {
+        this.version = version;
+        this.ruleSetVersion = ruleSetVersion;
+        this.compiledRules = List.copyOf(compiledRules);
+        this.rules = compiledRules.stream().map(CompiledRule::getRule).toList();
+        this.rejectedRules = List.copyOf(rejectedRules);
+        
+        // Rules on bounded fields are scored from lookup tables; the other indexes cover the remaining rules
+        this.lookupTableIndex = LookupTableIndex.build(this.compiledRules);
+        List<CompiledRule> remainingRules = this.compiledRules.stream()
+                .filter(rule -> !lookupTableIndex.getIndexedRules().get(rule.getIndex()))
+                .toList();
+        this.indexes = List.of(lookupTableIndex, ThresholdIndex.build(remainingRules), TextPatternIndex.build(remainingRules));
+        
+        BitSet indexed = new BitSet(compiledRules.size());
+        indexes.forEach(index -> indexed.or(index.getIndexedRules()));
+        this.unindexedRules = this.compiledRules.stream().filter(rule -> !indexed.get(rule.getIndex())).toList();
+        this.ruleOrderByRiskPoints = RuleOrder.byRiskPoints(remainingRules);
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Get the local version of this snapshot; versions increase every time this instance reloads the rule set
+     *
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the cluster-wide rule set version this snapshot was loaded at, shared by every instance
+     * that loaded the same rules; 0 when no version store is available
+     *
+     * @return the rule set version
+     */
+    public long getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    /**
+     * Get the compiled rules ordered by priority ascending; each rule's index is its position in this list
+     *
+     * @return unmodifiable list of compiled rules
+     */
+    public List<CompiledRule> getCompiledRules() {
+        return compiledRules;
+    }
+
+    /**
+     * Get the enabled rules that compiled successfully, ordered by priority ascending
+     *
+     * @return unmodifiable list of rules
+     */
+    public List<ScoringRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the enabled rules that could not be compiled and are therefore never evaluated
+     *
+     * @return unmodifiable list of rejected rules
+     */
+    public List<ScoringRule> getRejectedRules() {
+        return rejectedRules;
+    }
+
+    /**
+     * Get the rule indexes built together with this snapshot; each compiled rule is covered by at most one of them
+     *
+     * @return unmodifiable list of rule indexes
+     */
+    public List<RuleIndex> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * Get the index that scores the rules on bounded fields from lookup tables; it is also one of {@link #getIndexes()}
+     *
+     * @return the lookup table index
+     */
+    public LookupTableIndex getLookupTableIndex() {
+        return lookupTableIndex;
+    }
+
+    /**
+     * Get the compiled rules that no index covers, ordered by priority
+     *
+     * @return unmodifiable list of compiled rules
+     */
+    public List<CompiledRule> getUnindexedRules() {
+        return unindexedRules;
+    }
+
+    /**
+     * Get the compiled rules not covered by the lookup table index, ordered by risk points descending
+     * and by priority where the points are equal
+     *
+     * @return the rule order
+     */
+    public RuleOrder getRuleOrderByRiskPoints() {
+        return ruleOrderByRiskPoints;
+    }
+
+    /**
+     * Get the time at which this snapshot was loaded
+     *
+     * @return the load time
+     */
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        return compiledRules.size();
+    }
+}
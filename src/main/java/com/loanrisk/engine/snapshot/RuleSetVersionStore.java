@@ -0,0 +1,22 @@
+package com.loanrisk.engine.snapshot;
+
+/**
+ * Interface for the cluster-wide rule set version, shared by every instance through the database.
+ * The version is incremented in the same transaction as every scoring rule change.
+ */
+public interface RuleSetVersionStore {
+
+    /**
+     * Get the current rule set version
+     *
+     * @return the version
+     */
+    long getVersion();
+
+    /**
+     * Increment the rule set version, within the current transaction if there is one
+     *
+     * @return the new version
+     */
+    long increment();
+}
@@ -0,0 +1,42 @@
+package com.loanrisk.engine.snapshot;
+
+import com.loanrisk.model.entity.ScoringRule;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener that invalidates the cached rule set whenever a scoring rule is
+ * inserted, updated or deleted, whether through ScoringRuleService or the repository directly.
+ * The change also increments the cluster-wide rule set version and is announced to the other
+ * instances, both within the writing transaction.
+ */
+public class ScoringRuleChangeListener {
+
+    private final ObjectProvider<RuleSetProvider> ruleSetProvider;
+    private final ObjectProvider<RuleSetVersionStore> ruleSetVersionStore;
+    private final ObjectProvider<RuleSetChangeChannel> ruleSetChangeChannel;
+
+    public ScoringRuleChangeListener(ObjectProvider<RuleSetProvider> ruleSetProvider,
+                                     ObjectProvider<RuleSetVersionStore> ruleSetVersionStore,
+                                     ObjectProvider<RuleSetChangeChannel> ruleSetChangeChannel) {
+        this.ruleSetProvider = ruleSetProvider;
+        this.ruleSetVersionStore = ruleSetVersionStore;
+        this.ruleSetChangeChannel = ruleSetChangeChannel;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onRuleChanged(ScoringRule scoringRule) {
+        // The provider is absent in slices that don't load the engine, e.g. @DataJpaTest
+        ruleSetProvider.ifAvailable(RuleSetProvider::invalidate);
+        
+        // A rolled back change neither moves the version nor reaches the other instances
+        ruleSetVersionStore.ifAvailable(store -> {
+            long version = store.increment();
+            ruleSetChangeChannel.ifAvailable(channel -> channel.publish(version));
+        });
+    }
+}
@@ -0,0 +1,308 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.engine.snapshot.RuleSetVersionStore;
+import com.loanrisk.exception.RuleCompilationException;
+import com.loanrisk.model.entity.ScoringRule;
+import com.loanrisk.repository.ScoringRuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RuleSetProvider that keeps the enabled rules in memory and only queries the
+ * database again after the snapshot has been invalidated or when it is refreshed.
+ * A refresh compares the {@code updated_at} of every enabled rule with the snapshot
+ * and only loads and recompiles the rules that changed.
+ * <p>
+ * Every snapshot carries the cluster-wide rule set version its rules were loaded at, so instances
+ * that loaded the same rules report the same version. The version is read before and after the
+ * rules; if a change committed in between, the snapshot gets version 0 and is refreshed again.
+ * <p>
+ * A published snapshot with a version is stored in the RuleSetArchive, so that evaluations only check
+ * that it is stored. A snapshot reloaded within a transaction, such as a request's, is stored on a
+ * background thread, as storing takes a connection of its own. If the version is already stored with other
+ * rules, because they were edited directly in the database, the version is moved and the rules reloaded.
+ */
+@Component
+public class CachingRuleSetProvider implements RuleSetProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingRuleSetProvider.class);
+
+    private final ScoringRuleRepository scoringRuleRepository;
+    private final RuleCompiler ruleCompiler;
+    private final RuleSetVersionStore ruleSetVersionStore;
+    private final RuleSetArchive ruleSetArchive;
+    private final Executor archiver;
+
+    private final AtomicReference<RuleSetSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public CachingRuleSetProvider(ScoringRuleRepository scoringRuleRepository, RuleCompiler ruleCompiler) {
+        this(scoringRuleRepository, ruleCompiler, null);
+    }
+
+    public CachingRuleSetProvider(ScoringRuleRepository scoringRuleRepository, RuleCompiler ruleCompiler,
+                                  RuleSetVersionStore ruleSetVersionStore) {
+        this(scoringRuleRepository, ruleCompiler, ruleSetVersionStore, null, Runnable::run);
+    }
+
+    @Autowired
+    public CachingRuleSetProvider(ScoringRuleRepository scoringRuleRepository, RuleCompiler ruleCompiler,
+                                  RuleSetVersionStore ruleSetVersionStore, RuleSetArchive ruleSetArchive) {
+        this(scoringRuleRepository, ruleCompiler, ruleSetVersionStore, ruleSetArchive, task -> {
+            Thread thread = new Thread(task, "rule-set-archive");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public CachingRuleSetProvider(ScoringRuleRepository scoringRuleRepository, RuleCompiler ruleCompiler,
+                                  RuleSetVersionStore ruleSetVersionStore, RuleSetArchive ruleSetArchive,
+                                  Executor archiver) {
+        this.scoringRuleRepository = scoringRuleRepository;
+        this.ruleCompiler = ruleCompiler;
+        this.ruleSetVersionStore = ruleSetVersionStore;
+        this.ruleSetArchive = ruleSetArchive;
+        this.archiver = archiver;
+    }
+
+    @Override
+    public RuleSetSnapshot getSnapshot() {
+        RuleSetSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return reload();
+    }
+
+    @Override
+    public void invalidate() {
+        invalidationCount.incrementAndGet();
+        current.set(null);
+        
+        // A reload inside the writing transaction would cache rows other threads cannot see yet,
+        // and a reload racing the commit could cache the old rows, so invalidate again once it completes
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidationCount.incrementAndGet();
+                    current.set(null);
+                }
+            });
+        }
+    }
+
+    @Override
+    public RuleSetSnapshot refresh() {
+        RuleSetSnapshot previous = current.get();
+        if (previous == null) {
+            return getSnapshot();
+        }
+        return refresh(previous);
+    }
+
+    /**
+     * Publish a snapshot with the rules changed since a previous snapshot recompiled and the others reused.
+     * Runs under the same lock as {@link #reload()}.
+     */
+    private synchronized RuleSetSnapshot refresh(RuleSetSnapshot previous) {
+        if (current.get() != previous) {
+            return getSnapshot();
+        }
+        
+        long invalidationsBeforeLoad = invalidationCount.get();
+        long ruleSetVersion = readRuleSetVersion();
+        Map<Long, CompiledRule> compiledById = new HashMap<>();
+        Map<Long, ScoringRule> rulesById = new HashMap<>();
+        for (CompiledRule compiledRule : previous.getCompiledRules()) {
+            compiledById.put(compiledRule.getRule().getId(), compiledRule);
+            rulesById.put(compiledRule.getRule().getId(), compiledRule.getRule());
+        }
+        for (ScoringRule rejectedRule : previous.getRejectedRules()) {
+            rulesById.put(rejectedRule.getId(), rejectedRule);
+        }
+        
+        // A rule changed if it is new or its update time moved; a rule left out was deleted or disabled
+        List<ScoringRuleRepository.RuleVersion> versions = scoringRuleRepository.findEnabledRuleVersions();
+        Set<Long> changedIds = new HashSet<>();
+        for (ScoringRuleRepository.RuleVersion version : versions) {
+            ScoringRule known = rulesById.get(version.getId());
+            if (known == null || !Objects.equals(known.getUpdatedAt(), version.getUpdatedAt())) {
+                changedIds.add(version.getId());
+            }
+        }
+        boolean rulesChanged = !changedIds.isEmpty() || versions.size() != rulesById.size();
+        if (!rulesChanged && ruleSetVersion == previous.getRuleSetVersion()) {
+            return previous;
+        }
+        if (rulesChanged && ruleSetVersion == previous.getRuleSetVersion() && ruleSetVersionStore != null) {
+            // Rules edited directly in the database don't move the version, so that the rule set stored
+            // under a version never changes; move it here and the other instances follow
+            ruleSetVersion = ruleSetVersionStore.increment();
+            // The increment waits for a rule change committing meanwhile and returns its version,
+            // so the rules read before it only belong to that version if they are still the same
+            if (!toUpdateTimes(versions).equals(toUpdateTimes(scoringRuleRepository.findEnabledRuleVersions()))) {
+                ruleSetVersion = 0L;
+            }
+        }
+        
+        List<ScoringRule> rules = new ArrayList<>(versions.size());
+        for (ScoringRuleRepository.RuleVersion version : versions) {
+            if (!changedIds.contains(version.getId())) {
+                rules.add(rulesById.get(version.getId()));
+            }
+        }
+        if (!changedIds.isEmpty()) {
+            for (ScoringRule changed : scoringRuleRepository.findAllById(changedIds)) {
+                // Rules disabled since their version was read are left out; deleted ones are not returned
+                if (Boolean.TRUE.equals(changed.getEnabled())) {
+                    rules.add(changed);
+                }
+            }
+        }
+        rules.sort(Comparator.comparing(ScoringRule::getPriority).thenComparing(ScoringRule::getId));
+        
+        List<CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        List<ScoringRule> rejectedRules = new ArrayList<>();
+        for (ScoringRule rule : rules) {
+            CompiledRule compiledRule = compiledById.get(rule.getId());
+            if (compiledRule != null && compiledRule.getRule() == rule) {
+                compiledRules.add(compiledRule.withIndex(compiledRules.size()));
+            } else if (compiledRule == null && rulesById.get(rule.getId()) == rule) {
+                rejectedRules.add(rule);
+            } else {
+                compile(rule, compiledRules, rejectedRules);
+            }
+        }
+        RuleSetSnapshot refreshed = new RuleSetSnapshot(versionCounter.incrementAndGet(),
+                confirmRuleSetVersion(ruleSetVersion), compiledRules, rejectedRules);
+        
+        // Don't publish over a local invalidation that happened meanwhile; the next evaluation reloads instead
+        if (invalidationCount.get() == invalidationsBeforeLoad && current.compareAndSet(previous, refreshed)) {
+            archive(refreshed);
+        }
+        
+        logger.info("Refreshed rule set snapshot version {} at rule set version {} with {} enabled rules, {} of them changed",
+                refreshed.getVersion(), refreshed.getRuleSetVersion(), refreshed.size(), changedIds.size());
+        return refreshed;
+    }
+
+    /**
+     * Load and compile the enabled rules from the database and publish them as the current snapshot.
+     * Only one thread reloads at a time; the others wait and pick up its result.
+     */
+    private synchronized RuleSetSnapshot reload() {
+        RuleSetSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        
+        long invalidationsBeforeLoad = invalidationCount.get();
+        long ruleSetVersion = readRuleSetVersion();
+        List<ScoringRule> rules = scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc();
+        RuleSetSnapshot loaded = compile(versionCounter.incrementAndGet(), confirmRuleSetVersion(ruleSetVersion), rules);
+        
+        // Don't publish a snapshot that was invalidated while it was being loaded
+        if (invalidationCount.get() == invalidationsBeforeLoad) {
+            current.set(loaded);
+            archive(loaded);
+        }
+        
+        logger.debug("Loaded rule set snapshot version {} at rule set version {} with {} enabled rules",
+                loaded.getVersion(), loaded.getRuleSetVersion(), loaded.size());
+        return loaded;
+    }
+
+    /**
+     * Compile the rules, leaving out and reporting any rule that cannot be evaluated
+     */
+    private RuleSetSnapshot compile(long version, long ruleSetVersion, List<ScoringRule> rules) {
+        List<CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        List<ScoringRule> rejectedRules = new ArrayList<>();
+        
+        for (ScoringRule rule : rules) {
+            compile(rule, compiledRules, rejectedRules);
+        }
+        
+        return new RuleSetSnapshot(version, ruleSetVersion, compiledRules, rejectedRules);
+    }
+
+    /**
+     * Store the rules of a published snapshot under its rule set version, on a background thread if
+     * a transaction is active
+     */
+    private void archive(RuleSetSnapshot snapshot) {
+        if (ruleSetArchive == null || snapshot.getRuleSetVersion() <= 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            archiver.execute(() -> archive(snapshot));
+            return;
+        }
+        
+        try {
+            if (!ruleSetArchive.store(snapshot) && ruleSetVersionStore != null && current.get() == snapshot) {
+                // The version is stored with other rules, so these were edited directly in the database since;
+                // move the version so that they get one of their own, and reload them under it
+                ruleSetVersionStore.increment();
+                archiver.execute(this::refresh);
+            }
+        } catch (RuntimeException e) {
+            // Evaluations keep their explanation text until a later snapshot is stored
+            logger.warn("Could not store rule set version {}", snapshot.getRuleSetVersion(), e);
+        }
+    }
+
+    private static Map<Long, LocalDateTime> toUpdateTimes(List<ScoringRuleRepository.RuleVersion> versions) {
+        Map<Long, LocalDateTime> updateTimes = new HashMap<>();
+        for (ScoringRuleRepository.RuleVersion version : versions) {
+            updateTimes.put(version.getId(), version.getUpdatedAt());
+        }
+        return updateTimes;
+    }
+
+    private long readRuleSetVersion() {
+        return ruleSetVersionStore != null ? ruleSetVersionStore.getVersion() : 0L;
+    }
+
+    /**
+     * Check that the rule set version read before the rules were loaded has not moved since
+     *
+     * @return the version, or 0 if a rule change committed while the rules were loaded
+     */
+    private long confirmRuleSetVersion(long ruleSetVersion) {
+        return readRuleSetVersion() == ruleSetVersion ? ruleSetVersion : 0L;
+    }
+
+    private void compile(ScoringRule rule, List<CompiledRule> compiledRules, List<ScoringRule> rejectedRules) {
+        try {
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        } catch (RuleCompilationException e) {
+            logger.warn("Skipping scoring rule {}: {}", rule.getId(), e.getMessage());
+            rejectedRules.add(rule);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.ScoringRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * RuleSetArchive backed by the {@code rule_set} and {@code rule_set_rule} tables.
+ * A version is written once, in its own transaction, by whichever instance first publishes it;
+ * the most recently used versions are kept in memory, as stored versions never change. A snapshot
+ * only counts as stored if the rules already stored under its version are its own rules.
+ */
+@Component
+public class JdbcRuleSetArchive implements RuleSetArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRuleSetArchive.class);
+
+    private static final int CACHED_VERSIONS = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Access-ordered, so the least recently used version is evicted first
+    private final Map<Long, List<ScoringRule>> rulesByVersion = new LinkedHashMap<>(CACHED_VERSIONS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<ScoringRule>> eldest) {
+            return size() > CACHED_VERSIONS;
+        }
+    };
+
+    // The snapshots found stored, held weakly so that replaced snapshots can still be collected
+    private final Set<RuleSetSnapshot> storedSnapshots = Collections.newSetFromMap(new WeakHashMap<>());
+
+    public JdbcRuleSetArchive(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Stored apart from the scoring transaction, so a version another instance stored first doesn't roll it back
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean store(RuleSetSnapshot snapshot) {
+        long ruleSetVersion = snapshot.getRuleSetVersion();
+        if (ruleSetVersion <= 0) {
+            return false;
+        }
+        if (isStored(snapshot)) {
+            return true;
+        }
+        List<ScoringRule> rules = snapshot.getRules();
+        List<ScoringRule> cached = getCached(ruleSetVersion);
+        if (cached != null) {
+            return markStored(snapshot, matches(ruleSetVersion, cached, rules));
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO rule_set (version, rule_count) VALUES (?, ?)", ruleSetVersion, rules.size());
+                jdbcTemplate.batchUpdate("INSERT INTO rule_set_rule (rule_set_version, rule_index, rule_id, name, field, "
+                        + "operator, rule_value, risk_points, priority) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                                ScoringRule rule = rules.get(i);
+                                statement.setLong(1, ruleSetVersion);
+                                statement.setInt(2, i);
+                                statement.setLong(3, rule.getId());
+                                statement.setString(4, rule.getName());
+                                statement.setString(5, rule.getField());
+                                statement.setString(6, rule.getOperator());
+                                statement.setString(7, rule.getRuleValue());
+                                statement.setInt(8, rule.getRiskPoints());
+                                statement.setInt(9, rule.getPriority());
+                            }
+                            
+                            @Override
+                            public int getBatchSize() {
+                                return rules.size();
+                            }
+                        });
+            });
+            logger.info("Stored rule set version {} with {} rules", ruleSetVersion, rules.size());
+            cache(ruleSetVersion, rules);
+            return markStored(snapshot, true);
+        } catch (DuplicateKeyException e) {
+            // Another instance stored this version first; cache its rules so the insert isn't tried again
+            logger.debug("Rule set version {} is already stored", ruleSetVersion);
+            List<ScoringRule> stored = loadRules(ruleSetVersion);
+            cache(ruleSetVersion, stored);
+            return markStored(snapshot, matches(ruleSetVersion, stored, rules));
+        }
+    }
+
+    @Override
+    public synchronized boolean isStored(RuleSetSnapshot snapshot) {
+        return storedSnapshots.contains(snapshot);
+    }
+
+    private synchronized boolean markStored(RuleSetSnapshot snapshot, boolean stored) {
+        if (stored) {
+            storedSnapshots.add(snapshot);
+        }
+        return stored;
+    }
+
+    /**
+     * Check that the rules stored under a version are the snapshot's rules, index by index.
+     * Rules edited directly in the database don't move the version, so the version alone doesn't prove it.
+     */
+    private static boolean matches(long ruleSetVersion, List<ScoringRule> stored, List<ScoringRule> rules) {
+        boolean matches = stored.size() == rules.size();
+        for (int i = 0; matches && i < rules.size(); i++) {
+            ScoringRule storedRule = stored.get(i);
+            ScoringRule rule = rules.get(i);
+            matches = Objects.equals(storedRule.getId(), rule.getId())
+                    && Objects.equals(storedRule.getField(), rule.getField())
+                    && Objects.equals(storedRule.getOperator(), rule.getOperator())
+                    && Objects.equals(storedRule.getRuleValue(), rule.getRuleValue())
+                    && Objects.equals(storedRule.getRiskPoints(), rule.getRiskPoints());
+        }
+        if (!matches) {
+            logger.warn("Rule set version {} is stored with other rules than the snapshot's", ruleSetVersion);
+        }
+        return matches;
+    }
+
+    @Override
+    public List<ScoringRule> getRules(long ruleSetVersion) {
+        List<ScoringRule> rules = getCached(ruleSetVersion);
+        if (rules != null) {
+            return rules;
+        }
+        
+        rules = loadRules(ruleSetVersion);
+        if (!rules.isEmpty()) {
+            cache(ruleSetVersion, rules);
+        }
+        return List.copyOf(rules);
+    }
+
+    private List<ScoringRule> loadRules(long ruleSetVersion) {
+        return jdbcTemplate.query("SELECT rule_id, name, field, operator, rule_value, risk_points, priority "
+                        + "FROM rule_set_rule WHERE rule_set_version = ? ORDER BY rule_index",
+                (resultSet, rowNum) -> ScoringRule.builder()
+                        .id(resultSet.getLong("rule_id"))
+                        .name(resultSet.getString("name"))
+                        .field(resultSet.getString("field"))
+                        .operator(resultSet.getString("operator"))
+                        .ruleValue(resultSet.getString("rule_value"))
+                        .riskPoints(resultSet.getInt("risk_points"))
+                        .priority(resultSet.getInt("priority"))
+                        .enabled(true)
+                        .build(),
+                ruleSetVersion);
+    }
+
+    private synchronized List<ScoringRule> getCached(long ruleSetVersion) {
+        return rulesByVersion.get(ruleSetVersion);
+    }
+
+    private synchronized void cache(long ruleSetVersion, List<ScoringRule> rules) {
+        rulesByVersion.put(ruleSetVersion, List.copyOf(rules));
+    }
+}
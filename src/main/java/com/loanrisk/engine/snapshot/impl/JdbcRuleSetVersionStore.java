@@ -0,0 +1,37 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.snapshot.RuleSetVersionStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * RuleSetVersionStore backed by the single row of the {@code rule_set_version} table.
+ * JdbcTemplate joins the connection of the surrounding JPA transaction, so an increment
+ * commits or rolls back together with the rule change that caused it.
+ */
+@Component
+public class JdbcRuleSetVersionStore implements RuleSetVersionStore {
+
+    private static final String SELECT_VERSION = "SELECT version FROM rule_set_version WHERE id = 1";
+    private static final String INCREMENT_VERSION =
+            "UPDATE rule_set_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRuleSetVersionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long getVersion() {
+        Long version = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+        return version != null ? version : 0L;
+    }
+
+    @Override
+    public long increment() {
+        // The update locks the row until the transaction ends, so the version read back is this transaction's
+        jdbcTemplate.update(INCREMENT_VERSION);
+        return getVersion();
+    }
+}
@@ -0,0 +1,50 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.snapshot.RuleSetChangeChannel;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetVersionStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * RuleSetChangeChannel for databases without notifications, such as H2: every instance reads the
+ * rule set version at a fixed delay ({@code loanrisk.rules.channel.poll-interval-ms}, 1 second by
+ * default) and refreshes its snapshot when the version moved past the snapshot's.
+ * This is the default channel; {@code loanrisk.rules.channel=postgres} selects {@link PostgresRuleSetChangeChannel}.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.rules.channel", havingValue = "polling", matchIfMissing = true)
+public class PollingRuleSetChangeChannel implements RuleSetChangeChannel {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollingRuleSetChangeChannel.class);
+
+    private final RuleSetVersionStore ruleSetVersionStore;
+    private final RuleSetProvider ruleSetProvider;
+
+    public PollingRuleSetChangeChannel(RuleSetVersionStore ruleSetVersionStore, RuleSetProvider ruleSetProvider) {
+        this.ruleSetVersionStore = ruleSetVersionStore;
+        this.ruleSetProvider = ruleSetProvider;
+    }
+
+    @Override
+    public void publish(long version) {
+        // The version itself is the message; the other instances read it on their next poll
+    }
+
+    @Scheduled(initialDelayString = "${loanrisk.rules.channel.poll-interval-ms:1000}",
+            fixedDelayString = "${loanrisk.rules.channel.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            long version = ruleSetVersionStore.getVersion();
+            if (version > ruleSetProvider.getSnapshot().getRuleSetVersion()) {
+                ruleSetProvider.refresh();
+            }
+        } catch (RuntimeException e) {
+            // Evaluations keep using the current snapshot until a later poll succeeds
+            logger.warn("Could not check the rule set version", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.snapshot.RuleSetChangeChannel;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * RuleSetChangeChannel over PostgreSQL LISTEN/NOTIFY. A rule change sends a notification in its own
+ * transaction, which PostgreSQL delivers only once that transaction commits; every instance keeps one
+ * connection listening on the channel and refreshes its snapshot when a notification arrives.
+ * Enabled with {@code loanrisk.rules.channel=postgres}.
+ * <p>
+ * The listening connection is reopened after a failure, and the snapshot is refreshed every time it is
+ * opened so that changes announced while it was down are not missed.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.rules.channel", havingValue = "postgres")
+public class PostgresRuleSetChangeChannel implements RuleSetChangeChannel, SmartLifecycle {
+
+    static final String CHANNEL = "rule_set_changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresRuleSetChangeChannel.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final RuleSetProvider ruleSetProvider;
+    private final int pollTimeoutMs;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresRuleSetChangeChannel(JdbcTemplate jdbcTemplate, DataSource dataSource, RuleSetProvider ruleSetProvider,
+                                        @Value("${loanrisk.rules.channel.poll-interval-ms:1000}") int pollTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.ruleSetProvider = ruleSetProvider;
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    @Override
+    public void publish(long version) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, Long.toString(version));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "rule-set-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // The driver is only on the runtime classpath
+                Class<?> pgConnectionType = Class.forName("org.postgresql.PGConnection");
+                Object pgConnection = connection.unwrap(pgConnectionType);
+                Method getNotifications = pgConnectionType.getMethod("getNotifications", int.class);
+                logger.info("Listening for rule set changes on channel {}", CHANNEL);
+                refresh();
+                
+                while (running) {
+                    // Blocks for up to the timeout; several notifications arriving together need one refresh
+                    Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        refresh();
+                    }
+                }
+            } catch (SQLException | ReflectiveOperationException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                logger.warn("Lost the rule set change listener connection, reconnecting", cause);
+                try {
+                    Thread.sleep(pollTimeoutMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void refresh() {
+        try {
+            ruleSetProvider.refresh();
+        } catch (RuntimeException e) {
+            // Evaluations keep using the current snapshot until the next notification or scheduled refresh
+            logger.warn("Could not refresh the scoring rules", e);
+        }
+    }
+}
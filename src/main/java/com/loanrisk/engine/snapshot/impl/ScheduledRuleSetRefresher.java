@@ -0,0 +1,39 @@
+package com.loanrisk.engine.snapshot.impl;
+
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that refreshes the rule set snapshot at a fixed delay
+ * ({@code loanrisk.rules.refresh.interval-ms}, 60 seconds by default). Changes made through any
+ * instance reach the others through the {@link com.loanrisk.engine.snapshot.RuleSetChangeChannel};
+ * this job picks up the ones made directly in the database, which don't move the rule set version.
+ * Disabled with {@code loanrisk.rules.refresh.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.rules.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ScheduledRuleSetRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledRuleSetRefresher.class);
+
+    private final RuleSetProvider ruleSetProvider;
+
+    public ScheduledRuleSetRefresher(RuleSetProvider ruleSetProvider) {
+        this.ruleSetProvider = ruleSetProvider;
+    }
+
+    @Scheduled(initialDelayString = "${loanrisk.rules.refresh.interval-ms:60000}",
+            fixedDelayString = "${loanrisk.rules.refresh.interval-ms:60000}")
+    public void refresh() {
+        try {
+            ruleSetProvider.refresh();
+        } catch (RuntimeException e) {
+            // Evaluations keep using the current snapshot until a later refresh succeeds
+            logger.warn("Could not refresh the scoring rules", e);
+        }
+    }
+}
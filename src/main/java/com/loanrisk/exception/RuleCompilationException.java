@@ -0,0 +1,22 @@
+package com.loanrisk.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a scoring rule cannot be compiled for evaluation
+ */
+public class RuleCompilationException extends CustomException {
+    
+    private static final HttpStatus STATUS = HttpStatus.UNPROCESSABLE_ENTITY;
+    private static final String ERROR_CODE = "INVALID_SCORING_RULE";
+    
+    public RuleCompilationException(String ruleName, String reason) {
+        super(String.format("Scoring rule '%s' cannot be compiled: %s", ruleName, reason), 
+              STATUS, ERROR_CODE);
+    }
+    
+    public RuleCompilationException(String ruleName, String reason, Throwable cause) {
+        super(String.format("Scoring rule '%s' cannot be compiled: %s", ruleName, reason), 
+              STATUS, ERROR_CODE, cause);
+    }
+}
@@ -0,0 +1,20 @@
+package com.loanrisk.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when the service is too busy to accept a request
+ */
+public class ServiceUnavailableException extends CustomException {
+
+    private static final HttpStatus STATUS = HttpStatus.SERVICE_UNAVAILABLE;
+    private static final String ERROR_CODE = "SERVICE_UNAVAILABLE";
+
+    public ServiceUnavailableException(String message) {
+        super(message, STATUS, ERROR_CODE);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, STATUS, ERROR_CODE, cause);
+    }
+}
@@ -0,0 +1,26 @@
+package com.loanrisk.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The outcome of one line of a customer import: CREATED with the customer's ID, INVALID with the
+ * validation errors, or FAILED with the reason the database rejected it
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerImportRowResultDto {
+
+    private Long line;
+    private String status;
+    private Long customerId;
+    private List<String> errors;
+}
@@ -0,0 +1,19 @@
+package com.loanrisk.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportSummaryDto {
+
+    private Long rowCount;
+    private Long createdCount;
+    private Long invalidCount;
+    private Long failedCount;
+    private Long durationMs;
+}
@@ -24,6 +24,7 @@ public class LoanApplicationResponseDto {
     private String riskLevel;
     private String decision;
     private String explanation;
+    private Long ruleSetVersion;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
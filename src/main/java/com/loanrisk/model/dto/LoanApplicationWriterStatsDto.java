@@ -0,0 +1,23 @@
+package com.loanrisk.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanApplicationWriterStatsDto {
+
+    private Boolean groupCommit;
+    private Integer queueDepth;
+    private Integer queueCapacity;
+    private Long batchCount;
+    private Long rowCount;
+    private Double averageBatchSize;
+    private Integer lastBatchSize;
+    private Integer maxBatchSize;
+    private Long rejectedCount;
+}
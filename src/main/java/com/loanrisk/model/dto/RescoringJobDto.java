@@ -0,0 +1,29 @@
+package com.loanrisk.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RescoringJobDto {
+
+    private Long jobId;
+    private String status;
+    private Long ruleSetVersion;
+    private Integer rescoredRuleSetVersions;
+    private Long rescoredApplications;
+    private Integer skippedRuleSetVersions;
+    private Long skippedApplications;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private String error;
+}
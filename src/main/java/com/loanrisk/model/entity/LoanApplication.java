@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class LoanApplication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_application_seq")
+    @SequenceGenerator(name = "loan_application_seq", sequenceName = "loan_application_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "Customer is required")
@@ -55,6 +56,13 @@ public class LoanApplication {
     @Column(name = "explanation", columnDefinition = "TEXT")
     private String explanation;
 
+    @Column(name = "rule_set_version")
+    private Long ruleSetVersion;
+
+    // Bitmap over the indexes of the rules stored under the rule set version, as BitSet.toByteArray() encodes it
+    @Column(name = "triggered_rules")
+    private byte[] triggeredRules;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -1,5 +1,6 @@
 package com.loanrisk.model.entity;
 
+import com.loanrisk.engine.snapshot.ScoringRuleChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "scoring_rule")
+@EntityListeners(ScoringRuleChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class ScoringRule {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scoring_rule_seq")
+    @SequenceGenerator(name = "scoring_rule_seq", sequenceName = "scoring_rule_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name is required")
@@ -0,0 +1,64 @@
+package com.loanrisk.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Inserting new entities in batches, shared by the batched writers
+ */
+public final class BatchInserts {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchInserts.class);
+
+    private BatchInserts() {
+    }
+
+    /**
+     * Save new entities in one transaction, so either all of them or none are saved
+     *
+     * @param clearId clears the ID of an entity, called on every entity if the transaction fails
+     */
+    public static <T> void saveAll(TransactionTemplate transactionTemplate, CrudRepository<T, ?> repository,
+                                   List<T> entities, Consumer<? super T> clearId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAll(entities));
+        } catch (RuntimeException e) {
+            // The IDs were given out before the failed insert, so a retry would be taken for an update
+            entities.forEach(clearId);
+            throw e;
+        }
+    }
+
+    /**
+     * Insert a batch, and if it fails, insert its items one at a time, so only the items that fail on their own fail
+     *
+     * @param insert inserts some of the items together
+     * @param fail records the failure of an item
+     * @param description what the items are, for the log
+     */
+    public static <T> void insertOrRetryEach(List<T> batch, Consumer<List<T>> insert,
+                                             BiConsumer<? super T, RuntimeException> fail, String description) {
+        try {
+            insert.accept(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail.accept(batch.get(0), e);
+                return;
+            }
+            logger.warn("Could not insert a batch of {} {}, inserting them one at a time", batch.size(), description, e);
+            for (T item : batch) {
+                try {
+                    insert.accept(List.of(item));
+                } catch (RuntimeException itemFailure) {
+                    fail.accept(item, itemFailure);
+                }
+            }
+        }
+    }
+}
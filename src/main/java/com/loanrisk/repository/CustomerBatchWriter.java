@@ -0,0 +1,19 @@
+package com.loanrisk.repository;
+
+import com.loanrisk.model.entity.Customer;
+
+import java.util.List;
+
+/**
+ * Inserts the customers of a bulk import in batches
+ */
+public interface CustomerBatchWriter {
+
+    /**
+     * Insert new customers in one transaction, so either all of them or none are saved
+     * 
+     * @param customers the new customers
+     * @return the ID given to each customer, in order
+     */
+    List<Long> insert(List<Customer> customers);
+}
@@ -2,10 +2,13 @@ package com.loanrisk.repository;
 
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -13,34 +16,86 @@ import java.util.List;
 
 @Repository
 public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long> {
-    
+
     // Find loan applications by customer
     List<LoanApplication> findByCustomer(Customer customer);
-    
+
     // Find loan applications by customer ID
     List<LoanApplication> findByCustomerId(Long customerId);
-    
+
     // Find loan applications by risk level
     List<LoanApplication> findByRiskLevel(String riskLevel);
-    
+
     // Find loan applications by decision
     List<LoanApplication> findByDecision(String decision);
-    
+
     // Find loan applications by loan purpose (case-insensitive partial match)
     List<LoanApplication> findByLoanPurposeContainingIgnoreCase(String loanPurpose);
-    
+
     // Find loan applications with loan amount between min and max
     List<LoanApplication> findByLoanAmountBetween(BigDecimal minAmount, BigDecimal maxAmount);
-    
+
     // Find loan applications with risk score greater than or equal to specified value
     List<LoanApplication> findByRiskScoreGreaterThanEqual(Integer minRiskScore);
-    
+
     // Find loan applications created between start and end dates
     List<LoanApplication> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    
+
     // Custom query to find applications with high risk score and large loan amounts
     @Query("SELECT la FROM LoanApplication la WHERE la.riskScore >= :minRiskScore AND la.loanAmount >= :minAmount")
     List<LoanApplication> findHighRiskHighValueApplications(
             @Param("minRiskScore") Integer minRiskScore, 
             @Param("minAmount") BigDecimal minAmount);
+
+    // Count the evaluated applications per rule set version and combination of triggered rules, from the index alone
+    @Query("SELECT la.ruleSetVersion AS ruleSetVersion, la.triggeredRules AS triggeredRules, COUNT(la) AS applicationCount "
+            + "FROM LoanApplication la WHERE la.ruleSetVersion IS NOT NULL GROUP BY la.ruleSetVersion, la.triggeredRules")
+    List<TriggeredRuleCount> countByTriggeredRules();
+
+    // IDs above afterId, in order, of up to limit applications scored by a rule set version with the same triggered rules that are not re-scored yet
+    @Query("SELECT la.id FROM LoanApplication la "
+            + "WHERE la.ruleSetVersion = :ruleSetVersion AND la.triggeredRules = :triggeredRules AND la.id > :afterId "
+            + "AND (la.riskScore <> :riskScore OR la.riskLevel <> :riskLevel OR la.decision <> :decision "
+            + "OR la.ruleSetVersion <> :newRuleSetVersion) ORDER BY la.id")
+    List<Long> findIdsToRescore(
+            @Param("ruleSetVersion") Long ruleSetVersion,
+            @Param("triggeredRules") byte[] triggeredRules,
+            @Param("afterId") Long afterId,
+            @Param("newRuleSetVersion") Long newRuleSetVersion,
+            @Param("riskScore") Integer riskScore,
+            @Param("riskLevel") String riskLevel,
+            @Param("decision") String decision,
+            Limit limit);
+
+    // Re-score the applications of findIdsToRescore from afterId up to lastId, skipping any evaluated again since
+    @Modifying
+    @Transactional
+    @Query("UPDATE LoanApplication la SET la.riskScore = :riskScore, la.riskLevel = :riskLevel, la.decision = :decision, "
+            + "la.ruleSetVersion = :newRuleSetVersion, la.triggeredRules = :newTriggeredRules, la.updatedAt = CURRENT_TIMESTAMP "
+            + "WHERE la.ruleSetVersion = :ruleSetVersion AND la.triggeredRules = :triggeredRules "
+            + "AND la.id > :afterId AND la.id <= :lastId "
+            + "AND (la.riskScore <> :riskScore OR la.riskLevel <> :riskLevel OR la.decision <> :decision "
+            + "OR la.ruleSetVersion <> :newRuleSetVersion)")
+    int rescoreIdRange(
+            @Param("ruleSetVersion") Long ruleSetVersion,
+            @Param("triggeredRules") byte[] triggeredRules,
+            @Param("afterId") Long afterId,
+            @Param("lastId") Long lastId,
+            @Param("newRuleSetVersion") Long newRuleSetVersion,
+            @Param("newTriggeredRules") byte[] newTriggeredRules,
+            @Param("riskScore") Integer riskScore,
+            @Param("riskLevel") String riskLevel,
+            @Param("decision") String decision);
+
+    /**
+     * Number of loan applications scored by a rule set version with the same triggered rules
+     */
+    interface TriggeredRuleCount {
+
+        Long getRuleSetVersion();
+        
+        byte[] getTriggeredRules();
+        
+        Long getApplicationCount();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.loanrisk.repository;
+
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
+import com.loanrisk.model.entity.LoanApplication;
+
+import java.util.function.Supplier;
+
+/**
+ * Inserts new, already evaluated loan applications
+ */
+public interface LoanApplicationWriter {
+
+    /**
+     * Evaluate a new loan application and insert it, returning once its insert is committed.
+     * Each writer decides whether the evaluation runs in the same transaction as the insert,
+     * so the caller must not hold a transaction.
+     * 
+     * @param evaluation reads the customer and returns the new, evaluated loan application
+     * @return the inserted loan application, with its generated ID
+     * @throws com.loanrisk.exception.ServiceUnavailableException if the writer cannot accept it in time
+     */
+    LoanApplication insert(Supplier<LoanApplication> evaluation);
+
+    /**
+     * Get the queue depth and batch sizes of the inserts so far
+     * 
+     * @return the writer statistics
+     */
+    LoanApplicationWriterStatsDto getStats();
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -43,4 +44,18 @@ public interface ScoringRuleRepository extends JpaRepository<ScoringRule, Long>
     // Custom query to find high priority enabled rules
     @Query("SELECT sr FROM ScoringRule sr WHERE sr.enabled = true AND sr.priority <= :maxPriority ORDER BY sr.priority ASC")
     List<ScoringRule> findHighPriorityEnabledRules(Integer maxPriority);
+    
+    // Find the id and last update time of every enabled rule, to detect rule changes without loading the rules
+    @Query("SELECT sr.id AS id, sr.updatedAt AS updatedAt FROM ScoringRule sr WHERE sr.enabled = true")
+    List<RuleVersion> findEnabledRuleVersions();
+    
+    /**
+     * The id and last update time of a scoring rule
+     */
+    interface RuleVersion {
+        
+        Long getId();
+        
+        LocalDateTime getUpdatedAt();
+    }
 }
\ No newline at end of file
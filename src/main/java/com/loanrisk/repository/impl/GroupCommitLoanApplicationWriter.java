@@ -0,0 +1,287 @@
+package com.loanrisk.repository.impl;
+
+import com.loanrisk.exception.ServiceUnavailableException;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.repository.BatchInserts;
+import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.repository.LoanApplicationWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * LoanApplicationWriter that commits the inserts of concurrent requests together.
+ * Enabled with {@code loanrisk.persistence.group-commit.enabled=true}.
+ * <p>
+ * Each request queues its loan application and waits. A single writer thread takes the first queued
+ * loan application, collects more for up to {@code max-delay-ms} or until it has {@code max-batch-size},
+ * inserts them in one transaction, sent as JDBC batches, and then releases every waiting request at once.
+ * If a batch fails, its rows are retried one at a time, so only the rows that fail on their own fail.
+ * <p>
+ * The queue holds at most {@code queue-capacity} loan applications. When it is full, a request waits up to
+ * {@code offer-timeout-ms} for room and is then rejected with a 503, so requests slow down to the rate the
+ * database can commit instead of piling up in memory.
+ * <p>
+ * The trade-off: each request evaluates its loan application outside any transaction, before queueing it,
+ * so no request holds a connection while it waits for its batch. The customer is read in its own short
+ * transaction, and a change to it that commits between that read and the batch insert is not seen by the
+ * score. The default JpaLoanApplicationWriter reads, evaluates and inserts in one transaction instead.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.persistence.group-commit.enabled", havingValue = "true")
+public class GroupCommitLoanApplicationWriter implements LoanApplicationWriter, SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitLoanApplicationWriter.class);
+
+    // How long the writer waits for a first loan application before checking whether it has been stopped
+    private static final long IDLE_POLL_MS = 100;
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingInsert> queue;
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long offerTimeoutMs;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    // Only written by the writer thread
+    private volatile int lastBatchSize;
+    private volatile int largestBatchSize;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitLoanApplicationWriter(LoanApplicationRepository loanApplicationRepository, PlatformTransactionManager transactionManager,
+                                            @Value("${loanrisk.persistence.group-commit.queue-capacity:1000}") int queueCapacity,
+                                            @Value("${loanrisk.persistence.group-commit.max-batch-size:100}") int maxBatchSize,
+                                            @Value("${loanrisk.persistence.group-commit.max-delay-ms:2}") long maxDelayMs,
+                                            @Value("${loanrisk.persistence.group-commit.offer-timeout-ms:1000}") long offerTimeoutMs) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    @Override
+    public LoanApplication insert(Supplier<LoanApplication> evaluation) {
+        if (!running) {
+            throw new ServiceUnavailableException("Loan applications cannot be saved while the service is stopping");
+        }
+        
+        PendingInsert pending = new PendingInsert(evaluation.get());
+        try {
+            if (!queue.offer(pending, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCount.incrementAndGet();
+                throw new ServiceUnavailableException("Too many loan applications are waiting to be saved, try again later");
+            }
+            return await(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while saving the loan application", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Could not save the loan application", e.getCause());
+        }
+    }
+
+    private LoanApplication await(PendingInsert pending) throws InterruptedException, ExecutionException {
+        while (true) {
+            try {
+                return pending.result.get(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Queued just as the writer stopped, after its last look at the queue
+                if (!running && !isWriterAlive() && queue.remove(pending)) {
+                    throw new ServiceUnavailableException("Loan applications cannot be saved while the service is stopping");
+                }
+            }
+        }
+    }
+
+    @Override
+    public LoanApplicationWriterStatsDto getStats() {
+        long batches = batchCount.get();
+        long rows = rowCount.get();
+        return LoanApplicationWriterStatsDto.builder()
+                .groupCommit(true)
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .batchCount(batches)
+                .rowCount(rows)
+                .averageBatchSize(batches > 0 ? (double) rows / batches : 0.0)
+                .lastBatchSize(lastBatchSize)
+                .maxBatchSize(largestBatchSize)
+                .rejectedCount(rejectedCount.get())
+                .build();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeQueued, "loan-application-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop accepting loan applications and wait for the queued ones to be written
+     */
+    @Override
+    public void stop() {
+        Thread stopping;
+        synchronized (this) {
+            running = false;
+            stopping = writer;
+        }
+        if (stopping != null) {
+            try {
+                stopping.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server accepts requests, and stop only once it has finished them
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private synchronized boolean isWriterAlive() {
+        return writer != null && writer.isAlive();
+    }
+
+    private void writeQueued() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop, so the queued loan applications are still written
+                logger.warn("Loan application writer interrupted while collecting a batch");
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Take the first queued loan application, then as many more as arrive within the delay, up to the batch size
+     */
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        PendingInsert first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingInsert> batch) {
+        BatchInserts.insertOrRetryEach(batch, this::insertAll,
+                (pending, e) -> pending.result.completeExceptionally(e), "loan applications");
+    }
+
+    /**
+     * Insert and commit a batch, then give each loan application its ID and release its request
+     */
+    private void insertAll(List<PendingInsert> batch) {
+        List<LoanApplication> loanApplications = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (PendingInsert pending : batch) {
+            pending.loanApplication.setCreatedAt(now);
+            pending.loanApplication.setUpdatedAt(now);
+            loanApplications.add(pending.loanApplication);
+        }
+        
+        long[] ids = insertBatch(loanApplications);
+        
+        lastBatchSize = batch.size();
+        largestBatchSize = Math.max(largestBatchSize, batch.size());
+        batchCount.incrementAndGet();
+        rowCount.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingInsert pending = batch.get(i);
+            pending.loanApplication.setId(ids[i]);
+            pending.result.complete(pending.loanApplication);
+        }
+    }
+
+    /**
+     * Insert loan applications in one transaction. Their IDs come from the sequence in blocks,
+     * so Hibernate sends the inserts as JDBC batches when the transaction commits.
+     *
+     * @return the ID of each loan application, in order
+     */
+    protected long[] insertBatch(List<LoanApplication> loanApplications) {
+        BatchInserts.saveAll(transactionTemplate, loanApplicationRepository, loanApplications,
+                loanApplication -> loanApplication.setId(null));
+        
+        long[] ids = new long[loanApplications.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = loanApplications.get(i).getId();
+        }
+        return ids;
+    }
+
+    private static final class PendingInsert {
+
+        private final LoanApplication loanApplication;
+        private final CompletableFuture<LoanApplication> result = new CompletableFuture<>();
+        
+        private PendingInsert(LoanApplication loanApplication) {
+            this.loanApplication = loanApplication;
+        }
+    }
+}
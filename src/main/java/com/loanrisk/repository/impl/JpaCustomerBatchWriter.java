@@ -0,0 +1,37 @@
+package com.loanrisk.repository.impl;
+
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.repository.BatchInserts;
+import com.loanrisk.repository.CustomerBatchWriter;
+import com.loanrisk.repository.CustomerRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * CustomerBatchWriter that saves each batch through the repository in its own transaction. The IDs come
+ * from the customer sequence in blocks, so Hibernate sends the inserts as JDBC batches when the transaction
+ * commits, and the persistence context is dropped with the transaction so memory does not grow with the import.
+ * Used unless {@code loanrisk.customers.import.writer=copy}.
+ */
+@Component
+@ConditionalOnProperty(name = "loanrisk.customers.import.writer", havingValue = "jpa", matchIfMissing = true)
+public class JpaCustomerBatchWriter implements CustomerBatchWriter {
+
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public JpaCustomerBatchWriter(CustomerRepository customerRepository, PlatformTransactionManager transactionManager) {
+        this.customerRepository = customerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<Long> insert(List<Customer> customers) {
+        BatchInserts.saveAll(transactionTemplate, customerRepository, customers, customer -> customer.setId(null));
+        return customers.stream().map(Customer::getId).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.loanrisk.service;
+
+import com.loanrisk.model.dto.CustomerImportRowResultDto;
+import com.loanrisk.model.dto.CustomerImportSummaryDto;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for importing customers in bulk
+ */
+public interface CustomerImportService {
+
+    /**
+     * The formats an import can be read from
+     */
+    enum Format {
+        /** One JSON customer per line, with the fields of a customer request */
+        NDJSON,
+        /** A header line naming the customer request fields, then one customer per line */
+        CSV
+    }
+
+    /**
+     * Import customers, reading one row at a time and saving the valid ones in batches. Each batch is
+     * committed on its own, so the rows reported CREATED stay saved if a later batch fails.
+     * 
+     * @param reader the rows to import
+     * @param format the format of the rows
+     * @param results receives the result of every row, in row order, once per batch
+     * @return the number of rows read, created, invalid and failed
+     * @throws IOException if the rows cannot be read
+     */
+    CustomerImportSummaryDto importCustomers(Reader reader, Format format,
+                                             Consumer<List<CustomerImportRowResultDto>> results) throws IOException;
+}
@@ -2,11 +2,13 @@ package com.loanrisk.service;
 
 import com.loanrisk.model.dto.LoanApplicationRequestDto;
 import com.loanrisk.model.dto.LoanApplicationResponseDto;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
 import com.loanrisk.model.entity.Customer;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for managing loan application operations
@@ -21,6 +23,15 @@ public interface LoanApplicationService {
      */
     LoanApplicationResponseDto createLoanApplication(LoanApplicationRequestDto loanApplicationRequestDto);
     
+    /**
+     * Create and evaluate a loan application, inserting it already scored with a single INSERT.
+     * The insert may be committed together with those of concurrent requests.
+     * 
+     * @param loanApplicationRequestDto the loan application data
+     * @return the evaluated loan application
+     */
+    LoanApplicationResponseDto applyForLoan(LoanApplicationRequestDto loanApplicationRequestDto);
+    
     /**
      * Get a loan application by ID
      * 
@@ -134,4 +145,18 @@ public interface LoanApplicationService {
      * @return the evaluated loan application
      */
     LoanApplicationResponseDto evaluateLoanApplication(Long id);
+    
+    /**
+     * Count the evaluated loan applications that triggered each scoring rule, across every rule set version
+     * 
+     * @return map of scoring rule ID to the number of loan applications that triggered it
+     */
+    Map<Long, Long> countLoanApplicationsByTriggeredRule();
+    
+    /**
+     * Get the queue depth and batch sizes of the loan application inserts
+     * 
+     * @return the loan application writer statistics
+     */
+    LoanApplicationWriterStatsDto getWriterStats();
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.loanrisk.service;
 
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
@@ -13,13 +15,64 @@ import java.util.Map;
 public interface LoanEvaluationService {
     
     /**
-     * Evaluate a loan application and determine risk score, risk level, and decision
+     * Evaluate a loan application and determine risk score, risk level, and decision.
+     * The loan application records the rule set version that scored it and its triggered rules, and the
+     * explanation is rendered when it is read ({@link #renderExplanation(LoanApplication)}); if the rule set
+     * version cannot be stored, the explanation is rendered and stored instead.
      * 
      * @param loanApplication the loan application to evaluate
      * @return the updated loan application with risk score, risk level, and decision
      */
     LoanApplication evaluateLoanApplication(LoanApplication loanApplication);
     
+    /**
+     * Evaluate many loan applications against the same rule set, like {@link #evaluateLoanApplication(LoanApplication)}
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @return the updated loan applications, in input order
+     */
+    List<LoanApplication> evaluateLoanApplications(List<LoanApplication> loanApplications, boolean parallel);
+    
+    /**
+     * Evaluate a loan application without updating it. The explanation is only rendered if the
+     * result's {@link EvaluationResult#getExplanation()} is called.
+     * 
+     * @param loanApplication the loan application to evaluate
+     * @return the triggered rules, risk score, risk level and decision of the loan application
+     */
+    EvaluationResult evaluate(LoanApplication loanApplication);
+    
+    /**
+     * Evaluate a loan application without updating it, evaluating as much of the rule set as a mode requires.
+     * Pre-screening can use {@link EvaluationMode#DECISION_ONLY} to stop once the decision is fixed.
+     * 
+     * @param loanApplication the loan application to evaluate
+     * @param mode whether to evaluate every rule or to stop once the decision is fixed
+     * @return the evaluation result, which is partial, with an explanation saying so, if the evaluation stopped early
+     */
+    EvaluationResult evaluate(LoanApplication loanApplication, EvaluationMode mode);
+    
+    /**
+     * Evaluate many loan applications against the same rule set without updating them, like {@link #evaluate(LoanApplication)}.
+     * Jobs that only need risk scores and decisions should use this rather than {@link #evaluateLoanApplications(List, boolean)}.
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @return the evaluation result of each loan application, in input order
+     */
+    List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel);
+    
+    /**
+     * Evaluate many loan applications against the same rule set without updating them, like {@link #evaluate(LoanApplication, EvaluationMode)}
+     * 
+     * @param loanApplications the loan applications to evaluate
+     * @param parallel whether to split the loan applications across the common ForkJoin pool
+     * @param mode whether to evaluate every rule or to stop once the decision is fixed
+     * @return the evaluation result of each loan application, in input order
+     */
+    List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel, EvaluationMode mode);
+    
     /**
      * Get the triggered rules for a loan application
      * 
@@ -46,4 +99,23 @@ public interface LoanEvaluationService {
      * @return explanation string
      */
     String generateExplanation(LoanApplication loanApplication, List<ScoringRule> triggeredRules, Map<String, Object> derivedFields);
+    
+    /**
+     * Get the explanation of an evaluated loan application: the stored explanation, or one rendered
+     * from the rules of the rule set version that scored it. A rendered explanation holds only what was
+     * stored with the loan application: its loan details, triggered rules, risk score, risk level and
+     * decision, and not the customer's values or derived fields, which may have changed since.
+     * 
+     * @param loanApplication the evaluated loan application
+     * @return explanation string, or null if the loan application has not been evaluated
+     */
+    String renderExplanation(LoanApplication loanApplication);
+    
+    /**
+     * Get the triggered rules of an evaluated loan application as they were when it was scored
+     * 
+     * @param loanApplication the evaluated loan application
+     * @return list of triggered rules, empty if the loan application has no stored rule set version
+     */
+    List<ScoringRule> getStoredTriggeredRules(LoanApplication loanApplication);
 }
\ No newline at end of file
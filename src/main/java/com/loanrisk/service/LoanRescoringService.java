@@ -0,0 +1,33 @@
+package com.loanrisk.service;
+
+import com.loanrisk.model.dto.RescoringJobDto;
+
+/**
+ * Service interface for re-scoring stored loan application evaluations after risk points or
+ * risk level thresholds change, without evaluating any rule again
+ */
+public interface LoanRescoringService {
+
+    /**
+     * Start re-scoring, in the background, the loan applications whose stored rule set version has the same
+     * rule conditions as the current rule set: their triggered rules cannot have changed, so the risk score is
+     * summed again from the current risk points, and the risk level and decision are determined again from
+     * that score. Re-scored applications move to the current rule set version. Applications scored by a
+     * version whose rule conditions differ are left as they are, as they need a full evaluation.
+     * <p>
+     * Only one job runs at a time on an instance; while one is running, it is returned instead of starting another.
+     * 
+     * @return the started or running job
+     * @throws com.loanrisk.exception.BusinessRuleException if the current rule set has no version yet
+     */
+    RescoringJobDto startRescoring();
+
+    /**
+     * Get the progress, or the result once it has finished, of a re-scoring job started on this instance
+     * 
+     * @param jobId the job ID
+     * @return the job
+     * @throws com.loanrisk.exception.ResourceNotFoundException if this instance has no such job
+     */
+    RescoringJobDto getRescoringJob(Long jobId);
+}
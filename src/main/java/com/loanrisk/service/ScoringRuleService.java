@@ -129,7 +129,7 @@ public interface ScoringRuleService {
     ScoringRuleResponseDto disableRule(Long id);
     
     /**
-     * Apply scoring rules to a loan application
+     * Apply the enabled scoring rules to a loan application, as evaluated by the rule engine
      * 
      * @param loanApplication the loan application to evaluate
      * @return the total risk score
@@ -137,7 +137,7 @@ public interface ScoringRuleService {
     Integer applyRules(LoanApplication loanApplication);
     
     /**
-     * Get applicable rules for a loan application
+     * Get the enabled scoring rules a loan application triggers, in priority order
      * 
      * @param loanApplication the loan application
      * @return list of applicable rules
@@ -0,0 +1,294 @@
+package com.loanrisk.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.loanrisk.exception.BadRequestException;
+import com.loanrisk.model.dto.CustomerImportRowResultDto;
+import com.loanrisk.model.dto.CustomerImportSummaryDto;
+import com.loanrisk.model.dto.CustomerRequestDto;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.repository.BatchInserts;
+import com.loanrisk.repository.CustomerBatchWriter;
+import com.loanrisk.service.CustomerImportService;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Imports customers one line at a time, so memory holds at most one batch however large the upload is.
+ * Each line is validated against the CustomerRequestDto constraints, and the valid customers are saved
+ * with the CustomerBatchWriter every {@code loanrisk.customers.import.batch-size} lines (1000 by default).
+ * If a batch fails, its customers are saved one at a time, so only the ones that fail on their own fail.
+ */
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    static final String CREATED = "CREATED";
+    static final String INVALID = "INVALID";
+    static final String FAILED = "FAILED";
+
+    // CSV columns by their normalized header name: lower case, without underscores, dashes or spaces
+    private static final Map<String, BiConsumer<CustomerRequestDto, String>> CSV_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CSV_COLUMNS.put("name", CustomerRequestDto::setName);
+        CSV_COLUMNS.put("age", (request, value) -> request.setAge(Integer.valueOf(value)));
+        CSV_COLUMNS.put("annualincome", (request, value) -> request.setAnnualIncome(new BigDecimal(value)));
+        CSV_COLUMNS.put("creditscore", (request, value) -> request.setCreditScore(Integer.valueOf(value)));
+        CSV_COLUMNS.put("employmentstatus", CustomerRequestDto::setEmploymentStatus);
+        CSV_COLUMNS.put("existingdebt", (request, value) -> request.setExistingDebt(new BigDecimal(value)));
+    }
+
+    private final CustomerBatchWriter customerBatchWriter;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final int batchSize;
+
+    public CustomerImportServiceImpl(CustomerBatchWriter customerBatchWriter, Validator validator, ObjectMapper objectMapper,
+                                     @Value("${loanrisk.customers.import.batch-size:1000}") int batchSize) {
+        this.customerBatchWriter = customerBatchWriter;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CustomerRequestDto.class);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public CustomerImportSummaryDto importCustomers(Reader reader, Format format,
+                                                    Consumer<List<CustomerImportRowResultDto>> results) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedReader lines = reader instanceof BufferedReader bufferedReader ? bufferedReader : new BufferedReader(reader);
+        ImportRun run = new ImportRun(results);
+        
+        List<String> columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = readHeader(line);
+                continue;
+            }
+            run.add(readRow(lineNumber, line, format, columns));
+        }
+        run.flush();
+        
+        return CustomerImportSummaryDto.builder()
+                .rowCount(run.rowCount)
+                .createdCount(run.createdCount)
+                .invalidCount(run.invalidCount)
+                .failedCount(run.failedCount)
+                .durationMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * Map the CSV header to the customer request fields, rejecting the import if any field has no column
+     */
+    private static List<String> readHeader(String line) {
+        List<String> columns = new ArrayList<>();
+        for (String column : splitCsvLine(line)) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT).replaceAll("[_\\- ]", ""));
+        }
+        List<String> missing = CSV_COLUMNS.keySet().stream()
+                .filter(column -> !columns.contains(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("The CSV header has no column for " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private PendingRow readRow(long lineNumber, String line, Format format, List<String> columns) {
+        CustomerRequestDto request;
+        try {
+            request = format == Format.CSV ? readCsvRow(line, columns) : requestReader.readValue(line);
+            if (request == null) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+        } catch (JsonProcessingException e) {
+            return PendingRow.invalid(lineNumber, List.of("Malformed JSON: " + e.getOriginalMessage()));
+        } catch (IllegalArgumentException e) {
+            return PendingRow.invalid(lineNumber, List.of(e.getMessage()));
+        }
+        
+        List<String> errors = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+        if (!errors.isEmpty()) {
+            return PendingRow.invalid(lineNumber, errors);
+        }
+        return new PendingRow(lineNumber, mapToEntity(request));
+    }
+
+    private static CustomerRequestDto readCsvRow(String line, List<String> columns) {
+        List<String> values = splitCsvLine(line);
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but found " + values.size());
+        }
+        
+        CustomerRequestDto request = new CustomerRequestDto();
+        for (int i = 0; i < columns.size(); i++) {
+            BiConsumer<CustomerRequestDto, String> setter = CSV_COLUMNS.get(columns.get(i));
+            String value = values.get(i).trim();
+            // Other columns are ignored, and empty values are left missing for the validation to report
+            if (setter == null || value.isEmpty()) {
+                continue;
+            }
+            try {
+                setter.accept(request, value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(columns.get(i) + ": '" + value + "' is not a number");
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Split a CSV line on commas outside double quotes, where a doubled double quote stands for one.
+     * Quoted values cannot span lines.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static Customer mapToEntity(CustomerRequestDto dto) {
+        return Customer.builder()
+                .name(dto.getName())
+                .age(dto.getAge())
+                .annualIncome(dto.getAnnualIncome())
+                .creditScore(dto.getCreditScore())
+                .employmentStatus(dto.getEmploymentStatus())
+                .existingDebt(dto.getExistingDebt())
+                .build();
+    }
+
+    /**
+     * The lines read since the last batch was saved, and the counts so far
+     */
+    private final class ImportRun {
+
+        private final Consumer<List<CustomerImportRowResultDto>> results;
+        private final List<PendingRow> pending = new ArrayList<>(batchSize);
+        private long rowCount;
+        private long createdCount;
+        private long invalidCount;
+        private long failedCount;
+        
+        private ImportRun(Consumer<List<CustomerImportRowResultDto>> results) {
+            this.results = results;
+        }
+        
+        void add(PendingRow row) {
+            rowCount++;
+            pending.add(row);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        /**
+         * Save the valid customers of the pending lines, then hand on the result of every line
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<PendingRow> valid = pending.stream().filter(row -> row.customer != null).toList();
+            if (!valid.isEmpty()) {
+                write(valid);
+            }
+            
+            List<CustomerImportRowResultDto> batch = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                switch (row.result.getStatus()) {
+                    case CREATED -> createdCount++;
+                    case INVALID -> invalidCount++;
+                    default -> failedCount++;
+                }
+                batch.add(row.result);
+            }
+            pending.clear();
+            results.accept(batch);
+        }
+        
+        private void write(List<PendingRow> rows) {
+            BatchInserts.insertOrRetryEach(rows, this::insert, PendingRow::fail, "imported customers");
+        }
+        
+        private void insert(List<PendingRow> rows) {
+            List<Long> ids = customerBatchWriter.insert(rows.stream().map(row -> row.customer).toList());
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).result.setStatus(CREATED);
+                rows.get(i).result.setCustomerId(ids.get(i));
+            }
+        }
+    }
+
+    private static final class PendingRow {
+
+        private final CustomerImportRowResultDto result;
+        private final Customer customer;
+        
+        private PendingRow(long line, Customer customer) {
+            this.result = CustomerImportRowResultDto.builder().line(line).build();
+            this.customer = customer;
+        }
+        
+        static PendingRow invalid(long line, List<String> errors) {
+            PendingRow row = new PendingRow(line, null);
+            row.result.setStatus(INVALID);
+            row.result.setErrors(errors);
+            return row;
+        }
+        
+        void fail(RuntimeException e) {
+            result.setStatus(FAILED);
+            result.setErrors(List.of(NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+        }
+    }
+}
@@ -1,21 +1,29 @@
 package com.loanrisk.service.impl;
 
+import com.loanrisk.engine.snapshot.RuleSetArchive;
 import com.loanrisk.exception.ResourceNotFoundException;
 import com.loanrisk.model.dto.CustomerResponseDto;
 import com.loanrisk.model.dto.LoanApplicationRequestDto;
 import com.loanrisk.model.dto.LoanApplicationResponseDto;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
 import com.loanrisk.repository.CustomerRepository;
 import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.repository.LoanApplicationWriter;
 import com.loanrisk.service.LoanApplicationService;
+import com.loanrisk.service.LoanEvaluationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,13 +31,22 @@ public class LoanApplicationServiceImpl implements LoanApplicationService {
 
     private final LoanApplicationRepository loanApplicationRepository;
     private final CustomerRepository customerRepository;
+    private final LoanEvaluationService loanEvaluationService;
+    private final RuleSetArchive ruleSetArchive;
+    private final LoanApplicationWriter loanApplicationWriter;
 
     @Autowired
     public LoanApplicationServiceImpl(
             LoanApplicationRepository loanApplicationRepository,
-            CustomerRepository customerRepository) {
+            CustomerRepository customerRepository,
+            LoanEvaluationService loanEvaluationService,
+            RuleSetArchive ruleSetArchive,
+            LoanApplicationWriter loanApplicationWriter) {
         this.loanApplicationRepository = loanApplicationRepository;
         this.customerRepository = customerRepository;
+        this.loanEvaluationService = loanEvaluationService;
+        this.ruleSetArchive = ruleSetArchive;
+        this.loanApplicationWriter = loanApplicationWriter;
     }
 
     @Override
@@ -44,6 +61,24 @@ public class LoanApplicationServiceImpl implements LoanApplicationService {
         return mapToDto(savedLoanApplication);
     }
 
+    /**
+     * Not transactional here: the writer decides whether the customer read, the evaluation and the insert
+     * share one transaction, or whether the insert is committed together with those of other requests
+     */
+    @Override
+    public LoanApplicationResponseDto applyForLoan(LoanApplicationRequestDto loanApplicationRequestDto) {
+        LoanApplication savedLoanApplication = loanApplicationWriter.insert(() -> {
+            Customer customer = customerRepository.findById(loanApplicationRequestDto.getCustomerId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", loanApplicationRequestDto.getCustomerId()));
+            
+            // Scored before it is saved, so the application is written with a single INSERT
+            LoanApplication loanApplication = mapToEntity(loanApplicationRequestDto, customer);
+            return loanEvaluationService.evaluateLoanApplication(loanApplication);
+        });
+        
+        return mapToDto(savedLoanApplication);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public LoanApplicationResponseDto getLoanApplicationById(Long id) {
@@ -188,66 +223,36 @@ public class LoanApplicationServiceImpl implements LoanApplicationService {
         LoanApplication loanApplication = loanApplicationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("LoanApplication", "id", id));
         
-        // This is a simplified risk evaluation logic
-        // In a real application, this would use the ScoringRuleService to apply rules
-        
-        Customer customer = loanApplication.getCustomer();
-        int riskScore = 0;
+        loanEvaluationService.evaluateLoanApplication(loanApplication);
         
-        // Credit score factor (lower credit score = higher risk)
-        if (customer.getCreditScore() < 580) {
-            riskScore += 40;
-        } else if (customer.getCreditScore() < 670) {
-            riskScore += 25;
-        } else if (customer.getCreditScore() < 740) {
-            riskScore += 10;
-        }
-        
-        // Debt-to-income factor
-        BigDecimal monthlyIncome = customer.getAnnualIncome().divide(new BigDecimal("12"), 2, BigDecimal.ROUND_HALF_UP);
-        BigDecimal debtToIncomeRatio = customer.getExistingDebt().divide(monthlyIncome, 2, BigDecimal.ROUND_HALF_UP);
-        
-        if (debtToIncomeRatio.compareTo(new BigDecimal("0.5")) > 0) {
-            riskScore += 30;
-        } else if (debtToIncomeRatio.compareTo(new BigDecimal("0.3")) > 0) {
-            riskScore += 15;
-        }
-        
-        // Loan amount to income factor
-        BigDecimal loanToIncomeRatio = loanApplication.getLoanAmount().divide(customer.getAnnualIncome(), 2, BigDecimal.ROUND_HALF_UP);
-        
-        if (loanToIncomeRatio.compareTo(new BigDecimal("0.5")) > 0) {
-            riskScore += 20;
-        } else if (loanToIncomeRatio.compareTo(new BigDecimal("0.3")) > 0) {
-            riskScore += 10;
-        }
-        
-        // Employment status factor
-        if (!"EMPLOYED".equalsIgnoreCase(customer.getEmploymentStatus())) {
-            riskScore += 15;
-        }
+        LoanApplication evaluatedLoanApplication = loanApplicationRepository.save(loanApplication);
         
-        // Set risk score
-        loanApplication.setRiskScore(riskScore);
+        return mapToDto(evaluatedLoanApplication);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> countLoanApplicationsByTriggeredRule() {
+        Map<Long, Long> counts = new HashMap<>();
         
-        // Determine risk level
-        if (riskScore >= 60) {
-            loanApplication.setRiskLevel("HIGH");
-            loanApplication.setDecision("REJECTED");
-            loanApplication.setExplanation("High risk application due to credit score, debt ratio, and loan amount.");
-        } else if (riskScore >= 30) {
-            loanApplication.setRiskLevel("MEDIUM");
-            loanApplication.setDecision("MANUAL_REVIEW");
-            loanApplication.setExplanation("Medium risk application requires manual review by loan officer.");
-        } else {
-            loanApplication.setRiskLevel("LOW");
-            loanApplication.setDecision("APPROVED");
-            loanApplication.setExplanation("Low risk application approved automatically.");
+        // One row per rule set version and combination of triggered rules, so there are few rows to decode
+        for (LoanApplicationRepository.TriggeredRuleCount count : loanApplicationRepository.countByTriggeredRules()) {
+            if (count.getTriggeredRules() == null) {
+                continue;
+            }
+            List<ScoringRule> rules = ruleSetArchive.getRules(count.getRuleSetVersion());
+            BitSet triggered = BitSet.valueOf(count.getTriggeredRules());
+            for (int i = triggered.nextSetBit(0); i >= 0 && i < rules.size(); i = triggered.nextSetBit(i + 1)) {
+                counts.merge(rules.get(i).getId(), count.getApplicationCount(), Long::sum);
+            }
         }
         
-        LoanApplication evaluatedLoanApplication = loanApplicationRepository.save(loanApplication);
-        
-        return mapToDto(evaluatedLoanApplication);
+        return counts;
+    }
+
+    @Override
+    public LoanApplicationWriterStatsDto getWriterStats() {
+        return loanApplicationWriter.getStats();
     }
 
     /**
@@ -276,7 +281,10 @@ public class LoanApplicationServiceImpl implements LoanApplicationService {
                 .riskScore(loanApplication.getRiskScore())
                 .riskLevel(loanApplication.getRiskLevel())
                 .decision(loanApplication.getDecision())
-                .explanation(loanApplication.getExplanation())
+                .explanation(loanApplication.getRuleSetVersion() != null
+                        ? loanEvaluationService.renderExplanation(loanApplication)
+                        : loanApplication.getExplanation())
+                .ruleSetVersion(loanApplication.getRuleSetVersion())
                 .createdAt(loanApplication.getCreatedAt())
                 .updatedAt(loanApplication.getUpdatedAt())
                 .build();
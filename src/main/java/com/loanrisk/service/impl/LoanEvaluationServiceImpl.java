@@ -1,17 +1,27 @@
 package com.loanrisk.service.impl;
 
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
 import com.loanrisk.engine.RuleEngine;
 import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
 import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
 import com.loanrisk.service.LoanEvaluationService;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -24,15 +34,29 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
     private final RuleEngine ruleEngine;
     private final DerivedFieldCalculator derivedFieldCalculator;
     private final RiskLevelDeterminer riskLevelDeterminer;
+    private final EvaluationContextFactory evaluationContextFactory;
+    private final RuleSetArchive ruleSetArchive;
+
+    public LoanEvaluationServiceImpl(
+            RuleEngine ruleEngine,
+            DerivedFieldCalculator derivedFieldCalculator,
+            RiskLevelDeterminer riskLevelDeterminer,
+            EvaluationContextFactory evaluationContextFactory) {
+        this(ruleEngine, derivedFieldCalculator, riskLevelDeterminer, evaluationContextFactory, null);
+    }
 
     @Autowired
     public LoanEvaluationServiceImpl(
             RuleEngine ruleEngine,
             DerivedFieldCalculator derivedFieldCalculator,
-            RiskLevelDeterminer riskLevelDeterminer) {
+            RiskLevelDeterminer riskLevelDeterminer,
+            EvaluationContextFactory evaluationContextFactory,
+            RuleSetArchive ruleSetArchive) {
         this.ruleEngine = ruleEngine;
         this.derivedFieldCalculator = derivedFieldCalculator;
         this.riskLevelDeterminer = riskLevelDeterminer;
+        this.evaluationContextFactory = evaluationContextFactory;
+        this.ruleSetArchive = ruleSetArchive;
     }
 
     @Override
@@ -40,39 +64,100 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
     public LoanApplication evaluateLoanApplication(LoanApplication loanApplication) {
         Customer customer = loanApplication.getCustomer();
         
-        // Calculate derived fields
-        Map<String, Object> derivedFields = getDerivedFields(customer, loanApplication);
+        // Load the field values into this thread's evaluation context; derived fields are calculated as the rules read them
+        EvaluationContext context = evaluationContextFactory.getContext(loanApplication, customer);
         
         // Evaluate rules
-        List<ScoringRule> triggeredRules = ruleEngine.evaluateRules(loanApplication, customer, derivedFields);
+        EvaluationResult result = ruleEngine.evaluate(context);
         
-        // Calculate risk score
-        int riskScore = ruleEngine.calculateRiskScore(triggeredRules);
-        
-        // Determine risk level
-        String riskLevel = riskLevelDeterminer.determineRiskLevel(riskScore);
-        
-        // Determine decision
-        String decision = riskLevelDeterminer.determineDecision(riskLevel);
+        return applyEvaluation(loanApplication, result, context);
+    }
+
+    @Override
+    @Transactional
+    public List<LoanApplication> evaluateLoanApplications(List<LoanApplication> loanApplications, boolean parallel) {
+        if (parallel) {
+            // Load lazy customers on this thread, as the persistence context must not be used by the pool's threads
+            loanApplications.forEach(loanApplication -> Hibernate.initialize(loanApplication.getCustomer()));
+        }
         
-        // Generate explanation
-        String explanation = generateExplanation(loanApplication, triggeredRules, derivedFields);
+        return ruleEngine.evaluateRules(loanApplications, parallel,
+                (context, result) -> applyEvaluation(context.getLoanApplication(), result, context));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EvaluationResult evaluate(LoanApplication loanApplication) {
+        return evaluate(loanApplication, EvaluationMode.FULL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EvaluationResult evaluate(LoanApplication loanApplication, EvaluationMode mode) {
+        EvaluationContext context = evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer());
+        return withExplanation(loanApplication, ruleEngine.evaluate(context, mode));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel) {
+        return evaluate(loanApplications, parallel, EvaluationMode.FULL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EvaluationResult> evaluate(List<LoanApplication> loanApplications, boolean parallel, EvaluationMode mode) {
+        // Customers are loaded on this thread, both for the pool's threads and for explanations rendered later
+        loanApplications.forEach(loanApplication -> Hibernate.initialize(loanApplication.getCustomer()));
         
+        List<EvaluationResult> results = ruleEngine.evaluate(loanApplications, parallel, mode);
+        List<EvaluationResult> explainedResults = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            explainedResults.add(withExplanation(loanApplications.get(i), results.get(i)));
+        }
+        return explainedResults;
+    }
+
+    /**
+     * Set the risk score, risk level, decision and either the rule set version and triggered rules
+     * or the explanation of an evaluated loan application
+     */
+    private LoanApplication applyEvaluation(LoanApplication loanApplication, EvaluationResult result,
+                                            EvaluationContext context) {
         // Update loan application
-        loanApplication.setRiskScore(riskScore);
-        loanApplication.setRiskLevel(riskLevel);
-        loanApplication.setDecision(decision);
-        loanApplication.setExplanation(explanation);
+        loanApplication.setRiskScore(result.getRiskScore());
+        loanApplication.setRiskLevel(result.getRiskLevel());
+        loanApplication.setDecision(result.getDecision());
+        
+        if (ruleSetArchive != null && ruleSetArchive.isStored(result.getSnapshot())) {
+            // The explanation is rendered from the stored rule set version when it is read
+            loanApplication.setRuleSetVersion(result.getRuleSetVersion());
+            loanApplication.setTriggeredRules(result.getTriggeredRuleIndexes().toByteArray());
+            loanApplication.setExplanation(null);
+        } else {
+            // Generate explanation while the derived fields are still held in the context
+            loanApplication.setRuleSetVersion(null);
+            loanApplication.setTriggeredRules(null);
+            loanApplication.setExplanation(generateExplanation(loanApplication, result, getDerivedFieldEntries(context)));
+        }
         
         return loanApplication;
     }
 
+    /**
+     * Give an evaluation result the full explanation of a loan application, rendered if it is asked for
+     */
+    private EvaluationResult withExplanation(LoanApplication loanApplication, EvaluationResult result) {
+        // The evaluation context is reused by the next evaluation on this thread, so the derived fields are recalculated
+        return result.withExplanation(evaluated -> generateExplanation(loanApplication, evaluated,
+                derivedFieldCalculator.calculateDerivedFields(loanApplication.getCustomer(), loanApplication).entrySet()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ScoringRule> getTriggeredRules(LoanApplication loanApplication) {
-        Customer customer = loanApplication.getCustomer();
-        Map<String, Object> derivedFields = getDerivedFields(customer, loanApplication);
-        return ruleEngine.evaluateRules(loanApplication, customer, derivedFields);
+        EvaluationContext context = evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer());
+        return ruleEngine.evaluateRules(context);
     }
 
     @Override
@@ -84,6 +169,50 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
     @Override
     @Transactional(readOnly = true)
     public String generateExplanation(LoanApplication loanApplication, List<ScoringRule> triggeredRules, Map<String, Object> derivedFields) {
+        int riskScore = ruleEngine.calculateRiskScore(triggeredRules);
+        String riskLevel = riskLevelDeterminer.determineRiskLevel(riskScore);
+        String decision = riskLevelDeterminer.determineDecision(riskLevel);
+        return generateExplanation(loanApplication, triggeredRules, riskScore, riskLevel, decision, false,
+                derivedFields.entrySet());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String renderExplanation(LoanApplication loanApplication) {
+        if (loanApplication.getExplanation() != null || loanApplication.getRuleSetVersion() == null) {
+            return loanApplication.getExplanation();
+        }
+        
+        // Only what was stored when it was scored: the customer's current values may have changed since
+        return generateExplanation(loanApplication, getStoredTriggeredRules(loanApplication),
+                loanApplication.getRiskScore(), loanApplication.getRiskLevel(), loanApplication.getDecision(), false, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ScoringRule> getStoredTriggeredRules(LoanApplication loanApplication) {
+        if (ruleSetArchive == null || loanApplication.getRuleSetVersion() == null || loanApplication.getTriggeredRules() == null) {
+            return List.of();
+        }
+        
+        List<ScoringRule> rules = ruleSetArchive.getRules(loanApplication.getRuleSetVersion());
+        BitSet triggered = BitSet.valueOf(loanApplication.getTriggeredRules());
+        List<ScoringRule> triggeredRules = new ArrayList<>(triggered.cardinality());
+        for (int i = triggered.nextSetBit(0); i >= 0 && i < rules.size(); i = triggered.nextSetBit(i + 1)) {
+            triggeredRules.add(rules.get(i));
+        }
+        return triggeredRules;
+    }
+
+    private String generateExplanation(LoanApplication loanApplication, EvaluationResult result,
+                                       Collection<Map.Entry<String, Object>> derivedFields) {
+        return generateExplanation(loanApplication, result.getTriggeredRules(), result.getRiskScore(),
+                result.getRiskLevel(), result.getDecision(), result.isPartial(), derivedFields);
+    }
+
+    private String generateExplanation(LoanApplication loanApplication, List<ScoringRule> triggeredRules, int riskScore,
+                                       String riskLevel, String decision, boolean partial,
+                                       Collection<Map.Entry<String, Object>> derivedFields) {
         StringBuilder explanation = new StringBuilder();
         
         // Add basic loan information
@@ -93,31 +222,32 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
         explanation.append("Loan Purpose: ").append(loanApplication.getLoanPurpose()).append("\n");
         explanation.append("Requested Term: ").append(loanApplication.getRequestedTermMonths()).append(" months\n\n");
         
-        // Add customer information
-        Customer customer = loanApplication.getCustomer();
-        explanation.append("Customer Information\n");
-        explanation.append("--------------------\n");
-        explanation.append("Credit Score: ").append(customer.getCreditScore()).append("\n");
-        explanation.append("Annual Income: $").append(customer.getAnnualIncome()).append("\n");
-        explanation.append("Existing Debt: $").append(customer.getExistingDebt()).append("\n");
-        explanation.append("Employment Status: ").append(customer.getEmploymentStatus()).append("\n\n");
-        
-        // Add derived fields
-        explanation.append("Derived Fields\n");
-        explanation.append("-------------\n");
-        for (Map.Entry<String, Object> entry : derivedFields.entrySet()) {
-            String fieldName = entry.getKey();
-            Object fieldValue = entry.getValue();
-            
-            // Format the field name for better readability
-            String formattedName = formatFieldName(fieldName);
-            
-            // Format the field value
-            String formattedValue = formatFieldValue(fieldValue);
+        // Add the customer information and derived fields, unless only the stored evaluation is rendered
+        if (derivedFields != null) {
+            Customer customer = loanApplication.getCustomer();
+            explanation.append("Customer Information\n");
+            explanation.append("--------------------\n");
+            explanation.append("Credit Score: ").append(customer.getCreditScore()).append("\n");
+            explanation.append("Annual Income: $").append(customer.getAnnualIncome()).append("\n");
+            explanation.append("Existing Debt: $").append(customer.getExistingDebt()).append("\n");
+            explanation.append("Employment Status: ").append(customer.getEmploymentStatus()).append("\n\n");
             
-            explanation.append(formattedName).append(": ").append(formattedValue).append("\n");
+            explanation.append("Derived Fields\n");
+            explanation.append("-------------\n");
+            for (Map.Entry<String, Object> entry : derivedFields) {
+                String fieldName = entry.getKey();
+                Object fieldValue = entry.getValue();
+                
+                // Format the field name for better readability
+                String formattedName = formatFieldName(fieldName);
+                
+                // Format the field value
+                String formattedValue = formatFieldValue(fieldValue);
+                
+                explanation.append(formattedName).append(": ").append(formattedValue).append("\n");
+            }
+            explanation.append("\n");
         }
-        explanation.append("\n");
         
         // Add triggered rules
         explanation.append("Triggered Risk Factors\n");
@@ -130,13 +260,12 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
                         .append(" (").append(rule.getRiskPoints()).append(" points)\n");
             }
         }
+        if (partial) {
+            explanation.append(EvaluationResult.PARTIAL_EXPLANATION_NOTE).append("\n");
+        }
         explanation.append("\n");
         
         // Add risk assessment
-        int riskScore = ruleEngine.calculateRiskScore(triggeredRules);
-        String riskLevel = riskLevelDeterminer.determineRiskLevel(riskScore);
-        String decision = riskLevelDeterminer.determineDecision(riskLevel);
-        
         explanation.append("Risk Assessment\n");
         explanation.append("---------------\n");
         explanation.append("Total Risk Score: ").append(riskScore).append("\n");
@@ -145,7 +274,21 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
         
         return explanation.toString();
     }
-    
+
+    /**
+     * Get the derived field values held in an evaluation context, in registry order
+     */
+    private List<Map.Entry<String, Object>> getDerivedFieldEntries(EvaluationContext context) {
+        List<Map.Entry<String, Object>> entries = new ArrayList<>();
+        for (FieldDefinition field : context.getFields()) {
+            Object value = field.read(context);
+            if (field.isDerived() && value != null) {
+                entries.add(Map.entry(field.getName(), value));
+            }
+        }
+        return entries;
+    }
+
     /**
      * Format a field name for better readability
      */
@@ -154,7 +297,7 @@ public class LoanEvaluationServiceImpl implements LoanEvaluationService {
         String result = fieldName.replaceAll("([a-z])([A-Z])", "$1 $2");
         return Character.toUpperCase(result.charAt(0)) + result.substring(1);
     }
-    
+
     /**
      * Format a field value for better readability
      */
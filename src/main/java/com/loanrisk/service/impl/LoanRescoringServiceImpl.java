@@ -0,0 +1,300 @@
+package com.loanrisk.service.impl;
+
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.exception.BusinessRuleException;
+import com.loanrisk.exception.ResourceNotFoundException;
+import com.loanrisk.model.dto.RescoringJobDto;
+import com.loanrisk.model.entity.ScoringRule;
+import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.service.LoanRescoringService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of the LoanRescoringService interface.
+ * <p>
+ * Loan applications with the same rule set version and triggered rules get the same new score, so the
+ * score is worked out once per combination from the grouped count. Each combination is then updated in
+ * chunks of at most {@code loanrisk.rescoring.chunk-size} applications (1000 by default): the next IDs in order
+ * that are not re-scored yet are read over the {@code (rule_set_version, triggered_rules, id)} index, and the
+ * range up to the last of them is updated with one statement in its own transaction, over the same index.
+ * No transaction holds more than one chunk of row locks.
+ * <p>
+ * Jobs run on a background thread, one at a time, and are kept in memory for their status. A re-scored
+ * application no longer matches what a job looks for, so a job that is stopped part way, e.g. by a
+ * restart, loses at most its current chunk, and the next job carries on from where it stopped.
+ */
+@Service
+public class LoanRescoringServiceImpl implements LoanRescoringService {
+
+    static final String RUNNING = "RUNNING";
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+
+    private static final Logger logger = LoggerFactory.getLogger(LoanRescoringServiceImpl.class);
+
+    // How many finished jobs are kept for their status
+    private static final int RETAINED_JOBS = 20;
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final RuleSetProvider ruleSetProvider;
+    private final RuleSetArchive ruleSetArchive;
+    private final RiskLevelDeterminer riskLevelDeterminer;
+    private final int chunkSize;
+    private final Executor executor;
+
+    private final AtomicLong nextJobId = new AtomicLong(1);
+    private final Map<Long, RescoringJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RescoringJob> eldest) {
+            return size() > RETAINED_JOBS && !RUNNING.equals(eldest.getValue().status);
+        }
+    };
+    private RescoringJob runningJob;
+
+    @Autowired
+    public LoanRescoringServiceImpl(
+            LoanApplicationRepository loanApplicationRepository,
+            RuleSetProvider ruleSetProvider,
+            RuleSetArchive ruleSetArchive,
+            RiskLevelDeterminer riskLevelDeterminer,
+            @Value("${loanrisk.rescoring.chunk-size:1000}") int chunkSize) {
+        this(loanApplicationRepository, ruleSetProvider, ruleSetArchive, riskLevelDeterminer, chunkSize, job -> {
+            Thread thread = new Thread(job, "loan-rescoring");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public LoanRescoringServiceImpl(
+            LoanApplicationRepository loanApplicationRepository,
+            RuleSetProvider ruleSetProvider,
+            RuleSetArchive ruleSetArchive,
+            RiskLevelDeterminer riskLevelDeterminer,
+            int chunkSize,
+            Executor executor) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.ruleSetProvider = ruleSetProvider;
+        this.ruleSetArchive = ruleSetArchive;
+        this.riskLevelDeterminer = riskLevelDeterminer;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public RescoringJobDto startRescoring() {
+        RescoringJob job;
+        synchronized (this) {
+            if (runningJob != null) {
+                return runningJob.toDto();
+            }
+            RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+            if (!ruleSetArchive.isStored(snapshot)) {
+                throw new BusinessRuleException("The current rule set is not stored under a version yet; retry once it has been refreshed");
+            }
+            job = new RescoringJob(nextJobId.getAndIncrement(), snapshot);
+            jobs.put(job.id, job);
+            runningJob = job;
+        }
+        
+        try {
+            executor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            finish(job, e);
+            throw e;
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public synchronized RescoringJobDto getRescoringJob(Long jobId) {
+        RescoringJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("RescoringJob", "id", jobId);
+        }
+        return job.toDto();
+    }
+
+    private void run(RescoringJob job) {
+        try {
+            rescore(job);
+            finish(job, null);
+            logger.info("Re-scored {} loan applications from {} rule set versions against version {} in {} ms; "
+                            + "skipped {} loan applications from {} versions with changed rule conditions",
+                    job.rescoredApplications.get(), job.rescoredVersions, job.ruleSetVersion, job.durationMs(),
+                    job.skippedApplications, job.skippedVersions);
+        } catch (RuntimeException e) {
+            finish(job, e);
+            logger.error("Re-scoring job {} failed after re-scoring {} loan applications; starting another carries on from there",
+                    job.id, job.rescoredApplications.get(), e);
+        }
+    }
+
+    private synchronized void finish(RescoringJob job, RuntimeException failure) {
+        job.finishedAt = LocalDateTime.now();
+        job.error = failure != null ? failure.getMessage() : null;
+        job.status = failure != null ? FAILED : COMPLETED;
+        if (runningJob == job) {
+            runningJob = null;
+        }
+    }
+
+    private void rescore(RescoringJob job) {
+        List<ScoringRule> currentRules = job.snapshot.getRules();
+        Map<Long, Integer> currentIndexById = new HashMap<>();
+        for (int i = 0; i < currentRules.size(); i++) {
+            currentIndexById.put(currentRules.get(i).getId(), i);
+        }
+        
+        Map<Long, List<LoanApplicationRepository.TriggeredRuleCount>> countsByVersion = new LinkedHashMap<>();
+        for (LoanApplicationRepository.TriggeredRuleCount count : loanApplicationRepository.countByTriggeredRules()) {
+            if (count.getTriggeredRules() != null) {
+                countsByVersion.computeIfAbsent(count.getRuleSetVersion(), version -> new ArrayList<>()).add(count);
+            }
+        }
+        
+        for (Map.Entry<Long, List<LoanApplicationRepository.TriggeredRuleCount>> entry : countsByVersion.entrySet()) {
+            long version = entry.getKey();
+            int[] currentIndexes = mapToCurrentIndexes(ruleSetArchive.getRules(version), currentRules, currentIndexById);
+            if (currentIndexes == null) {
+                job.skippedVersions++;
+                job.skippedApplications += entry.getValue().stream()
+                        .mapToLong(LoanApplicationRepository.TriggeredRuleCount::getApplicationCount).sum();
+                logger.info("Skipping rule set version {}: its rule conditions differ from version {}", version, job.ruleSetVersion);
+                continue;
+            }
+            
+            job.rescoredVersions++;
+            for (LoanApplicationRepository.TriggeredRuleCount count : entry.getValue()) {
+                BitSet triggered = BitSet.valueOf(count.getTriggeredRules());
+                BitSet currentTriggered = new BitSet(currentRules.size());
+                int riskScore = 0;
+                for (int i = triggered.nextSetBit(0); i >= 0; i = triggered.nextSetBit(i + 1)) {
+                    int currentIndex = currentIndexes[i];
+                    currentTriggered.set(currentIndex);
+                    riskScore += currentRules.get(currentIndex).getRiskPoints();
+                }
+                String riskLevel = riskLevelDeterminer.determineRiskLevel(riskScore);
+                rescoreInChunks(job, version, count.getTriggeredRules(), currentTriggered.toByteArray(), riskScore,
+                        riskLevel, riskLevelDeterminer.determineDecision(riskLevel));
+            }
+        }
+    }
+
+    /**
+     * Re-score the applications of one rule set version and combination of triggered rules, a chunk per transaction.
+     * Each chunk reads the IDs after the last chunk's, so the applications already passed are not read again.
+     */
+    private void rescoreInChunks(RescoringJob job, long version, byte[] triggeredRules, byte[] currentTriggeredRules,
+                                 int riskScore, String riskLevel, String decision) {
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = loanApplicationRepository.findIdsToRescore(version, triggeredRules, afterId, job.ruleSetVersion,
+                    riskScore, riskLevel, decision, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return;
+            }
+            long lastId = ids.get(ids.size() - 1);
+            job.rescoredApplications.addAndGet(loanApplicationRepository.rescoreIdRange(version, triggeredRules, afterId,
+                    lastId, job.ruleSetVersion, currentTriggeredRules, riskScore, riskLevel, decision));
+            afterId = lastId;
+            if (ids.size() < chunkSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Map the rule indexes of a stored rule set version to the indexes of the same rules in the current rule set
+     *
+     * @return the current index of each stored rule, or null if the two rule sets don't hold the same
+     *         rules with the same conditions, so that the triggered rules could differ
+     */
+    private static int[] mapToCurrentIndexes(List<ScoringRule> storedRules, List<ScoringRule> currentRules,
+                                             Map<Long, Integer> currentIndexById) {
+        if (storedRules.size() != currentRules.size()) {
+            return null;
+        }
+        
+        int[] currentIndexes = new int[storedRules.size()];
+        for (int i = 0; i < storedRules.size(); i++) {
+            ScoringRule stored = storedRules.get(i);
+            Integer currentIndex = currentIndexById.get(stored.getId());
+            if (currentIndex == null) {
+                return null;
+            }
+            ScoringRule current = currentRules.get(currentIndex);
+            if (!Objects.equals(stored.getField(), current.getField())
+                    || !Objects.equals(stored.getOperator(), current.getOperator())
+                    || !Objects.equals(stored.getRuleValue(), current.getRuleValue())) {
+                return null;
+            }
+            currentIndexes[i] = currentIndex;
+        }
+        return currentIndexes;
+    }
+
+    /**
+     * A re-scoring job's progress, written by its thread and read for its status
+     */
+    private static final class RescoringJob {
+
+        private final long id;
+        private final RuleSetSnapshot snapshot;
+        private final long ruleSetVersion;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rescoredApplications = new AtomicLong();
+        private volatile int rescoredVersions;
+        private volatile int skippedVersions;
+        private volatile long skippedApplications;
+        private volatile String status = RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        
+        private RescoringJob(long id, RuleSetSnapshot snapshot) {
+            this.id = id;
+            this.snapshot = snapshot;
+            this.ruleSetVersion = snapshot.getRuleSetVersion();
+        }
+        
+        long durationMs() {
+            LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+            return Duration.between(startedAt, end).toMillis();
+        }
+        
+        RescoringJobDto toDto() {
+            return RescoringJobDto.builder()
+                    .jobId(id)
+                    .status(status)
+                    .ruleSetVersion(ruleSetVersion)
+                    .rescoredRuleSetVersions(rescoredVersions)
+                    .rescoredApplications(rescoredApplications.get())
+                    .skippedRuleSetVersions(skippedVersions)
+                    .skippedApplications(skippedApplications)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .durationMs(durationMs())
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -2,17 +2,15 @@ package com.loanrisk.service.impl;
 
 import com.loanrisk.exception.ResourceNotFoundException;
 import com.loanrisk.model.dto.ScoringRuleResponseDto;
-import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
 import com.loanrisk.repository.ScoringRuleRepository;
+import com.loanrisk.service.LoanEvaluationService;
 import com.loanrisk.service.ScoringRuleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,10 +18,12 @@ import java.util.stream.Collectors;
 public class ScoringRuleServiceImpl implements ScoringRuleService {
 
     private final ScoringRuleRepository scoringRuleRepository;
+    private final LoanEvaluationService loanEvaluationService;
 
     @Autowired
-    public ScoringRuleServiceImpl(ScoringRuleRepository scoringRuleRepository) {
+    public ScoringRuleServiceImpl(ScoringRuleRepository scoringRuleRepository, LoanEvaluationService loanEvaluationService) {
         this.scoringRuleRepository = scoringRuleRepository;
+        this.loanEvaluationService = loanEvaluationService;
     }
 
     @Override
@@ -182,140 +182,13 @@ public class ScoringRuleServiceImpl implements ScoringRuleService {
     @Override
     @Transactional(readOnly = true)
     public Integer applyRules(LoanApplication loanApplication) {
-        List<ScoringRule> applicableRules = getApplicableRules(loanApplication);
-        
-        int totalRiskScore = 0;
-        for (ScoringRule rule : applicableRules) {
-            totalRiskScore += rule.getRiskPoints();
-        }
-        
-        return totalRiskScore;
+        return loanEvaluationService.evaluate(loanApplication).getRiskScore();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ScoringRule> getApplicableRules(LoanApplication loanApplication) {
-        // Get all enabled rules ordered by priority
-        List<ScoringRule> enabledRules = scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc();
-        List<ScoringRule> applicableRules = new ArrayList<>();
-        
-        Customer customer = loanApplication.getCustomer();
-        
-        for (ScoringRule rule : enabledRules) {
-            boolean ruleApplies = false;
-            
-            switch (rule.getField()) {
-                case "creditScore":
-                    ruleApplies = evaluateNumericRule(customer.getCreditScore(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "age":
-                    ruleApplies = evaluateNumericRule(customer.getAge(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "annualIncome":
-                    ruleApplies = evaluateDecimalRule(customer.getAnnualIncome(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "existingDebt":
-                    ruleApplies = evaluateDecimalRule(customer.getExistingDebt(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "employmentStatus":
-                    ruleApplies = evaluateStringRule(customer.getEmploymentStatus(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "loanAmount":
-                    ruleApplies = evaluateDecimalRule(loanApplication.getLoanAmount(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "loanPurpose":
-                    ruleApplies = evaluateStringRule(loanApplication.getLoanPurpose(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "requestedTermMonths":
-                    ruleApplies = evaluateNumericRule(loanApplication.getRequestedTermMonths(), rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "debtToIncomeRatio":
-                    BigDecimal monthlyIncome = customer.getAnnualIncome().divide(new BigDecimal("12"), 2, BigDecimal.ROUND_HALF_UP);
-                    BigDecimal debtToIncomeRatio = customer.getExistingDebt().divide(monthlyIncome, 2, BigDecimal.ROUND_HALF_UP);
-                    ruleApplies = evaluateDecimalRule(debtToIncomeRatio, rule.getOperator(), rule.getRuleValue());
-                    break;
-                case "loanToIncomeRatio":
-                    BigDecimal loanToIncomeRatio = loanApplication.getLoanAmount().divide(customer.getAnnualIncome(), 2, BigDecimal.ROUND_HALF_UP);
-                    ruleApplies = evaluateDecimalRule(loanToIncomeRatio, rule.getOperator(), rule.getRuleValue());
-                    break;
-            }
-            
-            if (ruleApplies) {
-                applicableRules.add(rule);
-            }
-        }
-        
-        return applicableRules;
-    }
-
-    /**
-     * Evaluate a numeric rule
-     */
-    private boolean evaluateNumericRule(Integer value, String operator, String ruleValue) {
-        int compareValue = Integer.parseInt(ruleValue);
-        
-        switch (operator) {
-            case "EQUALS":
-                return value.equals(compareValue);
-            case "NOT_EQUALS":
-                return !value.equals(compareValue);
-            case "GREATER_THAN":
-                return value > compareValue;
-            case "GREATER_THAN_OR_EQUAL":
-                return value >= compareValue;
-            case "LESS_THAN":
-                return value < compareValue;
-            case "LESS_THAN_OR_EQUAL":
-                return value <= compareValue;
-            default:
-                return false;
-        }
-    }
-
-    /**
-     * Evaluate a decimal rule
-     */
-    private boolean evaluateDecimalRule(BigDecimal value, String operator, String ruleValue) {
-        BigDecimal compareValue = new BigDecimal(ruleValue);
-        
-        switch (operator) {
-            case "EQUALS":
-                return value.compareTo(compareValue) == 0;
-            case "NOT_EQUALS":
-                return value.compareTo(compareValue) != 0;
-            case "GREATER_THAN":
-                return value.compareTo(compareValue) > 0;
-            case "GREATER_THAN_OR_EQUAL":
-                return value.compareTo(compareValue) >= 0;
-            case "LESS_THAN":
-                return value.compareTo(compareValue) < 0;
-            case "LESS_THAN_OR_EQUAL":
-                return value.compareTo(compareValue) <= 0;
-            default:
-                return false;
-        }
-    }
-
-    /**
-     * Evaluate a string rule
-     */
-    private boolean evaluateStringRule(String value, String operator, String ruleValue) {
-        switch (operator) {
-            case "EQUALS":
-                return value.equals(ruleValue);
-            case "NOT_EQUALS":
-                return !value.equals(ruleValue);
-            case "CONTAINS":
-                return value.contains(ruleValue);
-            case "NOT_CONTAINS":
-                return !value.contains(ruleValue);
-            case "STARTS_WITH":
-                return value.startsWith(ruleValue);
-            case "ENDS_WITH":
-                return value.endsWith(ruleValue);
-            default:
-                return false;
-        }
+        return loanEvaluationService.getTriggeredRules(loanApplication);
     }
 
     /**
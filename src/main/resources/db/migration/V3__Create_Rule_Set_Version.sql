@@ -0,0 +1,9 @@
+-- Create RuleSetVersion table: a single row whose version is incremented by every scoring rule change,
+-- so that all instances can tell whether their cached rule set is current
+CREATE TABLE rule_set_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO rule_set_version (id, version) VALUES (1, 1);
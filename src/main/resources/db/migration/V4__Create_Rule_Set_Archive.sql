@@ -0,0 +1,31 @@
+-- Create RuleSet table: one row per rule set version that scored a loan application
+CREATE TABLE rule_set (
+    version BIGINT PRIMARY KEY,
+    rule_count INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create RuleSetRule table: the rules of each stored version as they were when it scored,
+-- at the index they had in the rule set snapshot; never updated once written
+CREATE TABLE rule_set_rule (
+    rule_set_version BIGINT NOT NULL,
+    rule_index INT NOT NULL,
+    rule_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    field VARCHAR(100) NOT NULL,
+    operator VARCHAR(50) NOT NULL,
+    rule_value VARCHAR(255) NOT NULL,
+    risk_points INT NOT NULL,
+    priority INT NOT NULL,
+    PRIMARY KEY (rule_set_version, rule_index),
+    FOREIGN KEY (rule_set_version) REFERENCES rule_set(version)
+);
+
+-- Each evaluated loan application refers to the rule set version that scored it, with its triggered
+-- rules as a bitmap over the indexes of the version's rules
+ALTER TABLE loan_application ADD COLUMN rule_set_version BIGINT;
+ALTER TABLE loan_application ADD COLUMN triggered_rules BYTEA;
+
+-- Covers counting applications per version and triggered rule combination without reading the rows
+CREATE INDEX idx_loan_application_triggered_rules ON loan_application(rule_set_version, triggered_rules);
+CREATE INDEX idx_rule_set_rule_rule_id ON rule_set_rule(rule_id);
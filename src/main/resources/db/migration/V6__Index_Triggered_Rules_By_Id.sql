@@ -0,0 +1,4 @@
+-- Re-scoring reads the applications of a version and triggered rule combination in ID order, a chunk at a time,
+-- so the ID is added to the index to read each chunk from where the last one ended without sorting
+DROP INDEX idx_loan_application_triggered_rules;
+CREATE INDEX idx_loan_application_triggered_rules ON loan_application(rule_set_version, triggered_rules, id);
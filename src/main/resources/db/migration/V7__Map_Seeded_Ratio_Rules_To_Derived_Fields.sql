@@ -0,0 +1,9 @@
+-- The seeded ratio rules name fields the rule engine does not define, so they are rejected when the rule set loads.
+-- Point them at the derived fields that the hand-coded evaluation they replace scored with: loanToIncomeRatio is
+-- loan amount / annual income and debtToIncomeRatio is existing debt / monthly income, both rounded to two decimals,
+-- so their thresholds are on the scale of its 0.3 and 0.5 checks.
+UPDATE scoring_rule SET field = 'loanToIncomeRatio', updated_at = CURRENT_TIMESTAMP WHERE field = 'loanRatio';
+UPDATE scoring_rule SET field = 'debtToIncomeRatio', updated_at = CURRENT_TIMESTAMP WHERE field = 'existingDebtRatio';
+
+-- Move the rule set version, as every rule change does, so that running instances reload the rules
+UPDATE rule_set_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = 1;
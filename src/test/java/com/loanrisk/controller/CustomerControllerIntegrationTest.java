@@ -1,8 +1,11 @@
 package com.loanrisk.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loanrisk.model.dto.CustomerImportRowResultDto;
+import com.loanrisk.model.dto.CustomerImportSummaryDto;
 import com.loanrisk.model.dto.CustomerRequestDto;
 import com.loanrisk.model.dto.CustomerResponseDto;
+import com.loanrisk.service.CustomerImportService;
 import com.loanrisk.service.CustomerService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,11 +16,15 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,6 +40,9 @@ public class CustomerControllerIntegrationTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerImportService customerImportService;
+
     @Test
     public void testCreateCustomer_Success() throws Exception {
         // Arrange
@@ -122,4 +132,45 @@ public class CustomerControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportCustomers_StreamsReport() throws Exception {
+        // Arrange
+        String body = "name,age,annual_income,credit_score,employment_status,existing_debt\n"
+                + "John Doe,35,75000.00,720,EMPLOYED,15000.00\n"
+                + "Jane Doe,15,50000.00,650,EMPLOYED,0\n";
+
+        when(customerImportService.importCustomers(any(), eq(CustomerImportService.Format.CSV), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<CustomerImportRowResultDto>> results = invocation.getArgument(2);
+                    results.accept(List.of(
+                            CustomerImportRowResultDto.builder().line(2L).status("CREATED").customerId(51L).build(),
+                            CustomerImportRowResultDto.builder().line(3L).status("INVALID")
+                                    .errors(List.of("age: Age must be at least 18")).build()));
+                    return CustomerImportSummaryDto.builder()
+                            .rowCount(2L).createdCount(1L).invalidCount(1L).failedCount(0L).durationMs(5L).build();
+                });
+
+        // Act & Assert
+        mockMvc.perform(post("/customers/import")
+                .contentType("text/csv")
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"line\":2,\"status\":\"CREATED\",\"customerId\":51}\n"
+                                + "{\"line\":3,\"status\":\"INVALID\",\"errors\":[\"age: Age must be at least 18\"]}\n"
+                                + "{\"rowCount\":2,\"createdCount\":1,\"invalidCount\":1,\"failedCount\":0,\"durationMs\":5}\n"));
+    }
+
+    @Test
+    public void testImportCustomers_UnsupportedContentType() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/customers/import")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<customers/>"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.errorCode").value("UNSUPPORTED_MEDIA_TYPE"));
+    }
 }
\ No newline at end of file
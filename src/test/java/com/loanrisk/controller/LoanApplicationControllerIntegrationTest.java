@@ -1,9 +1,11 @@
 package com.loanrisk.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loanrisk.exception.ServiceUnavailableException;
 import com.loanrisk.model.dto.CustomerResponseDto;
 import com.loanrisk.model.dto.LoanApplicationRequestDto;
 import com.loanrisk.model.dto.LoanApplicationResponseDto;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
 import com.loanrisk.service.LoanApplicationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,10 +18,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -57,17 +59,6 @@ public class LoanApplicationControllerIntegrationTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        LoanApplicationResponseDto createdResponseDto = LoanApplicationResponseDto.builder()
-                .id(1L)
-                .customerId(1L)
-                .customer(customerDto)
-                .loanAmount(new BigDecimal("25000.00"))
-                .loanPurpose("Home renovation")
-                .requestedTermMonths(36)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-
         LoanApplicationResponseDto evaluatedResponseDto = LoanApplicationResponseDto.builder()
                 .id(1L)
                 .customerId(1L)
@@ -83,8 +74,7 @@ public class LoanApplicationControllerIntegrationTest {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        when(loanApplicationService.createLoanApplication(any(LoanApplicationRequestDto.class))).thenReturn(createdResponseDto);
-        when(loanApplicationService.evaluateLoanApplication(anyLong())).thenReturn(evaluatedResponseDto);
+        when(loanApplicationService.applyForLoan(any(LoanApplicationRequestDto.class))).thenReturn(evaluatedResponseDto);
 
         // Act & Assert
         mockMvc.perform(post("/loan/apply")
@@ -98,7 +88,9 @@ public class LoanApplicationControllerIntegrationTest {
                 .andExpect(jsonPath("$.requestedTermMonths").value(36))
                 .andExpect(jsonPath("$.riskScore").value(25))
                 .andExpect(jsonPath("$.riskLevel").value("LOW"))
-                .andExpect(jsonPath("$.decision").value("APPROVED"));
+                .andExpect(jsonPath("$.decision").value("APPROVED"))
+                // Scored without a stored rule set version
+                .andExpect(header().doesNotExist("X-Rule-Set-Version"));
     }
 
     @Test
@@ -128,6 +120,7 @@ public class LoanApplicationControllerIntegrationTest {
                 .riskLevel("LOW")
                 .decision("APPROVED")
                 .explanation("Low risk application approved automatically.")
+                .ruleSetVersion(7L)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
@@ -145,7 +138,8 @@ public class LoanApplicationControllerIntegrationTest {
                 .andExpect(jsonPath("$.requestedTermMonths").value(36))
                 .andExpect(jsonPath("$.riskScore").value(25))
                 .andExpect(jsonPath("$.riskLevel").value("LOW"))
-                .andExpect(jsonPath("$.decision").value("APPROVED"));
+                .andExpect(jsonPath("$.decision").value("APPROVED"))
+                .andExpect(header().string("X-Rule-Set-Version", "7"));
     }
 
     @Test
@@ -164,4 +158,52 @@ public class LoanApplicationControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(requestDto)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    public void testSubmitLoanApplication_WriterQueueFull() throws Exception {
+        // Arrange
+        LoanApplicationRequestDto requestDto = LoanApplicationRequestDto.builder()
+                .customerId(1L)
+                .loanAmount(new BigDecimal("25000.00"))
+                .loanPurpose("Home renovation")
+                .requestedTermMonths(36)
+                .build();
+
+        when(loanApplicationService.applyForLoan(any(LoanApplicationRequestDto.class)))
+                .thenThrow(new ServiceUnavailableException("Too many loan applications are waiting to be saved, try again later"));
+
+        // Act & Assert
+        mockMvc.perform(post("/loan/apply")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void testGetLoanApplicationWriterStats_Success() throws Exception {
+        // Arrange
+        LoanApplicationWriterStatsDto statsDto = LoanApplicationWriterStatsDto.builder()
+                .groupCommit(true)
+                .queueDepth(12)
+                .queueCapacity(1000)
+                .batchCount(2048L)
+                .rowCount(51200L)
+                .averageBatchSize(25.0)
+                .lastBatchSize(31)
+                .maxBatchSize(100)
+                .rejectedCount(0L)
+                .build();
+
+        when(loanApplicationService.getWriterStats()).thenReturn(statsDto);
+
+        // Act & Assert
+        mockMvc.perform(get("/loan/apply/stats")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupCommit").value(true))
+                .andExpect(jsonPath("$.queueDepth").value(12))
+                .andExpect(jsonPath("$.batchCount").value(2048))
+                .andExpect(jsonPath("$.averageBatchSize").value(25.0))
+                .andExpect(jsonPath("$.maxBatchSize").value(100));
+    }
 }
\ No newline at end of file
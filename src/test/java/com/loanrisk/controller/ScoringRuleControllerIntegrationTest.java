@@ -1,7 +1,10 @@
 package com.loanrisk.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loanrisk.exception.ResourceNotFoundException;
+import com.loanrisk.model.dto.RescoringJobDto;
 import com.loanrisk.model.dto.ScoringRuleResponseDto;
+import com.loanrisk.service.LoanRescoringService;
 import com.loanrisk.service.ScoringRuleService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,8 @@ import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -31,6 +36,9 @@ public class ScoringRuleControllerIntegrationTest {
     @MockBean
     private ScoringRuleService scoringRuleService;
 
+    @MockBean
+    private LoanRescoringService loanRescoringService;
+
     @Test
     public void testGetActiveScoringRules_Success() throws Exception {
         // Arrange
@@ -102,4 +110,61 @@ public class ScoringRuleControllerIntegrationTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStartRescoring_Accepted() throws Exception {
+        // Arrange
+        RescoringJobDto job = RescoringJobDto.builder()
+                .jobId(3L)
+                .status("RUNNING")
+                .ruleSetVersion(5L)
+                .rescoredRuleSetVersions(0)
+                .rescoredApplications(0L)
+                .skippedRuleSetVersions(0)
+                .skippedApplications(0L)
+                .durationMs(0L)
+                .build();
+        when(loanRescoringService.startRescoring()).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/rules/rescore"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/rules/rescore/3"))
+                .andExpect(jsonPath("$.jobId").value(3))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    public void testGetRescoringJob_Success() throws Exception {
+        // Arrange
+        RescoringJobDto job = RescoringJobDto.builder()
+                .jobId(3L)
+                .status("COMPLETED")
+                .ruleSetVersion(5L)
+                .rescoredRuleSetVersions(2)
+                .rescoredApplications(120L)
+                .skippedRuleSetVersions(1)
+                .skippedApplications(8L)
+                .durationMs(15L)
+                .build();
+        when(loanRescoringService.getRescoringJob(3L)).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(get("/rules/rescore/{jobId}", 3L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.ruleSetVersion").value(5))
+                .andExpect(jsonPath("$.rescoredApplications").value(120))
+                .andExpect(jsonPath("$.skippedRuleSetVersions").value(1));
+    }
+
+    @Test
+    public void testGetRescoringJob_NotFound() throws Exception {
+        // Arrange
+        when(loanRescoringService.getRescoringJob(9L)).thenThrow(new ResourceNotFoundException("RescoringJob", "id", 9L));
+
+        // Act & Assert
+        mockMvc.perform(get("/rules/rescore/{jobId}", 9L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,151 @@
+package com.loanrisk.engine;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.diagram.DecisionDiagram;
+import com.loanrisk.engine.diagram.FieldLevel;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.DecisionDiagramRuleEngine;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays the {@link RuleEngineTest} cases against the decision diagram engine, and checks that it
+ * agrees with the interpreted engine on random rule sets
+ */
+class DecisionDiagramRuleEngineTest extends RuleEngineTest {
+
+    private static final String[] OPERATORS = {"EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+
+    @Override
+    RuleEngine createRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory) {
+        return new DecisionDiagramRuleEngine(ruleSetProvider, evaluationContextFactory, new RiskLevelDeterminer());
+    }
+
+    @Test
+    void testDiagramAgreesWithInterpretedEngine() {
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        RuleCompiler ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(), new NotEqualsEvaluator(), new GreaterThanEvaluator(), new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(), new LessThanOrEqualEvaluator(), new ContainsEvaluator(), new NotContainsEvaluator(),
+                new StartsWithEvaluator(), new EndsWithEvaluator())), fieldRegistry);
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+        
+        Random random = new Random(11);
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            int riskPoints = random.nextInt(41) - 15;
+            ScoringRule rule = switch (i % 7) {
+                case 0 -> rule("creditScore", operator, String.valueOf(600 + random.nextInt(101)), riskPoints);
+                case 1 -> rule("age", operator, String.valueOf(20 + random.nextInt(41)), riskPoints);
+                case 2 -> rule("loanAmount", operator, (10000 + 50 * random.nextInt(400)) + ".00", riskPoints);
+                // Finer than a cent, so fixed-point values fall strictly between thresholds
+                case 3 -> rule("debtToIncomeRatio", operator, "0." + (100 + random.nextInt(800)), riskPoints);
+                case 4 -> rule("annualIncome", operator, String.valueOf(30000 + 1000 * random.nextInt(60)), riskPoints);
+                case 5 -> rule("employmentStatus", operator, random.nextBoolean() ? "EMPLOYED" : "UNEMPLOYED", riskPoints);
+                default -> rule("loanPurpose", random.nextBoolean() ? "CONTAINS" : "STARTS_WITH",
+                        random.nextBoolean() ? "HOME" : "CAR", riskPoints);
+            };
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        }
+        RuleSetSnapshot snapshot = new RuleSetSnapshot(1L, compiledRules, List.of());
+        RuleSetProvider ruleSetProvider = new RuleSetProvider() {
+            @Override
+            public RuleSetSnapshot getSnapshot() {
+                return snapshot;
+            }
+
+            @Override
+            public void invalidate() {
+            }
+        };
+        
+        List<LoanApplication> applications = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            applications.add(application(random, i));
+        }
+        
+        RuleEngineImpl interpreted = new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+        DecisionDiagramRuleEngine diagram = new DecisionDiagramRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+        List<EvaluationResult> expected = interpreted.evaluate(applications, false);
+        List<EvaluationResult> results = diagram.evaluate(applications, false);
+        List<EvaluationResult> decisions = diagram.evaluate(applications, true, EvaluationMode.DECISION_ONLY);
+        assertEquals(interpreted.evaluateRules(applications, false), diagram.evaluateRules(applications, false));
+        for (int i = 0; i < applications.size(); i++) {
+            assertEquals(expected.get(i).getTriggeredRuleIndexes(), results.get(i).getTriggeredRuleIndexes(), "application " + i);
+            assertEquals(expected.get(i).getRiskScore(), results.get(i).getRiskScore(), "application " + i);
+            assertEquals(expected.get(i).getDecision(), decisions.get(i).getDecision(), "application " + i);
+        }
+    }
+
+    @Test
+    void testLevelsSplitValuesIntoThresholdCells() {
+        RuleCompiler ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(), new GreaterThanEvaluator(), new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator()));
+        List<CompiledRule> compiledRules = List.of(
+                ruleCompiler.compile(rule("creditScore", "LESS_THAN", "600", 30), 0),
+                ruleCompiler.compile(rule("creditScore", "LESS_THAN", "700", 10), 1),
+                ruleCompiler.compile(rule("creditScore", "EQUALS", "700", 5), 2),
+                ruleCompiler.compile(rule("age", "GREATER_THAN", "60", 15), 3),
+                ruleCompiler.compile(rule("loanPurpose", "EQUALS", "CAR", -5), 4));
+        
+        DecisionDiagram diagram = DecisionDiagram.build(new RuleSetSnapshot(1L, compiledRules, List.of()));
+        
+        // creditScore can add up to 40 points and comes first; the text rule is left to the residual rules
+        assertEquals(2, diagram.getLevels().size());
+        FieldLevel creditScore = diagram.getLevels().get(0);
+        assertEquals("creditScore", creditScore.getField().getName());
+        // Below 600, 600, between, 700, above 700
+        assertEquals(5, creditScore.getCellCount());
+        assertArrayEquals(new int[] {40, 10, 10, 5, 0},
+                IntStream.range(0, 5).map(creditScore::getRiskPoints).toArray());
+        assertEquals(1, diagram.getResidualOrder().getRules().size());
+        assertEquals(-5, diagram.getLowestRemainingPoints(0));
+        assertEquals(60, diagram.getHighestRemainingPoints(0));
+    }
+
+    private static LoanApplication application(Random random, int i) {
+        String[] statuses = {"EMPLOYED", "SELF_EMPLOYED", "UNEMPLOYED"};
+        String[] purposes = {"HOME_IMPROVEMENT", "VACATION", "CAR"};
+        Customer customer = Customer.builder()
+                .name("Customer " + i)
+                // Every 40th customer has no credit score
+                .creditScore(i % 40 == 0 ? null : 600 + random.nextInt(101))
+                .age(20 + random.nextInt(41))
+                .annualIncome(new BigDecimal(30000 + 1000 * random.nextInt(60)))
+                .existingDebt(new BigDecimal(500 * random.nextInt(60)))
+                .employmentStatus(statuses[random.nextInt(statuses.length)])
+                .build();
+        return LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal(10000 + 50 * random.nextInt(400)))
+                .loanPurpose(purposes[random.nextInt(purposes.length)])
+                .requestedTermMonths(12 + random.nextInt(49))
+                .build();
+    }
+}
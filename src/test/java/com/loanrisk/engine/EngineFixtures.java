@@ -0,0 +1,61 @@
+package com.loanrisk.engine;
+
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.ScoringRule;
+
+import java.math.BigDecimal;
+
+/**
+ * Rules and customers shared by the rule engine tests
+ */
+public final class EngineFixtures {
+
+    private EngineFixtures() {
+    }
+
+    /**
+     * An enabled rule worth 10 risk points, named after its condition
+     */
+    public static ScoringRule rule(String field, String operator, String ruleValue) {
+        return rule(field, operator, ruleValue, 10);
+    }
+
+    /**
+     * An enabled rule named after its condition
+     */
+    public static ScoringRule rule(String field, String operator, String ruleValue, int riskPoints) {
+        return ScoringRule.builder()
+                .name(field + " " + operator + " " + ruleValue)
+                .field(field)
+                .operator(operator)
+                .ruleValue(ruleValue)
+                .riskPoints(riskPoints)
+                .priority(1)
+                .enabled(true)
+                .build();
+    }
+
+    /**
+     * A stored rule named after its condition, prioritised by its id
+     */
+    public static ScoringRule rule(Long id, String field, String operator, String ruleValue, int riskPoints) {
+        ScoringRule rule = rule(field, operator, ruleValue, riskPoints);
+        rule.setId(id);
+        rule.setPriority(id.intValue());
+        return rule;
+    }
+
+    /**
+     * A customer earning 60000 a year with 1000 of existing debt
+     */
+    public static Customer customer(Integer creditScore, Integer age, String employmentStatus) {
+        return Customer.builder()
+                .name("Jane Doe")
+                .age(age)
+                .annualIncome(new BigDecimal("60000"))
+                .creditScore(creditScore)
+                .employmentStatus(employmentStatus)
+                .existingDebt(new BigDecimal("1000"))
+                .build();
+    }
+}
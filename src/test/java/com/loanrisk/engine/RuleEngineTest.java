@@ -1,7 +1,21 @@
 package com.loanrisk.engine;
 
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.EqualsEvaluator;
+import com.loanrisk.engine.evaluator.GreaterThanEvaluator;
+import com.loanrisk.engine.evaluator.LessThanEvaluator;
 import com.loanrisk.engine.factory.RuleEvaluatorFactory;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
 import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.ordering.impl.AdaptiveRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.impl.CachingRuleSetProvider;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
@@ -12,13 +26,15 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class RuleEngineTest {
@@ -26,25 +42,29 @@ class RuleEngineTest {
     @Mock
     private ScoringRuleRepository scoringRuleRepository;
 
-    @Mock
-    private RuleEvaluatorFactory ruleEvaluatorFactory;
-
-    @Mock
-    private RuleEvaluator equalsEvaluator;
-
-    @Mock
-    private RuleEvaluator greaterThanEvaluator;
-
     private RuleEngine ruleEngine;
+    private EvaluationContextFactory evaluationContextFactory;
+    private RuleCompiler ruleCompiler;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        ruleEngine = new RuleEngineImpl(scoringRuleRepository, ruleEvaluatorFactory);
         
-        // Setup mock evaluators
-        when(ruleEvaluatorFactory.getEvaluator("EQUALS")).thenReturn(equalsEvaluator);
-        when(ruleEvaluatorFactory.getEvaluator("GREATER_THAN")).thenReturn(greaterThanEvaluator);
+        // Setup real evaluators and compiler
+        RuleEvaluatorFactory ruleEvaluatorFactory = new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(), new GreaterThanEvaluator(), new LessThanEvaluator()));
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(ruleEvaluatorFactory, fieldRegistry);
+        evaluationContextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+        ruleEngine = createRuleEngine(new CachingRuleSetProvider(scoringRuleRepository, ruleCompiler), evaluationContextFactory);
+    }
+
+    /**
+     * Create the engine under test; subclasses replay these cases against other engines
+     */
+    RuleEngine createRuleEngine(RuleSetProvider ruleSetProvider, EvaluationContextFactory evaluationContextFactory) {
+        return new RuleEngineImpl(ruleSetProvider, evaluationContextFactory, new RiskLevelDeterminer());
     }
 
     @Test
@@ -97,10 +117,6 @@ class RuleEngineTest {
         when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
                 .thenReturn(Arrays.asList(rule1, rule2));
         
-        // Setup mock evaluators
-        when(greaterThanEvaluator.evaluate(customer.getCreditScore(), "700")).thenReturn(true);
-        when(equalsEvaluator.evaluate(loanApplication.getLoanPurpose(), "HOME_IMPROVEMENT")).thenReturn(true);
-        
         // Test rule evaluation
         List<ScoringRule> triggeredRules = ruleEngine.evaluateRules(loanApplication, customer, derivedFields);
         
@@ -111,6 +127,288 @@ class RuleEngineTest {
         assertTrue(triggeredRules.contains(rule2));
     }
 
+    @Test
+    void testEvaluateRulesWithOperatorAliasesAndUnknownFields() {
+        Customer customer = Customer.builder()
+                .name("Jane Doe")
+                .age(20)
+                .annualIncome(new BigDecimal("40000"))
+                .creditScore(650)
+                .employmentStatus("EMPLOYED")
+                .existingDebt(new BigDecimal("5000"))
+                .build();
+        
+        LoanApplication loanApplication = LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal("10000"))
+                .loanPurpose("vacation")
+                .requestedTermMonths(24)
+                .build();
+        
+        Map<String, Object> derivedFields = new HashMap<>();
+        derivedFields.put("loanToIncomeRatio", new BigDecimal("0.25"));
+        
+        // Symbolic operators as used in the initial migration
+        ScoringRule creditAverage = ScoringRule.builder()
+                .id(1L).name("Credit average").field("creditScore").operator("<").ruleValue("700")
+                .riskPoints(15).priority(1).enabled(true).build();
+        ScoringRule vacationLoan = ScoringRule.builder()
+                .id(2L).name("Vacation loan").field("loanPurpose").operator("==").ruleValue("vacation")
+                .riskPoints(10).priority(2).enabled(true).build();
+        ScoringRule loanRatio = ScoringRule.builder()
+                .id(3L).name("Loan-to-income high").field("loanToIncomeRatio").operator(">").ruleValue("0.5")
+                .riskPoints(25).priority(3).enabled(true).build();
+        // Unknown field is rejected when the rules are compiled
+        ScoringRule unknownField = ScoringRule.builder()
+                .id(4L).name("Unknown field").field("loanRatio").operator(">").ruleValue("0")
+                .riskPoints(25).priority(4).enabled(true).build();
+        
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(creditAverage, vacationLoan, loanRatio, unknownField));
+        
+        List<ScoringRule> triggeredRules = ruleEngine.evaluateRules(loanApplication, customer, derivedFields);
+        
+        assertEquals(List.of(creditAverage, vacationLoan), triggeredRules);
+    }
+
+    @Test
+    void testEvaluateRulesInBatch() {
+        ScoringRule lowCredit = ScoringRule.builder()
+                .id(1L).name("Low credit").field("creditScore").operator("LESS_THAN").ruleValue("600")
+                .riskPoints(30).priority(1).enabled(true).build();
+        ScoringRule highDebt = ScoringRule.builder()
+                .id(2L).name("High debt").field("debtToIncomeRatio").operator("GREATER_THAN").ruleValue("0.4")
+                .riskPoints(20).priority(2).enabled(true).build();
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(lowCredit, highDebt));
+        
+        List<LoanApplication> loanApplications = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Customer customer = Customer.builder()
+                    .name("Customer " + i)
+                    .age(30)
+                    .annualIncome(new BigDecimal("60000"))
+                    .creditScore(500 + i % 200)
+                    .employmentStatus("EMPLOYED")
+                    .existingDebt(new BigDecimal(i * 10))
+                    .build();
+            loanApplications.add(LoanApplication.builder()
+                    .customer(customer)
+                    .loanAmount(new BigDecimal("20000"))
+                    .loanPurpose("CAR")
+                    .requestedTermMonths(36)
+                    .build());
+        }
+        
+        List<List<ScoringRule>> sequential = ruleEngine.evaluateRules(loanApplications, false);
+        List<List<ScoringRule>> parallel = ruleEngine.evaluateRules(loanApplications, true);
+        
+        assertEquals(loanApplications.size(), sequential.size());
+        assertEquals(sequential, parallel);
+        for (int i = 0; i < loanApplications.size(); i++) {
+            // Debt of i * 10 against a monthly income of 5000 rounds to more than 0.40 from i = 203
+            List<ScoringRule> expected = new ArrayList<>();
+            if (500 + i % 200 < 600) {
+                expected.add(lowCredit);
+            }
+            if (i >= 203) {
+                expected.add(highDebt);
+            }
+            assertEquals(expected, sequential.get(i), "application " + i);
+        }
+        
+        List<Integer> scores = ruleEngine.evaluateRules(loanApplications, true,
+                (context, result) -> result.getRiskScore());
+        assertEquals(30, scores.get(50));
+        assertEquals(0, scores.get(100));
+        assertEquals(20, scores.get(300));
+        assertEquals(50, scores.get(450));
+        
+        List<EvaluationResult> results = ruleEngine.evaluate(loanApplications, false);
+        assertEquals(loanApplications.size(), results.size());
+        assertEquals(sequential.get(450), results.get(450).getTriggeredRules());
+        assertEquals(RiskLevelDeterminer.DECISION_APPROVE, results.get(100).getDecision());
+        assertEquals(RiskLevelDeterminer.RISK_LEVEL_MEDIUM, results.get(450).getRiskLevel());
+        
+        // The snapshot is loaded once, however many applications are evaluated
+        verify(scoringRuleRepository, times(1)).findByEnabledTrueOrderByPriorityAsc();
+    }
+
+    @Test
+    void testEvaluate() {
+        Customer customer = Customer.builder()
+                .name("John Doe")
+                .age(35)
+                .annualIncome(new BigDecimal("60000"))
+                .creditScore(550)
+                .employmentStatus("EMPLOYED")
+                .existingDebt(new BigDecimal("10000"))
+                .build();
+        
+        LoanApplication loanApplication = LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal("20000"))
+                .loanPurpose("HOME_IMPROVEMENT")
+                .requestedTermMonths(36)
+                .build();
+        
+        ScoringRule lowCredit = ScoringRule.builder()
+                .id(1L).name("Low credit").field("creditScore").operator("LESS_THAN").ruleValue("600")
+                .riskPoints(40).priority(1).enabled(true).build();
+        ScoringRule youngApplicant = ScoringRule.builder()
+                .id(2L).name("Young applicant").field("age").operator("LESS_THAN").ruleValue("25")
+                .riskPoints(10).priority(2).enabled(true).build();
+        ScoringRule homeImprovement = ScoringRule.builder()
+                .id(3L).name("Home improvement").field("loanPurpose").operator("EQUALS").ruleValue("HOME_IMPROVEMENT")
+                .riskPoints(25).priority(3).enabled(true).build();
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(lowCredit, youngApplicant, homeImprovement));
+        
+        EvaluationResult result = ruleEngine.evaluate(evaluationContextFactory.getContext(loanApplication, customer));
+        
+        assertEquals(2, result.getTriggeredRuleCount());
+        assertTrue(result.isTriggered(0));
+        assertFalse(result.isTriggered(1));
+        assertTrue(result.isTriggered(2));
+        assertEquals(List.of(lowCredit, homeImprovement), result.getTriggeredRules());
+        assertEquals(65, result.getRiskScore());
+        assertEquals(RiskLevelDeterminer.RISK_LEVEL_HIGH, result.getRiskLevel());
+        assertEquals(RiskLevelDeterminer.DECISION_REJECT, result.getDecision());
+        assertEquals(ruleEngine.generateExplanation(List.of(lowCredit, homeImprovement)), result.getExplanation());
+        
+        // The triggered rule indexes cannot be changed through the result
+        result.getTriggeredRuleIndexes().clear();
+        assertEquals(2, result.getTriggeredRuleCount());
+    }
+
+    @Test
+    void testEvaluateDecisionOnlyStopsOnceDecisionIsFixed() {
+        ScoringRule homeImprovement = ScoringRule.builder()
+                .id(1L).name("Home improvement").field("loanPurpose").operator("EQUALS").ruleValue("HOME_IMPROVEMENT")
+                .riskPoints(5).priority(1).enabled(true).build();
+        ScoringRule underForty = ScoringRule.builder()
+                .id(2L).name("Under forty").field("age").operator("LESS_THAN").ruleValue("40")
+                .riskPoints(30).priority(2).enabled(true).build();
+        ScoringRule lowCredit = ScoringRule.builder()
+                .id(3L).name("Low credit").field("creditScore").operator("LESS_THAN").ruleValue("600")
+                .riskPoints(40).priority(3).enabled(true).build();
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(homeImprovement, underForty, lowCredit));
+        
+        // 40 + 30 points pass the REJECT threshold before the 5 point rule is reached
+        LoanApplication rejected = loanApplication(35, 550, "HOME_IMPROVEMENT");
+        EvaluationResult full = ruleEngine.evaluate(evaluationContextFactory.getContext(rejected, rejected.getCustomer()));
+        EvaluationResult decisionOnly = ruleEngine.evaluate(
+                evaluationContextFactory.getContext(rejected, rejected.getCustomer()), EvaluationMode.DECISION_ONLY);
+        
+        assertFalse(full.isPartial());
+        assertEquals(75, full.getRiskScore());
+        assertTrue(decisionOnly.isPartial());
+        assertEquals(RiskLevelDeterminer.DECISION_REJECT, decisionOnly.getDecision());
+        assertEquals(RiskLevelDeterminer.RISK_LEVEL_HIGH, decisionOnly.getRiskLevel());
+        assertEquals(70, decisionOnly.getRiskScore());
+        assertEquals(List.of(underForty, lowCredit), decisionOnly.getTriggeredRules());
+        assertTrue(decisionOnly.getExplanation().endsWith(EvaluationResult.PARTIAL_EXPLANATION_NOTE));
+        assertFalse(full.getExplanation().contains(EvaluationResult.PARTIAL_EXPLANATION_NOTE));
+        
+        // With neither large rule triggered, the 5 point rule cannot lift the score above the APPROVE threshold
+        LoanApplication approved = loanApplication(45, 700, "HOME_IMPROVEMENT");
+        decisionOnly = ruleEngine.evaluate(
+                evaluationContextFactory.getContext(approved, approved.getCustomer()), EvaluationMode.DECISION_ONLY);
+        assertTrue(decisionOnly.isPartial());
+        assertEquals(RiskLevelDeterminer.DECISION_APPROVE, decisionOnly.getDecision());
+        assertEquals(0, decisionOnly.getTriggeredRuleCount());
+        
+        // Batches give the same decisions as full evaluations
+        List<LoanApplication> loanApplications = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            loanApplications.add(loanApplication(20 + i % 40, 500 + i, i % 3 == 0 ? "HOME_IMPROVEMENT" : "CAR"));
+        }
+        List<EvaluationResult> fullResults = ruleEngine.evaluate(loanApplications, true, EvaluationMode.FULL);
+        List<EvaluationResult> decisionResults = ruleEngine.evaluate(loanApplications, true, EvaluationMode.DECISION_ONLY);
+        for (int i = 0; i < loanApplications.size(); i++) {
+            assertEquals(fullResults.get(i).getDecision(), decisionResults.get(i).getDecision(), "application " + i);
+            assertFalse(fullResults.get(i).isPartial());
+        }
+    }
+
+    @Test
+    void testEvaluateDecisionOnlyWithNegativePoints() {
+        ScoringRule underForty = ScoringRule.builder()
+                .id(1L).name("Under forty").field("age").operator("LESS_THAN").ruleValue("40")
+                .riskPoints(30).priority(1).enabled(true).build();
+        ScoringRule lowCredit = ScoringRule.builder()
+                .id(2L).name("Low credit").field("creditScore").operator("LESS_THAN").ruleValue("600")
+                .riskPoints(40).priority(2).enabled(true).build();
+        ScoringRule carLoan = ScoringRule.builder()
+                .id(3L).name("Car loan").field("loanPurpose").operator("EQUALS").ruleValue("CAR")
+                .riskPoints(-50).priority(3).enabled(true).build();
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(underForty, lowCredit, carLoan));
+        
+        // 70 points would be a rejection, but the negative rule can still bring the score down
+        LoanApplication loanApplication = loanApplication(35, 550, "CAR");
+        EvaluationResult result = ruleEngine.evaluate(
+                evaluationContextFactory.getContext(loanApplication, loanApplication.getCustomer()), EvaluationMode.DECISION_ONLY);
+        
+        assertFalse(result.isPartial());
+        assertEquals(20, result.getRiskScore());
+        assertEquals(RiskLevelDeterminer.DECISION_APPROVE, result.getDecision());
+    }
+
+    @Test
+    void testEvaluateDecisionOnlyWithAdaptiveOrdering() {
+        ScoringRule homeImprovement = ScoringRule.builder()
+                .id(1L).name("Home improvement").field("loanPurpose").operator("EQUALS").ruleValue("HOME_IMPROVEMENT")
+                .riskPoints(5).priority(1).enabled(true).build();
+        ScoringRule underForty = ScoringRule.builder()
+                .id(2L).name("Under forty").field("age").operator("LESS_THAN").ruleValue("40")
+                .riskPoints(30).priority(2).enabled(true).build();
+        ScoringRule lowCredit = ScoringRule.builder()
+                .id(3L).name("Low credit").field("creditScore").operator("LESS_THAN").ruleValue("600")
+                .riskPoints(40).priority(3).enabled(true).build();
+        ScoringRule carLoan = ScoringRule.builder()
+                .id(4L).name("Car loan").field("loanPurpose").operator("EQUALS").ruleValue("CAR")
+                .riskPoints(-20).priority(4).enabled(true).build();
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(homeImprovement, underForty, lowCredit, carLoan));
+        RuleEngine adaptiveEngine = new RuleEngineImpl(new CachingRuleSetProvider(scoringRuleRepository, ruleCompiler),
+                evaluationContextFactory, new RiskLevelDeterminer(), new AdaptiveRuleOrdering(4, 16));
+        
+        // Reordering changes which rules are skipped, but neither the decisions nor the order of the reported rules
+        List<LoanApplication> loanApplications = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            loanApplications.add(loanApplication(20 + i % 40, 500 + i % 200, i % 3 == 0 ? "HOME_IMPROVEMENT" : "CAR"));
+        }
+        List<EvaluationResult> fullResults = adaptiveEngine.evaluate(loanApplications, false, EvaluationMode.FULL);
+        List<EvaluationResult> decisionResults = adaptiveEngine.evaluate(loanApplications, true, EvaluationMode.DECISION_ONLY);
+        for (int i = 0; i < loanApplications.size(); i++) {
+            assertEquals(fullResults.get(i).getDecision(), decisionResults.get(i).getDecision(), "application " + i);
+            List<ScoringRule> triggeredRules = decisionResults.get(i).getTriggeredRules();
+            assertTrue(fullResults.get(i).getTriggeredRules().containsAll(triggeredRules), "application " + i);
+            for (int j = 1; j < triggeredRules.size(); j++) {
+                assertTrue(triggeredRules.get(j - 1).getPriority() < triggeredRules.get(j).getPriority(), "application " + i);
+            }
+        }
+    }
+
+    private static LoanApplication loanApplication(int age, int creditScore, String loanPurpose) {
+        Customer customer = Customer.builder()
+                .name("Customer")
+                .age(age)
+                .annualIncome(new BigDecimal("60000"))
+                .creditScore(creditScore)
+                .employmentStatus("EMPLOYED")
+                .existingDebt(new BigDecimal("10000"))
+                .build();
+        return LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal("20000"))
+                .loanPurpose(loanPurpose)
+                .requestedTermMonths(36)
+                .build();
+    }
+
     @Test
     void testCalculateRiskScore() {
         // Create test rules
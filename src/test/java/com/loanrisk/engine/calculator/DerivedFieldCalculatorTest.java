@@ -1,6 +1,11 @@
 package com.loanrisk.engine.calculator;
 
 import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.field.FieldRegistry;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,7 +13,9 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +88,100 @@ class DerivedFieldCalculatorTest {
         assertTrue(totalDebtRatio.compareTo(debtToIncomeRatio) > 0);
     }
 
+    @Test
+    void testFixedPointCalculationMatchesBigDecimalCalculation() {
+        FieldRegistry fieldRegistry = new DefaultFieldRegistry(calculator);
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, calculator);
+        EvaluationContext context = contextFactory.createContext();
+        Random random = new Random(7);
+        
+        for (int i = 0; i < 2000; i++) {
+            Customer randomCustomer = Customer.builder()
+                    .name("Random Customer")
+                    .age(18 + random.nextInt(80))
+                    .annualIncome(BigDecimal.valueOf(1 + random.nextInt(50_000_000), random.nextInt(3)))
+                    .creditScore(720)
+                    .employmentStatus("EMPLOYED")
+                    .existingDebt(BigDecimal.valueOf(random.nextInt(10_000_000), random.nextInt(3)))
+                    .build();
+            LoanApplication randomApplication = LoanApplication.builder()
+                    .customer(randomCustomer)
+                    .loanAmount(BigDecimal.valueOf(1 + random.nextInt(100_000_000), random.nextInt(3)))
+                    .loanPurpose("CAR")
+                    .requestedTermMonths(1 + random.nextInt(360))
+                    .build();
+            
+            Map<String, Object> expected = calculator.calculateDerivedFields(randomCustomer, randomApplication);
+            contextFactory.populate(context, randomApplication, randomCustomer);
+            
+            for (String name : calculator.getDerivedFieldNames()) {
+                int slot = fieldRegistry.getField(name).getSlot();
+                assertTrue(context.hasFixedPointValue(slot), name);
+                assertEquals(expected.get(name), context.getValue(slot), name + " for " + randomCustomer + " " + randomApplication);
+            }
+        }
+    }
+
+    @Test
+    void testAmountsWithMoreDecimalPlacesUseBigDecimalCalculation() {
+        FieldRegistry fieldRegistry = new DefaultFieldRegistry(calculator);
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, calculator);
+        customer.setAnnualIncome(new BigDecimal("60000.005"));
+        
+        EvaluationContext context = contextFactory.getContext(loanApplication, customer);
+        
+        Map<String, Object> expected = calculator.calculateDerivedFields(customer, loanApplication);
+        for (String name : calculator.getDerivedFieldNames()) {
+            int slot = fieldRegistry.getField(name).getSlot();
+            // Only the fields calculated from the annual income need BigDecimals
+            boolean fromAnnualIncome = calculator.getDependencies(name).contains("annualIncome");
+            assertEquals(!fromAnnualIncome, context.hasFixedPointValue(slot), name);
+            assertEquals(expected.get(name), context.getValue(slot), name);
+        }
+    }
+
+    @Test
+    void testDependenciesAreListedBeforeDependentFields() {
+        List<String> names = List.of(calculator.getDerivedFieldNames());
+        for (int i = 0; i < names.size(); i++) {
+            for (String dependency : calculator.getDependencies(names.get(i))) {
+                assertTrue(names.indexOf(dependency) < i, names.get(i) + " depends on " + dependency);
+            }
+        }
+        assertEquals(List.of("existingDebt", "annualIncome", DefaultDerivedFieldCalculator.MONTHLY_LOAN_PAYMENT),
+                calculator.getDependencies(DefaultDerivedFieldCalculator.TOTAL_DEBT_RATIO));
+        assertThrows(IllegalArgumentException.class, () -> calculator.getDependencies("creditScore"));
+    }
+
+    @Test
+    void testMonthlyPaymentMatchesCompoundInterestFormula() {
+        FieldRegistry fieldRegistry = new DefaultFieldRegistry(calculator);
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, calculator);
+        int slot = fieldRegistry.getField(DefaultDerivedFieldCalculator.MONTHLY_LOAN_PAYMENT).getSlot();
+        Random random = new Random(5);
+        
+        // Terms outside the accepted range are calculated without the precomputed factors
+        for (int term = 1; term <= 400; term++) {
+            for (String amount : new String[] {"1000", "20000.00", "999999999.99", "12345.678",
+                    BigDecimal.valueOf(100_000 + random.nextInt(100_000_000), 2).toPlainString()}) {
+                loanApplication.setLoanAmount(new BigDecimal(amount));
+                loanApplication.setRequestedTermMonths(term);
+                BigDecimal expected = compoundInterestPayment(new BigDecimal(amount), term);
+                
+                Map<String, Object> derivedFields = calculator.calculateDerivedFields(customer, loanApplication);
+                assertEquals(expected, derivedFields.get(DefaultDerivedFieldCalculator.MONTHLY_LOAN_PAYMENT), amount + " over " + term);
+                assertEquals(expected, contextFactory.getContext(loanApplication, customer).getValue(slot), amount + " over " + term);
+            }
+        }
+    }
+
+    private static BigDecimal compoundInterestPayment(BigDecimal principal, int termMonths) {
+        BigDecimal monthlyRate = new BigDecimal("0.055").divide(new BigDecimal("12"), 8, RoundingMode.HALF_UP);
+        BigDecimal compoundFactor = BigDecimal.ONE.add(monthlyRate).pow(termMonths);
+        return principal.multiply(monthlyRate).multiply(compoundFactor)
+                .divide(compoundFactor.subtract(BigDecimal.ONE), 2, RoundingMode.HALF_UP);
+    }
+
     @Test
     void testGetDerivedFieldNames() {
         String[] fieldNames = calculator.getDerivedFieldNames();
@@ -0,0 +1,188 @@
+package com.loanrisk.engine.codegen;
+
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.codegen.impl.AsmRuleSetClassGenerator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.loanrisk.engine.EngineFixtures.customer;
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleSetClassGeneratorTest {
+
+    private RuleCompiler ruleCompiler;
+    private EvaluationContextFactory contextFactory;
+    private RuleSetClassGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        List<RuleEvaluator> evaluators = Arrays.asList(
+                new EqualsEvaluator(),
+                new NotEqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator(),
+                new NotContainsEvaluator(),
+                new StartsWithEvaluator(),
+                new EndsWithEvaluator()
+        );
+        
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(evaluators), fieldRegistry);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+        generator = new AsmRuleSetClassGenerator();
+    }
+
+    @Test
+    void testGeneratedMatcherAgreesWithInterpretedRules() {
+        String[] comparisons = {"EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+        List<ScoringRule> rules = new ArrayList<>();
+        for (String operator : comparisons) {
+            rules.add(rule("creditScore", operator, "650"));
+            rules.add(rule("requestedTermMonths", operator, "36"));
+            rules.add(rule("loanAmount", operator, "20000.00"));
+            rules.add(rule("debtToIncomeRatio", operator, "0.4"));
+            rules.add(rule("employmentStatus", operator, "EMPLOYED"));
+        }
+        rules.add(rule("loanPurpose", "CONTAINS", "VACATION"));
+        rules.add(rule("loanPurpose", "NOT_CONTAINS", "HOME"));
+        rules.add(rule("loanPurpose", "STARTS_WITH", "HOME"));
+        rules.add(rule("loanPurpose", "ENDS_WITH", "MENT"));
+        
+        RuleSetSnapshot snapshot = compile(rules);
+        RuleSetMatcher matcher = generator.generate(snapshot);
+        
+        assertMatchesInterpreted(snapshot, matcher, customer(650, 40, "EMPLOYED"), loan("20000", "HOME_IMPROVEMENT", 36), derived("0.4"));
+        assertMatchesInterpreted(snapshot, matcher, customer(580, 40, "SELF_EMPLOYED"), loan("5000", "VACATION", 12), derived("0.75"));
+        assertMatchesInterpreted(snapshot, matcher, customer(800, 40, "UNEMPLOYED"), loan("75000.5", "CAR", 360), derived("0.1"));
+    }
+
+    @Test
+    void testThresholdsBetweenCentsAgreeWithInterpretedRules() {
+        String[] comparisons = {"EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+        List<ScoringRule> rules = new ArrayList<>();
+        for (String operator : comparisons) {
+            rules.add(rule("debtToIncomeRatio", operator, "0.405"));
+            rules.add(rule("loanAmount", operator, "20000.001"));
+        }
+        
+        RuleSetSnapshot snapshot = compile(rules);
+        RuleSetMatcher matcher = generator.generate(snapshot);
+        
+        for (String value : new String[] {"0.40", "0.41", "0.405"}) {
+            assertMatchesInterpreted(snapshot, matcher, customer(700, 40, "EMPLOYED"), loan("20000", "CAR", 36), derived(value));
+            assertMatchesInterpreted(snapshot, matcher, customer(700, 40, "EMPLOYED"), loan("20000.01", "CAR", 36), derived(value));
+        }
+        // 0.41 is above 0.405, so only NOT_EQUALS, GREATER_THAN and GREATER_THAN_OR_EQUAL trigger on the ratio
+        BitSet triggered = matcher.match(
+                contextFactory.createContext(loan("20000", "CAR", 36), customer(700, 40, "EMPLOYED"), derived("0.41")));
+        BitSet ratioRules = new BitSet();
+        for (int i = 0; i < rules.size(); i += 2) {
+            ratioRules.set(i);
+        }
+        triggered.and(ratioRules);
+        assertEquals(BitSet.valueOf(new long[] {0b101_0100}), triggered);
+    }
+
+    @Test
+    void testMissingValuesDoNotTriggerRules() {
+        RuleSetSnapshot snapshot = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600"),
+                rule("loanPurpose", "NOT_CONTAINS", "HOME"),
+                rule("debtToIncomeRatio", "GREATER_THAN", "0.4")));
+        RuleSetMatcher matcher = generator.generate(snapshot);
+        
+        BitSet triggered = matcher.match(
+                contextFactory.createContext(loan("1000", null, 12), customer(null, 40, "EMPLOYED"), new HashMap<>()));
+        
+        assertTrue(triggered.isEmpty());
+    }
+
+    @Test
+    void testDerivedValueOfUnexpectedTypeFallsBackToInterpretedRule() {
+        RuleSetSnapshot snapshot = compile(List.of(rule("debtToIncomeRatio", "GREATER_THAN", "0.4")));
+        RuleSetMatcher matcher = generator.generate(snapshot);
+        
+        Map<String, Object> derivedFields = new HashMap<>();
+        derivedFields.put("debtToIncomeRatio", 1);
+        
+        assertMatchesInterpreted(snapshot, matcher, customer(700, 40, "EMPLOYED"), loan("1000", "CAR", 12), derivedFields);
+    }
+
+    @Test
+    void testLargeRuleSetIsSplitAcrossMethods() {
+        List<ScoringRule> rules = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rules.add(rule("creditScore", "LESS_THAN", String.valueOf(300 + i)));
+        }
+        
+        RuleSetSnapshot snapshot = compile(rules);
+        BitSet triggered = generator.generate(snapshot).match(
+                contextFactory.createContext(loan("1000", "CAR", 12), customer(700, 40, "EMPLOYED"), derived("0.1")));
+        
+        // creditScore 700 is below the thresholds 701..1299
+        assertEquals(599, triggered.cardinality());
+        assertEquals(401, triggered.nextSetBit(0));
+    }
+
+    private void assertMatchesInterpreted(RuleSetSnapshot snapshot, RuleSetMatcher matcher, Customer customer,
+                                          LoanApplication loanApplication, Map<String, Object> derivedFields) {
+        EvaluationContext context = contextFactory.createContext(loanApplication, customer, derivedFields);
+        BitSet expected = new BitSet();
+        for (CompiledRule compiledRule : snapshot.getCompiledRules()) {
+            if (compiledRule.matches(context)) {
+                expected.set(compiledRule.getIndex());
+            }
+        }
+        
+        assertEquals(expected, matcher.match(context));
+    }
+
+    private RuleSetSnapshot compile(List<ScoringRule> rules) {
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        for (ScoringRule rule : rules) {
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        }
+        return new RuleSetSnapshot(1L, compiledRules, List.of());
+    }
+
+    private LoanApplication loan(String loanAmount, String loanPurpose, int requestedTermMonths) {
+        return LoanApplication.builder()
+                .loanAmount(new BigDecimal(loanAmount))
+                .loanPurpose(loanPurpose)
+                .requestedTermMonths(requestedTermMonths)
+                .build();
+    }
+
+    private Map<String, Object> derived(String debtToIncomeRatio) {
+        Map<String, Object> derivedFields = new HashMap<>();
+        derivedFields.put("debtToIncomeRatio", new BigDecimal(debtToIncomeRatio));
+        return derivedFields;
+    }
+}
@@ -0,0 +1,96 @@
+package com.loanrisk.engine.columnar;
+
+import com.loanrisk.engine.columnar.ColumnKernel.Comparison;
+import com.loanrisk.engine.columnar.impl.ScalarColumnKernel;
+import com.loanrisk.engine.columnar.impl.VectorColumnKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnKernelTest {
+
+    private static final int LENGTH = 512;
+
+    @Test
+    void testComparisonsMatchEveryValueInTheColumn() {
+        Random random = new Random(11);
+        int[] intColumn = new int[LENGTH];
+        long[] longColumn = new long[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            intColumn[i] = 600 + random.nextInt(21) - 10;
+            longColumn[i] = 4000 + random.nextInt(21) - 10;
+        }
+        intColumn[7] = Integer.MIN_VALUE;
+        intColumn[8] = Integer.MAX_VALUE;
+        longColumn[7] = Long.MIN_VALUE;
+        longColumn[8] = Long.MAX_VALUE;
+
+        for (ColumnKernel kernel : kernels()) {
+            for (Comparison comparison : Comparison.values()) {
+                long[] bits = new long[LENGTH / 64];
+                // Stale bits must be overwritten
+                Arrays.fill(bits, -1L);
+                kernel.compare(intColumn, LENGTH, comparison, 600, bits);
+                for (int i = 0; i < LENGTH; i++) {
+                    int row = i;
+                    assertEquals(holds(comparison, intColumn[i], 600), (bits[i >>> 6] & 1L << i) != 0,
+                            () -> kernel.getName() + " " + comparison + " int row " + row);
+                }
+
+                Arrays.fill(bits, -1L);
+                kernel.compare(longColumn, LENGTH, comparison, 4000L, bits);
+                for (int i = 0; i < LENGTH; i++) {
+                    int row = i;
+                    assertEquals(holds(comparison, longColumn[i], 4000L), (bits[i >>> 6] & 1L << i) != 0,
+                            () -> kernel.getName() + " " + comparison + " long row " + row);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPointsAreAddedToTriggeredRowsOnly() {
+        Random random = new Random(12);
+        long[] bits = new long[LENGTH / 64];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = random.nextLong();
+        }
+        bits[2] = 0;
+        bits[3] = -1L;
+
+        for (ColumnKernel kernel : kernels()) {
+            int[] scores = new int[LENGTH];
+            kernel.addPoints(bits, 15, scores, LENGTH);
+            kernel.addPoints(bits, -5, scores, LENGTH);
+            for (int i = 0; i < LENGTH; i++) {
+                assertEquals((bits[i >>> 6] & 1L << i) != 0 ? 10 : 0, scores[i], kernel.getName() + " row " + i);
+            }
+        }
+    }
+
+    private static List<ColumnKernel> kernels() {
+        List<ColumnKernel> kernels = new ArrayList<>();
+        kernels.add(new ScalarColumnKernel());
+        // The vectorized kernel needs the JVM to be started with --add-modules jdk.incubator.vector
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            kernels.add(new VectorColumnKernel());
+        }
+        return kernels;
+    }
+
+    private static boolean holds(Comparison comparison, long value, long threshold) {
+        return switch (comparison) {
+            case EQUALS -> value == threshold;
+            case NOT_EQUALS -> value != threshold;
+            case GREATER_THAN -> value > threshold;
+            case GREATER_THAN_OR_EQUAL -> value >= threshold;
+            case LESS_THAN -> value < threshold;
+            case LESS_THAN_OR_EQUAL -> value <= threshold;
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package com.loanrisk.engine.columnar;
+
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.columnar.impl.ScalarColumnKernel;
+import com.loanrisk.engine.columnar.impl.VectorColumnKernel;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.ColumnarRuleEngine;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarRuleEngineTest {
+
+    private static final String[] OPERATORS = {"EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+
+    private RuleCompiler ruleCompiler;
+    private EvaluationContextFactory contextFactory;
+    private RuleSetSnapshot snapshot;
+    private RuleSetProvider ruleSetProvider;
+
+    @BeforeEach
+    void setUp() {
+        List<RuleEvaluator> evaluators = Arrays.asList(
+                new EqualsEvaluator(),
+                new NotEqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator(),
+                new NotContainsEvaluator(),
+                new StartsWithEvaluator(),
+                new EndsWithEvaluator()
+        );
+
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(evaluators), fieldRegistry);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+        ruleSetProvider = new RuleSetProvider() {
+            @Override
+            public RuleSetSnapshot getSnapshot() {
+                return snapshot;
+            }
+
+            @Override
+            public void invalidate() {
+            }
+        };
+    }
+
+    @Test
+    void testColumnarEngineAgreesWithInterpretedEngine() {
+        List<ScoringRule> rules = new ArrayList<>();
+        for (String operator : OPERATORS) {
+            rules.add(rule("creditScore", operator, "650", 20));
+            rules.add(rule("age", operator, "30", 5));
+            rules.add(rule("requestedTermMonths", operator, "36", -5));
+            rules.add(rule("loanAmount", operator, "20000.00", 10));
+            rules.add(rule("debtToIncomeRatio", operator, "0.4", 15));
+            // Between two cents: equality never holds for fixed-point values
+            rules.add(rule("loanToIncomeRatio", operator, "0.405", 7));
+            rules.add(rule("employmentStatus", operator, "EMPLOYED", 3));
+        }
+        rules.add(rule("loanPurpose", "CONTAINS", "VACATION", 10));
+        rules.add(rule("loanPurpose", "NOT_CONTAINS", "HOME", 2));
+        snapshot = compile(rules);
+
+        Random random = new Random(7);
+        List<LoanApplication> applications = new ArrayList<>();
+        // Three blocks, the last one partly filled
+        for (int i = 0; i < 2 * ColumnarRuleEngine.BLOCK_SIZE + 300; i++) {
+            applications.add(application(random, i));
+        }
+
+        RuleEngineImpl interpreted = new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+        List<List<ScoringRule>> expected = interpreted.evaluateRules(applications, false);
+        List<EvaluationResult> expectedResults = interpreted.evaluate(applications, false);
+
+        for (ColumnKernel kernel : kernels()) {
+            ColumnarRuleEngine columnar = new ColumnarRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), kernel);
+            for (boolean parallel : new boolean[] {false, true}) {
+                ColumnarEvaluation evaluation = columnar.evaluateColumns(applications, parallel);
+                assertEquals(applications.size(), evaluation.size());
+                assertEquals(expected, columnar.evaluateRules(applications, parallel), kernel.getName());
+                List<EvaluationResult> results = columnar.evaluate(applications, parallel);
+                for (int i = 0; i < applications.size(); i++) {
+                    EvaluationResult result = results.get(i);
+                    assertEquals(expectedResults.get(i).getTriggeredRuleIndexes(), result.getTriggeredRuleIndexes(),
+                            kernel.getName() + " application " + i);
+                    assertEquals(expectedResults.get(i).getRiskScore(), result.getRiskScore(), kernel.getName() + " application " + i);
+                    assertEquals(expectedResults.get(i).getDecision(), result.getDecision(), kernel.getName() + " application " + i);
+                }
+                for (int i = 0; i < applications.size(); i++) {
+                    assertEquals(expected.get(i), evaluation.getTriggeredRules(i), kernel.getName() + " application " + i);
+                    assertEquals(interpreted.calculateRiskScore(expected.get(i)), evaluation.getRiskScore(i),
+                            kernel.getName() + " application " + i);
+                }
+
+                for (CompiledRule rule : snapshot.getCompiledRules()) {
+                    long count = expected.stream().filter(triggered -> triggered.contains(rule.getRule())).count();
+                    assertEquals(count, evaluation.getTriggeredCount(rule.getIndex()), rule.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIntegerAndFixedPointRulesAreEvaluatedAsColumns() {
+        snapshot = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600", 30),
+                rule("loanAmount", "GREATER_THAN", "50000", 10),
+                rule("loanAmount", "GREATER_THAN", "1e30", 10),
+                rule("loanPurpose", "CONTAINS", "VACATION", 10),
+                rule("employmentStatus", "EQUALS", "UNEMPLOYED", 40)));
+
+        ColumnarRuleSet ruleSet = ColumnarRuleSet.build(snapshot);
+
+        // The threshold 1e30 has no fixed-point form, and text rules are evaluated row by row
+        assertEquals(2, ruleSet.getColumnRuleCount());
+    }
+
+    private static List<ColumnKernel> kernels() {
+        List<ColumnKernel> kernels = new ArrayList<>();
+        kernels.add(new ScalarColumnKernel());
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            kernels.add(new VectorColumnKernel());
+        }
+        return kernels;
+    }
+
+    private LoanApplication application(Random random, int i) {
+        String[] statuses = {"EMPLOYED", "SELF_EMPLOYED", "UNEMPLOYED"};
+        String[] purposes = {"HOME_IMPROVEMENT", "VACATION", "CAR"};
+        Customer customer = Customer.builder()
+                .name("Customer " + i)
+                // Every 50th customer has no credit score
+                .creditScore(i % 50 == 0 ? null : 640 + random.nextInt(21))
+                .age(25 + random.nextInt(11))
+                .annualIncome(new BigDecimal(40000 + 1000 * random.nextInt(20)))
+                .existingDebt(new BigDecimal(1000 * random.nextInt(20)))
+                .employmentStatus(statuses[random.nextInt(statuses.length)])
+                .build();
+        // Every 70th amount has more decimal places than a column holds
+        BigDecimal loanAmount = i % 70 == 0
+                ? new BigDecimal("20000.005")
+                : new BigDecimal(19990 + random.nextInt(21));
+        return LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(loanAmount)
+                .loanPurpose(purposes[random.nextInt(purposes.length)])
+                .requestedTermMonths(30 + random.nextInt(13))
+                .build();
+    }
+
+    private RuleSetSnapshot compile(List<ScoringRule> rules) {
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        for (ScoringRule rule : rules) {
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        }
+        return new RuleSetSnapshot(1L, compiledRules, List.of());
+    }
+}
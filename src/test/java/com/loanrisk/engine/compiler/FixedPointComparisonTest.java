@@ -0,0 +1,46 @@
+package com.loanrisk.engine.compiler;
+
+import com.loanrisk.engine.context.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointComparisonTest {
+
+    private static final String[] OPERATORS = {
+            "EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+
+    @Test
+    void testComparisonAgreesWithBigDecimal() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            // Rule values with up to four decimal places, so some fall between two fixed-point values
+            BigDecimal operand = BigDecimal.valueOf(random.nextInt(2001) - 1000, random.nextInt(5));
+            String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            FixedPointComparison comparison = FixedPointComparison.of(operator, operand);
+            
+            for (int j = 0; j < 20; j++) {
+                long value = operand.movePointRight(FixedPoint.SCALE).longValue() + random.nextInt(5) - 2;
+                int compared = FixedPoint.toBigDecimal(value).compareTo(operand);
+                boolean expected = switch (operator) {
+                    case "EQUALS" -> compared == 0;
+                    case "NOT_EQUALS" -> compared != 0;
+                    case "GREATER_THAN" -> compared > 0;
+                    case "GREATER_THAN_OR_EQUAL" -> compared >= 0;
+                    case "LESS_THAN" -> compared < 0;
+                    default -> compared <= 0;
+                };
+                assertEquals(expected, comparison.test(value), () -> value + " " + operator + " " + operand);
+            }
+        }
+    }
+
+    @Test
+    void testUnsupportedComparisons() {
+        assertNull(FixedPointComparison.of("CONTAINS", BigDecimal.ONE));
+        assertNull(FixedPointComparison.of("GREATER_THAN", new BigDecimal("1E+30")));
+    }
+}
@@ -0,0 +1,84 @@
+package com.loanrisk.engine.compiler;
+
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.exception.RuleCompilationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleCompilerTest {
+
+    private RuleCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        List<RuleEvaluator> evaluators = Arrays.asList(
+                new EqualsEvaluator(),
+                new NotEqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator(),
+                new NotContainsEvaluator(),
+                new StartsWithEvaluator(),
+                new EndsWithEvaluator()
+        );
+        
+        compiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(evaluators),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator()));
+    }
+
+    @Test
+    void testCompileParsesRuleValueIntoFieldType() {
+        CompiledRule creditRule = compiler.compile(rule("creditScore", "LESS_THAN", "600"), 0);
+        assertEquals(600, creditRule.getOperand());
+        assertEquals(Integer.class, creditRule.getField().getType());
+        
+        CompiledRule ratioRule = compiler.compile(rule("debtToIncomeRatio", "GREATER_THAN", "0.4"), 1);
+        assertEquals(new BigDecimal("0.4"), ratioRule.getOperand());
+        assertTrue(ratioRule.getField().isDerived());
+        assertEquals(1, ratioRule.getIndex());
+        
+        CompiledRule purposeRule = compiler.compile(rule("loanPurpose", "CONTAINS", "vacation"), 2);
+        assertEquals("vacation", purposeRule.getOperand());
+    }
+
+    @Test
+    void testCompileNormalizesOperatorAliases() {
+        assertEquals("LESS_THAN", compiler.compile(rule("creditScore", "<", "600"), 0).getOperator());
+        assertEquals("GREATER_THAN", compiler.compile(rule("loanAmount", ">", "5000"), 0).getOperator());
+        assertEquals("EQUALS", compiler.compile(rule("loanPurpose", "==", "vacation"), 0).getOperator());
+        assertEquals("LESS_THAN_OR_EQUAL", compiler.compile(rule("age", "<=", "25"), 0).getOperator());
+        assertEquals("NOT_EQUALS", compiler.compile(rule("employmentStatus", "!=", "EMPLOYED"), 0).getOperator());
+    }
+
+    @Test
+    void testCompileRejectsUnknownField() {
+        assertThrows(RuleCompilationException.class, () -> compiler.compile(rule("loanRatio", ">", "0.5"), 0));
+    }
+
+    @Test
+    void testCompileRejectsUnknownOperator() {
+        assertThrows(RuleCompilationException.class, () -> compiler.compile(rule("creditScore", "BETWEEN", "600"), 0));
+    }
+
+    @Test
+    void testCompileRejectsInvalidRuleValue() {
+        assertThrows(RuleCompilationException.class, () -> compiler.compile(rule("creditScore", "<", "abc"), 0));
+        assertThrows(RuleCompilationException.class, () -> compiler.compile(rule("loanAmount", ">", "1,000"), 0));
+        // Text operators only apply to text fields
+        assertThrows(RuleCompilationException.class, () -> compiler.compile(rule("creditScore", "CONTAINS", "6"), 0));
+    }
+}
@@ -0,0 +1,154 @@
+package com.loanrisk.engine.context;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.field.FieldDefinition;
+import com.loanrisk.engine.field.FieldRegistry;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationContextFactoryTest {
+
+    private DefaultDerivedFieldCalculator derivedFieldCalculator;
+    private FieldRegistry fieldRegistry;
+    private EvaluationContextFactory contextFactory;
+    private Customer customer;
+    private LoanApplication loanApplication;
+
+    @BeforeEach
+    void setUp() {
+        derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+
+        customer = Customer.builder()
+                .name("John Doe")
+                .age(35)
+                .annualIncome(new BigDecimal("60000.00"))
+                .creditScore(720)
+                .employmentStatus("EMPLOYED")
+                .existingDebt(new BigDecimal("1000.00"))
+                .build();
+
+        loanApplication = LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal("20000.00"))
+                .loanPurpose("HOME_IMPROVEMENT")
+                .requestedTermMonths(36)
+                .build();
+    }
+
+    @Test
+    void testEveryFieldHasItsOwnSlot() {
+        Set<Integer> slots = new HashSet<>();
+        for (FieldDefinition field : fieldRegistry.getFields()) {
+            assertTrue(field.getSlot() >= 0 && field.getSlot() < fieldRegistry.getSlotCount());
+            assertTrue(slots.add(field.getSlot()), () -> "Duplicate slot for " + field);
+        }
+    }
+
+    @Test
+    void testPopulatedContextMatchesCalculatedFields() {
+        EvaluationContext context = contextFactory.createContext();
+        contextFactory.populate(context, loanApplication, customer);
+
+        assertSame(loanApplication, context.getLoanApplication());
+        assertSame(customer, context.getCustomer());
+        assertEquals(720, fieldRegistry.getField("creditScore").read(context));
+        assertEquals("HOME_IMPROVEMENT", fieldRegistry.getField("loanPurpose").read(context));
+
+        Map<String, Object> derivedFields = derivedFieldCalculator.calculateDerivedFields(customer, loanApplication);
+        for (String name : derivedFieldCalculator.getDerivedFieldNames()) {
+            assertEquals(derivedFields.get(name), fieldRegistry.getField(name).read(context), name);
+        }
+    }
+
+    @Test
+    void testContextCreatedFromDerivedFieldMap() {
+        EvaluationContext context = contextFactory.createContext(loanApplication, customer,
+                Map.of("debtToIncomeRatio", new BigDecimal("0.2")));
+
+        assertEquals(new BigDecimal("0.2"), fieldRegistry.getField("debtToIncomeRatio").read(context));
+        assertNull(fieldRegistry.getField("loanToIncomeRatio").read(context));
+        assertEquals(35, fieldRegistry.getField("age").read(context));
+    }
+
+    @Test
+    void testDerivedFieldsAreCalculatedWhenFirstRead() {
+        List<String> calculated = new ArrayList<>();
+        DefaultDerivedFieldCalculator recordingCalculator = new DefaultDerivedFieldCalculator() {
+            @Override
+            public void calculateDerivedField(int index, Customer customer, LoanApplication loanApplication, EvaluationContext context) {
+                calculated.add(getDerivedFieldNames()[index]);
+                super.calculateDerivedField(index, customer, loanApplication, context);
+            }
+        };
+        FieldRegistry registry = new DefaultFieldRegistry(recordingCalculator);
+        EvaluationContextFactory factory = new DefaultEvaluationContextFactory(registry, recordingCalculator);
+        
+        EvaluationContext context = factory.getContext(loanApplication, customer);
+        assertEquals(720, registry.getField("creditScore").read(context));
+        assertEquals(35, registry.getField("age").read(context));
+        assertTrue(calculated.isEmpty());
+        
+        // The monthly loan payment is calculated first, as the total debt ratio depends on it
+        Object totalDebtRatio = registry.getField("totalDebtRatio").read(context);
+        assertEquals(List.of("monthlyLoanPayment", "totalDebtRatio"), calculated);
+        assertEquals(derivedFieldCalculator.calculateDerivedFields(customer, loanApplication).get("totalDebtRatio"), totalDebtRatio);
+        
+        // Values are calculated once per evaluation
+        registry.getField("totalDebtRatio").read(context);
+        registry.getField("monthlyLoanPayment").read(context);
+        assertEquals(2, calculated.size());
+        
+        factory.getContext(loanApplication, customer);
+        registry.getField("monthlyLoanPayment").read(context);
+        assertEquals(List.of("monthlyLoanPayment", "totalDebtRatio", "monthlyLoanPayment"), calculated);
+    }
+
+    @Test
+    void testCyclicDerivedFieldDependenciesAreRejected() {
+        DefaultDerivedFieldCalculator cyclicCalculator = new DefaultDerivedFieldCalculator() {
+            @Override
+            public List<String> getDependencies(String derivedFieldName) {
+                if (derivedFieldName.equals(MONTHLY_LOAN_PAYMENT)) {
+                    return List.of("loanAmount", TOTAL_DEBT_RATIO);
+                }
+                return super.getDependencies(derivedFieldName);
+            }
+        };
+        FieldRegistry registry = new DefaultFieldRegistry(cyclicCalculator);
+        
+        assertThrows(IllegalStateException.class, () -> new DefaultEvaluationContextFactory(registry, cyclicCalculator));
+    }
+
+    @Test
+    void testThreadContextIsReusedAndReset() {
+        EvaluationContext first = contextFactory.getContext(loanApplication, customer);
+
+        Customer other = Customer.builder()
+                .name("Jane Doe")
+                .age(40)
+                .annualIncome(new BigDecimal("80000.00"))
+                .employmentStatus("SELF_EMPLOYED")
+                .existingDebt(BigDecimal.ZERO)
+                .build();
+        EvaluationContext second = contextFactory.getContext(loanApplication, other);
+
+        assertSame(first, second);
+        assertSame(other, second.getCustomer());
+        assertNull(fieldRegistry.getField("creditScore").read(second));
+    }
+}
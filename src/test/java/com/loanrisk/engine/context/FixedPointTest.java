@@ -0,0 +1,50 @@
+package com.loanrisk.engine.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void testDivideHalfUpMatchesBigDecimal() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            long dividend = random.nextLong() >> random.nextInt(64);
+            long divisor = (random.nextLong() >> random.nextInt(64)) | 1;
+            
+            long expected = BigDecimal.valueOf(dividend, 2)
+                    .divide(BigDecimal.valueOf(divisor, 2), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, FixedPoint.divideHalfUp(dividend, divisor), () -> dividend + " / " + divisor);
+        }
+    }
+
+    @Test
+    void testDivideHalfUpRoundsTiesAwayFromZero() {
+        assertEquals(3, FixedPoint.divideHalfUp(5, 2));
+        assertEquals(-3, FixedPoint.divideHalfUp(-5, 2));
+        assertEquals(-3, FixedPoint.divideHalfUp(5, -2));
+        assertEquals(2, FixedPoint.divideHalfUp(7, 4));
+        assertEquals(1, FixedPoint.divideHalfUp(5, 4));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divideHalfUp(1, 0));
+    }
+
+    @Test
+    void testConversion() {
+        assertEquals(6_000_000, FixedPoint.toFixedPoint(new BigDecimal("60000.00")));
+        assertEquals(6_000_000, FixedPoint.toFixedPoint(new BigDecimal("60000")));
+        assertEquals(6_000_000, FixedPoint.toFixedPoint(new BigDecimal("6E+4")));
+        assertEquals(-150, FixedPoint.toFixedPoint(new BigDecimal("-1.5")));
+        assertEquals(new BigDecimal("0.35"), FixedPoint.toBigDecimal(35));
+        
+        assertFalse(FixedPoint.isRepresentable(new BigDecimal("0.355")));
+        assertFalse(FixedPoint.isRepresentable(new BigDecimal("12345678901234567")));
+        assertTrue(FixedPoint.isRepresentable(new BigDecimal("1234567890123456.99")));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.toFixedPoint(new BigDecimal("0.001")));
+    }
+}
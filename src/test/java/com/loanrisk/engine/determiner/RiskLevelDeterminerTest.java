@@ -67,4 +67,18 @@ class RiskLevelDeterminerTest {
         String decision = determiner.determineDecisionFromScore(riskScore);
         assertEquals(expectedDecision, decision);
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @CsvSource({
+            "61, 1000, true",
+            "60, 61, false",
+            "0, 30, true",
+            "-50, 30, true",
+            "30, 31, false",
+            "31, 60, true",
+            "0, 61, false"
+    })
+    void testIsDecisionFixed(int minimumRiskScore, int maximumRiskScore, boolean expected) {
+        assertEquals(expected, determiner.isDecisionFixed(minimumRiskScore, maximumRiskScore));
+    }
+}
@@ -71,4 +71,18 @@ class RuleEvaluatorFactoryTest {
         // Test with unknown operator
         assertNull(factory.getEvaluator("UNKNOWN_OPERATOR"));
     }
+
+    @Test
+    void testGetEvaluatorWithAliases() {
+        assertSame(lessThanEvaluator, factory.getEvaluator("<"));
+        assertSame(lessThanOrEqualEvaluator, factory.getEvaluator("<="));
+        assertSame(greaterThanEvaluator, factory.getEvaluator(">"));
+        assertSame(greaterThanOrEqualEvaluator, factory.getEvaluator(">="));
+        assertSame(equalsEvaluator, factory.getEvaluator("=="));
+        assertSame(notEqualsEvaluator, factory.getEvaluator("!="));
+        
+        assertEquals("LESS_THAN", factory.normalizeOperator("<"));
+        assertEquals("EQUALS", factory.normalizeOperator("EQUALS"));
+        assertNull(factory.normalizeOperator("UNKNOWN_OPERATOR"));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static com.loanrisk.engine.EngineFixtures.customer;
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupTableIndexTest {
+
+    private static final String[] OPERATORS = {"EQUALS", "NOT_EQUALS", "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+
+    private RuleCompiler ruleCompiler;
+    private EvaluationContextFactory contextFactory;
+
+    @BeforeEach
+    void setUp() {
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(),
+                new NotEqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator())),
+                fieldRegistry);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+    }
+
+    @Test
+    void testOnlyRulesOnBoundedFieldsAreIndexed() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600", 10),
+                rule("age", "EQUALS", "30", 10),
+                rule("requestedTermMonths", "GREATER_THAN", "60", 10),
+                rule("loanAmount", "GREATER_THAN", "50000", 10),
+                rule("loanPurpose", "CONTAINS", "VACATION", 10)));
+        
+        LookupTableIndex index = LookupTableIndex.build(rules);
+        
+        BitSet expected = new BitSet();
+        expected.set(0, 3);
+        assertEquals(expected, index.getIndexedRules());
+        
+        // The snapshot leaves them out of its other indexes and of the decision-only order
+        RuleSetSnapshot snapshot = new RuleSetSnapshot(1L, rules, List.of());
+        assertSame(index.getClass(), snapshot.getIndexes().get(0).getClass());
+        for (RuleIndex other : snapshot.getIndexes().subList(1, snapshot.getIndexes().size())) {
+            assertFalse(other.getIndexedRules().intersects(expected));
+        }
+        assertEquals(List.of(rules.get(3), rules.get(4)), snapshot.getRuleOrderByRiskPoints().getRules());
+    }
+
+    @Test
+    void testIndexAgreesWithInterpretedRules() {
+        Random random = new Random(7);
+        List<ScoringRule> scoringRules = new ArrayList<>();
+        // More rules than one word of bitmask holds per field
+        for (int i = 0; i < 600; i++) {
+            String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            int riskPoints = random.nextInt(41) - 10;
+            switch (random.nextInt(3)) {
+                case 0 -> scoringRules.add(rule("creditScore", operator, String.valueOf(300 + random.nextInt(551)), riskPoints));
+                case 1 -> scoringRules.add(rule("age", operator, String.valueOf(18 + random.nextInt(103)), riskPoints));
+                default -> scoringRules.add(rule("requestedTermMonths", operator, String.valueOf(6 + random.nextInt(355)), riskPoints));
+            }
+        }
+        List<CompiledRule> rules = compile(scoringRules);
+        LookupTableIndex index = LookupTableIndex.build(rules);
+        assertEquals(rules.size(), index.getIndexedRules().cardinality());
+        
+        for (int creditScore = 300; creditScore <= 850; creditScore++) {
+            assertIndexMatchesInterpreted(index, rules, loan(6 + creditScore % 355), customer(creditScore, 18 + creditScore % 103, "EMPLOYED"));
+        }
+    }
+
+    @Test
+    void testMissingAndOutOfRangeValues() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600", 10),
+                rule("creditScore", "GREATER_THAN", "800", -5),
+                rule("age", "LESS_THAN", "25", 20),
+                rule("requestedTermMonths", "GREATER_THAN_OR_EQUAL", "360", 15)));
+        LookupTableIndex index = LookupTableIndex.build(rules);
+        
+        BitSet triggered = new BitSet();
+        assertEquals(0, index.matchAndScore(contextFactory.createContext(loan(null), customer(null, null, "EMPLOYED"), new HashMap<>()), triggered));
+        assertTrue(triggered.isEmpty());
+        
+        // Values the request validation would have rejected are evaluated by the rules themselves
+        assertIndexMatchesInterpreted(index, rules, loan(480), customer(250, 16, "EMPLOYED"));
+        assertIndexMatchesInterpreted(index, rules, loan(0), customer(900, 130, "EMPLOYED"));
+        assertIndexMatchesInterpreted(index, rules, loan(360), customer(850, 18, "EMPLOYED"));
+    }
+
+    private void assertIndexMatchesInterpreted(LookupTableIndex index, List<CompiledRule> rules,
+                                               LoanApplication loanApplication, Customer customer) {
+        EvaluationContext context = contextFactory.createContext(loanApplication, customer, new HashMap<>());
+        BitSet expected = new BitSet();
+        int expectedScore = 0;
+        for (CompiledRule rule : rules) {
+            if (rule.matches(context)) {
+                expected.set(rule.getIndex());
+                expectedScore += rule.getRiskPoints();
+            }
+        }
+        
+        BitSet triggered = new BitSet();
+        assertEquals(expectedScore, index.matchAndScore(context, triggered), () -> "Score mismatch for " + customer);
+        assertEquals(expected, triggered, () -> "Mismatch for " + customer);
+        
+        triggered.clear();
+        index.match(context, triggered);
+        assertEquals(expected, triggered);
+    }
+
+    private List<CompiledRule> compile(List<ScoringRule> scoringRules) {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (ScoringRule scoringRule : scoringRules) {
+            rules.add(ruleCompiler.compile(scoringRule, rules.size()));
+        }
+        return rules;
+    }
+
+    private LoanApplication loan(Integer requestedTermMonths) {
+        return LoanApplication.builder()
+                .loanAmount(new BigDecimal("20000"))
+                .loanPurpose("CAR")
+                .requestedTermMonths(requestedTermMonths)
+                .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.loanrisk.engine.EngineFixtures.customer;
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextPatternIndexTest {
+
+    private static final String[] OPERATORS = {"CONTAINS", "NOT_CONTAINS", "STARTS_WITH", "ENDS_WITH"};
+
+    private RuleCompiler ruleCompiler;
+    private EvaluationContextFactory contextFactory;
+
+    @BeforeEach
+    void setUp() {
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(),
+                new LessThanEvaluator(),
+                new ContainsEvaluator(),
+                new NotContainsEvaluator(),
+                new StartsWithEvaluator(),
+                new EndsWithEvaluator())),
+                fieldRegistry);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+    }
+
+    @Test
+    void testOnlyTextMatchingRulesAreIndexed() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("loanPurpose", "CONTAINS", "VACATION"),
+                rule("loanPurpose", "EQUALS", "CAR"),
+                rule("creditScore", "LESS_THAN", "600"),
+                rule("employmentStatus", "STARTS_WITH", "SELF")));
+        
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(3);
+        assertEquals(expected, TextPatternIndex.build(rules).getIndexedRules());
+    }
+
+    @Test
+    void testOverlappingPatterns() {
+        List<ScoringRule> scoringRules = new ArrayList<>();
+        for (String pattern : new String[] {"HE", "SHE", "HIS", "HERS", "E", "", "USHERS", "SH"}) {
+            for (String operator : OPERATORS) {
+                scoringRules.add(rule("loanPurpose", operator, pattern));
+            }
+        }
+        List<CompiledRule> rules = compile(scoringRules);
+        TextPatternIndex index = TextPatternIndex.build(rules);
+        
+        for (String purpose : new String[] {"USHERS", "SHE", "HERSHE", "HISTORY", "", "H", "ÜSHERS", "she"}) {
+            assertIndexMatchesInterpreted(index, rules, loan(purpose), customer(700, 40, "EMPLOYED"));
+        }
+    }
+
+    @Test
+    void testIndexAgreesWithInterpretedRules() {
+        Random random = new Random(11);
+        List<ScoringRule> scoringRules = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String field = random.nextBoolean() ? "loanPurpose" : "employmentStatus";
+            scoringRules.add(rule(field, OPERATORS[random.nextInt(OPERATORS.length)], randomText(random, 1 + random.nextInt(4))));
+        }
+        List<CompiledRule> rules = compile(scoringRules);
+        TextPatternIndex index = TextPatternIndex.build(rules);
+        assertEquals(rules.size(), index.getIndexedRules().cardinality());
+        
+        for (int i = 0; i < 500; i++) {
+            assertIndexMatchesInterpreted(index, rules, loan(randomText(random, random.nextInt(20))),
+                    customer(700, 40, randomText(random, random.nextInt(10))));
+        }
+    }
+
+    @Test
+    void testMissingValueTriggersNothing() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("loanPurpose", "NOT_CONTAINS", "VACATION"),
+                rule("loanPurpose", "CONTAINS", "")));
+        
+        BitSet triggered = new BitSet();
+        TextPatternIndex.build(rules).match(contextFactory.createContext(loan(null), customer(700, 40, "EMPLOYED"), Map.of()), triggered);
+        
+        assertTrue(triggered.isEmpty());
+    }
+
+    private void assertIndexMatchesInterpreted(TextPatternIndex index, List<CompiledRule> rules,
+                                               LoanApplication loanApplication, Customer customer) {
+        EvaluationContext context = contextFactory.createContext(loanApplication, customer, Map.of());
+        BitSet expected = new BitSet();
+        for (CompiledRule rule : rules) {
+            if (rule.matches(context)) {
+                expected.set(rule.getIndex());
+            }
+        }
+        
+        BitSet triggered = new BitSet();
+        index.match(context, triggered);
+        assertEquals(expected, triggered, () -> "Mismatch for " + loanApplication.getLoanPurpose());
+    }
+
+    /**
+     * Random text over a small alphabet, including a non-ASCII character, so that patterns overlap often
+     */
+    private String randomText(Random random, int length) {
+        String alphabet = "ABCÉ_";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    private List<CompiledRule> compile(List<ScoringRule> scoringRules) {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (ScoringRule scoringRule : scoringRules) {
+            rules.add(ruleCompiler.compile(scoringRule, rules.size()));
+        }
+        return rules;
+    }
+
+    private LoanApplication loan(String loanPurpose) {
+        return LoanApplication.builder()
+                .loanAmount(new BigDecimal("10000"))
+                .loanPurpose(loanPurpose)
+                .requestedTermMonths(36)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.loanrisk.engine.index;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.loanrisk.engine.EngineFixtures.customer;
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThresholdIndexTest {
+
+    private static final String[] OPERATORS = {"GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+
+    private RuleCompiler ruleCompiler;
+    private EvaluationContextFactory contextFactory;
+
+    @BeforeEach
+    void setUp() {
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(derivedFieldCalculator);
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator())),
+                fieldRegistry);
+        contextFactory = new DefaultEvaluationContextFactory(fieldRegistry, derivedFieldCalculator);
+    }
+
+    @Test
+    void testOnlyNumericThresholdRulesAreIndexed() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600"),
+                rule("creditScore", "EQUALS", "700"),
+                rule("loanPurpose", "CONTAINS", "VACATION"),
+                rule("debtToIncomeRatio", ">", "0.4")));
+        
+        ThresholdIndex index = ThresholdIndex.build(rules);
+        
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(3);
+        assertEquals(expected, index.getIndexedRules());
+    }
+
+    @Test
+    void testIndexAgreesWithInterpretedRules() {
+        Random random = new Random(7);
+        List<ScoringRule> scoringRules = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String operator = OPERATORS[random.nextInt(OPERATORS.length)];
+            switch (random.nextInt(3)) {
+                case 0 -> scoringRules.add(rule("creditScore", operator, String.valueOf(300 + random.nextInt(551))));
+                case 1 -> scoringRules.add(rule("loanAmount", operator, String.valueOf(1000 + random.nextInt(1000))));
+                default -> scoringRules.add(rule("debtToIncomeRatio", operator,
+                        BigDecimal.valueOf(random.nextInt(200) - 20, random.nextInt(4)).toPlainString()));
+            }
+        }
+        List<CompiledRule> rules = compile(scoringRules);
+        ThresholdIndex index = ThresholdIndex.build(rules);
+        assertEquals(rules.size(), index.getIndexedRules().cardinality());
+        
+        for (int i = 0; i < 500; i++) {
+            Customer customer = customer(300 + random.nextInt(551), 40, "EMPLOYED");
+            LoanApplication loanApplication = loan(BigDecimal.valueOf(100000 + random.nextInt(100000), random.nextInt(3)));
+            Map<String, Object> derivedFields = new HashMap<>();
+            derivedFields.put("debtToIncomeRatio", BigDecimal.valueOf(random.nextInt(3000) - 300, random.nextInt(5)));
+            
+            assertIndexMatchesInterpreted(index, rules, loanApplication, customer, derivedFields);
+        }
+    }
+
+    @Test
+    void testValuesOnAndAroundThresholds() {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (String operator : OPERATORS) {
+            rules.addAll(compile(List.of(
+                    rule("debtToIncomeRatio", operator, "0.4"),
+                    rule("debtToIncomeRatio", operator, "0.45"),
+                    rule("debtToIncomeRatio", operator, "-1"))));
+        }
+        rules = reindex(rules);
+        ThresholdIndex index = ThresholdIndex.build(rules);
+        
+        for (String value : new String[] {"0.4", "0.40", "0.400001", "0.399999", "0.45", "0.449", "0.451", "-1", "-1.0001", "-0.9999",
+                "0", "1E+30", "-1E+30", "0.4000000000000000000000001"}) {
+            Map<String, Object> derivedFields = new HashMap<>();
+            derivedFields.put("debtToIncomeRatio", new BigDecimal(value));
+            
+            assertIndexMatchesInterpreted(index, rules, loan(BigDecimal.TEN), customer(700, 40, "EMPLOYED"), derivedFields);
+        }
+    }
+
+    @Test
+    void testMissingAndUnexpectedValues() {
+        List<CompiledRule> rules = compile(List.of(
+                rule("creditScore", "LESS_THAN", "600"),
+                rule("debtToIncomeRatio", "GREATER_THAN", "0.4")));
+        ThresholdIndex index = ThresholdIndex.build(rules);
+        
+        BitSet triggered = new BitSet();
+        index.match(contextFactory.createContext(loan(BigDecimal.TEN), customer(null, 40, "EMPLOYED"), new HashMap<>()), triggered);
+        assertTrue(triggered.isEmpty());
+        
+        // A derived value that is not a BigDecimal is evaluated by the rule itself
+        Map<String, Object> derivedFields = new HashMap<>();
+        derivedFields.put("debtToIncomeRatio", "0.5");
+        assertIndexMatchesInterpreted(index, rules, loan(BigDecimal.TEN), customer(550, 40, "EMPLOYED"), derivedFields);
+    }
+
+    private void assertIndexMatchesInterpreted(ThresholdIndex index, List<CompiledRule> rules, LoanApplication loanApplication,
+                                               Customer customer, Map<String, Object> derivedFields) {
+        EvaluationContext context = contextFactory.createContext(loanApplication, customer, derivedFields);
+        BitSet expected = new BitSet();
+        for (CompiledRule rule : rules) {
+            if (rule.matches(context)) {
+                expected.set(rule.getIndex());
+            }
+        }
+        
+        BitSet triggered = new BitSet();
+        index.match(context, triggered);
+        assertEquals(expected, triggered, () -> "Mismatch for " + derivedFields);
+    }
+
+    private List<CompiledRule> compile(List<ScoringRule> scoringRules) {
+        List<CompiledRule> rules = new ArrayList<>();
+        for (ScoringRule scoringRule : scoringRules) {
+            rules.add(ruleCompiler.compile(scoringRule, rules.size()));
+        }
+        return rules;
+    }
+
+    private List<CompiledRule> reindex(List<CompiledRule> rules) {
+        return compile(rules.stream().map(CompiledRule::getRule).toList());
+    }
+
+    private LoanApplication loan(BigDecimal loanAmount) {
+        return LoanApplication.builder()
+                .loanAmount(loanAmount)
+                .loanPurpose("CAR")
+                .requestedTermMonths(36)
+                .build();
+    }
+}
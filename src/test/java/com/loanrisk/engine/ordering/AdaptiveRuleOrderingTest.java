@@ -0,0 +1,149 @@
+package com.loanrisk.engine.ordering;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.EqualsEvaluator;
+import com.loanrisk.engine.evaluator.GreaterThanEvaluator;
+import com.loanrisk.engine.evaluator.LessThanEvaluator;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.ordering.impl.AdaptiveRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRuleOrderingTest {
+
+    private static final int REORDER_INTERVAL = 100;
+
+    private RuleCompiler ruleCompiler;
+    private ScoringRule rare;
+    private ScoringRule common;
+    private ScoringRule commonButSlow;
+
+    @BeforeEach
+    void setUp() {
+        DefaultDerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(Arrays.asList(
+                new EqualsEvaluator(), new GreaterThanEvaluator(), new LessThanEvaluator())),
+                new DefaultFieldRegistry(derivedFieldCalculator));
+        rare = rule("loanAmount", "GREATER_THAN", "90000", 40);
+        common = rule("loanAmount", "GREATER_THAN", "10000", 20);
+        commonButSlow = rule("debtToIncomeRatio", "GREATER_THAN", "0.2", 20);
+    }
+
+    @Test
+    void testRulesWithMostRiskPointsComeFirstUntilReordered() {
+        RuleSetSnapshot snapshot = compile(1L, common, commonButSlow, rare);
+        AdaptiveRuleOrdering ordering = new AdaptiveRuleOrdering(1, REORDER_INTERVAL);
+        
+        assertSame(snapshot.getRuleOrderByRiskPoints(), ordering.getOrder(snapshot));
+        assertTrue(ordering.shouldSample(snapshot));
+        
+        for (int i = 0; i < REORDER_INTERVAL - 1; i++) {
+            recordRejectedSample(ordering, snapshot, i);
+        }
+        assertEquals(List.of(rare, common, commonButSlow), rulesOf(ordering.getOrder(snapshot)));
+    }
+
+    @Test
+    void testFrequentCheapRulesComeFirstWhenMostApplicationsAreRejected() {
+        RuleSetSnapshot snapshot = compile(1L, common, commonButSlow, rare);
+        AdaptiveRuleOrdering ordering = new AdaptiveRuleOrdering(1, REORDER_INTERVAL);
+        
+        for (int i = 0; i < REORDER_INTERVAL; i++) {
+            recordRejectedSample(ordering, snapshot, i);
+        }
+        
+        // Twice the points do not make up for triggering in one sample out of a hundred, nor the same points for ten times the cost
+        assertEquals(List.of(common, commonButSlow, rare), rulesOf(ordering.getOrder(snapshot)));
+        RuleOrder order = ordering.getOrder(snapshot);
+        assertEquals(80, order.getHighestRemainingPoints(0));
+        assertEquals(40, order.getHighestRemainingPoints(2));
+        assertEquals(0, order.getLowestRemainingPoints(0));
+    }
+
+    @Test
+    void testRarelyTriggeredRulesComeFirstWhenMostApplicationsAreApproved() {
+        RuleSetSnapshot snapshot = compile(1L, common, rare);
+        AdaptiveRuleOrdering ordering = new AdaptiveRuleOrdering(1, REORDER_INTERVAL);
+        
+        // A rule that seldom triggers rules out its points early, which is what an approval needs
+        for (int i = 0; i < REORDER_INTERVAL; i++) {
+            BitSet triggered = new BitSet();
+            if (i % 10 == 0) {
+                triggered.set(0);
+            }
+            ordering.recordSample(snapshot, triggered, new long[] {100, 100}, RiskLevelDeterminer.DECISION_APPROVE);
+        }
+        
+        assertEquals(List.of(rare, common), rulesOf(ordering.getOrder(snapshot)));
+    }
+
+    @Test
+    void testStatisticsStartOverForNewerSnapshotsOnly() {
+        RuleSetSnapshot first = compile(1L, common, commonButSlow, rare);
+        RuleSetSnapshot second = compile(2L, common, commonButSlow, rare);
+        AdaptiveRuleOrdering ordering = new AdaptiveRuleOrdering(1, REORDER_INTERVAL);
+        
+        for (int i = 0; i < REORDER_INTERVAL; i++) {
+            recordRejectedSample(ordering, first, i);
+        }
+        recordRejectedSample(ordering, second, 0);
+        
+        assertSame(second.getRuleOrderByRiskPoints(), ordering.getOrder(second));
+        assertSame(first.getRuleOrderByRiskPoints(), ordering.getOrder(first));
+        
+        // Samples of evaluations still holding the first snapshot are dropped
+        for (int i = 0; i < REORDER_INTERVAL; i++) {
+            recordRejectedSample(ordering, first, i);
+        }
+        assertSame(second.getRuleOrderByRiskPoints(), ordering.getOrder(second));
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRuleOrdering(0, REORDER_INTERVAL));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRuleOrdering(1, 0));
+    }
+
+    /**
+     * A sample in which the common rules trigger nine times out of ten and the rare rule once in a hundred;
+     * the slow rule takes ten times as long
+     */
+    private void recordRejectedSample(AdaptiveRuleOrdering ordering, RuleSetSnapshot snapshot, int i) {
+        BitSet triggered = new BitSet();
+        if (i % 10 != 0) {
+            triggered.set(0);
+            triggered.set(1);
+        }
+        if (i % 100 == 0) {
+            triggered.set(2);
+        }
+        ordering.recordSample(snapshot, triggered, new long[] {100, 1000, 100}, RiskLevelDeterminer.DECISION_REJECT);
+    }
+
+    private static List<ScoringRule> rulesOf(RuleOrder order) {
+        return order.getRules().stream().map(CompiledRule::getRule).toList();
+    }
+
+    private RuleSetSnapshot compile(long version, ScoringRule... rules) {
+        List<CompiledRule> compiledRules = new ArrayList<>();
+        for (ScoringRule rule : rules) {
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        }
+        return new RuleSetSnapshot(version, compiledRules, List.of());
+    }
+}
@@ -0,0 +1,89 @@
+package com.loanrisk.engine.snapshot;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.evaluator.LessThanEvaluator;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.impl.JdbcRuleSetArchive;
+import com.loanrisk.model.entity.ScoringRule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that a rule set version only counts as stored with the rules it was stored with
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+// The archive commits in its own transactions, which a rolled back test transaction would not see
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RuleSetArchiveTest {
+
+    private final RuleCompiler ruleCompiler = new DefaultRuleCompiler(
+            new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+            new DefaultFieldRegistry(new DefaultDerivedFieldCalculator()));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testSameRulesMatchTheStoredVersion() {
+        RuleSetArchive ruleSetArchive = new JdbcRuleSetArchive(jdbcTemplate, transactionManager);
+        RuleSetArchive otherInstance = new JdbcRuleSetArchive(jdbcTemplate, transactionManager);
+
+        assertTrue(ruleSetArchive.store(snapshot(101L, "600", 30)));
+        assertTrue(ruleSetArchive.store(snapshot(101L, "600", 30)));
+        assertTrue(otherInstance.store(snapshot(101L, "600", 30)));
+        assertEquals("600", otherInstance.getRules(101L).get(0).getRuleValue());
+    }
+
+    @Test
+    void testRulesEditedUnderTheSameVersionDoNotMatch() {
+        RuleSetArchive ruleSetArchive = new JdbcRuleSetArchive(jdbcTemplate, transactionManager);
+        RuleSetArchive otherInstance = new JdbcRuleSetArchive(jdbcTemplate, transactionManager);
+        assertTrue(ruleSetArchive.store(snapshot(102L, "600", 30)));
+
+        // Found in the cache
+        assertFalse(ruleSetArchive.store(snapshot(102L, "650", 30)));
+        assertFalse(ruleSetArchive.store(snapshot(102L, "600", 35)));
+        // Found already stored by another instance
+        assertFalse(otherInstance.store(snapshot(102L, "650", 30)));
+        // The stored rules are left as they were
+        assertEquals("600", otherInstance.getRules(102L).get(0).getRuleValue());
+    }
+
+    @Test
+    void testSnapshotWithoutVersionIsNotStored() {
+        RuleSetArchive ruleSetArchive = new JdbcRuleSetArchive(jdbcTemplate, transactionManager);
+
+        assertFalse(ruleSetArchive.store(snapshot(0L, "600", 30)));
+    }
+
+    private RuleSetSnapshot snapshot(long ruleSetVersion, String ruleValue, int riskPoints) {
+        ScoringRule rule = ScoringRule.builder()
+                .id(1L)
+                .name("Low Credit Score")
+                .field("creditScore")
+                .operator("LESS_THAN")
+                .ruleValue(ruleValue)
+                .riskPoints(riskPoints)
+                .priority(1)
+                .enabled(true)
+                .build();
+        return new RuleSetSnapshot(1L, ruleSetVersion, List.of(ruleCompiler.compile(rule, 0)), List.of());
+    }
+}
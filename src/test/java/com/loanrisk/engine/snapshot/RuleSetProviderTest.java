@@ -0,0 +1,313 @@
+package com.loanrisk.engine.snapshot;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.evaluator.LessThanEvaluator;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.impl.CachingRuleSetProvider;
+import com.loanrisk.model.entity.ScoringRule;
+import com.loanrisk.repository.ScoringRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RuleSetProviderTest {
+
+    @Mock
+    private ScoringRuleRepository scoringRuleRepository;
+
+    private RuleSetProvider ruleSetProvider;
+    private ScoringRule rule1;
+    private ScoringRule rule2;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ruleSetProvider = new CachingRuleSetProvider(scoringRuleRepository, new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator())));
+
+        rule1 = ScoringRule.builder()
+                .id(1L)
+                .name("Low Credit Score")
+                .field("creditScore")
+                .operator("LESS_THAN")
+                .ruleValue("600")
+                .riskPoints(30)
+                .priority(1)
+                .enabled(true)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .build();
+
+        rule2 = ScoringRule.builder()
+                .id(2L)
+                .name("Young Applicant")
+                .field("age")
+                .operator("LESS_THAN")
+                .ruleValue("21")
+                .riskPoints(20)
+                .priority(2)
+                .enabled(true)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .build();
+
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(Arrays.asList(rule1, rule2));
+    }
+
+    @Test
+    void testSnapshotIsLoadedOnceAndReused() {
+        RuleSetSnapshot first = ruleSetProvider.getSnapshot();
+        RuleSetSnapshot second = ruleSetProvider.getSnapshot();
+
+        assertSame(first, second);
+        assertEquals(List.of(rule1, rule2), first.getRules());
+        verify(scoringRuleRepository, times(1)).findByEnabledTrueOrderByPriorityAsc();
+    }
+
+    @Test
+    void testInvalidateReloadsWithNewVersion() {
+        RuleSetSnapshot first = ruleSetProvider.getSnapshot();
+
+        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+                .thenReturn(List.of(rule2));
+        ruleSetProvider.invalidate();
+
+        RuleSetSnapshot second = ruleSetProvider.getSnapshot();
+
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals(List.of(rule2), second.getRules());
+        // The old snapshot is left untouched for evaluations still holding it
+        assertEquals(List.of(rule1, rule2), first.getRules());
+        verify(scoringRuleRepository, times(2)).findByEnabledTrueOrderByPriorityAsc();
+    }
+
+    @Test
+    void testSnapshotRulesAreUnmodifiable() {
+        RuleSetSnapshot snapshot = ruleSetProvider.getSnapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getRules().add(rule1));
+    }
+
+    @Test
+    void testRefreshWithoutChangesKeepsSnapshot() {
+        RuleSetSnapshot first = ruleSetProvider.getSnapshot();
+        when(scoringRuleRepository.findEnabledRuleVersions()).thenReturn(List.of(version(rule2), version(rule1)));
+
+        assertSame(first, ruleSetProvider.refresh());
+        assertSame(first, ruleSetProvider.getSnapshot());
+        verify(scoringRuleRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testRefreshRecompilesOnlyChangedRules() {
+        RuleSetSnapshot first = ruleSetProvider.getSnapshot();
+
+        ScoringRule updatedRule2 = ScoringRule.builder()
+                .id(2L)
+                .name("Young Applicant")
+                .field("age")
+                .operator("LESS_THAN")
+                .ruleValue("25")
+                .riskPoints(20)
+                .priority(2)
+                .enabled(true)
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 9, 0))
+                .build();
+        ScoringRule rule3 = ScoringRule.builder()
+                .id(3L)
+                .name("Very Low Credit Score")
+                .field("creditScore")
+                .operator("LESS_THAN")
+                .ruleValue("500")
+                .riskPoints(50)
+                .priority(1)
+                .enabled(true)
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 9, 0))
+                .build();
+        when(scoringRuleRepository.findEnabledRuleVersions())
+                .thenReturn(List.of(version(rule1), version(updatedRule2), version(rule3)));
+        when(scoringRuleRepository.findAllById(Set.of(2L, 3L))).thenReturn(List.of(updatedRule2, rule3));
+
+        RuleSetSnapshot refreshed = ruleSetProvider.refresh();
+
+        assertTrue(refreshed.getVersion() > first.getVersion());
+        assertSame(refreshed, ruleSetProvider.getSnapshot());
+        assertEquals(List.of(rule1, rule3, updatedRule2), refreshed.getRules());
+        // The unchanged rule keeps its compiled form at its new position
+        assertSame(first.getCompiledRules().get(0).getOperand(), refreshed.getCompiledRules().get(0).getOperand());
+        assertEquals(2, refreshed.getCompiledRules().get(2).getIndex());
+        assertEquals(25, refreshed.getCompiledRules().get(2).getOperand());
+        // Evaluations still holding the old snapshot are not affected
+        assertEquals(List.of(rule1, rule2), first.getRules());
+        verify(scoringRuleRepository, times(1)).findByEnabledTrueOrderByPriorityAsc();
+    }
+
+    @Test
+    void testRefreshDropsDisabledAndDeletedRules() {
+        ruleSetProvider.getSnapshot();
+        when(scoringRuleRepository.findEnabledRuleVersions()).thenReturn(List.of(version(rule1)));
+        when(scoringRuleRepository.findAllById(Set.of())).thenReturn(List.of());
+
+        RuleSetSnapshot refreshed = ruleSetProvider.refresh();
+
+        assertEquals(List.of(rule1), refreshed.getRules());
+    }
+
+    @Test
+    void testSnapshotCarriesRuleSetVersion() {
+        RuleSetVersionStore ruleSetVersionStore = mock(RuleSetVersionStore.class);
+        when(ruleSetVersionStore.getVersion()).thenReturn(7L);
+        RuleSetProvider versionedProvider = new CachingRuleSetProvider(scoringRuleRepository, new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator())), ruleSetVersionStore);
+        when(scoringRuleRepository.findEnabledRuleVersions()).thenReturn(List.of(version(rule1), version(rule2)));
+
+        RuleSetSnapshot first = versionedProvider.getSnapshot();
+        assertEquals(7L, first.getRuleSetVersion());
+        assertSame(first, versionedProvider.refresh());
+
+        // A version moved by a change that left the enabled rules as they were still gives a new snapshot,
+        // so that the instance reports the version it is up to date with
+        when(ruleSetVersionStore.getVersion()).thenReturn(8L);
+        RuleSetSnapshot refreshed = versionedProvider.refresh();
+
+        assertNotSame(first, refreshed);
+        assertEquals(8L, refreshed.getRuleSetVersion());
+        assertSame(first.getRules().get(0), refreshed.getRules().get(0));
+        assertSame(refreshed, versionedProvider.getSnapshot());
+    }
+
+    @Test
+    void testRefreshRacingAnotherRuleChangeGetsNoVersion() {
+        RuleSetVersionStore ruleSetVersionStore = mock(RuleSetVersionStore.class);
+        when(ruleSetVersionStore.getVersion()).thenReturn(7L);
+        RuleSetProvider versionedProvider = new CachingRuleSetProvider(scoringRuleRepository, new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator())), ruleSetVersionStore);
+        versionedProvider.getSnapshot();
+
+        // Rule 2 is disabled directly in the database, and another change to rule 1 commits while the refresh runs;
+        // the increment waits for it and returns its version
+        ScoringRule updatedRule1 = ScoringRule.builder()
+                .id(1L)
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 9, 0))
+                .build();
+        when(scoringRuleRepository.findEnabledRuleVersions())
+                .thenReturn(List.of(version(rule1)), List.of(version(updatedRule1)));
+        when(scoringRuleRepository.findAllById(Set.of())).thenReturn(List.of());
+        when(ruleSetVersionStore.increment()).thenAnswer(invocation -> {
+            when(ruleSetVersionStore.getVersion()).thenReturn(9L);
+            return 9L;
+        });
+
+        RuleSetSnapshot refreshed = versionedProvider.refresh();
+
+        // Version 9 holds the updated rule 1, so the rules read before it are not published under it
+        assertEquals(List.of(rule1), refreshed.getRules());
+        assertEquals(0L, refreshed.getRuleSetVersion());
+    }
+
+    @Test
+    void testPublishedSnapshotIsArchived() {
+        RuleSetArchive ruleSetArchive = mock(RuleSetArchive.class);
+        when(ruleSetArchive.store(any())).thenReturn(true);
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        RuleSetProvider archivingProvider = archivingProvider(7L, ruleSetArchive, backgroundTasks::add);
+
+        RuleSetSnapshot snapshot = archivingProvider.getSnapshot();
+
+        verify(ruleSetArchive).store(snapshot);
+        assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    void testSnapshotReloadedInTransactionIsArchivedInBackground() {
+        RuleSetArchive ruleSetArchive = mock(RuleSetArchive.class);
+        when(ruleSetArchive.store(any())).thenReturn(true);
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        RuleSetProvider archivingProvider = archivingProvider(7L, ruleSetArchive, backgroundTasks::add);
+
+        // Storing here would take a second connection while the request's transaction holds its own
+        RuleSetSnapshot snapshot;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            snapshot = archivingProvider.getSnapshot();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verify(ruleSetArchive, never()).store(any());
+
+        assertEquals(1, backgroundTasks.size());
+        backgroundTasks.get(0).run();
+        verify(ruleSetArchive).store(snapshot);
+    }
+
+    @Test
+    void testRulesEditedUnderAnArchivedVersionGetANewVersion() {
+        RuleSetVersionStore ruleSetVersionStore = mock(RuleSetVersionStore.class);
+        when(ruleSetVersionStore.getVersion()).thenReturn(7L);
+        when(ruleSetVersionStore.increment()).thenAnswer(invocation -> {
+            when(ruleSetVersionStore.getVersion()).thenReturn(8L);
+            return 8L;
+        });
+        // Version 7 is stored with the rules as they were before a direct edit
+        RuleSetArchive ruleSetArchive = mock(RuleSetArchive.class);
+        when(ruleSetArchive.store(any()))
+                .thenAnswer(invocation -> invocation.<RuleSetSnapshot>getArgument(0).getRuleSetVersion() != 7L);
+        when(scoringRuleRepository.findEnabledRuleVersions()).thenReturn(List.of(version(rule1), version(rule2)));
+        List<Runnable> backgroundTasks = new ArrayList<>();
+        RuleSetProvider archivingProvider = new CachingRuleSetProvider(scoringRuleRepository, new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator())),
+                ruleSetVersionStore, ruleSetArchive, backgroundTasks::add);
+
+        RuleSetSnapshot first = archivingProvider.getSnapshot();
+        assertEquals(7L, first.getRuleSetVersion());
+        verify(ruleSetVersionStore).increment();
+
+        assertEquals(1, backgroundTasks.size());
+        backgroundTasks.get(0).run();
+        RuleSetSnapshot reloaded = archivingProvider.getSnapshot();
+        assertEquals(8L, reloaded.getRuleSetVersion());
+        assertEquals(first.getRules(), reloaded.getRules());
+        verify(ruleSetArchive).store(reloaded);
+    }
+
+    private RuleSetProvider archivingProvider(long ruleSetVersion, RuleSetArchive ruleSetArchive, Executor archiver) {
+        RuleSetVersionStore ruleSetVersionStore = mock(RuleSetVersionStore.class);
+        when(ruleSetVersionStore.getVersion()).thenReturn(ruleSetVersion);
+        return new CachingRuleSetProvider(scoringRuleRepository, new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(List.of(new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator())),
+                ruleSetVersionStore, ruleSetArchive, archiver);
+    }
+
+    private static ScoringRuleRepository.RuleVersion version(ScoringRule rule) {
+        return new ScoringRuleRepository.RuleVersion() {
+            @Override
+            public Long getId() {
+                return rule.getId();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return rule.getUpdatedAt();
+            }
+        };
+    }
+}
@@ -132,12 +132,15 @@ public class EndToEndIntegrationTest {
                 .andExpect(jsonPath("$.riskScore").exists())
                 .andExpect(jsonPath("$.riskLevel").exists())
                 .andExpect(jsonPath("$.decision").exists())
+                .andExpect(jsonPath("$.ruleSetVersion").exists())
                 .andReturn();
 
         // Extract the loan application ID from the response
         String createLoanResponseJson = createLoanResult.getResponse().getContentAsString();
         LoanApplicationResponseDto createdLoan = objectMapper.readValue(createLoanResponseJson, LoanApplicationResponseDto.class);
         Long loanId = createdLoan.getId();
+        // The header names the rule set version that scored the application
+        assertEquals(createdLoan.getRuleSetVersion().toString(), createLoanResult.getResponse().getHeader("X-Rule-Set-Version"));
 
         // Retrieve the loan application by ID
         MvcResult getLoanResult = mockMvc.perform(get("/loan/{id}", loanId)
@@ -148,6 +151,8 @@ public class EndToEndIntegrationTest {
                 .andExpect(jsonPath("$.loanAmount").value(30000.00))
                 .andExpect(jsonPath("$.loanPurpose").value("Home renovation"))
                 .andExpect(jsonPath("$.requestedTermMonths").value(36))
+                .andExpect(jsonPath("$.ruleSetVersion").value(createdLoan.getRuleSetVersion()))
+                .andExpect(header().string("X-Rule-Set-Version", createdLoan.getRuleSetVersion().toString()))
                 .andReturn();
 
         // Verify the risk evaluation results
@@ -163,7 +168,7 @@ public class EndToEndIntegrationTest {
         assertTrue(List.of("LOW", "MEDIUM", "HIGH").contains(retrievedLoan.getRiskLevel()));
         
         // Verify that the decision is one of the expected values
-        assertTrue(List.of("APPROVED", "MANUAL_REVIEW", "REJECTED").contains(retrievedLoan.getDecision()));
+        assertTrue(List.of("APPROVE", "MANUAL_REVIEW", "REJECT").contains(retrievedLoan.getDecision()));
     }
 
     /**
@@ -176,6 +181,7 @@ public class EndToEndIntegrationTest {
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
+                .andExpect(header().exists("X-Current-Rule-Set-Version"))
                 .andReturn();
 
         // Extract the rules from the response
@@ -242,9 +248,11 @@ public class EndToEndIntegrationTest {
         String highRiskLoanJson = highRiskLoanResult.getResponse().getContentAsString();
         LoanApplicationResponseDto highRiskLoanResponse = objectMapper.readValue(highRiskLoanJson, LoanApplicationResponseDto.class);
 
-        // Verify high-risk evaluation
+        // Verify high-risk evaluation: both credit score rules, a loan of 0.67 of the annual income
+        // and debt of 10 months' income
+        assertEquals(90, highRiskLoanResponse.getRiskScore());
         assertEquals("HIGH", highRiskLoanResponse.getRiskLevel());
-        assertEquals("REJECTED", highRiskLoanResponse.getDecision());
+        assertEquals("REJECT", highRiskLoanResponse.getDecision());
 
         // Test with a low-risk customer profile
         CustomerRequestDto lowRiskCustomer = CustomerRequestDto.builder()
@@ -285,10 +293,9 @@ public class EndToEndIntegrationTest {
         String lowRiskLoanJson = lowRiskLoanResult.getResponse().getContentAsString();
         LoanApplicationResponseDto lowRiskLoanResponse = objectMapper.readValue(lowRiskLoanJson, LoanApplicationResponseDto.class);
 
-        // Verify low-risk evaluation
-        // The risk level could be LOW or MEDIUM depending on the exact implementation
-        assertTrue(List.of("LOW", "MEDIUM").contains(lowRiskLoanResponse.getRiskLevel()));
-        // The decision could be APPROVED or MANUAL_REVIEW depending on the exact implementation
-        assertTrue(List.of("APPROVED", "MANUAL_REVIEW").contains(lowRiskLoanResponse.getDecision()));
+        // Verify low-risk evaluation: only the debt of one month's income
+        assertEquals(20, lowRiskLoanResponse.getRiskScore());
+        assertEquals("LOW", lowRiskLoanResponse.getRiskLevel());
+        assertEquals("APPROVE", lowRiskLoanResponse.getDecision());
     }
 }
\ No newline at end of file
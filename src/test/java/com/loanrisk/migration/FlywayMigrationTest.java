@@ -32,6 +32,25 @@ public class FlywayMigrationTest {
         Integer scoringRuleCount = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'SCORING_RULE'", Integer.class);
         assertTrue(scoringRuleCount > 0, "ScoringRule table should exist");
+
+        // Check if RuleSetVersion table exists and holds its single row
+        Integer ruleSetVersionCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM RULE_SET_VERSION WHERE ID = 1", Integer.class);
+        assertEquals(1, ruleSetVersionCount, "RuleSetVersion table should hold one row");
+
+        // Check if RuleSetRule table exists
+        Integer ruleSetRuleCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'RULE_SET_RULE'", Integer.class);
+        assertTrue(ruleSetRuleCount > 0, "RuleSetRule table should exist");
+
+        // Check if the ID sequences exist, past the seeded scoring rules
+        Integer sequenceCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME IN "
+                        + "('CUSTOMER_SEQ', 'LOAN_APPLICATION_SEQ', 'SCORING_RULE_SEQ')", Integer.class);
+        assertEquals(3, sequenceCount, "ID sequences should exist");
+        Long scoringRuleSeq = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR SCORING_RULE_SEQ", Long.class);
+        Long maxScoringRuleId = jdbcTemplate.queryForObject("SELECT MAX(ID) FROM SCORING_RULE", Long.class);
+        assertTrue(scoringRuleSeq - 49 > maxScoringRuleId, "Scoring rule IDs should be allocated past the seeded rules");
     }
 
     @Test
@@ -49,5 +68,13 @@ public class FlywayMigrationTest {
         Integer vacationLoanCount = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM SCORING_RULE WHERE NAME = 'Vacation loan'", Integer.class);
         assertEquals(1, vacationLoanCount, "Vacation loan rule should exist");
+
+        // Check the ratio rules read the derived fields
+        String loanToIncomeField = jdbcTemplate.queryForObject(
+                "SELECT FIELD FROM SCORING_RULE WHERE NAME = 'Loan-to-income high'", String.class);
+        assertEquals("loanToIncomeRatio", loanToIncomeField, "Loan-to-income rule should read loanToIncomeRatio");
+        String debtField = jdbcTemplate.queryForObject(
+                "SELECT FIELD FROM SCORING_RULE WHERE NAME = 'Debt is high'", String.class);
+        assertEquals("debtToIncomeRatio", debtField, "Debt rule should read debtToIncomeRatio");
     }
 }
\ No newline at end of file
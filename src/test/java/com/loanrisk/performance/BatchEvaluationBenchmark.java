@@ -0,0 +1,141 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.RuleEngine;
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.codegen.impl.AsmRuleSetClassGenerator;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.GeneratedRuleEngine;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import com.loanrisk.service.LoanEvaluationService;
+import com.loanrisk.service.impl.LoanEvaluationServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing a loop that evaluates one loan application at a time with the batch
+ * entry points, sequential and parallel, on one million applications and 100 mixed rules.
+ * Each invocation evaluates every application once.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.BatchEvaluationBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class BatchEvaluationBenchmark {
+
+    private static final int APPLICATION_COUNT = 1_000_000;
+    private static final int CUSTOMER_COUNT = 10_000;
+    private static final int RULE_COUNT = 100;
+
+    @Param({"interpreted", "generated"})
+    private String engine;
+
+    private RuleEngine ruleEngine;
+    private EvaluationContextFactory contextFactory;
+    private LoanEvaluationService loanEvaluationService;
+    private List<LoanApplication> applications;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        DerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        contextFactory = new DefaultEvaluationContextFactory(
+                new DefaultFieldRegistry(derivedFieldCalculator), derivedFieldCalculator);
+        RuleSetProvider ruleSetProvider = new RuleEngineBenchmark.FixedRuleSetProvider(RuleEngineBenchmark.compile(
+                RuleEngineBenchmark.createRules(random, RULE_COUNT), derivedFieldCalculator));
+
+        ruleEngine = switch (engine) {
+            case "interpreted" -> new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+            case "generated" -> new GeneratedRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), new AsmRuleSetClassGenerator());
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        };
+        loanEvaluationService = new LoanEvaluationServiceImpl(ruleEngine, derivedFieldCalculator,
+                new RiskLevelDeterminer(), contextFactory);
+
+        Customer[] customers = new Customer[CUSTOMER_COUNT];
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customers[i] = RuleEngineBenchmark.createCustomer(random);
+        }
+        applications = new ArrayList<>(APPLICATION_COUNT);
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            applications.add(RuleEngineBenchmark.createLoanApplication(random, customers[random.nextInt(CUSTOMER_COUNT)]));
+        }
+    }
+
+    /**
+     * The rule engine called once per application, as a re-scoring loop does without the batch entry point
+     */
+    @Benchmark
+    public List<List<ScoringRule>> evaluateRulesLoop() {
+        List<List<ScoringRule>> results = new ArrayList<>(applications.size());
+        for (LoanApplication application : applications) {
+            results.add(ruleEngine.evaluateRules(contextFactory.getContext(application, application.getCustomer())));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<List<ScoringRule>> evaluateRulesBatch() {
+        return ruleEngine.evaluateRules(applications, false);
+    }
+
+    @Benchmark
+    public List<List<ScoringRule>> evaluateRulesParallelBatch() {
+        return ruleEngine.evaluateRules(applications, true);
+    }
+
+    /**
+     * The evaluation service called once per application, including the risk level, decision and explanation
+     */
+    @Benchmark
+    public List<LoanApplication> evaluateLoanApplicationsLoop() {
+        List<LoanApplication> results = new ArrayList<>(applications.size());
+        for (LoanApplication application : applications) {
+            results.add(loanEvaluationService.evaluateLoanApplication(application));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<LoanApplication> evaluateLoanApplicationsBatch() {
+        return loanEvaluationService.evaluateLoanApplications(applications, false);
+    }
+
+    @Benchmark
+    public List<LoanApplication> evaluateLoanApplicationsParallelBatch() {
+        return loanEvaluationService.evaluateLoanApplications(applications, true);
+    }
+
+    /**
+     * The evaluation service's result entry point, which keeps the triggered rules as a bitset and renders no explanation
+     */
+    @Benchmark
+    public List<EvaluationResult> evaluateBatch() {
+        return loanEvaluationService.evaluate(applications, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BatchEvaluationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
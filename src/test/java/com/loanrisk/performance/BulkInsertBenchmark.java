@@ -0,0 +1,114 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.LoanRiskApplication;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.repository.CustomerRepository;
+import com.loanrisk.repository.LoanApplicationRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks inserting 10,000 customers and 10,000 loan applications in one transaction through the
+ * repositories, against the {@code test} profile's in-memory H2 database. A JDBC batch size of 1 sends one
+ * statement per row, as the identity IDs used to force; 50 matches the sequences' allocation size.
+ * H2 in memory has no network round trips for the batches to save, so both sizes measure within noise of
+ * each other; point the benchmark at a PostgreSQL database to measure what batching saves there.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.BulkInsertBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BulkInsertBenchmark {
+
+    private static final int ROW_COUNT = 10_000;
+    private static final int CUSTOMER_COUNT = 100;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private LoanApplicationRepository loanApplicationRepository;
+    private TransactionTemplate transactionTemplate;
+    private List<Customer> customers;
+    private List<LoanApplication> loanApplications;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Passed as arguments, as these must override the profiles' properties
+        context = new SpringApplicationBuilder(LoanRiskApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.profiles.active=test",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.loanrisk=WARN",
+                        "--loanrisk.rules.refresh.enabled=false");
+        customerRepository = context.getBean(CustomerRepository.class);
+        loanApplicationRepository = context.getBean(LoanApplicationRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * Empty the tables and build new, unsaved rows, with the customers of the loan applications already saved
+     */
+    @Setup(Level.Iteration)
+    public void createRows() {
+        loanApplicationRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+
+        Random random = new Random(42);
+        customers = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            customers.add(RuleEngineBenchmark.createCustomer(random));
+        }
+        List<Customer> savedCustomers = new ArrayList<>(CUSTOMER_COUNT);
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            savedCustomers.add(RuleEngineBenchmark.createCustomer(random));
+        }
+        savedCustomers = customerRepository.saveAll(savedCustomers);
+        loanApplications = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            loanApplications.add(RuleEngineBenchmark.createLoanApplication(random,
+                    savedCustomers.get(random.nextInt(CUSTOMER_COUNT))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Customer> insertCustomers() {
+        return transactionTemplate.execute(status -> customerRepository.saveAll(customers));
+    }
+
+    @Benchmark
+    public List<LoanApplication> insertLoanApplications() {
+        return transactionTemplate.execute(status -> loanApplicationRepository.saveAll(loanApplications));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
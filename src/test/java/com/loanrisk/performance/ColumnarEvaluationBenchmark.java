@@ -0,0 +1,111 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.columnar.ColumnarEvaluation;
+import com.loanrisk.engine.columnar.impl.ScalarColumnKernel;
+import com.loanrisk.engine.columnar.impl.VectorColumnKernel;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.ColumnarRuleEngine;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks scoring batches of loan applications of different sizes with the interpreted
+ * engine and with the columnar engine, using the scalar and the vectorized column kernel.
+ * Each invocation calculates the risk score of every application in the batch.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.ColumnarEvaluationBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class ColumnarEvaluationBenchmark {
+
+    private static final int CUSTOMER_COUNT = 10_000;
+    private static final int RULE_COUNT = 200;
+
+    @Param({"interpreted", "scalar", "vector"})
+    private String engine;
+
+    @Param({"1024", "16384", "262144"})
+    private int batchSize;
+
+    // "mixed" spreads rules over all fields; "applicant" only has rules on creditScore and age
+    @Param({"mixed", "applicant"})
+    private String ruleSet;
+
+    private RuleEngineImpl interpretedEngine;
+    private ColumnarRuleEngine columnarEngine;
+    private List<LoanApplication> applications;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        DerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(
+                new DefaultFieldRegistry(derivedFieldCalculator), derivedFieldCalculator);
+        List<ScoringRule> rules = ruleSet.equals("applicant")
+                ? RuleEngineBenchmark.createApplicantRules(random, RULE_COUNT)
+                : RuleEngineBenchmark.createRules(random, RULE_COUNT);
+        RuleSetProvider ruleSetProvider = new RuleEngineBenchmark.FixedRuleSetProvider(
+                RuleEngineBenchmark.compile(rules, derivedFieldCalculator));
+
+        switch (engine) {
+            case "interpreted" -> interpretedEngine = new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+            case "scalar" -> columnarEngine = new ColumnarRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), new ScalarColumnKernel());
+            case "vector" -> columnarEngine = new ColumnarRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), new VectorColumnKernel());
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+
+        Customer[] customers = new Customer[CUSTOMER_COUNT];
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customers[i] = RuleEngineBenchmark.createCustomer(random);
+        }
+        applications = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            applications.add(RuleEngineBenchmark.createLoanApplication(random, customers[random.nextInt(CUSTOMER_COUNT)]));
+        }
+    }
+
+    @Benchmark
+    public long scoreBatch() {
+        long totalRiskScore = 0;
+        if (columnarEngine != null) {
+            ColumnarEvaluation evaluation = columnarEngine.evaluateColumns(applications, false);
+            for (int i = 0; i < evaluation.size(); i++) {
+                totalRiskScore += evaluation.getRiskScore(i);
+            }
+        } else {
+            for (EvaluationResult result : interpretedEngine.evaluate(applications, false)) {
+                totalRiskScore += result.getRiskScore();
+            }
+        }
+        return totalRiskScore;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColumnarEvaluationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
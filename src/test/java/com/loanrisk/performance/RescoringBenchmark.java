@@ -0,0 +1,133 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.LoanRiskApplication;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.dto.RescoringJobDto;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.repository.CustomerRepository;
+import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.service.LoanRescoringService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of a re-scoring job over 100,000 stored evaluations of the seeded rule set, against the
+ * {@code test} profile's in-memory H2 database, from starting the job to its completion. Every iteration
+ * first makes all the stored scores stale, so every application is re-scored; divide the row count by the
+ * time for the throughput. The chunk size is the number of applications updated per transaction.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.RescoringBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RescoringBenchmark {
+
+    private static final int ROW_COUNT = 100_000;
+    private static final int CUSTOMER_COUNT = 100;
+
+    @Param({"100", "1000", "10000"})
+    private int chunkSize;
+
+    private ConfigurableApplicationContext context;
+    private LoanRescoringService loanRescoringService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        // Passed as arguments, as these must override the profiles' properties
+        context = new SpringApplicationBuilder(LoanRiskApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.profiles.active=test",
+                        "--loanrisk.rescoring.chunk-size=" + chunkSize,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.loanrisk=WARN",
+                        "--loanrisk.rules.refresh.enabled=false");
+        loanRescoringService = context.getBean(LoanRescoringService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        storeEvaluations();
+    }
+
+    /**
+     * Store evaluations by the current rule set version, each with a random combination of its rules triggered
+     */
+    private void storeEvaluations() {
+        RuleSetSnapshot snapshot = context.getBean(RuleSetProvider.class).getSnapshot();
+        if (!context.getBean(RuleSetArchive.class).isStored(snapshot)) {
+            throw new IllegalStateException("The rule set is not stored under a version to re-score against");
+        }
+        int ruleCount = snapshot.getRules().size();
+
+        Random random = new Random(42);
+        List<Customer> customers = new ArrayList<>(CUSTOMER_COUNT);
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            customers.add(RuleEngineBenchmark.createCustomer(random));
+        }
+        customers = context.getBean(CustomerRepository.class).saveAll(customers);
+        List<LoanApplication> loanApplications = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            LoanApplication loanApplication = RuleEngineBenchmark.createLoanApplication(random,
+                    customers.get(random.nextInt(CUSTOMER_COUNT)));
+            BitSet triggered = new BitSet(ruleCount);
+            for (int rule = 0; rule < ruleCount; rule++) {
+                triggered.set(rule, random.nextBoolean());
+            }
+            loanApplication.setRuleSetVersion(snapshot.getRuleSetVersion());
+            loanApplication.setTriggeredRules(triggered.toByteArray());
+            loanApplications.add(loanApplication);
+        }
+        LoanApplicationRepository loanApplicationRepository = context.getBean(LoanApplicationRepository.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> loanApplicationRepository.saveAll(loanApplications));
+    }
+
+    @Setup(Level.Iteration)
+    public void makeScoresStale() {
+        jdbcTemplate.update("UPDATE loan_application SET risk_score = -1");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public RescoringJobDto rescore() throws InterruptedException {
+        RescoringJobDto job = loanRescoringService.startRescoring();
+        while ("RUNNING".equals(job.getStatus())) {
+            Thread.sleep(1);
+            job = loanRescoringService.getRescoringJob(job.getJobId());
+        }
+        if (job.getRescoredApplications() != ROW_COUNT) {
+            throw new IllegalStateException("Re-scored " + job.getRescoredApplications() + " of " + ROW_COUNT + " applications");
+        }
+        return job;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RescoringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,296 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.RuleEngine;
+import com.loanrisk.engine.RuleEvaluator;
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.codegen.impl.AsmRuleSetClassGenerator;
+import com.loanrisk.engine.compiler.CompiledRule;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.*;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.DecisionDiagramRuleEngine;
+import com.loanrisk.engine.impl.GeneratedRuleEngine;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the rule engine modes on generated rule sets of different sizes.
+ * Each invocation evaluates one loan application, cycling through a fixed pool of random applicants.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.RuleEngineBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+    private static final int APPLICATION_COUNT = 1024;
+
+    private static final String[] NUMERIC_OPERATORS = {"GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL"};
+    private static final String[] TEXT_OPERATORS = {"EQUALS", "CONTAINS", "STARTS_WITH", "ENDS_WITH", "NOT_CONTAINS"};
+    private static final String[] EMPLOYMENT_STATUSES = {"EMPLOYED", "SELF_EMPLOYED", "UNEMPLOYED", "RETIRED"};
+    private static final String[] LOAN_PURPOSES = {"HOME_IMPROVEMENT", "CAR", "EDUCATION", "VACATION", "DEBT_CONSOLIDATION"};
+
+    @Param({"interpreted", "generated", "diagram"})
+    private String engine;
+
+    @Param({"10", "100", "1000", "5000", "10000"})
+    private int ruleCount;
+
+    // "mixed" spreads rules over all fields; "keywords" only has text matching rules, like a keyword blacklist;
+    // "applicant" only has rules on creditScore and age, so no derived field is ever calculated
+    @Param({"mixed", "keywords", "applicant"})
+    private String ruleSet;
+
+    private RuleEngine ruleEngine;
+    private EvaluationContextFactory contextFactory;
+    private LoanApplication[] applications;
+    private EvaluationContext[] contexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        DerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        contextFactory = new DefaultEvaluationContextFactory(
+                new DefaultFieldRegistry(derivedFieldCalculator), derivedFieldCalculator);
+        List<ScoringRule> rules = switch (ruleSet) {
+            case "keywords" -> createKeywordRules(random, ruleCount);
+            case "applicant" -> createApplicantRules(random, ruleCount);
+            default -> createRules(random, ruleCount);
+        };
+        RuleSetProvider ruleSetProvider = new FixedRuleSetProvider(compile(rules, derivedFieldCalculator));
+
+        ruleEngine = switch (engine) {
+            case "interpreted" -> new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+            case "generated" -> new GeneratedRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), new AsmRuleSetClassGenerator());
+            case "diagram" -> new DecisionDiagramRuleEngine(ruleSetProvider, contextFactory, new RiskLevelDeterminer());
+            default -> throw new IllegalArgumentException("Unknown engine: " + engine);
+        };
+
+        applications = new LoanApplication[APPLICATION_COUNT];
+        contexts = new EvaluationContext[APPLICATION_COUNT];
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            applications[i] = createLoanApplication(random, createCustomer(random));
+            contexts[i] = contextFactory.createContext();
+            contextFactory.populate(contexts[i], applications[i], applications[i].getCustomer());
+        }
+    }
+
+    @Benchmark
+    public List<ScoringRule> evaluateRules() {
+        return ruleEngine.evaluateRules(contexts[next++ & (APPLICATION_COUNT - 1)]);
+    }
+
+    /**
+     * Load the application into the thread's context before evaluating it, so that the derived
+     * fields the rules read are calculated within the measurement
+     */
+    @Benchmark
+    public List<ScoringRule> populateAndEvaluateRules() {
+        LoanApplication application = applications[next++ & (APPLICATION_COUNT - 1)];
+        return ruleEngine.evaluateRules(contextFactory.getContext(application, application.getCustomer()));
+    }
+
+    @Benchmark
+    public EvaluationResult evaluate() {
+        return ruleEngine.evaluate(contexts[next++ & (APPLICATION_COUNT - 1)]);
+    }
+
+    /**
+     * Evaluate the rules with the most risk points first, stopping once the decision is fixed
+     */
+    @Benchmark
+    public EvaluationResult evaluateDecisionOnly() {
+        return ruleEngine.evaluate(contexts[next++ & (APPLICATION_COUNT - 1)], EvaluationMode.DECISION_ONLY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RuleEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Create random rules spread over the entity and derived fields, with thresholds inside the
+     * value ranges of the generated applicants so that a realistic share of rules trigger
+     */
+    static List<ScoringRule> createRules(Random random, int count) {
+        List<ScoringRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String field;
+            String operator = NUMERIC_OPERATORS[random.nextInt(NUMERIC_OPERATORS.length)];
+            String ruleValue;
+
+            switch (random.nextInt(8)) {
+                case 0 -> { field = "creditScore"; ruleValue = String.valueOf(300 + random.nextInt(551)); }
+                case 1 -> { field = "age"; ruleValue = String.valueOf(18 + random.nextInt(60)); }
+                case 2 -> { field = "requestedTermMonths"; ruleValue = String.valueOf(6 + random.nextInt(355)); }
+                case 3 -> { field = "loanAmount"; ruleValue = String.valueOf(1000 + random.nextInt(99000)); }
+                case 4 -> { field = "debtToIncomeRatio"; ruleValue = BigDecimal.valueOf(random.nextInt(100), 2).toPlainString(); }
+                case 5 -> { field = "loanToIncomeRatio"; ruleValue = BigDecimal.valueOf(random.nextInt(200), 2).toPlainString(); }
+                case 6 -> {
+                    field = "employmentStatus";
+                    operator = TEXT_OPERATORS[random.nextInt(TEXT_OPERATORS.length)];
+                    ruleValue = EMPLOYMENT_STATUSES[random.nextInt(EMPLOYMENT_STATUSES.length)];
+                }
+                default -> {
+                    field = "loanPurpose";
+                    operator = TEXT_OPERATORS[random.nextInt(TEXT_OPERATORS.length)];
+                    ruleValue = LOAN_PURPOSES[random.nextInt(LOAN_PURPOSES.length)].substring(0, 3);
+                }
+            }
+
+            rules.add(ScoringRule.builder()
+                    .id((long) i + 1)
+                    .name("Benchmark Rule " + i)
+                    .field(field)
+                    .operator(operator)
+                    .ruleValue(ruleValue)
+                    .riskPoints(1 + random.nextInt(30))
+                    .priority(i)
+                    .enabled(true)
+                    .build());
+        }
+        return rules;
+    }
+
+    /**
+     * Create random CONTAINS, NOT_CONTAINS, STARTS_WITH and ENDS_WITH rules on the text fields,
+     * with keywords of three to six letters
+     */
+    static List<ScoringRule> createKeywordRules(Random random, int count) {
+        List<ScoringRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder keyword = new StringBuilder();
+            for (int length = 3 + random.nextInt(4); keyword.length() < length; ) {
+                keyword.append((char) ('A' + random.nextInt(26)));
+            }
+
+            rules.add(ScoringRule.builder()
+                    .id((long) i + 1)
+                    .name("Benchmark Keyword Rule " + i)
+                    .field(random.nextInt(4) == 0 ? "employmentStatus" : "loanPurpose")
+                    .operator(TEXT_OPERATORS[1 + random.nextInt(TEXT_OPERATORS.length - 1)])
+                    .ruleValue(keyword.toString())
+                    .riskPoints(1 + random.nextInt(30))
+                    .priority(i)
+                    .enabled(true)
+                    .build());
+        }
+        return rules;
+    }
+
+    /**
+     * Create random threshold rules on creditScore and age only
+     */
+    static List<ScoringRule> createApplicantRules(Random random, int count) {
+        List<ScoringRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean creditScore = random.nextBoolean();
+            rules.add(ScoringRule.builder()
+                    .id((long) i + 1)
+                    .name("Benchmark Applicant Rule " + i)
+                    .field(creditScore ? "creditScore" : "age")
+                    .operator(NUMERIC_OPERATORS[random.nextInt(NUMERIC_OPERATORS.length)])
+                    .ruleValue(String.valueOf(creditScore ? 300 + random.nextInt(551) : 18 + random.nextInt(60)))
+                    .riskPoints(1 + random.nextInt(30))
+                    .priority(i)
+                    .enabled(true)
+                    .build());
+        }
+        return rules;
+    }
+
+    static Customer createCustomer(Random random) {
+        return Customer.builder()
+                .name("Benchmark Customer")
+                .age(18 + random.nextInt(60))
+                .annualIncome(new BigDecimal(20000 + random.nextInt(180000)))
+                .creditScore(300 + random.nextInt(551))
+                .employmentStatus(EMPLOYMENT_STATUSES[random.nextInt(EMPLOYMENT_STATUSES.length)])
+                .existingDebt(new BigDecimal(random.nextInt(50000)))
+                .build();
+    }
+
+    static LoanApplication createLoanApplication(Random random, Customer customer) {
+        return LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal(1000 + random.nextInt(99000)))
+                .loanPurpose(LOAN_PURPOSES[random.nextInt(LOAN_PURPOSES.length)])
+                .requestedTermMonths(6 + random.nextInt(355))
+                .build();
+    }
+
+    static RuleSetSnapshot compile(List<ScoringRule> rules, DerivedFieldCalculator derivedFieldCalculator) {
+        List<RuleEvaluator> evaluators = Arrays.asList(
+                new EqualsEvaluator(),
+                new NotEqualsEvaluator(),
+                new GreaterThanEvaluator(),
+                new GreaterThanOrEqualEvaluator(),
+                new LessThanEvaluator(),
+                new LessThanOrEqualEvaluator(),
+                new ContainsEvaluator(),
+                new NotContainsEvaluator(),
+                new StartsWithEvaluator(),
+                new EndsWithEvaluator()
+        );
+        RuleCompiler ruleCompiler = new DefaultRuleCompiler(new RuleEvaluatorFactoryImpl(evaluators),
+                new DefaultFieldRegistry(derivedFieldCalculator));
+
+        List<CompiledRule> compiledRules = new ArrayList<>(rules.size());
+        for (ScoringRule rule : rules) {
+            compiledRules.add(ruleCompiler.compile(rule, compiledRules.size()));
+        }
+        return new RuleSetSnapshot(1L, compiledRules, List.of());
+    }
+
+    /**
+     * RuleSetProvider that always returns the same snapshot
+     */
+    static final class FixedRuleSetProvider implements RuleSetProvider {
+
+        private final RuleSetSnapshot snapshot;
+
+        FixedRuleSetProvider(RuleSetSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public RuleSetSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        @Override
+        public void invalidate() {
+            // The benchmark rule set never changes
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.loanrisk.performance;
+
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.RuleEngine;
+import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.impl.RuleEngineImpl;
+import com.loanrisk.engine.ordering.RuleOrdering;
+import com.loanrisk.engine.ordering.impl.AdaptiveRuleOrdering;
+import com.loanrisk.engine.ordering.impl.RiskPointsRuleOrdering;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the rule orderings of decision-only evaluations on a skewed workload:
+ * most rules carry many risk points but only trigger on rare applications, and the few rules that
+ * trigger for nine applications in ten carry fewer points.
+ * Evaluating the rules with the most risk points first visits the rare rules before the decision
+ * is fixed; the adaptive ordering learns to start with the common rules.
+ * <p>
+ * Run with {@code ./mvnw test-compile exec:java -Dexec.mainClass=com.loanrisk.performance.RuleOrderingBenchmark -Dexec.classpathScope=test}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleOrderingBenchmark {
+
+    private static final int APPLICATION_COUNT = 1024;
+    // Enough evaluations for the adaptive ordering to sample and reorder a few times before the measurement
+    private static final int TRAINING_EVALUATIONS = 200_000;
+
+    @Param({"risk-points", "adaptive"})
+    private String ordering;
+
+    @Param({"100", "1000"})
+    private int ruleCount;
+
+    private RuleEngine ruleEngine;
+    private EvaluationContext[] contexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        DerivedFieldCalculator derivedFieldCalculator = new DefaultDerivedFieldCalculator();
+        EvaluationContextFactory contextFactory = new DefaultEvaluationContextFactory(
+                new DefaultFieldRegistry(derivedFieldCalculator), derivedFieldCalculator);
+        RuleSetProvider ruleSetProvider = new RuleEngineBenchmark.FixedRuleSetProvider(RuleEngineBenchmark.compile(
+                createSkewedRules(random, ruleCount), derivedFieldCalculator));
+
+        RuleOrdering ruleOrdering = switch (ordering) {
+            case "risk-points" -> new RiskPointsRuleOrdering();
+            case "adaptive" -> new AdaptiveRuleOrdering();
+            default -> throw new IllegalArgumentException("Unknown ordering: " + ordering);
+        };
+        ruleEngine = new RuleEngineImpl(ruleSetProvider, contextFactory, new RiskLevelDeterminer(), ruleOrdering);
+
+        contexts = new EvaluationContext[APPLICATION_COUNT];
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            LoanApplication application = RuleEngineBenchmark.createLoanApplication(random, RuleEngineBenchmark.createCustomer(random));
+            contexts[i] = contextFactory.createContext();
+            contextFactory.populate(contexts[i], application, application.getCustomer());
+        }
+        for (int i = 0; i < TRAINING_EVALUATIONS; i++) {
+            evaluateDecisionOnly();
+        }
+    }
+
+    @Benchmark
+    public EvaluationResult evaluateDecisionOnly() {
+        return ruleEngine.evaluate(contexts[next++ & (APPLICATION_COUNT - 1)], EvaluationMode.DECISION_ONLY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RuleOrderingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Create rules of which one in ten triggers below a loan amount most applications ask for less than,
+     * for 10 to 20 points, and the rest trigger on rare loan amounts, debt ratios or purposes, for 25 to 40 points.
+     * Rules on credit score, age and term are avoided, as those are scored from lookup tables in any order.
+     */
+    static List<ScoringRule> createSkewedRules(Random random, int count) {
+        List<ScoringRule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String field;
+            String operator;
+            String ruleValue;
+            int riskPoints;
+
+            if (i % 10 == 0) {
+                field = "loanAmount";
+                operator = "LESS_THAN";
+                ruleValue = String.valueOf(90000 + random.nextInt(9000));
+                riskPoints = 10 + random.nextInt(11);
+            } else {
+                switch (random.nextInt(3)) {
+                    case 0 -> { field = "loanAmount"; operator = "GREATER_THAN"; ruleValue = String.valueOf(99000 + random.nextInt(1000)); }
+                    case 1 -> { field = "debtToIncomeRatio"; operator = "GREATER_THAN"; ruleValue = BigDecimal.valueOf(300 + random.nextInt(100), 2).toPlainString(); }
+                    default -> { field = "loanPurpose"; operator = "CONTAINS"; ruleValue = "GAMBLING" + random.nextInt(100); }
+                }
+                riskPoints = 25 + random.nextInt(16);
+            }
+
+            rules.add(ScoringRule.builder()
+                    .id((long) i + 1)
+                    .name("Benchmark Skewed Rule " + i)
+                    .field(field)
+                    .operator(operator)
+                    .ruleValue(ruleValue)
+                    .riskPoints(riskPoints)
+                    .priority(i)
+                    .enabled(true)
+                    .build());
+        }
+        return rules;
+    }
+}
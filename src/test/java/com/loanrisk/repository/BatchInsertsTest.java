@@ -0,0 +1,70 @@
+package com.loanrisk.repository;
+
+import com.loanrisk.model.entity.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the ID reset and the one-at-a-time retry shared by the batched writers
+ */
+class BatchInsertsTest {
+
+    @Test
+    void testFailedSaveClearsTheGivenIds() {
+        CustomerRepository customerRepository = mock(CustomerRepository.class);
+        List<Customer> customers = List.of(Customer.builder().name("Jane Doe").build(), Customer.builder().name("John Doe").build());
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            customers.get(0).setId(1L);
+            customers.get(1).setId(2L);
+            throw new DataIntegrityViolationException("duplicate");
+        });
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                BatchInserts.saveAll(transactionTemplate, customerRepository, customers, customer -> customer.setId(null)));
+
+        assertNull(customers.get(0).getId());
+        assertNull(customers.get(1).getId());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneItemAtATime() {
+        List<List<String>> inserts = new ArrayList<>();
+        Map<String, RuntimeException> failures = new HashMap<>();
+
+        BatchInserts.insertOrRetryEach(List.of("a", "bad", "c"), items -> {
+            inserts.add(items);
+            if (items.contains("bad")) {
+                throw new IllegalStateException("bad row");
+            }
+        }, failures::put, "letters");
+
+        assertEquals(List.of(List.of("a", "bad", "c"), List.of("a"), List.of("bad"), List.of("c")), inserts);
+        assertEquals(List.of("bad"), List.copyOf(failures.keySet()));
+    }
+
+    @Test
+    void testFailedSingleItemIsNotRetried() {
+        List<List<String>> inserts = new ArrayList<>();
+        Map<String, RuntimeException> failures = new HashMap<>();
+
+        BatchInserts.insertOrRetryEach(List.of("bad"), items -> {
+            inserts.add(items);
+            throw new IllegalStateException("bad row");
+        }, failures::put, "letters");
+
+        assertEquals(1, inserts.size());
+        assertEquals("bad row", failures.get("bad").getMessage());
+    }
+}
@@ -0,0 +1,192 @@
+package com.loanrisk.repository;
+
+import com.loanrisk.exception.ServiceUnavailableException;
+import com.loanrisk.model.dto.LoanApplicationWriterStatsDto;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.repository.impl.GroupCommitLoanApplicationWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the batching, backpressure and failure handling of the group commit writer, with the JDBC batch replaced
+ */
+class GroupCommitLoanApplicationWriterTest {
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+    private ExecutorService executor;
+    private GroupCommitLoanApplicationWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstBatch.countDown();
+        if (writer != null) {
+            writer.stop();
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentInsertsAreCommittedInSharedBatches() throws Exception {
+        writer = createWriter(1000, 10, 20, 1000, false);
+        writer.start();
+        executor = Executors.newFixedThreadPool(20);
+
+        List<Future<LoanApplication>> inserted = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LoanApplication loanApplication = loanApplication("HOME_IMPROVEMENT");
+            inserted.add(executor.submit(() -> writer.insert(() -> loanApplication)));
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (Future<LoanApplication> future : inserted) {
+            LoanApplication loanApplication = future.get(10, TimeUnit.SECONDS);
+            assertNotNull(loanApplication.getCreatedAt());
+            ids.add(loanApplication.getId());
+        }
+        assertEquals(40, ids.size());
+
+        LoanApplicationWriterStatsDto stats = writer.getStats();
+        assertEquals(40L, (long) stats.getRowCount());
+        assertTrue(stats.getBatchCount() < 40, "inserts should share batches, got " + batchSizes);
+        assertTrue(stats.getMaxBatchSize() <= 10);
+        assertEquals((long) stats.getBatchCount(), batchSizes.size());
+        assertEquals(0, (int) stats.getQueueDepth());
+    }
+
+    @Test
+    void testFullQueueRejectsInserts() throws Exception {
+        writer = createWriter(1, 10, 0, 20, true);
+        writer.start();
+        executor = Executors.newFixedThreadPool(2);
+
+        // The first insert holds the writer, the second fills the queue
+        Future<LoanApplication> first = executor.submit(() -> writer.insert(() -> loanApplication("HOME_IMPROVEMENT")));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        Future<LoanApplication> second = executor.submit(() -> writer.insert(() -> loanApplication("CAR")));
+        waitForQueueDepth(1);
+
+        assertThrows(ServiceUnavailableException.class, () -> writer.insert(() -> loanApplication("VACATION")));
+        assertEquals(1L, (long) writer.getStats().getRejectedCount());
+
+        releaseFirstBatch.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(second.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneRowAtATime() throws Exception {
+        writer = createWriter(10, 10, 0, 1000, true);
+        writer.start();
+        executor = Executors.newFixedThreadPool(3);
+
+        // Queue both rows while the writer is held, so they are written in the same batch
+        Future<LoanApplication> first = executor.submit(() -> writer.insert(() -> loanApplication("HOME_IMPROVEMENT")));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        Future<LoanApplication> good = executor.submit(() -> writer.insert(() -> loanApplication("CAR")));
+        Future<LoanApplication> bad = executor.submit(() -> writer.insert(() -> loanApplication("FAIL")));
+        waitForQueueDepth(2);
+        releaseFirstBatch.countDown();
+
+        assertNotNull(first.get(5, TimeUnit.SECONDS).getId());
+        assertNotNull(good.get(5, TimeUnit.SECONDS).getId());
+        Exception failure = assertThrows(Exception.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalArgumentException);
+        // The held batch, then the failed batch of two, then the good row on its own
+        assertEquals(List.of(1, 2, 1, 1), batchSizes);
+        assertEquals(2L, (long) writer.getStats().getRowCount());
+    }
+
+    @Test
+    void testInsertIsRejectedWhenStopped() {
+        writer = createWriter(10, 10, 0, 1000, false);
+
+        assertThrows(ServiceUnavailableException.class, () -> writer.insert(() -> loanApplication("HOME_IMPROVEMENT")));
+    }
+
+    /**
+     * Create a writer whose JDBC batch records its size, fails on loan purpose FAIL,
+     * and optionally holds the first batch until it is released
+     */
+    private GroupCommitLoanApplicationWriter createWriter(int queueCapacity, int maxBatchSize, long maxDelayMs,
+                                                          long offerTimeoutMs, boolean holdFirstBatch) {
+        return new GroupCommitLoanApplicationWriter(null, null, queueCapacity, maxBatchSize, maxDelayMs, offerTimeoutMs) {
+            @Override
+            protected long[] insertBatch(List<LoanApplication> loanApplications) {
+                batchSizes.add(loanApplications.size());
+                if (holdFirstBatch && firstBatchStarted.getCount() > 0) {
+                    firstBatchStarted.countDown();
+                    try {
+                        releaseFirstBatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (loanApplications.stream().anyMatch(loanApplication -> "FAIL".equals(loanApplication.getLoanPurpose()))) {
+                    throw new IllegalArgumentException("Rejected by the database");
+                }
+
+                try {
+                    // Stands in for the commit latency during which the next batch builds up
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                long[] ids = new long[loanApplications.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = nextId.getAndIncrement();
+                }
+                return ids;
+            }
+        };
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.getStats().getQueueDepth() < depth) {
+            assertTrue(System.nanoTime() < deadline, "queue never reached depth " + depth);
+            Thread.sleep(1);
+        }
+    }
+
+    private static LoanApplication loanApplication(String loanPurpose) {
+        Customer customer = Customer.builder()
+                .id(1L)
+                .name("John Doe")
+                .age(35)
+                .annualIncome(new BigDecimal("75000.00"))
+                .creditScore(720)
+                .employmentStatus("EMPLOYED")
+                .existingDebt(new BigDecimal("15000.00"))
+                .build();
+        return LoanApplication.builder()
+                .customer(customer)
+                .loanAmount(new BigDecimal("25000.00"))
+                .loanPurpose(loanPurpose)
+                .requestedTermMonths(36)
+                .riskScore(20)
+                .riskLevel("LOW")
+                .decision("APPROVE")
+                .build();
+    }
+}
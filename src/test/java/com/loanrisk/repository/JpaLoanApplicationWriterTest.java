@@ -0,0 +1,72 @@
+package com.loanrisk.repository;
+
+import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.repository.impl.JpaLoanApplicationWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks that the default writer evaluates and inserts a loan application in one transaction
+ */
+@ExtendWith(MockitoExtension.class)
+class JpaLoanApplicationWriterTest {
+
+    @Mock
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @Test
+    void testEvaluationAndInsertShareOneTransaction() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        when(loanApplicationRepository.save(any(LoanApplication.class))).thenAnswer(invocation -> {
+            LoanApplication saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        JpaLoanApplicationWriter writer = new JpaLoanApplicationWriter(loanApplicationRepository, transactionManager);
+
+        LoanApplication inserted = writer.insert(() -> {
+            // The customer is read and scored after the transaction has begun
+            verify(transactionManager).getTransaction(any());
+            verify(transactionManager, never()).commit(any());
+            return LoanApplication.builder().loanAmount(new BigDecimal("25000.00")).riskScore(20).build();
+        });
+
+        assertEquals(1L, (long) inserted.getId());
+        assertEquals(1L, (long) writer.getStats().getRowCount());
+        InOrder inOrder = inOrder(transactionManager, loanApplicationRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(loanApplicationRepository).save(inserted);
+        inOrder.verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    void testFailedEvaluationRollsBackWithoutInsert() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        JpaLoanApplicationWriter writer = new JpaLoanApplicationWriter(loanApplicationRepository, transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> writer.insert(() -> {
+            throw new IllegalStateException("Customer not found");
+        }));
+
+        verify(loanApplicationRepository, never()).save(any(LoanApplication.class));
+        verify(transactionManager).rollback(transactionStatus);
+        assertEquals(0L, (long) writer.getStats().getRowCount());
+    }
+}
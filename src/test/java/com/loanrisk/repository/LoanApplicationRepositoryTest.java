@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -278,4 +279,44 @@ public class LoanApplicationRepositoryTest {
         assertThat(highRiskHighValueApplications).extracting(LoanApplication::getLoanPurpose)
                 .containsExactlyInAnyOrder("Home Renovation", "Business Loan");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRescoreInChunks() {
+        // Five applications scored by version 2 with the first rule triggered, and one with no rule triggered
+        byte[] triggeredRules = {1};
+        for (int i = 0; i < 5; i++) {
+            loanApplicationRepository.save(scoredApplication(triggeredRules));
+        }
+        LoanApplication untriggered = loanApplicationRepository.save(scoredApplication(new byte[0]));
+
+        List<Long> firstChunk = loanApplicationRepository.findIdsToRescore(2L, triggeredRules, 0L, 3L, 45, "MEDIUM",
+                "MANUAL_REVIEW", Limit.of(3));
+        assertThat(firstChunk).hasSize(3).doesNotContain(untriggered.getId());
+        assertThat(loanApplicationRepository.rescoreIdRange(2L, triggeredRules, 0L, firstChunk.get(2), 3L, new byte[]{2},
+                45, "MEDIUM", "MANUAL_REVIEW")).isEqualTo(3);
+
+        // The next chunk reads on from the last ID
+        List<Long> secondChunk = loanApplicationRepository.findIdsToRescore(2L, triggeredRules, firstChunk.get(2), 3L, 45,
+                "MEDIUM", "MANUAL_REVIEW", Limit.of(3));
+        assertThat(secondChunk).hasSize(2).doesNotContainAnyElementsOf(firstChunk);
+        assertThat(loanApplicationRepository.rescoreIdRange(2L, triggeredRules, firstChunk.get(2), secondChunk.get(1), 3L,
+                new byte[]{2}, 45, "MEDIUM", "MANUAL_REVIEW")).isEqualTo(2);
+        // Re-scored applications no longer match, so another run from the start finds nothing to do
+        assertThat(loanApplicationRepository.findIdsToRescore(2L, triggeredRules, 0L, 3L, 45, "MEDIUM",
+                "MANUAL_REVIEW", Limit.of(3))).isEmpty();
+    }
+
+    private LoanApplication scoredApplication(byte[] triggeredRules) {
+        return LoanApplication.builder()
+                .customer(customer1)
+                .loanAmount(new BigDecimal("25000.00"))
+                .loanPurpose("Home Renovation")
+                .requestedTermMonths(36)
+                .riskScore(30)
+                .riskLevel("LOW")
+                .decision("APPROVE")
+                .ruleSetVersion(2L)
+                .triggeredRules(triggeredRules)
+                .build();
+    }
+}
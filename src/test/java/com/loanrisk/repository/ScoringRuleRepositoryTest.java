@@ -208,4 +208,15 @@ public class ScoringRuleRepositoryTest {
                 .containsExactlyInAnyOrder("Low Credit Score", "High Debt-to-Income", "Unemployed Status");
         assertThat(highPriorityEnabledRules).allMatch(ScoringRule::getEnabled);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindEnabledRuleVersions() {
+        // Test the projection of the enabled rules' ids and update times
+        List<ScoringRuleRepository.RuleVersion> versions = scoringRuleRepository.findEnabledRuleVersions();
+        assertThat(versions).extracting(ScoringRuleRepository.RuleVersion::getId)
+                .containsExactlyInAnyOrderElementsOf(scoringRuleRepository.findByEnabledTrue().stream()
+                        .map(ScoringRule::getId)
+                        .toList());
+        assertThat(versions).allMatch(version -> version.getUpdatedAt() != null);
+    }
+}
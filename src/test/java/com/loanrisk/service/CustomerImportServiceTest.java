@@ -0,0 +1,148 @@
+package com.loanrisk.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loanrisk.exception.BadRequestException;
+import com.loanrisk.model.dto.CustomerImportRowResultDto;
+import com.loanrisk.model.dto.CustomerImportSummaryDto;
+import com.loanrisk.model.entity.Customer;
+import com.loanrisk.repository.CustomerBatchWriter;
+import com.loanrisk.service.impl.CustomerImportServiceImpl;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the parsing, validation and batching of customer imports, with the batch writer replaced
+ */
+public class CustomerImportServiceTest {
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<List<Customer>> batches = new ArrayList<>();
+    private final List<List<CustomerImportRowResultDto>> reports = new ArrayList<>();
+    private CustomerImportService customerImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Saves every batch, except one holding a customer named FAIL
+        CustomerBatchWriter customerBatchWriter = customers -> {
+            batches.add(List.copyOf(customers));
+            if (customers.stream().anyMatch(customer -> "FAIL".equals(customer.getName()))) {
+                throw new IllegalArgumentException("Rejected by the database");
+            }
+            List<Long> ids = new ArrayList<>();
+            for (Customer customer : customers) {
+                customer.setId(nextId.getAndIncrement());
+                ids.add(customer.getId());
+            }
+            return ids;
+        };
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        customerImportService = new CustomerImportServiceImpl(customerBatchWriter, validator, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void testImportNdjson_ReportsEveryLineInOrder() throws Exception {
+        String body = """
+                {"name":"John Doe","age":35,"annualIncome":75000.00,"creditScore":720,"employmentStatus":"EMPLOYED","existingDebt":15000.00}
+                {"name":"Jane Doe","age":15,"annualIncome":50000.00,"creditScore":650,"employmentStatus":"EMPLOYED","existingDebt":0}
+
+                {"name":"Bob Smith",
+                {"name":"Alice Brown","age":42,"annualIncome":98000.00,"creditScore":780,"employmentStatus":"SELF_EMPLOYED","existingDebt":5000.00}
+                """;
+
+        CustomerImportSummaryDto summary = customerImportService.importCustomers(
+                new StringReader(body), CustomerImportService.Format.NDJSON, reports::add);
+
+        List<CustomerImportRowResultDto> results = reports.stream().flatMap(List::stream).toList();
+        assertEquals(4, results.size());
+        assertEquals(1L, (long) results.get(0).getLine());
+        assertEquals("CREATED", results.get(0).getStatus());
+        assertEquals(1L, (long) results.get(0).getCustomerId());
+        assertEquals("INVALID", results.get(1).getStatus());
+        assertEquals(List.of("age: Age must be at least 18"), results.get(1).getErrors());
+        assertEquals(4L, (long) results.get(2).getLine());
+        assertEquals("INVALID", results.get(2).getStatus());
+        assertTrue(results.get(2).getErrors().get(0).startsWith("Malformed JSON"));
+        assertEquals(5L, (long) results.get(3).getLine());
+        assertEquals("CREATED", results.get(3).getStatus());
+        assertEquals(2L, (long) results.get(3).getCustomerId());
+
+        // Reported in batches of two lines, each saving only its valid customers
+        assertEquals(2, reports.size());
+        assertEquals(2, batches.size());
+        assertEquals("John Doe", batches.get(0).get(0).getName());
+        assertEquals("Alice Brown", batches.get(1).get(0).getName());
+
+        assertEquals(4L, (long) summary.getRowCount());
+        assertEquals(2L, (long) summary.getCreatedCount());
+        assertEquals(2L, (long) summary.getInvalidCount());
+        assertEquals(0L, (long) summary.getFailedCount());
+    }
+
+    @Test
+    void testImportCsv_ParsesHeaderAndQuotedValues() throws Exception {
+        String body = """
+                name,age,annual_income,credit_score,employment_status,existing_debt,notes
+                "Doe, John",35,75000.00,720,EMPLOYED,15000.00,"says ""hi"" twice"
+                Jane Doe,thirty,50000.00,650,EMPLOYED,0,
+                Bob Smith,50,60000.00,,RETIRED,1000.00,
+                """;
+
+        CustomerImportSummaryDto summary = customerImportService.importCustomers(
+                new StringReader(body), CustomerImportService.Format.CSV, reports::add);
+
+        List<CustomerImportRowResultDto> results = reports.stream().flatMap(List::stream).toList();
+        assertEquals(3, results.size());
+        assertEquals(2L, (long) results.get(0).getLine());
+        assertEquals("CREATED", results.get(0).getStatus());
+        assertEquals("Doe, John", batches.get(0).get(0).getName());
+        assertEquals(0, new BigDecimal("75000.00").compareTo(batches.get(0).get(0).getAnnualIncome()));
+        assertEquals("INVALID", results.get(1).getStatus());
+        assertEquals(List.of("age: 'thirty' is not a number"), results.get(1).getErrors());
+        assertEquals("INVALID", results.get(2).getStatus());
+        assertEquals(List.of("creditScore: Credit score is required"), results.get(2).getErrors());
+        assertEquals(1L, (long) summary.getCreatedCount());
+        assertEquals(2L, (long) summary.getInvalidCount());
+    }
+
+    @Test
+    void testImportCsv_MissingColumnRejectsImport() {
+        String body = """
+                name,age,annual_income,employment_status,existing_debt
+                John Doe,35,75000.00,EMPLOYED,15000.00
+                """;
+
+        assertThrows(BadRequestException.class, () -> customerImportService.importCustomers(
+                new StringReader(body), CustomerImportService.Format.CSV, reports::add));
+        assertTrue(batches.isEmpty());
+    }
+
+    @Test
+    void testImport_FailedBatchIsRetriedOneRowAtATime() throws Exception {
+        String body = """
+                {"name":"John Doe","age":35,"annualIncome":75000.00,"creditScore":720,"employmentStatus":"EMPLOYED","existingDebt":15000.00}
+                {"name":"FAIL","age":35,"annualIncome":75000.00,"creditScore":720,"employmentStatus":"EMPLOYED","existingDebt":15000.00}
+                """;
+
+        CustomerImportSummaryDto summary = customerImportService.importCustomers(
+                new StringReader(body), CustomerImportService.Format.NDJSON, reports::add);
+
+        List<CustomerImportRowResultDto> results = reports.get(0);
+        assertEquals("CREATED", results.get(0).getStatus());
+        assertEquals("FAILED", results.get(1).getStatus());
+        assertEquals(List.of("Rejected by the database"), results.get(1).getErrors());
+        // The failed batch of two, then each customer on its own
+        assertEquals(List.of(2, 1, 1), batches.stream().map(List::size).toList());
+        assertEquals(1L, (long) summary.getCreatedCount());
+        assertEquals(1L, (long) summary.getFailedCount());
+    }
+}
@@ -1,12 +1,15 @@
 package com.loanrisk.service;
 
+import com.loanrisk.engine.snapshot.RuleSetArchive;
 import com.loanrisk.exception.ResourceNotFoundException;
 import com.loanrisk.model.dto.LoanApplicationRequestDto;
 import com.loanrisk.model.dto.LoanApplicationResponseDto;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
+import com.loanrisk.model.entity.ScoringRule;
 import com.loanrisk.repository.CustomerRepository;
 import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.repository.LoanApplicationWriter;
 import com.loanrisk.service.impl.LoanApplicationServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,8 +21,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -34,6 +40,15 @@ public class LoanApplicationServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private LoanEvaluationService loanEvaluationService;
+
+    @Mock
+    private RuleSetArchive ruleSetArchive;
+
+    @Mock
+    private LoanApplicationWriter loanApplicationWriter;
+
     @InjectMocks
     private LoanApplicationServiceImpl loanApplicationService;
 
@@ -115,6 +130,58 @@ public class LoanApplicationServiceTest {
         verify(loanApplicationRepository, never()).save(any(LoanApplication.class));
     }
 
+    @Test
+    void applyForLoan_ShouldInsertScoredApplicationOnce() {
+        // Arrange
+        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(loanEvaluationService.evaluateLoanApplication(any(LoanApplication.class))).thenAnswer(invocation -> {
+            LoanApplication evaluated = invocation.getArgument(0);
+            evaluated.setRiskScore(15);
+            evaluated.setRiskLevel("LOW");
+            evaluated.setDecision("APPROVE");
+            return evaluated;
+        });
+        when(loanApplicationWriter.insert(any())).thenAnswer(invocation -> {
+            Supplier<LoanApplication> evaluation = invocation.getArgument(0);
+            LoanApplication saved = evaluation.get();
+            // Already scored by the rule engine when it is first saved
+            assertNull(saved.getId());
+            assertNotNull(saved.getRiskScore());
+            assertNotNull(saved.getDecision());
+            saved.setId(loanApplicationId);
+            return saved;
+        });
+
+        // Act
+        LoanApplicationResponseDto result = loanApplicationService.applyForLoan(loanApplicationRequestDto);
+
+        // Assert
+        assertEquals(loanApplicationId, result.getId());
+        assertEquals(customerId, result.getCustomerId());
+        assertEquals(15, result.getRiskScore());
+        assertEquals("LOW", result.getRiskLevel());
+        assertEquals("APPROVE", result.getDecision());
+        verify(loanEvaluationService, times(1)).evaluateLoanApplication(any(LoanApplication.class));
+        verify(loanApplicationWriter, times(1)).insert(any());
+        verify(loanApplicationRepository, never()).save(any(LoanApplication.class));
+        verify(loanApplicationRepository, never()).findById(any(Long.class));
+    }
+
+    @Test
+    void applyForLoan_WithInvalidCustomerId_ShouldThrowResourceNotFoundException() {
+        // Arrange
+        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        when(loanApplicationWriter.insert(any())).thenAnswer(invocation -> {
+            Supplier<LoanApplication> evaluation = invocation.getArgument(0);
+            return evaluation.get();
+        });
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> 
+            loanApplicationService.applyForLoan(loanApplicationRequestDto));
+        verify(loanEvaluationService, never()).evaluateLoanApplication(any(LoanApplication.class));
+    }
+
     @Test
     void getLoanApplicationById_WithValidId_ShouldReturnLoanApplicationResponseDto() {
         // Arrange
@@ -318,6 +385,71 @@ public class LoanApplicationServiceTest {
         assertNotNull(result.getDecision());
         assertNotNull(result.getExplanation());
         verify(loanApplicationRepository, times(1)).findById(loanApplicationId);
+        verify(loanEvaluationService, times(1)).evaluateLoanApplication(loanApplication);
         verify(loanApplicationRepository, times(1)).save(any(LoanApplication.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getLoanApplicationById_WithRuleSetVersion_ShouldRenderExplanation() {
+        // Arrange
+        loanApplication.setExplanation(null);
+        loanApplication.setRuleSetVersion(3L);
+        loanApplication.setTriggeredRules(new byte[] {1});
+        when(loanApplicationRepository.findById(loanApplicationId)).thenReturn(Optional.of(loanApplication));
+        when(loanEvaluationService.renderExplanation(loanApplication)).thenReturn("Risk factors identified");
+
+        // Act
+        LoanApplicationResponseDto result = loanApplicationService.getLoanApplicationById(loanApplicationId);
+
+        // Assert
+        assertEquals(3L, result.getRuleSetVersion());
+        assertEquals("Risk factors identified", result.getExplanation());
+    }
+
+    @Test
+    void countLoanApplicationsByTriggeredRule_ShouldSumCountsPerRuleAcrossVersions() {
+        // Arrange
+        ScoringRule lowCredit = ScoringRule.builder().id(10L).name("Low credit").build();
+        ScoringRule vacation = ScoringRule.builder().id(20L).name("Vacation loan").build();
+        ScoringRule unemployed = ScoringRule.builder().id(30L).name("Unemployed").build();
+        // Version 2 added a rule before the vacation rule, moving it to index 2
+        when(ruleSetArchive.getRules(1L)).thenReturn(List.of(lowCredit, vacation));
+        when(ruleSetArchive.getRules(2L)).thenReturn(List.of(lowCredit, unemployed, vacation));
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(
+                triggeredRuleCount(1L, 5L, 0),
+                triggeredRuleCount(1L, 2L, 0, 1),
+                triggeredRuleCount(2L, 4L, 2),
+                triggeredRuleCount(2L, 1L, 1, 2),
+                triggeredRuleCount(2L, 7L)));
+
+        // Act
+        Map<Long, Long> counts = loanApplicationService.countLoanApplicationsByTriggeredRule();
+
+        // Assert
+        assertEquals(Map.of(10L, 7L, 20L, 7L, 30L, 1L), counts);
+    }
+
+    private static LoanApplicationRepository.TriggeredRuleCount triggeredRuleCount(long ruleSetVersion, long applicationCount,
+                                                                                  int... triggeredRuleIndexes) {
+        BitSet triggered = new BitSet();
+        for (int index : triggeredRuleIndexes) {
+            triggered.set(index);
+        }
+        return new LoanApplicationRepository.TriggeredRuleCount() {
+            @Override
+            public Long getRuleSetVersion() {
+                return ruleSetVersion;
+            }
+
+            @Override
+            public byte[] getTriggeredRules() {
+                return triggered.toByteArray();
+            }
+
+            @Override
+            public Long getApplicationCount() {
+                return applicationCount;
+            }
+        };
+    }
+}
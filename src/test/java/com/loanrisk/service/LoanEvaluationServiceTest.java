@@ -1,8 +1,22 @@
 package com.loanrisk.service;
 
+import com.loanrisk.engine.EvaluationMode;
+import com.loanrisk.engine.EvaluationResult;
 import com.loanrisk.engine.RuleEngine;
 import com.loanrisk.engine.calculator.DerivedFieldCalculator;
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.context.EvaluationContext;
+import com.loanrisk.engine.context.EvaluationContextFactory;
+import com.loanrisk.engine.context.impl.DefaultEvaluationContextFactory;
 import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.EqualsEvaluator;
+import com.loanrisk.engine.evaluator.GreaterThanEvaluator;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
 import com.loanrisk.model.entity.Customer;
 import com.loanrisk.model.entity.LoanApplication;
 import com.loanrisk.model.entity.ScoringRule;
@@ -14,9 +28,11 @@ import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,16 +51,22 @@ class LoanEvaluationServiceTest {
     @Mock
     private RiskLevelDeterminer riskLevelDeterminer;
 
+    @Mock
+    private EvaluationContextFactory evaluationContextFactory;
+
     private LoanEvaluationService loanEvaluationService;
     private Customer customer;
     private LoanApplication loanApplication;
     private List<ScoringRule> triggeredRules;
     private Map<String, Object> derivedFields;
+    private EvaluationContext context;
+    private EvaluationResult evaluationResult;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        loanEvaluationService = new LoanEvaluationServiceImpl(ruleEngine, derivedFieldCalculator, riskLevelDeterminer);
+        loanEvaluationService = new LoanEvaluationServiceImpl(ruleEngine, derivedFieldCalculator, riskLevelDeterminer,
+                evaluationContextFactory);
         
         // Create test customer
         customer = Customer.builder()
@@ -96,13 +118,41 @@ class LoanEvaluationServiceTest {
         derivedFields.put("debtToIncomeRatio", new BigDecimal("0.2"));
         derivedFields.put("loanToIncomeRatio", new BigDecimal("0.33"));
         
+        // Create the evaluation context holding the same values
+        DefaultDerivedFieldCalculator realCalculator = new DefaultDerivedFieldCalculator();
+        DefaultFieldRegistry fieldRegistry = new DefaultFieldRegistry(realCalculator);
+        context = new DefaultEvaluationContextFactory(fieldRegistry, realCalculator)
+                .createContext(loanApplication, customer, derivedFields);
+        
+        // Create the engine's evaluation result, with both rules triggered
+        RuleCompiler ruleCompiler = new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(Arrays.asList(new EqualsEvaluator(), new GreaterThanEvaluator())), fieldRegistry);
+        RuleSetSnapshot snapshot = new RuleSetSnapshot(1L,
+                List.of(ruleCompiler.compile(rule1, 0), ruleCompiler.compile(rule2, 1)), List.of());
+        BitSet triggered = new BitSet();
+        triggered.set(0, 2);
+        evaluationResult = new EvaluationResult(snapshot, triggered, 15, RiskLevelDeterminer.RISK_LEVEL_LOW,
+                RiskLevelDeterminer.DECISION_APPROVE, false, result -> "Risk factors identified");
+        
         // Setup mocks
         when(derivedFieldCalculator.calculateDerivedFields(any(Customer.class), any(LoanApplication.class)))
                 .thenReturn(derivedFields);
         
+        when(evaluationContextFactory.getContext(any(LoanApplication.class), any(Customer.class)))
+                .thenReturn(context);
+        
         when(ruleEngine.evaluateRules(any(LoanApplication.class), any(Customer.class), anyMap()))
                 .thenReturn(triggeredRules);
         
+        when(ruleEngine.evaluateRules(any(EvaluationContext.class)))
+                .thenReturn(triggeredRules);
+        
+        when(ruleEngine.evaluate(any(EvaluationContext.class)))
+                .thenReturn(evaluationResult);
+        
+        when(ruleEngine.evaluate(any(EvaluationContext.class), any(EvaluationMode.class)))
+                .thenReturn(evaluationResult);
+        
         when(ruleEngine.calculateRiskScore(anyList()))
                 .thenReturn(15);
         
@@ -124,13 +174,83 @@ class LoanEvaluationServiceTest {
         assertEquals(RiskLevelDeterminer.RISK_LEVEL_LOW, result.getRiskLevel());
         assertEquals(RiskLevelDeterminer.DECISION_APPROVE, result.getDecision());
         assertNotNull(result.getExplanation());
+        assertTrue(result.getExplanation().contains("Debt To Income Ratio: 0.2"));
         
         // Verify interactions with dependencies
-        verify(derivedFieldCalculator).calculateDerivedFields(customer, loanApplication);
-        verify(ruleEngine).evaluateRules(loanApplication, customer, derivedFields);
-        verify(ruleEngine, times(2)).calculateRiskScore(triggeredRules);
-        verify(riskLevelDeterminer, times(2)).determineRiskLevel(15);
-        verify(riskLevelDeterminer, times(2)).determineDecision(RiskLevelDeterminer.RISK_LEVEL_LOW);
+        verify(evaluationContextFactory).getContext(loanApplication, customer);
+        verify(ruleEngine).evaluate(context);
+        // The engine's risk score, risk level and decision are used as they are
+        verify(ruleEngine, never()).calculateRiskScore(anyList());
+        verify(riskLevelDeterminer, never()).determineRiskLevel(anyInt());
+    }
+
+    @Test
+    void testEvaluateLoanApplicationsInBatch() {
+        when(ruleEngine.evaluateRules(anyList(), anyBoolean(), any())).thenAnswer(invocation -> {
+            List<LoanApplication> loanApplications = invocation.getArgument(0);
+            BiFunction<EvaluationContext, EvaluationResult, Object> resultFunction = invocation.getArgument(2);
+            return loanApplications.stream()
+                    .map(application -> resultFunction.apply(context, evaluationResult))
+                    .toList();
+        });
+        
+        List<LoanApplication> result = loanEvaluationService.evaluateLoanApplications(List.of(loanApplication), true);
+        
+        assertEquals(List.of(loanApplication), result);
+        assertEquals(15, loanApplication.getRiskScore());
+        assertEquals(RiskLevelDeterminer.DECISION_APPROVE, loanApplication.getDecision());
+        assertTrue(loanApplication.getExplanation().contains("Debt To Income Ratio: 0.2"));
+        
+        verify(ruleEngine).evaluateRules(eq(List.of(loanApplication)), eq(true), any());
+        verify(ruleEngine, never()).evaluateRules(any(EvaluationContext.class));
+    }
+
+    @Test
+    void testEvaluateRendersExplanationOnlyWhenAsked() {
+        EvaluationResult result = loanEvaluationService.evaluate(loanApplication);
+        
+        assertEquals(15, result.getRiskScore());
+        assertEquals(RiskLevelDeterminer.DECISION_APPROVE, result.getDecision());
+        assertEquals(triggeredRules, result.getTriggeredRules());
+        // The loan application is not updated, and no derived fields are calculated for the explanation
+        assertNull(loanApplication.getRiskScore());
+        verify(derivedFieldCalculator, never()).calculateDerivedFields(any(Customer.class), any(LoanApplication.class));
+        
+        String explanation = result.getExplanation();
+        assertTrue(explanation.contains("Debt To Income Ratio: 0.2"));
+        assertTrue(explanation.contains("Home Improvement Purpose (5 points)"));
+        assertTrue(explanation.contains("Decision: " + RiskLevelDeterminer.DECISION_APPROVE));
+        // The explanation is rendered once
+        assertSame(explanation, result.getExplanation());
+        verify(derivedFieldCalculator, times(1)).calculateDerivedFields(customer, loanApplication);
+    }
+
+    @Test
+    void testEvaluateDecisionOnlyFlagsPartialExplanation() {
+        EvaluationResult partialResult = new EvaluationResult(evaluationResult.getSnapshot(),
+                evaluationResult.getTriggeredRuleIndexes(), 15, RiskLevelDeterminer.RISK_LEVEL_LOW,
+                RiskLevelDeterminer.DECISION_APPROVE, true, result -> "Risk factors identified");
+        when(ruleEngine.evaluate(context, EvaluationMode.DECISION_ONLY)).thenReturn(partialResult);
+        
+        EvaluationResult result = loanEvaluationService.evaluate(loanApplication, EvaluationMode.DECISION_ONLY);
+        
+        assertTrue(result.isPartial());
+        assertTrue(result.getExplanation().contains(EvaluationResult.PARTIAL_EXPLANATION_NOTE));
+        verify(ruleEngine).evaluate(context, EvaluationMode.DECISION_ONLY);
+    }
+
+    @Test
+    void testEvaluateInBatchSkipsExplanations() {
+        when(ruleEngine.evaluate(anyList(), anyBoolean(), any(EvaluationMode.class)))
+                .thenReturn(List.of(evaluationResult));
+        
+        List<EvaluationResult> results = loanEvaluationService.evaluate(List.of(loanApplication), false);
+        
+        assertEquals(1, results.size());
+        assertEquals(15, results.get(0).getRiskScore());
+        assertEquals(RiskLevelDeterminer.RISK_LEVEL_LOW, results.get(0).getRiskLevel());
+        verify(derivedFieldCalculator, never()).calculateDerivedFields(any(Customer.class), any(LoanApplication.class));
+        verify(ruleEngine).evaluate(List.of(loanApplication), false, EvaluationMode.FULL);
     }
 
     @Test
@@ -141,8 +261,8 @@ class LoanEvaluationServiceTest {
         assertEquals(2, result.size());
         assertEquals(triggeredRules, result);
         
-        verify(derivedFieldCalculator).calculateDerivedFields(customer, loanApplication);
-        verify(ruleEngine).evaluateRules(loanApplication, customer, derivedFields);
+        verify(evaluationContextFactory).getContext(loanApplication, customer);
+        verify(ruleEngine).evaluateRules(context);
     }
 
     @Test
@@ -175,4 +295,37 @@ class LoanEvaluationServiceTest {
         verify(riskLevelDeterminer).determineRiskLevel(15);
         verify(riskLevelDeterminer).determineDecision(RiskLevelDeterminer.RISK_LEVEL_LOW);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEvaluateLoanApplicationStoresRuleSetVersionAndRendersExplanationOnRead() {
+        RuleSetArchive ruleSetArchive = mock(RuleSetArchive.class);
+        LoanEvaluationService archivingService = new LoanEvaluationServiceImpl(ruleEngine, derivedFieldCalculator,
+                riskLevelDeterminer, evaluationContextFactory, ruleSetArchive);
+        RuleSetSnapshot snapshot = new RuleSetSnapshot(1L, 4L, evaluationResult.getSnapshot().getCompiledRules(), List.of());
+        BitSet triggered = new BitSet();
+        triggered.set(1);
+        when(ruleEngine.evaluate(context)).thenReturn(new EvaluationResult(snapshot, triggered, 5,
+                RiskLevelDeterminer.RISK_LEVEL_LOW, RiskLevelDeterminer.DECISION_APPROVE, false, result -> "unused"));
+        when(ruleSetArchive.isStored(snapshot)).thenReturn(true);
+        when(ruleSetArchive.getRules(4L)).thenReturn(triggeredRules);
+        
+        LoanApplication result = archivingService.evaluateLoanApplication(loanApplication);
+        
+        // Only the version and a bitmap of the triggered rule indexes are stored
+        assertEquals(4L, result.getRuleSetVersion());
+        // The rule set was stored when it was published, not by the evaluation
+        verify(ruleSetArchive, never()).store(any());
+        assertArrayEquals(triggered.toByteArray(), result.getTriggeredRules());
+        assertNull(result.getExplanation());
+        assertEquals(List.of(triggeredRules.get(1)), archivingService.getStoredTriggeredRules(result));
+        
+        String explanation = archivingService.renderExplanation(result);
+        assertTrue(explanation.contains("- Home Improvement Purpose (5 points)"));
+        assertFalse(explanation.contains("High Credit Score"));
+        assertTrue(explanation.contains("Total Risk Score: 5"));
+        // Nothing is recalculated from the customer's current values
+        assertFalse(explanation.contains("Customer Information"));
+        assertFalse(explanation.contains("Derived Fields"));
+        verify(derivedFieldCalculator, never()).calculateDerivedFields(any(), any());
+    }
+}
@@ -0,0 +1,249 @@
+package com.loanrisk.service;
+
+import com.loanrisk.engine.calculator.impl.DefaultDerivedFieldCalculator;
+import com.loanrisk.engine.compiler.RuleCompiler;
+import com.loanrisk.engine.compiler.impl.DefaultRuleCompiler;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
+import com.loanrisk.engine.evaluator.EqualsEvaluator;
+import com.loanrisk.engine.evaluator.LessThanEvaluator;
+import com.loanrisk.engine.factory.impl.RuleEvaluatorFactoryImpl;
+import com.loanrisk.engine.field.impl.DefaultFieldRegistry;
+import com.loanrisk.engine.snapshot.RuleSetArchive;
+import com.loanrisk.engine.snapshot.RuleSetProvider;
+import com.loanrisk.engine.snapshot.RuleSetSnapshot;
+import com.loanrisk.exception.BusinessRuleException;
+import com.loanrisk.exception.ResourceNotFoundException;
+import com.loanrisk.model.dto.RescoringJobDto;
+import com.loanrisk.model.entity.ScoringRule;
+import com.loanrisk.repository.LoanApplicationRepository;
+import com.loanrisk.service.impl.LoanRescoringServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.loanrisk.engine.EngineFixtures.rule;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LoanRescoringServiceTest {
+
+    @Mock
+    private LoanApplicationRepository loanApplicationRepository;
+
+    @Mock
+    private RuleSetProvider ruleSetProvider;
+
+    @Mock
+    private RuleSetArchive ruleSetArchive;
+
+    // Jobs started but not run yet
+    private final List<Runnable> startedJobs = new ArrayList<>();
+    private LoanRescoringService loanRescoringService;
+    private RuleSetSnapshot snapshot;
+    private ScoringRule lowCredit;
+    private ScoringRule vacation;
+    // The arguments of each re-scoring update
+    private List<Object[]> updates;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        loanRescoringService = new LoanRescoringServiceImpl(loanApplicationRepository, ruleSetProvider, ruleSetArchive,
+                new RiskLevelDeterminer(), 2, startedJobs::add);
+        
+        // The current rule set, version 3, has raised the points of both rules
+        lowCredit = rule(1L, "creditScore", "LESS_THAN", "600", 45);
+        vacation = rule(2L, "loanPurpose", "EQUALS", "VACATION", 25);
+        RuleCompiler ruleCompiler = new DefaultRuleCompiler(
+                new RuleEvaluatorFactoryImpl(Arrays.asList(new EqualsEvaluator(), new LessThanEvaluator())),
+                new DefaultFieldRegistry(new DefaultDerivedFieldCalculator()));
+        snapshot = new RuleSetSnapshot(1L, 3L,
+                List.of(ruleCompiler.compile(lowCredit, 0), ruleCompiler.compile(vacation, 1)), List.of());
+        when(ruleSetProvider.getSnapshot()).thenReturn(snapshot);
+        when(ruleSetArchive.isStored(snapshot)).thenReturn(true);
+        when(ruleSetArchive.getRules(3L)).thenReturn(List.of(lowCredit, vacation));
+        
+        // Each combination of version and triggered rules has a single application left to re-score
+        when(loanApplicationRepository.findIdsToRescore(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(1L));
+        // Every ID in the updated range is re-scored
+        updates = new ArrayList<>();
+        when(loanApplicationRepository.rescoreIdRange(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    updates.add(invocation.getArguments());
+                    return (int) ((Long) invocation.getArgument(3) - (Long) invocation.getArgument(2));
+                });
+    }
+
+    @Test
+    void testRescoreSumsCurrentPointsOverStoredTriggeredRules() {
+        // Version 2 had the same conditions with fewer points, and listed the vacation rule first
+        when(ruleSetArchive.getRules(2L)).thenReturn(List.of(
+                rule(2L, "loanPurpose", "EQUALS", "VACATION", 10),
+                rule(1L, "creditScore", "LESS_THAN", "600", 30)));
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(
+                triggeredRuleCount(2L, 7L, 0),
+                triggeredRuleCount(2L, 3L, 0, 1)));
+        
+        RescoringJobDto result = runJob();
+        
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(3L, result.getRuleSetVersion());
+        assertEquals(1, result.getRescoredRuleSetVersions());
+        assertEquals(2L, result.getRescoredApplications());
+        assertEquals(0, result.getSkippedRuleSetVersions());
+        assertEquals(2, updates.size());
+        
+        // Vacation alone: 25 points, remapped to its index in version 3
+        assertUpdate(updates.get(0), 2L, bits(0), bits(1), 25, RiskLevelDeterminer.RISK_LEVEL_LOW,
+                RiskLevelDeterminer.DECISION_APPROVE);
+        // Both rules: 70 points, now rejected
+        assertUpdate(updates.get(1), 2L, bits(0, 1), bits(0, 1), 70, RiskLevelDeterminer.RISK_LEVEL_HIGH,
+                RiskLevelDeterminer.DECISION_REJECT);
+    }
+
+    @Test
+    void testRescoreSkipsVersionsWithChangedConditions() {
+        // Version 1 had a different credit score threshold, so its triggered rules may not hold any more
+        when(ruleSetArchive.getRules(1L)).thenReturn(List.of(
+                rule(1L, "creditScore", "LESS_THAN", "650", 45),
+                rule(2L, "loanPurpose", "EQUALS", "VACATION", 25)));
+        // Version 2 didn't have the vacation rule at all
+        when(ruleSetArchive.getRules(2L)).thenReturn(List.of(rule(1L, "creditScore", "LESS_THAN", "600", 30)));
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(
+                triggeredRuleCount(1L, 4L, 0),
+                triggeredRuleCount(1L, 2L),
+                triggeredRuleCount(2L, 5L, 0),
+                triggeredRuleCount(3L, 6L, 0)));
+        
+        RescoringJobDto result = runJob();
+        
+        assertEquals(2, result.getSkippedRuleSetVersions());
+        assertEquals(11L, result.getSkippedApplications());
+        // Applications of the current version are still re-scored, in case the thresholds changed
+        assertEquals(1, result.getRescoredRuleSetVersions());
+        assertEquals(1, updates.size());
+        assertUpdate(updates.get(0), 3L, bits(0), bits(0), 45, RiskLevelDeterminer.RISK_LEVEL_MEDIUM,
+                RiskLevelDeterminer.DECISION_MANUAL_REVIEW);
+    }
+
+    @Test
+    void testRescoreRequiresVersionedRuleSet() {
+        when(ruleSetArchive.isStored(snapshot)).thenReturn(false);
+        
+        assertThrows(BusinessRuleException.class, () -> loanRescoringService.startRescoring());
+        assertTrue(startedJobs.isEmpty());
+        verify(loanApplicationRepository, never()).countByTriggeredRules();
+    }
+
+    @Test
+    void testRescoreCommitsOneChunkAtATime() {
+        when(ruleSetArchive.getRules(2L)).thenReturn(List.of(
+                rule(1L, "creditScore", "LESS_THAN", "600", 30),
+                rule(2L, "loanPurpose", "EQUALS", "VACATION", 10)));
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(triggeredRuleCount(2L, 5L, 0)));
+        // Re-scored applications drop out, so each chunk reads the first IDs still to do
+        when(loanApplicationRepository.findIdsToRescore(any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+        
+        RescoringJobDto result = runJob();
+        
+        assertEquals(5L, result.getRescoredApplications());
+        // Each chunk updates the range from the last chunk's last ID to its own
+        assertEquals(List.of(List.of(0L, 2L), List.of(2L, 4L), List.of(4L, 5L)),
+                updates.stream().map(update -> List.of(update[2], update[3])).toList());
+        verify(loanApplicationRepository, times(3)).findIdsToRescore(any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testOnlyOneJobRunsAtATime() {
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(triggeredRuleCount(3L, 1L, 0)));
+        
+        RescoringJobDto started = loanRescoringService.startRescoring();
+        RescoringJobDto again = loanRescoringService.startRescoring();
+        
+        assertEquals("RUNNING", started.getStatus());
+        assertEquals(started.getJobId(), again.getJobId());
+        assertEquals(1, startedJobs.size());
+        
+        startedJobs.remove(0).run();
+        RescoringJobDto finished = loanRescoringService.getRescoringJob(started.getJobId());
+        assertEquals("COMPLETED", finished.getStatus());
+        assertNotNull(finished.getFinishedAt());
+        assertEquals(1L, finished.getRescoredApplications());
+        // Once it has finished, the next request starts a new job
+        assertNotEquals(started.getJobId(), loanRescoringService.startRescoring().getJobId());
+    }
+
+    @Test
+    void testFailedJobReportsItsErrorAndProgress() {
+        when(loanApplicationRepository.countByTriggeredRules()).thenReturn(List.of(
+                triggeredRuleCount(3L, 1L, 0),
+                triggeredRuleCount(3L, 1L, 1)));
+        doReturn(1).doThrow(new IllegalStateException("Connection lost"))
+                .when(loanApplicationRepository).rescoreIdRange(any(), any(), any(), any(), any(), any(), any(), any(), any());
+        
+        RescoringJobDto result = runJob();
+        
+        assertEquals("FAILED", result.getStatus());
+        assertEquals("Connection lost", result.getError());
+        assertEquals(1L, result.getRescoredApplications());
+        assertThrows(ResourceNotFoundException.class, () -> loanRescoringService.getRescoringJob(result.getJobId() + 1));
+    }
+
+    /**
+     * Start a job, run it on this thread and return its final status
+     */
+    private RescoringJobDto runJob() {
+        RescoringJobDto started = loanRescoringService.startRescoring();
+        startedJobs.remove(0).run();
+        return loanRescoringService.getRescoringJob(started.getJobId());
+    }
+
+    private static void assertUpdate(Object[] update, long ruleSetVersion, byte[] triggeredRules, byte[] newTriggeredRules,
+                                     int riskScore, String riskLevel, String decision) {
+        assertEquals(ruleSetVersion, update[0]);
+        assertArrayEquals(triggeredRules, (byte[]) update[1]);
+        assertEquals(3L, update[4]);
+        assertArrayEquals(newTriggeredRules, (byte[]) update[5]);
+        assertEquals(riskScore, update[6]);
+        assertEquals(riskLevel, update[7]);
+        assertEquals(decision, update[8]);
+    }
+
+    private static byte[] bits(int... indexes) {
+        BitSet bitSet = new BitSet();
+        for (int index : indexes) {
+            bitSet.set(index);
+        }
+        return bitSet.toByteArray();
+    }
+
+    private static LoanApplicationRepository.TriggeredRuleCount triggeredRuleCount(long ruleSetVersion, long applicationCount,
+                                                                                  int... triggeredRuleIndexes) {
+        byte[] triggeredRules = bits(triggeredRuleIndexes);
+        return new LoanApplicationRepository.TriggeredRuleCount() {
+            @Override
+            public Long getRuleSetVersion() {
+                return ruleSetVersion;
+            }
+
+            @Override
+            public byte[] getTriggeredRules() {
+                return triggeredRules;
+            }
+
+            @Override
+            public Long getApplicationCount() {
+                return applicationCount;
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package com.loanrisk.service;
 
+import com.loanrisk.engine.EvaluationResult;
+import com.loanrisk.engine.determiner.RiskLevelDeterminer;
 import com.loanrisk.exception.ResourceNotFoundException;
 import com.loanrisk.model.dto.ScoringRuleResponseDto;
 import com.loanrisk.model.entity.Customer;
@@ -17,6 +19,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +33,9 @@ public class ScoringRuleServiceTest {
     @Mock
     private ScoringRuleRepository scoringRuleRepository;
 
+    @Mock
+    private LoanEvaluationService loanEvaluationService;
+
     @InjectMocks
     private ScoringRuleServiceImpl scoringRuleService;
 
@@ -277,26 +283,27 @@ public class ScoringRuleServiceTest {
     }
 
     @Test
-    void applyRules_ShouldReturnTotalRiskScore() {
+    void applyRules_ShouldReturnRuleEngineRiskScore() {
         // Arrange
-        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
-            .thenReturn(Arrays.asList(scoringRule1, scoringRule2));
+        BitSet triggered = new BitSet();
+        triggered.set(0, 2);
+        when(loanEvaluationService.evaluate(loanApplication)).thenReturn(new EvaluationResult(null, triggered, 55,
+                RiskLevelDeterminer.RISK_LEVEL_MEDIUM, RiskLevelDeterminer.DECISION_MANUAL_REVIEW, false, result -> null));
 
         // Act
         Integer result = scoringRuleService.applyRules(loanApplication);
 
         // Assert
-        assertNotNull(result);
-        // Both rules should apply: creditScore < 650 and debtToIncomeRatio > 0.4
-        // So total risk score should be 30 + 25 = 55
+        // Both rules apply: creditScore < 650 and debtToIncomeRatio > 0.4, so 30 + 25 = 55
         assertEquals(55, result);
-        verify(scoringRuleRepository, times(1)).findByEnabledTrueOrderByPriorityAsc();
+        verify(loanEvaluationService, times(1)).evaluate(loanApplication);
+        verify(scoringRuleRepository, never()).findByEnabledTrueOrderByPriorityAsc();
     }
 
     @Test
-    void getApplicableRules_ShouldReturnMatchingRules() {
+    void getApplicableRules_ShouldReturnRuleEngineTriggeredRules() {
         // Arrange
-        when(scoringRuleRepository.findByEnabledTrueOrderByPriorityAsc())
+        when(loanEvaluationService.getTriggeredRules(loanApplication))
             .thenReturn(Arrays.asList(scoringRule1, scoringRule2));
 
         // Act
@@ -307,6 +314,7 @@ public class ScoringRuleServiceTest {
         assertEquals(2, result.size());
         assertEquals(ruleId1, result.get(0).getId());
         assertEquals(ruleId2, result.get(1).getId());
-        verify(scoringRuleRepository, times(1)).findByEnabledTrueOrderByPriorityAsc();
+        verify(loanEvaluationService, times(1)).getTriggeredRules(loanApplication);
+        verify(scoringRuleRepository, never()).findByEnabledTrueOrderByPriorityAsc();
     }
 }
\ No newline at end of file